@@ -0,0 +1,47 @@
+#!/usr/bin/env bash
+# Fast-start packaging: Spring AOT + an AppCDS archive over the exploded jar.
+#
+#   scripts/fast-start.sh build   # mvn -Pfast-start package, explode, training run -> target/fast-start/app.jsa
+#   scripts/fast-start.sh run     # start from target/fast-start with AOT and the archive
+#
+# The training run refreshes the full context (Flyway, Hibernate validate), so PostgreSQL from
+# infra/docker must be reachable. Extra JVM/app arguments after the command are passed through.
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+OUT=target/fast-start
+MAIN=com.akfinance.api.AkFinanceApplication
+
+classpath() {
+    # classpath.idx keeps Boot's library order; CDS needs the same classpath at dump and run time
+    echo -n "BOOT-INF/classes"
+    sed -n 's/^- "\(.*\)"$/:\1/p' BOOT-INF/classpath.idx | tr -d '\n'
+}
+
+build() {
+    mvn -B -q -Pfast-start -DskipTests package
+    rm -rf "$OUT"
+    mkdir -p "$OUT"
+    (cd "$OUT" && jar -xf ../api-*.jar)
+    (cd "$OUT" && java -XX:ArchiveClassesAtExit=app.jsa \
+        -Dspring.aot.enabled=true \
+        -Dspring.context.exit=onRefresh \
+        -cp "$(classpath)" "$MAIN" "$@")
+    echo "CDS archive: $OUT/app.jsa"
+}
+
+run() {
+    [ -f "$OUT/app.jsa" ] || { echo "Run '$0 build' first" >&2; exit 1; }
+    cd "$OUT"
+    exec java -XX:SharedArchiveFile=app.jsa -Xshare:auto \
+        -Dspring.aot.enabled=true \
+        -cp "$(classpath)" "$MAIN" "$@"
+}
+
+cmd="${1:-}"
+shift || true
+case "$cmd" in
+    build) build "$@" ;;
+    run) run "$@" ;;
+    *) echo "Usage: $0 build|run [args...]" >&2; exit 2 ;;
+esac
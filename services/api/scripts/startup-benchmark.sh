@@ -0,0 +1,83 @@
+#!/usr/bin/env bash
+# Time-to-first-healthy-request and RSS per startup mode.
+#
+#   scripts/startup-benchmark.sh [runs]   # default 5 runs per mode
+#
+# Modes: jar (plain java -jar), aot (exploded + AOT), aot-cds (exploded + AOT + AppCDS) and
+# native (target/api, if built with 'mvn -Pnative native:compile'). Build the jar modes first
+# with 'scripts/fast-start.sh build'. PostgreSQL from infra/docker must be running.
+# Time is measured from process launch until /actuator/health first answers UP; RSS is read
+# right after that, before any traffic.
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+RUNS="${1:-5}"
+PORT="${PORT:-8090}"
+OUT=target/fast-start
+MAIN=com.akfinance.api.AkFinanceApplication
+HEALTH="http://localhost:$PORT/actuator/health"
+
+# Relative to $OUT, which is where the exploded modes run from
+classpath_in_out() {
+    echo -n "BOOT-INF/classes"
+    sed -n 's/^- "\(.*\)"$/:\1/p' BOOT-INF/classpath.idx | tr -d '\n'
+}
+
+now_ms() {
+    date +%s%3N
+}
+
+rss_kb() {
+    if [ -r "/proc/$1/status" ]; then
+        awk '/^VmRSS:/ { print $2 }' "/proc/$1/status"
+    else
+        ps -o rss= -p "$1" | tr -d ' '
+    fi
+}
+
+# Prints "<ms> <rss_kb>" for one launch of the given command
+measure() {
+    local start pid elapsed rss
+    start=$(now_ms)
+    "$@" --server.port="$PORT" >/dev/null 2>&1 &
+    pid=$!
+    until curl -fs "$HEALTH" 2>/dev/null | grep -q '"UP"'; do
+        if ! kill -0 "$pid" 2>/dev/null; then
+            echo "process exited before becoming healthy: $*" >&2
+            return 1
+        fi
+        sleep 0.05
+    done
+    elapsed=$(( $(now_ms) - start ))
+    rss=$(rss_kb "$pid")
+    kill "$pid"
+    wait "$pid" 2>/dev/null || true
+    echo "$elapsed $rss"
+}
+
+# Each runs in the background subshell started by measure, so exec makes $! the JVM's pid
+run_jar() { exec java -jar target/api-*.jar "$@"; }
+run_aot() { cd "$OUT" && exec java -Dspring.aot.enabled=true -cp "$(classpath_in_out)" "$MAIN" "$@"; }
+run_aot_cds() {
+    cd "$OUT" && exec java -XX:SharedArchiveFile=app.jsa -Xshare:auto -Dspring.aot.enabled=true \
+        -cp "$(classpath_in_out)" "$MAIN" "$@"
+}
+run_native() { exec target/api "$@"; }
+
+modes=(jar aot aot-cds)
+[ -x target/api ] && modes+=(native)
+
+printf "%-8s %12s %12s %12s\n" mode "median ms" "best ms" "median RSS MB"
+for mode in "${modes[@]}"; do
+    times=()
+    rsses=()
+    for _ in $(seq "$RUNS"); do
+        read -r ms rss < <(measure "run_${mode//-/_}")
+        times+=("$ms")
+        rsses+=("$rss")
+    done
+    median_ms=$(printf "%s\n" "${times[@]}" | sort -n | awk '{ a[NR] = $1 } END { print a[int((NR + 1) / 2)] }')
+    best_ms=$(printf "%s\n" "${times[@]}" | sort -n | head -1)
+    median_rss=$(printf "%s\n" "${rsses[@]}" | sort -n | awk '{ a[NR] = $1 } END { printf "%.0f", a[int((NR + 1) / 2)] / 1024 }')
+    printf "%-8s %12s %12s %12s\n" "$mode" "$median_ms" "$best_ms" "$median_rss"
+done
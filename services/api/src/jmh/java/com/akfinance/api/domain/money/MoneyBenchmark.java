@@ -0,0 +1,109 @@
+package com.akfinance.api.domain.money;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The aggregation and budget-progress paths with BigDecimal, as they were, against minor-unit
+ * longs and {@link Money}. Run with {@code -prof gc} to compare allocation per operation too.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoneyBenchmark {
+
+    private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+
+    @Param({ "1000", "100000" })
+    int rows;
+
+    BigDecimal[] decimals;
+    long[] minors;
+    BigDecimal[] decimalLimits;
+    Money[] limits;
+    Money[] spent;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        decimals = new BigDecimal[rows];
+        minors = new long[rows];
+        decimalLimits = new BigDecimal[rows];
+        limits = new Money[rows];
+        spent = new Money[rows];
+        for (int i = 0; i < rows; i++) {
+            long amount = random.nextLong(1, 5_000_000);
+            long limit = random.nextLong(1, 10_000_000);
+            decimals[i] = BigDecimal.valueOf(amount, 2);
+            minors[i] = amount;
+            decimalLimits[i] = BigDecimal.valueOf(limit, 2);
+            limits[i] = Money.ofMinor(limit, "RUB");
+            spent[i] = Money.ofMinor(amount, "RUB");
+        }
+    }
+
+    @Benchmark
+    public BigDecimal sumBigDecimal() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (BigDecimal amount : decimals) {
+            total = total.add(amount);
+        }
+        return total;
+    }
+
+    @Benchmark
+    public long sumMinor() {
+        long total = 0;
+        for (long amount : minors) {
+            total = Math.addExact(total, amount);
+        }
+        return total;
+    }
+
+    @Benchmark
+    public void progressBigDecimal(Blackhole bh) {
+        for (int i = 0; i < rows; i++) {
+            bh.consume(decimals[i].divide(decimalLimits[i], 4, RoundingMode.HALF_UP).doubleValue() * 100);
+        }
+    }
+
+    @Benchmark
+    public void progressMoney(Blackhole bh) {
+        for (int i = 0; i < rows; i++) {
+            bh.consume(spent[i].percentOf(limits[i]));
+        }
+    }
+
+    @Benchmark
+    public void thresholdBigDecimal(Blackhole bh) {
+        BigDecimal eighty = BigDecimal.valueOf(80);
+        for (int i = 0; i < rows; i++) {
+            bh.consume(decimals[i].multiply(HUNDRED).compareTo(decimalLimits[i].multiply(eighty)) >= 0);
+        }
+    }
+
+    @Benchmark
+    public void thresholdMoney(Blackhole bh) {
+        for (int i = 0; i < rows; i++) {
+            bh.consume(spent[i].reaches(limits[i], 80));
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.akfinance.api.service;
+
+import com.akfinance.api.AkFinanceApplication;
+import com.akfinance.api.domain.entity.User;
+import com.akfinance.api.domain.enums.TransactionType;
+import com.akfinance.api.dto.transaction.TransactionRequest;
+import com.akfinance.api.repository.UserRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Committed transactions per second: one transaction per row, as POST /transactions does, against
+ * the group commit the ingestion writer runs for a full batch. Starts the whole context against
+ * the database from {@code infra/docker} and leaves no rows behind.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class IngestionBenchmark {
+
+    private static final int BATCH_SIZE = 500;
+
+    ConfigurableApplicationContext context;
+    TransactionService transactionService;
+    UserRepository userRepository;
+    UUID userId;
+    TransactionRequest request;
+    List<TransactionService.BatchItem> batch;
+
+    @Setup
+    public void setUp() {
+        context = SpringApplication.run(AkFinanceApplication.class,
+                "--server.port=0");
+        transactionService = context.getBean(TransactionService.class);
+        userRepository = context.getBean(UserRepository.class);
+        userId = userRepository.save(User.builder()
+                .email("ingest-bench-" + UUID.randomUUID() + "@example.com")
+                .passwordHash("-")
+                .build()).getId();
+
+        request = new TransactionRequest();
+        request.setType(TransactionType.EXPENSE);
+        request.setAmount(new BigDecimal("12.34"));
+        request.setCurrency("RUB");
+        request.setOccurredAt(Instant.now());
+        batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            batch.add(new TransactionService.BatchItem(userId, request));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        userRepository.deleteById(userId);
+        context.close();
+    }
+
+    @Benchmark
+    public Object singleCreate() {
+        return transactionService.createTransaction(userId, request);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public Object batchCommit() {
+        return transactionService.createTransactions(batch);
+    }
+}
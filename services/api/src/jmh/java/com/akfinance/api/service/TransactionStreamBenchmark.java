@@ -0,0 +1,151 @@
+package com.akfinance.api.service;
+
+import com.akfinance.api.domain.enums.CategoryType;
+import com.akfinance.api.domain.enums.CountMode;
+import com.akfinance.api.domain.enums.TransactionType;
+import com.akfinance.api.dto.common.PageResponse;
+import com.akfinance.api.dto.transaction.TransactionResponse;
+import com.akfinance.api.repository.TransactionRepositoryCustom.TransactionRow;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.cfg.MapperBuilder;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serializing a transaction page from query rows: through {@link TransactionResponse} DTOs and
+ * the {@link ObjectMapper}, as GET /transactions does, against the {@code JsonGenerator} path of
+ * /transactions/stream. The database is left out. Run with {@code -prof gc} for bytes allocated per
+ * op; the encoded size of a page on each path is printed before the first warmup iteration.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransactionStreamBenchmark {
+
+    @Param({ "100", "1000" })
+    int rows;
+
+    @Param({ "application/json", "application/cbor", "application/x-jackson-smile" })
+    String format;
+
+    List<TransactionRow> content;
+    PageResponse<TransactionRow> page;
+    MediaType mediaType;
+    ObjectMapper mapper;
+    TransactionStreamService streamService;
+    Discard out = new Discard();
+
+    @Setup
+    public void setUp() throws IOException {
+        SplittableRandom random = new SplittableRandom(42);
+        List<UUID> categories = List.of(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID());
+        Instant now = Instant.now();
+        content = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            UUID categoryId = i % 5 == 0 ? null : categories.get(random.nextInt(categories.size()));
+            content.add(new TransactionRow(UUID.randomUUID(), TransactionType.EXPENSE,
+                    BigDecimal.valueOf(random.nextLong(1, 5_000_000), 2), "RUB", now.minusSeconds(i * 3600L),
+                    i % 3 == 0 ? "Coffee" : null, null, null, now, now,
+                    categoryId, categoryId != null ? "Food" : null, categoryId != null ? CategoryType.EXPENSE : null,
+                    categoryId != null ? "utensils" : null, categoryId != null ? "#ff9900" : null, null, null));
+        }
+        page = PageResponse.<TransactionRow>builder()
+                .content(content)
+                .number(0)
+                .size(rows)
+                .numberOfElements(rows)
+                .first(true)
+                .last(false)
+                .hasNext(true)
+                .countMode(CountMode.NONE)
+                .build();
+
+        // The same settings as spring.jackson in application.yml
+        mediaType = MediaType.parseMediaType(format);
+        JsonMapper json = configure(JsonMapper.builder());
+        if (MediaType.APPLICATION_CBOR.equalsTypeAndSubtype(mediaType))
+            mapper = configure(CBORMapper.builder());
+        else if (TransactionStreamService.APPLICATION_SMILE.equalsTypeAndSubtype(mediaType))
+            mapper = configure(SmileMapper.builder());
+        else
+            mapper = json;
+        streamService = new TransactionStreamService(null, null, null, null, json);
+
+        dto();
+        long dtoBytes = out.bytes;
+        stream();
+        System.out.printf("%s, %d rows: %d bytes per page via dto, %d via stream%n",
+                format, rows, dtoBytes, out.bytes - dtoBytes);
+    }
+
+    private static <M extends ObjectMapper, B extends MapperBuilder<M, B>> M configure(B builder) {
+        return builder.findAndAddModules()
+                .serializationInclusion(JsonInclude.Include.NON_NULL)
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+    }
+
+    @Benchmark
+    public void dto() throws IOException {
+        List<TransactionResponse> responses = content.stream().map(TransactionService::toResponse).toList();
+        mapper.writeValue(out, PageResponse.<TransactionResponse>builder()
+                .content(responses)
+                .number(page.getNumber())
+                .size(page.getSize())
+                .numberOfElements(page.getNumberOfElements())
+                .first(page.isFirst())
+                .last(page.isLast())
+                .hasNext(page.isHasNext())
+                .countMode(page.getCountMode())
+                .build());
+    }
+
+    @Benchmark
+    public void stream() throws IOException {
+        streamService.writeBody(out, mediaType, content, page, false);
+    }
+
+    // Both paths close the stream, and the JDK's null stream rejects writes once closed
+    static final class Discard extends OutputStream {
+
+        long bytes;
+
+        @Override
+        public void write(int b) {
+            bytes++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            bytes += len;
+        }
+    }
+}
@@ -2,8 +2,10 @@ package com.akfinance.api;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class AkFinanceApplication {
     public static void main(String[] args) {
         SpringApplication.run(AkFinanceApplication.class, args);
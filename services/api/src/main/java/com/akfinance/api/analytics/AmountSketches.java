@@ -0,0 +1,49 @@
+package com.akfinance.api.analytics;
+
+import com.tdunning.math.stats.MergingDigest;
+import com.tdunning.math.stats.TDigest;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.Collection;
+
+/**
+ * t-digest helpers for the {@code amount_sketches} blobs. Compression 100 keeps a sketch under
+ * about 2 KB however many values it holds, with quantile error well under 1% at the tails; months
+ * with few transactions keep every value and are exact.
+ */
+public final class AmountSketches {
+
+    private static final double COMPRESSION = 100;
+
+    private AmountSketches() {
+    }
+
+    public static TDigest empty() {
+        return new MergingDigest(COMPRESSION);
+    }
+
+    public static TDigest of(Collection<BigDecimal> amounts) {
+        TDigest sketch = empty();
+        amounts.forEach(amount -> sketch.add(amount.doubleValue()));
+        return sketch;
+    }
+
+    // A NULL column is the empty sketch
+    public static TDigest fromBytes(byte[] bytes) {
+        return bytes == null ? empty() : MergingDigest.fromBytes(ByteBuffer.wrap(bytes));
+    }
+
+    public static byte[] toBytes(TDigest sketch) {
+        sketch.compress();
+        ByteBuffer buffer = ByteBuffer.allocate(sketch.smallByteSize());
+        sketch.asSmallBytes(buffer);
+        return buffer.array();
+    }
+
+    public static TDigest merge(TDigest into, TDigest other) {
+        if (other.size() > 0)
+            into.add(other);
+        return into;
+    }
+}
@@ -0,0 +1,340 @@
+package com.akfinance.api.analytics;
+
+import com.akfinance.api.domain.entity.Transaction;
+import com.akfinance.api.domain.enums.TransactionType;
+import com.akfinance.api.domain.money.Money;
+import com.akfinance.api.repository.SyncChangeRepository;
+import com.akfinance.api.repository.SyncChangeRepository.SyncState;
+import com.akfinance.api.repository.TransactionRepositoryCustom.AffectedRow;
+import com.akfinance.api.service.SyncLog;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Optional in-process copy of active users' transactions in {@link UserColumns}, used by the
+ * dashboard and analytics instead of SQL aggregates. A user is loaded on first read, kept in step
+ * by the write path after commit, and evicted least-recently-used once the estimated size of all
+ * loaded users exceeds {@code app.analytics.columnar.max-memory-mb}.
+ * <p>
+ * Every write bumps the user's {@code sync_state.seq}, on whichever instance it ran. A copy is
+ * stamped with the sequence it reflects; a read that finds the sequence moved on advances the stamp
+ * if {@code sync_changes} shows no transaction write in between, and reloads otherwise. A local write
+ * applies its own changes and advances the stamp the same way. Readers whose writes are all in an
+ * in-flight load wait for it rather than loading again.
+ */
+@Slf4j
+@Component
+public class TransactionColumnStore {
+
+    // Full history, archive included; one statement, so a concurrent archive move is seen whole or not at all
+    private static final String LOAD_SQL = """
+            SELECT id, type, amount, occurred_at, category_id FROM transactions WHERE user_id = ?
+            UNION ALL
+            SELECT id, type, amount, occurred_at, category_id FROM transactions_archive WHERE user_id = ?
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SyncChangeRepository syncChangeRepository;
+    private final SyncLog syncLog;
+    private final Counter loads;
+
+    @Value("${app.analytics.columnar.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.analytics.columnar.max-memory-mb:256}")
+    private long maxMemoryMb;
+
+    // Access-ordered for LRU; every access goes through synchronized (users)
+    private final Map<UUID, UserColumns> users = new LinkedHashMap<>(16, 0.75f, true);
+    private long usedBytes;
+
+    public TransactionColumnStore(JdbcTemplate jdbcTemplate, SyncChangeRepository syncChangeRepository,
+            SyncLog syncLog, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.syncChangeRepository = syncChangeRepository;
+        this.syncLog = syncLog;
+        this.loads = meterRegistry.counter("analytics.columnar.loads");
+        meterRegistry.gauge("analytics.columnar.bytes", this, store -> store.usedBytes);
+        meterRegistry.gauge("analytics.columnar.users", users, Map::size);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Days are [from, to) in UTC
+    public MonthTotals monthTotals(UUID userId, LocalDate from, LocalDate to) {
+        int fromDay = (int) from.toEpochDay();
+        int toDay = (int) to.toEpochDay();
+        return read(userId, columns -> columns.totals(fromDay, toDay));
+    }
+
+    public SeriesTotals series(UUID userId, int[] bucketBounds, UUID categoryId, boolean byCategory) {
+        return read(userId, columns -> columns.series(bucketBounds, categoryId, byCategory));
+    }
+
+    // Applied after commit; on rollback the loaded columns never saw the change
+    public void recordChanges(UUID userId, List<Change> changes) {
+        if (!enabled || changes.isEmpty())
+            return;
+        afterCommit(() -> apply(userId, changes, syncLog.committedRange(userId).orElse(null)));
+    }
+
+    // For writes the columns can't follow row by row, e.g. a category delete nulling its transactions
+    public void invalidate(UUID userId) {
+        if (!enabled)
+            return;
+        afterCommit(() -> {
+            synchronized (users) {
+                UserColumns columns = users.get(userId);
+                if (columns == null)
+                    return;
+                if (columns.loading) {
+                    columns.stale = true;
+                    return;
+                }
+                users.remove(userId);
+                usedBytes -= columns.accountedBytes;
+            }
+        });
+    }
+
+    private <T> T read(UUID userId, Function<UserColumns, T> query) {
+        // Read before loading: a load that sees later writes only makes the stamp conservative
+        long seq = syncChangeRepository.findState(userId).map(SyncState::seq).orElse(0L);
+        UserColumns placeholder = new UserColumns(true);
+        placeholder.seq = seq;
+        UserColumns columns = putIfAbsent(userId, placeholder);
+        if (columns != null && !columns.loading) {
+            if (current(userId, columns, seq))
+                return columns.read(query);
+            drop(userId, columns);
+            columns = putIfAbsent(userId, placeholder);
+        }
+        if (columns == null) {
+            UserColumns loaded = null;
+            try {
+                loaded = load(userId, seq);
+                publish(userId, placeholder, loaded);
+            } finally {
+                if (loaded == null)
+                    drop(userId, placeholder);
+                placeholder.loaded(loaded);
+            }
+            return loaded.read(query);
+        }
+        // A load whose stamp covers this reader's writes started after they committed, so its
+        // snapshot has them even if it's never published; null means it failed
+        if (columns.loading && columns.seq >= seq) {
+            UserColumns loaded = columns.awaitLoaded();
+            if (loaded != null)
+                return loaded.read(query);
+        }
+        // An older load, or a copy another reader published after the drop: answer from a private one
+        return load(userId, seq).read(query);
+    }
+
+    private UserColumns putIfAbsent(UUID userId, UserColumns placeholder) {
+        synchronized (users) {
+            return users.putIfAbsent(userId, placeholder);
+        }
+    }
+
+    // Catches the stamp up to seq when nothing in between touched transactions, e.g. a budget or
+    // preference write, or a write on another instance that the columns don't need
+    private boolean current(UUID userId, UserColumns columns, long seq) {
+        long stamp;
+        synchronized (users) {
+            if (users.get(userId) != columns)
+                return false;
+            stamp = columns.seq;
+        }
+        if (stamp >= seq)
+            return true;
+        if (syncChangeRepository.transactionsChanged(userId, stamp, seq))
+            return false;
+        synchronized (users) {
+            if (users.get(userId) != columns)
+                return false;
+            columns.seq = Math.max(columns.seq, seq);
+        }
+        return true;
+    }
+
+    private void drop(UUID userId, UserColumns columns) {
+        synchronized (users) {
+            if (users.remove(userId, columns))
+                usedBytes -= columns.accountedBytes;
+        }
+    }
+
+    private UserColumns load(UUID userId, long seq) {
+        UserColumns columns = new UserColumns(false);
+        columns.seq = seq;
+        jdbcTemplate.query(LOAD_SQL, rs -> {
+            columns.append(rs.getObject("id", UUID.class),
+                    TransactionType.valueOf(rs.getString("type")),
+                    Money.toMinor(rs.getBigDecimal("amount")),
+                    epochDay(rs.getObject("occurred_at", OffsetDateTime.class).toInstant()),
+                    rs.getObject("category_id", UUID.class));
+        }, userId, userId);
+        loads.increment();
+        return columns;
+    }
+
+    // A write that landed while loading may or may not be in the snapshot, so the load is not kept
+    private void publish(UUID userId, UserColumns placeholder, UserColumns loaded) {
+        long maxBytes = maxMemoryMb * 1024 * 1024;
+        synchronized (users) {
+            if (users.get(userId) != placeholder)
+                return;
+            if (placeholder.stale || loaded.bytes() > maxBytes) {
+                users.remove(userId);
+                return;
+            }
+            users.put(userId, loaded);
+            loaded.accountedBytes = loaded.bytes();
+            usedBytes += loaded.accountedBytes;
+            evictOverBudget(loaded, maxBytes);
+        }
+    }
+
+    // Writes numbered between the stamp and this one's range, maybe on another instance, are skipped
+    // over unless they touched transactions; then the copy is dropped and the next read reloads it
+    private void apply(UUID userId, List<Change> changes, SyncLog.Range range) {
+        UserColumns columns;
+        long stamp;
+        synchronized (users) {
+            columns = users.get(userId);
+            if (columns == null)
+                return;
+            if (columns.loading) {
+                columns.stale = true;
+                return;
+            }
+            stamp = columns.seq;
+        }
+        if (range == null || stamp >= range.first() || stamp < range.first() - 1
+                && syncChangeRepository.transactionsChanged(userId, stamp, range.first() - 1)) {
+            drop(userId, columns);
+            return;
+        }
+        try {
+            columns.apply(changes);
+        } catch (IllegalStateException e) {
+            log.warn("Dropping columnar copy of user {}: {}", userId, e.getMessage());
+            drop(userId, columns);
+            return;
+        }
+        synchronized (users) {
+            if (users.get(userId) != columns)
+                return;
+            columns.seq = Math.max(columns.seq, range.last());
+            long bytes = columns.bytes();
+            usedBytes += bytes - columns.accountedBytes;
+            columns.accountedBytes = bytes;
+            evictOverBudget(columns, maxMemoryMb * 1024 * 1024);
+        }
+    }
+
+    // Caller holds the map lock; eldest first, never the entry that was just touched
+    private void evictOverBudget(UserColumns keep, long maxBytes) {
+        Iterator<UserColumns> it = users.values().iterator();
+        while (usedBytes > maxBytes && it.hasNext()) {
+            UserColumns columns = it.next();
+            if (columns == keep || columns.loading)
+                continue;
+            usedBytes -= columns.accountedBytes;
+            it.remove();
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    static int epochDay(Instant instant) {
+        return (int) Math.floorDiv(instant.getEpochSecond(), 86_400L);
+    }
+
+    public record Change(UUID id, boolean deleted, TransactionType type, long amountMinor, int epochDay,
+            UUID categoryId) {
+
+        static final Comparator<Change> ID_ORDER = Comparator
+                .<Change>comparingLong(c -> c.id().getMostSignificantBits())
+                .thenComparingLong(c -> c.id().getLeastSignificantBits());
+
+        public static Change upsert(Transaction tx) {
+            return new Change(tx.getId(), false, tx.getType(), Money.toMinor(tx.getAmount()),
+                    epochDay(tx.getOccurredAt()), tx.getCategory() != null ? tx.getCategory().getId() : null);
+        }
+
+        public static Change upsert(AffectedRow row) {
+            return new Change(row.id(), false, row.type(), Money.toMinor(row.amount()),
+                    epochDay(row.occurredAt()), row.categoryId());
+        }
+
+        public static Change delete(UUID id) {
+            return new Change(id, true, null, 0, 0, null);
+        }
+    }
+
+    // Index 0 of categories / expenseByCategory is "no category"
+    public record MonthTotals(long incomeMinor, long expenseMinor, List<UUID> categories, long[] expenseByCategory) {
+
+        public BigDecimal income() {
+            return Money.toBigDecimal(incomeMinor);
+        }
+
+        public BigDecimal expense() {
+            return Money.toBigDecimal(expenseMinor);
+        }
+
+        public BigDecimal expense(int category) {
+            return Money.toBigDecimal(expenseByCategory[category]);
+        }
+    }
+
+    // Sums laid out as [bucket][category column][income, expense]; one column unless split by category
+    public record SeriesTotals(int buckets, int width, List<UUID> categories, long[] sums) {
+
+        public long incomeMinor(int bucket, int column) {
+            return sums[(bucket * width + column) * 2];
+        }
+
+        public long expenseMinor(int bucket, int column) {
+            return sums[(bucket * width + column) * 2 + 1];
+        }
+
+        public UUID category(int column) {
+            return column == UserColumns.NO_CATEGORY ? null : categories.get(column);
+        }
+    }
+}
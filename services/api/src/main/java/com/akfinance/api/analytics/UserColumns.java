@@ -0,0 +1,232 @@
+package com.akfinance.api.analytics;
+
+import com.akfinance.api.domain.enums.TransactionType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * One user's transactions as parallel primitive columns: id, amount in minor units, UTC epoch day,
+ * type and category codes. A delete moves the last row into the hole, so scans never see gaps.
+ * Category code 0 means "no category"; codes are never reused until the user is reloaded.
+ */
+final class UserColumns {
+
+    static final short NO_CATEGORY = 0;
+    static final short INCOME = (short) TransactionType.INCOME.ordinal();
+    static final short EXPENSE = (short) TransactionType.EXPENSE.ordinal();
+
+    // id (2 x long) + amount + day + type + category
+    private static final int BYTES_PER_ROW = 8 + 8 + 8 + 4 + 2 + 2;
+    private static final int BYTES_PER_CATEGORY = 96;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final List<UUID> categories = new ArrayList<>(List.of(new UUID(0, 0)));
+    private final Map<UUID, Short> codes = new HashMap<>();
+
+    private long[] idHigh = new long[16];
+    private long[] idLow = new long[16];
+    private long[] amount = new long[16];
+    private int[] day = new int[16];
+    private short[] type = new short[16];
+    private short[] category = new short[16];
+    private int size;
+    private volatile int capacity = 16;
+
+    // Placeholder state while the first load is running; guarded by the store's map lock
+    final boolean loading;
+    boolean stale;
+    // Placeholders only: the loaded copy for readers that wait for it, null if the load failed
+    private final CompletableFuture<UserColumns> loaded;
+    long accountedBytes;
+    // The user's sync_state.seq these columns are known to reflect; guarded by the store's map lock
+    long seq;
+
+    UserColumns(boolean loading) {
+        this.loading = loading;
+        this.loaded = loading ? new CompletableFuture<>() : null;
+    }
+
+    UserColumns awaitLoaded() {
+        return loaded.join();
+    }
+
+    void loaded(UserColumns columns) {
+        loaded.complete(columns);
+    }
+
+    long bytes() {
+        return (long) capacity * BYTES_PER_ROW + (long) categories.size() * BYTES_PER_CATEGORY;
+    }
+
+    <T> T read(Function<UserColumns, T> query) {
+        lock.readLock().lock();
+        try {
+            return query.apply(this);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Loader only, before the columns are published
+    void append(UUID id, TransactionType txType, long minor, int epochDay, UUID categoryId) {
+        if (size == capacity)
+            grow();
+        set(size++, id.getMostSignificantBits(), id.getLeastSignificantBits(), txType, minor, epochDay, categoryId);
+    }
+
+    // Upserts and deletes by id in one pass over the rows, so re-applying a change is harmless
+    void apply(List<TransactionColumnStore.Change> changes) {
+        TransactionColumnStore.Change[] sorted = changes.toArray(TransactionColumnStore.Change[]::new);
+        Arrays.sort(sorted, TransactionColumnStore.Change.ID_ORDER);
+        boolean[] matched = new boolean[sorted.length];
+        lock.writeLock().lock();
+        try {
+            int i = 0;
+            while (i < size) {
+                int k = find(sorted, idHigh[i], idLow[i]);
+                if (k < 0) {
+                    i++;
+                    continue;
+                }
+                matched[k] = true;
+                TransactionColumnStore.Change change = sorted[k];
+                if (change.deleted()) {
+                    moveLastTo(i);
+                    continue;
+                }
+                set(i, idHigh[i], idLow[i], change.type(), change.amountMinor(), change.epochDay(), change.categoryId());
+                i++;
+            }
+            for (int k = 0; k < sorted.length; k++) {
+                if (!matched[k] && !sorted[k].deleted())
+                    append(sorted[k].id(), sorted[k].type(), sorted[k].amountMinor(), sorted[k].epochDay(),
+                            sorted[k].categoryId());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Income, expense and expense per category code for days in [fromDay, toDay)
+    TransactionColumnStore.MonthTotals totals(int fromDay, int toDay) {
+        long income = 0;
+        long expense = 0;
+        long[] byCategory = new long[categories.size()];
+        for (int i = 0; i < size; i++) {
+            int d = day[i];
+            if (d < fromDay || d >= toDay)
+                continue;
+            short t = type[i];
+            if (t == INCOME) {
+                income += amount[i];
+            } else if (t == EXPENSE) {
+                expense += amount[i];
+                byCategory[category[i]] += amount[i];
+            }
+        }
+        return new TransactionColumnStore.MonthTotals(income, expense, List.copyOf(categories), byCategory);
+    }
+
+    // bounds[b] is the first epoch day of bucket b, bounds[n] the exclusive end of the last bucket
+    TransactionColumnStore.SeriesTotals series(int[] bounds, UUID categoryId, boolean byCategory) {
+        int buckets = bounds.length - 1;
+        int width = byCategory ? categories.size() : 1;
+        long[] sums = new long[buckets * width * 2];
+        int filter = -1;
+        if (categoryId != null) {
+            Short code = codes.get(categoryId);
+            if (code == null)
+                return new TransactionColumnStore.SeriesTotals(buckets, width, List.copyOf(categories), sums);
+            filter = code;
+        }
+        int first = bounds[0];
+        int end = bounds[buckets];
+        for (int i = 0; i < size; i++) {
+            int d = day[i];
+            short t = type[i];
+            if (d < first || d >= end || (t != INCOME && t != EXPENSE))
+                continue;
+            short c = category[i];
+            if (filter >= 0 && c != filter)
+                continue;
+            int b = Arrays.binarySearch(bounds, d);
+            if (b < 0)
+                b = -b - 2;
+            int slot = (b * width + (byCategory ? c : 0)) * 2 + (t == INCOME ? 0 : 1);
+            sums[slot] += amount[i];
+        }
+        return new TransactionColumnStore.SeriesTotals(buckets, width, List.copyOf(categories), sums);
+    }
+
+    private void set(int i, long high, long low, TransactionType txType, long minor, int epochDay, UUID categoryId) {
+        idHigh[i] = high;
+        idLow[i] = low;
+        amount[i] = minor;
+        day[i] = epochDay;
+        type[i] = (short) txType.ordinal();
+        category[i] = code(categoryId);
+    }
+
+    private short code(UUID categoryId) {
+        if (categoryId == null)
+            return NO_CATEGORY;
+        Short code = codes.get(categoryId);
+        if (code != null)
+            return code;
+        if (categories.size() > Short.MAX_VALUE)
+            throw new IllegalStateException("Too many categories for a short dictionary");
+        short next = (short) categories.size();
+        categories.add(categoryId);
+        codes.put(categoryId, next);
+        return next;
+    }
+
+    private void moveLastTo(int i) {
+        int last = --size;
+        idHigh[i] = idHigh[last];
+        idLow[i] = idLow[last];
+        amount[i] = amount[last];
+        day[i] = day[last];
+        type[i] = type[last];
+        category[i] = category[last];
+    }
+
+    private void grow() {
+        int next = capacity + (capacity >> 1);
+        idHigh = Arrays.copyOf(idHigh, next);
+        idLow = Arrays.copyOf(idLow, next);
+        amount = Arrays.copyOf(amount, next);
+        day = Arrays.copyOf(day, next);
+        type = Arrays.copyOf(type, next);
+        category = Arrays.copyOf(category, next);
+        capacity = next;
+    }
+
+    private static int find(TransactionColumnStore.Change[] sorted, long high, long low) {
+        int lo = 0;
+        int hi = sorted.length - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            UUID id = sorted[mid].id();
+            int cmp = Long.compare(id.getMostSignificantBits(), high);
+            if (cmp == 0)
+                cmp = Long.compare(id.getLeastSignificantBits(), low);
+            if (cmp < 0)
+                lo = mid + 1;
+            else if (cmp > 0)
+                hi = mid - 1;
+            else
+                return mid;
+        }
+        return -1;
+    }
+}
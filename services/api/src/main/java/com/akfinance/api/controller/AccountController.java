@@ -0,0 +1,56 @@
+package com.akfinance.api.controller;
+
+import com.akfinance.api.dto.account.AccountBalanceResponse;
+import com.akfinance.api.dto.account.AccountRequest;
+import com.akfinance.api.dto.account.AccountResponse;
+import com.akfinance.api.security.SecurityUtils;
+import com.akfinance.api.service.AccountService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/v1/accounts")
+@RequiredArgsConstructor
+public class AccountController {
+
+    private final AccountService accountService;
+    private final SecurityUtils securityUtils;
+
+    @GetMapping
+    public ResponseEntity<List<AccountResponse>> getAccounts() {
+        return ResponseEntity.ok(accountService.getAccounts(securityUtils.getCurrentUserId()));
+    }
+
+    @PostMapping
+    public ResponseEntity<AccountResponse> createAccount(@Valid @RequestBody AccountRequest request) {
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(accountService.createAccount(securityUtils.getCurrentUserId(), request));
+    }
+
+    @PutMapping("/{id}")
+    public ResponseEntity<AccountResponse> updateAccount(
+            @PathVariable UUID id, @Valid @RequestBody AccountRequest request) {
+        return ResponseEntity.ok(
+                accountService.updateAccount(securityUtils.getCurrentUserId(), id, request));
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> deleteAccount(@PathVariable UUID id) {
+        accountService.deleteAccount(securityUtils.getCurrentUserId(), id);
+        return ResponseEntity.noContent().build();
+    }
+
+    @GetMapping("/{id}/balance")
+    public ResponseEntity<AccountBalanceResponse> getBalance(
+            @PathVariable UUID id, @RequestParam(required = false) Instant at) {
+        return ResponseEntity.ok(
+                accountService.getBalance(securityUtils.getCurrentUserId(), id, at));
+    }
+}
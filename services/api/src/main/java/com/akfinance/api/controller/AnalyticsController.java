@@ -0,0 +1,51 @@
+package com.akfinance.api.controller;
+
+import com.akfinance.api.domain.enums.CategoryType;
+import com.akfinance.api.domain.enums.Granularity;
+import com.akfinance.api.dto.analytics.AmountPercentilesResponse;
+import com.akfinance.api.dto.analytics.TimeSeriesResponse;
+import com.akfinance.api.security.SecurityUtils;
+import com.akfinance.api.service.AmountSketchService;
+import com.akfinance.api.service.AnalyticsService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/v1/analytics")
+@RequiredArgsConstructor
+public class AnalyticsController {
+
+    private final AnalyticsService analyticsService;
+    private final AmountSketchService amountSketchService;
+    private final SecurityUtils securityUtils;
+
+    @GetMapping("/series")
+    public ResponseEntity<TimeSeriesResponse> getSeries(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "MONTH") Granularity granularity,
+            @RequestParam(required = false) UUID categoryId,
+            @RequestParam(defaultValue = "false") boolean byCategory) {
+        return ResponseEntity.ok(analyticsService.getSeries(
+                securityUtils.getCurrentUserId(), from, to, granularity, categoryId, byCategory));
+    }
+
+    // Months are whole: from=2025-01&to=2025-12
+    @GetMapping("/percentiles")
+    public ResponseEntity<AmountPercentilesResponse> getPercentiles(
+            @RequestParam YearMonth from,
+            @RequestParam YearMonth to,
+            @RequestParam(required = false) UUID categoryId,
+            @RequestParam(required = false) CategoryType type,
+            @RequestParam(defaultValue = "50,75,90") List<Double> percentiles) {
+        return ResponseEntity.ok(amountSketchService.getPercentiles(
+                securityUtils.getCurrentUserId(), from, to, categoryId, type, percentiles));
+    }
+}
@@ -0,0 +1,42 @@
+package com.akfinance.api.controller;
+
+import com.akfinance.api.dto.apikey.ApiKeyCreatedResponse;
+import com.akfinance.api.dto.apikey.ApiKeyRequest;
+import com.akfinance.api.dto.apikey.ApiKeyResponse;
+import com.akfinance.api.security.SecurityUtils;
+import com.akfinance.api.service.ApiKeyService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.UUID;
+
+// Session (JWT) only: an API key cannot mint or revoke keys
+@RestController
+@RequestMapping("/api/v1/api-keys")
+@RequiredArgsConstructor
+public class ApiKeyController {
+
+    private final ApiKeyService apiKeyService;
+    private final SecurityUtils securityUtils;
+
+    @GetMapping
+    public ResponseEntity<List<ApiKeyResponse>> getApiKeys() {
+        return ResponseEntity.ok(apiKeyService.getApiKeys(securityUtils.getCurrentUserId()));
+    }
+
+    @PostMapping
+    public ResponseEntity<ApiKeyCreatedResponse> createApiKey(@Valid @RequestBody ApiKeyRequest request) {
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(apiKeyService.createApiKey(securityUtils.getCurrentUserId(), request));
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> revokeApiKey(@PathVariable UUID id) {
+        apiKeyService.revokeApiKey(securityUtils.getCurrentUserId(), id);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,34 @@
+package com.akfinance.api.controller;
+
+import com.akfinance.api.dto.bootstrap.BootstrapResponse;
+import com.akfinance.api.security.SecurityUtils;
+import com.akfinance.api.service.BootstrapService;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+
+@RestController
+@RequestMapping("/api/v1/bootstrap")
+@RequiredArgsConstructor
+public class BootstrapController {
+
+    private final BootstrapService bootstrapService;
+    private final SecurityUtils securityUtils;
+
+    @GetMapping
+    public ResponseEntity<BootstrapResponse> getBootstrap(
+            @RequestParam(required = false) @Min(1) @Max(12) Integer month,
+            @RequestParam(required = false) @Min(2000) @Max(2100) Integer year,
+            @RequestParam(defaultValue = "20") int size) {
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        return ResponseEntity.ok(bootstrapService.load(securityUtils.getCurrentUserId(),
+                month != null ? month : today.getMonthValue(),
+                year != null ? year : today.getYear(),
+                Math.min(Math.max(size, 1), 100)));
+    }
+}
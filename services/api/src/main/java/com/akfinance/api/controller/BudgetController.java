@@ -1,10 +1,15 @@
 package com.akfinance.api.controller;
 
+import com.akfinance.api.dto.budget.BudgetAlertResponse;
 import com.akfinance.api.dto.budget.BudgetRequest;
 import com.akfinance.api.dto.budget.BudgetResponse;
+import com.akfinance.api.dto.budget.BudgetRolloverRequest;
+import com.akfinance.api.dto.budget.BudgetYearResponse;
 import com.akfinance.api.security.SecurityUtils;
 import com.akfinance.api.service.BudgetService;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -23,17 +28,28 @@ public class BudgetController {
 
     @GetMapping
     public ResponseEntity<List<BudgetResponse>> getBudgets(
-            @RequestParam Integer month, @RequestParam Integer year) {
+            @RequestParam @Min(1) @Max(12) Integer month, @RequestParam @Min(2000) @Max(2100) Integer year) {
         return ResponseEntity.ok(
                 budgetService.getBudgets(securityUtils.getCurrentUserId(), month, year));
     }
 
+    @GetMapping("/year")
+    public ResponseEntity<BudgetYearResponse> getYear(@RequestParam @Min(2000) @Max(2100) Integer year) {
+        return ResponseEntity.ok(budgetService.getYear(securityUtils.getCurrentUserId(), year));
+    }
+
     @PostMapping
     public ResponseEntity<BudgetResponse> createBudget(@Valid @RequestBody BudgetRequest request) {
         return ResponseEntity.status(HttpStatus.CREATED)
                 .body(budgetService.createBudget(securityUtils.getCurrentUserId(), request));
     }
 
+    @PostMapping("/rollover")
+    public ResponseEntity<List<BudgetResponse>> rolloverBudgets(@Valid @RequestBody BudgetRolloverRequest request) {
+        return ResponseEntity.ok(
+                budgetService.rolloverBudgets(securityUtils.getCurrentUserId(), request));
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<BudgetResponse> updateBudget(
             @PathVariable UUID id, @Valid @RequestBody BudgetRequest request) {
@@ -46,4 +62,15 @@ public class BudgetController {
         budgetService.deleteBudget(securityUtils.getCurrentUserId(), id);
         return ResponseEntity.noContent().build();
     }
+
+    @GetMapping("/alerts")
+    public ResponseEntity<List<BudgetAlertResponse>> getAlerts() {
+        return ResponseEntity.ok(budgetService.getAlerts(securityUtils.getCurrentUserId()));
+    }
+
+    @PostMapping("/alerts/{id}/ack")
+    public ResponseEntity<Void> acknowledgeAlert(@PathVariable UUID id) {
+        budgetService.acknowledgeAlert(securityUtils.getCurrentUserId(), id);
+        return ResponseEntity.noContent().build();
+    }
 }
@@ -0,0 +1,36 @@
+package com.akfinance.api.controller;
+
+import com.akfinance.api.dto.ingest.IngestRequest;
+import com.akfinance.api.dto.ingest.IngestResponse;
+import com.akfinance.api.dto.ingest.IngestStatusResponse;
+import com.akfinance.api.security.SecurityUtils;
+import com.akfinance.api.service.IngestionService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/v1/transactions/ingest")
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "app.ingest", name = "enabled", havingValue = "true")
+public class IngestionController {
+
+    private final IngestionService ingestionService;
+    private final SecurityUtils securityUtils;
+
+    @PostMapping
+    public ResponseEntity<IngestResponse> ingest(@Valid @RequestBody IngestRequest request) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(new IngestResponse(
+                ingestionService.accept(securityUtils.getCurrentUserId(), request.getTransactions())));
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<IngestStatusResponse> getStatus(@PathVariable UUID id) {
+        return ResponseEntity.ok(ingestionService.getStatus(securityUtils.getCurrentUserId(), id));
+    }
+}
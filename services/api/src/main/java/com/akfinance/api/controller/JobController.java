@@ -0,0 +1,51 @@
+package com.akfinance.api.controller;
+
+import com.akfinance.api.dto.job.JobResponse;
+import com.akfinance.api.dto.job.StatementJobRequest;
+import com.akfinance.api.security.SecurityUtils;
+import com.akfinance.api.service.JobService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.net.URI;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/v1/jobs")
+@RequiredArgsConstructor
+public class JobController {
+
+    private final JobService jobService;
+    private final SecurityUtils securityUtils;
+
+    @PostMapping("/statements")
+    public ResponseEntity<JobResponse> submitStatement(@Valid @RequestBody StatementJobRequest request) {
+        JobResponse job = jobService.submitStatement(securityUtils.getCurrentUserId(), request);
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .location(URI.create("/api/v1/jobs/" + job.getId()))
+                .body(job);
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<JobResponse> getJob(@PathVariable UUID id) {
+        return ResponseEntity.ok(jobService.getJob(securityUtils.getCurrentUserId(), id));
+    }
+
+    @GetMapping("/{id}/result")
+    public ResponseEntity<Resource> getResult(@PathVariable UUID id) {
+        JobService.JobResult result = jobService.getResult(securityUtils.getCurrentUserId(), id);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(result.contentType()))
+                .contentLength(result.size())
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(result.fileName()).build().toString())
+                .body(result.resource());
+    }
+}
@@ -0,0 +1,25 @@
+package com.akfinance.api.controller;
+
+import com.akfinance.api.dto.sync.SyncChangesResponse;
+import com.akfinance.api.security.SecurityUtils;
+import com.akfinance.api.service.SyncService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/v1/sync")
+@RequiredArgsConstructor
+public class SyncController {
+
+    private final SyncService syncService;
+    private final SecurityUtils securityUtils;
+
+    @GetMapping("/changes")
+    public ResponseEntity<SyncChangesResponse> getChanges(
+            @RequestParam(required = false) String since,
+            @RequestParam(defaultValue = "500") int limit) {
+        return ResponseEntity.ok(syncService.getChanges(securityUtils.getCurrentUserId(), since,
+                Math.min(Math.max(limit, 1), 1000)));
+    }
+}
@@ -1,20 +1,28 @@
 package com.akfinance.api.controller;
 
+import com.akfinance.api.domain.enums.CountMode;
 import com.akfinance.api.domain.enums.TransactionType;
+import com.akfinance.api.dto.transaction.BulkTransactionRequest;
+import com.akfinance.api.dto.transaction.BulkTransactionResponse;
+import com.akfinance.api.dto.transaction.TransactionFilter;
 import com.akfinance.api.dto.transaction.TransactionRequest;
 import com.akfinance.api.dto.transaction.TransactionResponse;
 import com.akfinance.api.security.SecurityUtils;
 import com.akfinance.api.service.TransactionService;
+import com.akfinance.api.service.TransactionStreamService;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.UUID;
@@ -25,23 +33,58 @@ import java.util.UUID;
 public class TransactionController {
 
     private final TransactionService transactionService;
+    private final TransactionStreamService transactionStreamService;
     private final SecurityUtils securityUtils;
 
+    // Without 'count' the response stays the legacy Page; with it, a PageResponse window
     @GetMapping
-    public ResponseEntity<Page<TransactionResponse>> getTransactions(
+    public ResponseEntity<?> getTransactions(
             @RequestParam(required = false) Instant from,
             @RequestParam(required = false) Instant to,
             @RequestParam(required = false) TransactionType type,
             @RequestParam(required = false) UUID categoryId,
+            @RequestParam(required = false) UUID accountId,
+            @RequestParam(required = false) UUID merchantId,
             @RequestParam(required = false) BigDecimal minAmount,
             @RequestParam(required = false) BigDecimal maxAmount,
             @RequestParam(required = false) String q,
+            @RequestParam(required = false) CountMode count,
             @PageableDefault(size = 20) Pageable pageable) {
+        UUID userId = securityUtils.getCurrentUserId();
+        if (count != null) {
+            TransactionFilter filter = new TransactionFilter(
+                    from, to, type, categoryId, accountId, merchantId, minAmount, maxAmount, q);
+            return ResponseEntity.ok(transactionService.getTransactionPage(userId, filter, pageable, count));
+        }
         return ResponseEntity.ok(transactionService.getTransactions(
-                securityUtils.getCurrentUserId(), from, to, type, categoryId,
+                userId, from, to, type, categoryId, accountId, merchantId,
                 minAmount, maxAmount, q, pageable));
     }
 
+    @GetMapping("/stream")
+    public void streamTransactions(
+            @RequestParam(required = false) Instant from,
+            @RequestParam(required = false) Instant to,
+            @RequestParam(required = false) TransactionType type,
+            @RequestParam(required = false) UUID categoryId,
+            @RequestParam(required = false) UUID accountId,
+            @RequestParam(required = false) UUID merchantId,
+            @RequestParam(required = false) BigDecimal minAmount,
+            @RequestParam(required = false) BigDecimal maxAmount,
+            @RequestParam(required = false) String q,
+            @RequestParam(defaultValue = "EXACT") CountMode count,
+            @RequestParam(defaultValue = "false") boolean compact,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            @PageableDefault(size = 20) Pageable pageable,
+            HttpServletResponse response) throws IOException {
+        TransactionFilter filter = new TransactionFilter(
+                from, to, type, categoryId, accountId, merchantId, minAmount, maxAmount, q);
+        MediaType format = transactionStreamService.negotiate(accept);
+        response.setContentType(format.toString());
+        transactionStreamService.writePage(securityUtils.getCurrentUserId(), filter, pageable, count,
+                compact, format, response.getOutputStream());
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<TransactionResponse> getTransaction(@PathVariable UUID id) {
         return ResponseEntity.ok(
@@ -67,4 +110,17 @@ public class TransactionController {
         transactionService.deleteTransaction(securityUtils.getCurrentUserId(), id);
         return ResponseEntity.noContent().build();
     }
+
+    @PostMapping("/bulk/recategorize")
+    public ResponseEntity<BulkTransactionResponse> bulkRecategorize(
+            @Valid @RequestBody BulkTransactionRequest request) {
+        return ResponseEntity.ok(
+                transactionService.bulkRecategorize(securityUtils.getCurrentUserId(), request));
+    }
+
+    @PostMapping("/bulk/delete")
+    public ResponseEntity<BulkTransactionResponse> bulkDelete(@Valid @RequestBody BulkTransactionRequest request) {
+        return ResponseEntity.ok(
+                transactionService.bulkDelete(securityUtils.getCurrentUserId(), request));
+    }
 }
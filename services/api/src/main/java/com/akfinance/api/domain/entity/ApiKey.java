@@ -0,0 +1,56 @@
+package com.akfinance.api.domain.entity;
+
+import com.akfinance.api.domain.enums.ApiKeyScope;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+import java.time.Instant;
+import java.util.Set;
+import java.util.UUID;
+
+@Entity
+@Table(name = "api_keys")
+@Getter @Setter
+@NoArgsConstructor @AllArgsConstructor
+@Builder
+public class ApiKey {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(name = "user_id", nullable = false)
+    private UUID userId;
+
+    @Column(nullable = false, length = 100)
+    private String name;
+
+    @Column(name = "key_hash", nullable = false, updatable = false)
+    private byte[] keyHash;
+
+    // First characters of the secret, so the user can tell keys apart
+    @Column(nullable = false, length = 10, updatable = false)
+    private String hint;
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(columnDefinition = "jsonb", nullable = false)
+    private Set<ApiKeyScope> scopes;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Instant createdAt;
+
+    @Column(name = "expires_at")
+    private Instant expiresAt;
+
+    @Column(name = "last_used_at")
+    private Instant lastUsedAt;
+
+    @Column(name = "revoked_at")
+    private Instant revokedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = Instant.now();
+    }
+}
@@ -1,8 +1,9 @@
 package com.akfinance.api.domain.entity;
 
+import com.akfinance.api.domain.money.MinorUnitsConverter;
+import com.akfinance.api.domain.money.Money;
 import jakarta.persistence.*;
 import lombok.*;
-import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.UUID;
 
@@ -31,8 +32,14 @@ public class Budget {
     @Column(nullable = false)
     private Integer year;
 
+    @Convert(converter = MinorUnitsConverter.class)
     @Column(name = "limit_amount", nullable = false, precision = 14, scale = 2)
-    private BigDecimal limitAmount;
+    private Long limitMinor;
+
+    // Maintained by atomic increments from transaction writes, never by entity updates
+    @Convert(converter = MinorUnitsConverter.class)
+    @Column(name = "spent_amount", nullable = false, updatable = false, precision = 14, scale = 2)
+    private Long spentMinor;
 
     @Column(nullable = false, length = 3)
     private String currency;
@@ -43,6 +50,14 @@ public class Budget {
     @Column(name = "updated_at", nullable = false)
     private Instant updatedAt;
 
+    public Money getLimit() {
+        return Money.ofMinor(limitMinor, currency);
+    }
+
+    public Money getSpent() {
+        return Money.ofMinor(spentMinor, currency);
+    }
+
     @PrePersist
     protected void onCreate() {
         createdAt = Instant.now();
@@ -0,0 +1,47 @@
+package com.akfinance.api.domain.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+@Entity
+@Table(name = "budget_alerts")
+@Getter @Setter
+@NoArgsConstructor @AllArgsConstructor
+@Builder
+public class BudgetAlert {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "budget_id", nullable = false)
+    private Budget budget;
+
+    @Column(nullable = false)
+    private Integer threshold;
+
+    @Column(name = "spent_amount", nullable = false, precision = 14, scale = 2)
+    private BigDecimal spentAmount;
+
+    @Column(name = "limit_amount", nullable = false, precision = 14, scale = 2)
+    private BigDecimal limitAmount;
+
+    @Column(nullable = false)
+    private boolean acknowledged;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Instant createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = Instant.now();
+    }
+}
@@ -0,0 +1,31 @@
+package com.akfinance.api.domain.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.Instant;
+import java.util.UUID;
+
+// Never updated; the id is derived from the key and, for a user's own fallback merchant, the user
+// (see MerchantNormalizer.idOf). Merchants with aliases are shared and have no user
+@Entity
+@Table(name = "merchants")
+@Getter @Setter
+@NoArgsConstructor @AllArgsConstructor
+@Builder
+public class Merchant {
+
+    @Id
+    private UUID id;
+
+    @Column(nullable = false, length = 100)
+    private String key;
+
+    @Column(nullable = false, length = 100)
+    private String name;
+
+    @Column(name = "user_id")
+    private UUID userId;
+
+    @Column(name = "created_at", nullable = false, updatable = false, insertable = false)
+    private Instant createdAt;
+}
@@ -39,9 +39,27 @@ public class Transaction {
     @JoinColumn(name = "category_id")
     private Category category;
 
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "account_id")
+    private Account account;
+
+    // Credited side of a TRANSFER; account is the debited side
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "counter_account_id")
+    private Account counterAccount;
+
     @Column(columnDefinition = "TEXT")
     private String note;
 
+    // Resolved from the note on every write. The association is read-only: a new merchant row is
+    // only inserted at commit, so it can't be loaded in the transaction that sets merchantId.
+    @Column(name = "merchant_id")
+    private UUID merchantId;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "merchant_id", insertable = false, updatable = false)
+    private Merchant merchant;
+
     @Column(name = "created_at", nullable = false, updatable = false)
     private Instant createdAt;
 
@@ -0,0 +1,10 @@
+package com.akfinance.api.domain.enums;
+
+// What an API key may do: READ covers GET requests, WRITE everything that changes data
+public enum ApiKeyScope {
+    READ, WRITE;
+
+    public String authority() {
+        return "SCOPE_" + name();
+    }
+}
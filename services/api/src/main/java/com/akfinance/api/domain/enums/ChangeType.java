@@ -0,0 +1,5 @@
+package com.akfinance.api.domain.enums;
+
+public enum ChangeType {
+    CREATED, UPDATED, DELETED
+}
@@ -0,0 +1,7 @@
+package com.akfinance.api.domain.enums;
+
+public enum CountMode {
+    EXACT,
+    ESTIMATED,
+    NONE
+}
@@ -0,0 +1,5 @@
+package com.akfinance.api.domain.enums;
+
+public enum IngestStatus {
+    PENDING, COMMITTED, FAILED
+}
@@ -0,0 +1,24 @@
+package com.akfinance.api.domain.money;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.math.BigDecimal;
+
+/**
+ * Maps a minor-unit {@code long} onto a scale-2 {@code NUMERIC} column. The currency of a
+ * {@link Money} lives in its own column, so entities keep the minor units and assemble the value.
+ */
+@Converter
+public class MinorUnitsConverter implements AttributeConverter<Long, BigDecimal> {
+
+    @Override
+    public BigDecimal convertToDatabaseColumn(Long minor) {
+        return minor != null ? Money.toBigDecimal(minor) : null;
+    }
+
+    @Override
+    public Long convertToEntityAttribute(BigDecimal amount) {
+        return amount != null ? Money.toMinor(amount) : null;
+    }
+}
@@ -0,0 +1,108 @@
+package com.akfinance.api.domain.money;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Objects;
+
+/**
+ * An amount in minor units plus its currency code. Minor units are hundredths for every currency,
+ * matching the {@code NUMERIC(14, 2)} amount columns. Arithmetic is exact: overflow throws
+ * {@link ArithmeticException} and mixing currencies throws {@link IllegalArgumentException}.
+ */
+public record Money(long minor, String currency) implements Comparable<Money> {
+
+    public static final int SCALE = 2;
+
+    public Money {
+        Objects.requireNonNull(currency, "currency");
+    }
+
+    public static Money ofMinor(long minor, String currency) {
+        return new Money(minor, currency);
+    }
+
+    public static Money of(BigDecimal amount, String currency) {
+        return new Money(toMinor(amount), currency);
+    }
+
+    public static Money zero(String currency) {
+        return new Money(0, currency);
+    }
+
+    // Rounds half up, as PostgreSQL does when a value is stored into a scale-2 column
+    public static long toMinor(BigDecimal amount) {
+        return amount.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    public static BigDecimal toBigDecimal(long minor) {
+        return BigDecimal.valueOf(minor, SCALE);
+    }
+
+    public BigDecimal toBigDecimal() {
+        return toBigDecimal(minor);
+    }
+
+    public Money plus(Money other) {
+        return new Money(Math.addExact(minor, sameCurrency(other).minor), currency);
+    }
+
+    public Money minus(Money other) {
+        return new Money(Math.subtractExact(minor, sameCurrency(other).minor), currency);
+    }
+
+    public Money plusMinor(long delta) {
+        return new Money(Math.addExact(minor, delta), currency);
+    }
+
+    public Money negate() {
+        return new Money(Math.negateExact(minor), currency);
+    }
+
+    public Money times(long factor) {
+        return new Money(Math.multiplyExact(minor, factor), currency);
+    }
+
+    public int signum() {
+        return Long.signum(minor);
+    }
+
+    public boolean isZero() {
+        return minor == 0;
+    }
+
+    // this / whole >= percent% without dividing
+    public boolean reaches(Money whole, int percent) {
+        sameCurrency(whole);
+        return Math.multiplyExact(minor, 100L) >= Math.multiplyExact(whole.minor, (long) percent);
+    }
+
+    // this / whole rounded half up to four places, times 100; 0 for a non-positive whole
+    public double percentOf(Money whole) {
+        sameCurrency(whole);
+        long divisor = whole.minor;
+        if (divisor <= 0)
+            return 0;
+        long scaled = Math.multiplyExact(minor, 10_000L);
+        long quotient = scaled / divisor;
+        long remainder = scaled % divisor;
+        if (Math.abs(remainder) * 2 >= divisor)
+            quotient += Long.signum(scaled);
+        return quotient / 100.0;
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(minor, sameCurrency(other).minor);
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString() + " " + currency;
+    }
+
+    private Money sameCurrency(Money other) {
+        if (!currency.equals(other.currency))
+            throw new IllegalArgumentException("Currency mismatch: " + currency + " vs " + other.currency);
+        return other;
+    }
+}
@@ -0,0 +1,20 @@
+package com.akfinance.api.dto.account;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+@Data
+@Builder
+@AllArgsConstructor
+public class AccountBalanceResponse {
+    private UUID accountId;
+    private Instant at;
+    private BigDecimal balance;
+    private String currency;
+    // Checkpoint the balance was derived from; null when replayed from the opening balance
+    private Instant checkpointAt;
+}
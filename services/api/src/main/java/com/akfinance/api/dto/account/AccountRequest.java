@@ -0,0 +1,20 @@
+package com.akfinance.api.dto.account;
+
+import jakarta.validation.constraints.*;
+import lombok.Data;
+import java.math.BigDecimal;
+
+@Data
+public class AccountRequest {
+    @NotBlank
+    @Size(max = 100)
+    private String name;
+
+    @Size(min = 3, max = 3)
+    private String currency;
+
+    // Applied on create only; afterwards the balance moves with transactions
+    private BigDecimal openingBalance;
+
+    private boolean archived;
+}
@@ -0,0 +1,19 @@
+package com.akfinance.api.dto.account;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import java.math.BigDecimal;
+import java.util.UUID;
+
+@Data
+@Builder
+@AllArgsConstructor
+public class AccountResponse {
+    private UUID id;
+    private String name;
+    private String currency;
+    private BigDecimal openingBalance;
+    private BigDecimal balance;
+    private boolean archived;
+}
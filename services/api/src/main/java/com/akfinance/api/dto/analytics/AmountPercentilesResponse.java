@@ -0,0 +1,35 @@
+package com.akfinance.api.dto.analytics;
+
+import com.akfinance.api.domain.enums.CategoryType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+@Data
+@Builder
+@AllArgsConstructor
+public class AmountPercentilesResponse {
+    private YearMonth from;
+    private YearMonth to;
+    private List<Row> rows;
+
+    // One per category and currency; percentiles are keyed "p50", "p90", ...
+    @Data
+    @Builder
+    @AllArgsConstructor
+    public static class Row {
+        private UUID categoryId;
+        private String categoryName;
+        private CategoryType categoryType;
+        private String currency;
+        private long count;
+        private BigDecimal min;
+        private BigDecimal max;
+        private Map<String, BigDecimal> percentiles;
+    }
+}
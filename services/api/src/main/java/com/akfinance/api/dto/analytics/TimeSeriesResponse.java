@@ -0,0 +1,31 @@
+package com.akfinance.api.dto.analytics;
+
+import com.akfinance.api.domain.enums.Granularity;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+@AllArgsConstructor
+public class TimeSeriesResponse {
+    private Granularity granularity;
+    private LocalDate from;
+    private LocalDate to;
+    private List<Point> points;
+
+    @Data
+    @Builder
+    @AllArgsConstructor
+    public static class Point {
+        private LocalDate period;
+        private UUID categoryId;
+        private String categoryName;
+        private BigDecimal income;
+        private BigDecimal expense;
+    }
+}
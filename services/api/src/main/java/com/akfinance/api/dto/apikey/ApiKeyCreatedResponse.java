@@ -0,0 +1,12 @@
+package com.akfinance.api.dto.apikey;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+// The key itself is shown once and cannot be recovered afterwards
+@Data
+@AllArgsConstructor
+public class ApiKeyCreatedResponse {
+    private ApiKeyResponse apiKey;
+    private String key;
+}
@@ -0,0 +1,22 @@
+package com.akfinance.api.dto.apikey;
+
+import com.akfinance.api.domain.enums.ApiKeyScope;
+import jakarta.validation.constraints.*;
+import lombok.Data;
+
+import java.util.Set;
+
+@Data
+public class ApiKeyRequest {
+    @NotBlank
+    @Size(max = 100)
+    private String name;
+
+    @NotEmpty
+    private Set<ApiKeyScope> scopes;
+
+    // No expiry when omitted
+    @Positive
+    @Max(3650)
+    private Integer expiresInDays;
+}
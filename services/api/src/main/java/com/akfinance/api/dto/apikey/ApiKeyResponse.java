@@ -0,0 +1,25 @@
+package com.akfinance.api.dto.apikey;
+
+import com.akfinance.api.domain.enums.ApiKeyScope;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.Instant;
+import java.util.Set;
+import java.util.UUID;
+
+@Data
+@Builder
+@AllArgsConstructor
+public class ApiKeyResponse {
+    private UUID id;
+    private String name;
+    // First characters of the secret part
+    private String hint;
+    private Set<ApiKeyScope> scopes;
+    private Instant createdAt;
+    private Instant expiresAt;
+    private Instant lastUsedAt;
+    private Instant revokedAt;
+}
@@ -0,0 +1,24 @@
+package com.akfinance.api.dto.bootstrap;
+
+import com.akfinance.api.dto.budget.BudgetResponse;
+import com.akfinance.api.dto.category.CategoryResponse;
+import com.akfinance.api.dto.common.PageResponse;
+import com.akfinance.api.dto.dashboard.DashboardSummary;
+import com.akfinance.api.dto.preference.PreferenceResponse;
+import com.akfinance.api.dto.transaction.TransactionResponse;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+public class BootstrapResponse {
+    private DashboardSummary dashboard;
+    private List<BudgetResponse> budgets;
+    private List<CategoryResponse> categories;
+    private PreferenceResponse preferences;
+    private PageResponse<TransactionResponse> transactions;
+}
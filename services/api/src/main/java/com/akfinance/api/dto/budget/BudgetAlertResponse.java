@@ -0,0 +1,24 @@
+package com.akfinance.api.dto.budget;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+@Data
+@Builder
+@AllArgsConstructor
+public class BudgetAlertResponse {
+    private UUID id;
+    private UUID budgetId;
+    private String categoryName;
+    private Integer month;
+    private Integer year;
+    private int threshold;
+    private BigDecimal spentAmount;
+    private BigDecimal limitAmount;
+    private boolean acknowledged;
+    private Instant createdAt;
+}
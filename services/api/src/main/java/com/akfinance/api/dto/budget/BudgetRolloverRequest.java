@@ -0,0 +1,26 @@
+package com.akfinance.api.dto.budget;
+
+import jakarta.validation.constraints.*;
+import lombok.Data;
+
+// Rolls the budgets of month/year over into the following month
+@Data
+public class BudgetRolloverRequest {
+    @NotNull
+    @Min(1)
+    @Max(12)
+    private Integer month;
+
+    @NotNull
+    @Min(2000)
+    @Max(2100)
+    private Integer year;
+
+    // Percent added to every limit; negative to lower them
+    @Min(-99)
+    @Max(1000)
+    private int adjustPercent;
+
+    // Adds what the month left unspent to the new limit
+    private boolean carryOver;
+}
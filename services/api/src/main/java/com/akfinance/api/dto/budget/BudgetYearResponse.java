@@ -0,0 +1,16 @@
+package com.akfinance.api.dto.budget;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+public class BudgetYearResponse {
+    private int year;
+    // Categories with a budget or spending in the year, by name
+    private List<BudgetYearRow> rows;
+}
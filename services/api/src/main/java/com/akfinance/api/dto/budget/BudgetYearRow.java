@@ -0,0 +1,22 @@
+package com.akfinance.api.dto.budget;
+
+import com.akfinance.api.dto.category.CategoryResponse;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+// One category of the year matrix; every list has 12 entries, January first
+@Data
+@Builder
+@AllArgsConstructor
+public class BudgetYearRow {
+    private CategoryResponse category;
+    private String currency;
+    // null where the month has no budget
+    private List<BigDecimal> limitAmounts;
+    private List<BigDecimal> spentAmounts;
+    private List<Double> progressPercents;
+}
@@ -0,0 +1,25 @@
+package com.akfinance.api.dto.common;
+
+import com.akfinance.api.domain.enums.CountMode;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+public class PageResponse<T> {
+    private List<T> content;
+    private int number;
+    private int size;
+    private int numberOfElements;
+    private boolean first;
+    private boolean last;
+    private boolean hasNext;
+    // Null with CountMode.NONE; approximate ("about N") when countMode is ESTIMATED
+    private Long totalElements;
+    private Integer totalPages;
+    private CountMode countMode;
+}
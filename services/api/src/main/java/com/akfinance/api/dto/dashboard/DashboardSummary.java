@@ -14,6 +14,7 @@ public class DashboardSummary {
     private BigDecimal totalExpense;
     private BigDecimal balance;
     private List<CategoryBreakdown> topCategories;
+    private List<MerchantBreakdown> topMerchants;
     private List<BudgetPreview> budgets;
 
     @Data
@@ -25,6 +26,16 @@ public class DashboardSummary {
         private BigDecimal amount;
     }
 
+    @Data
+    @Builder
+    @AllArgsConstructor
+    public static class MerchantBreakdown {
+        private String merchantId;
+        private String merchantName;
+        private long count;
+        private BigDecimal amount;
+    }
+
     @Data
     @Builder
     @AllArgsConstructor
@@ -0,0 +1,23 @@
+package com.akfinance.api.dto.event;
+
+import com.akfinance.api.domain.enums.AggregateType;
+import com.akfinance.api.domain.enums.ChangeType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+
+@Data
+@Builder
+@AllArgsConstructor
+public class ChangeEvent {
+    private long sequence;
+    private UUID userId;
+    private AggregateType aggregateType;
+    private UUID aggregateId;
+    private ChangeType changeType;
+    private Map<String, Object> payload;
+    private Instant createdAt;
+}
@@ -0,0 +1,15 @@
+package com.akfinance.api.dto.ingest;
+
+import com.akfinance.api.dto.transaction.TransactionRequest;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+import java.util.List;
+
+@Data
+public class IngestRequest {
+    @NotEmpty
+    @Size(max = 1000)
+    private List<@Valid TransactionRequest> transactions;
+}
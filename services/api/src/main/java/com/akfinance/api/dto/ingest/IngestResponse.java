@@ -0,0 +1,12 @@
+package com.akfinance.api.dto.ingest;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@AllArgsConstructor
+public class IngestResponse {
+    private List<UUID> acceptedIds;
+}
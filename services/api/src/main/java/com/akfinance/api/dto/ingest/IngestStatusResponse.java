@@ -0,0 +1,19 @@
+package com.akfinance.api.dto.ingest;
+
+import com.akfinance.api.domain.enums.IngestStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import java.time.Instant;
+import java.util.UUID;
+
+@Data
+@Builder
+@AllArgsConstructor
+public class IngestStatusResponse {
+    private UUID id;
+    private IngestStatus status;
+    private UUID transactionId;
+    private String error;
+    private Instant updatedAt;
+}
@@ -0,0 +1,26 @@
+package com.akfinance.api.dto.job;
+
+import com.akfinance.api.domain.enums.JobStatus;
+import com.akfinance.api.domain.enums.JobType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+
+@Data
+@Builder
+@AllArgsConstructor
+public class JobResponse {
+    private UUID id;
+    private JobType type;
+    private JobStatus status;
+    private Map<String, Object> params;
+    private int attempts;
+    private String error;
+    private Long resultSize;
+    private Instant createdAt;
+    private Instant startedAt;
+    private Instant finishedAt;
+}
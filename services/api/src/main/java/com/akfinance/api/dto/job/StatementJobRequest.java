@@ -0,0 +1,21 @@
+package com.akfinance.api.dto.job;
+
+import com.akfinance.api.domain.enums.StatementFormat;
+import jakarta.validation.constraints.*;
+import lombok.Data;
+
+@Data
+public class StatementJobRequest {
+    @NotNull
+    @Min(1)
+    @Max(12)
+    private Integer month;
+
+    @NotNull
+    @Min(2000)
+    @Max(2100)
+    private Integer year;
+
+    @NotNull
+    private StatementFormat format;
+}
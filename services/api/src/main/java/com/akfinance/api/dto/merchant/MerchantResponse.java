@@ -0,0 +1,14 @@
+package com.akfinance.api.dto.merchant;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import java.util.UUID;
+
+@Data
+@Builder
+@AllArgsConstructor
+public class MerchantResponse {
+    private UUID id;
+    private String name;
+}
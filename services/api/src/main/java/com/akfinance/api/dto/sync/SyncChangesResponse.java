@@ -0,0 +1,28 @@
+package com.akfinance.api.dto.sync;
+
+import com.akfinance.api.dto.budget.BudgetResponse;
+import com.akfinance.api.dto.category.CategoryResponse;
+import com.akfinance.api.dto.preference.PreferenceResponse;
+import com.akfinance.api.dto.transaction.TransactionResponse;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+public class SyncChangesResponse {
+    // Pass as 'since' on the next call
+    private String cursor;
+    private boolean hasMore;
+    // The cursor can no longer be continued: drop local data and sync again without one
+    private boolean reset;
+    private List<TransactionResponse> transactions;
+    private List<CategoryResponse> categories;
+    private List<BudgetResponse> budgets;
+    // Only when changed since the cursor, and always on the first sync
+    private PreferenceResponse preferences;
+    private List<SyncTombstone> deleted;
+}
@@ -0,0 +1,14 @@
+package com.akfinance.api.dto.sync;
+
+import com.akfinance.api.domain.enums.AggregateType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.UUID;
+
+@Data
+@AllArgsConstructor
+public class SyncTombstone {
+    private AggregateType type;
+    private UUID id;
+}
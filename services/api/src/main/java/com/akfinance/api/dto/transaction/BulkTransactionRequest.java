@@ -0,0 +1,18 @@
+package com.akfinance.api.dto.transaction;
+
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+public class BulkTransactionRequest {
+    // Exactly one of ids / filter selects the transactions
+    @Size(max = 1000)
+    private List<UUID> ids;
+
+    private TransactionFilter filter;
+
+    // Recategorize target; null clears the category. Ignored by delete
+    private UUID categoryId;
+}
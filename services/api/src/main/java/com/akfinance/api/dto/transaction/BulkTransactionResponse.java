@@ -0,0 +1,10 @@
+package com.akfinance.api.dto.transaction;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class BulkTransactionResponse {
+    private long affected;
+}
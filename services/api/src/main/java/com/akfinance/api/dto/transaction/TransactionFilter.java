@@ -0,0 +1,36 @@
+package com.akfinance.api.dto.transaction;
+
+import com.akfinance.api.domain.enums.TransactionType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionFilter {
+    private Instant from;
+    private Instant to;
+    private TransactionType type;
+    private UUID categoryId;
+    // Matches either side of a transfer
+    private UUID accountId;
+    private UUID merchantId;
+    private BigDecimal minAmount;
+    private BigDecimal maxAmount;
+    private String q;
+
+    public boolean isEmpty() {
+        return from == null && to == null && type == null && categoryId == null && accountId == null
+                && merchantId == null && minAmount == null && maxAmount == null && !hasQuery();
+    }
+
+    public boolean hasQuery() {
+        return q != null && !q.isBlank();
+    }
+}
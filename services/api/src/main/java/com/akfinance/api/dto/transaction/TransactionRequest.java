@@ -14,8 +14,10 @@ public class TransactionRequest {
 
     @NotNull
     @DecimalMin(value = "0.01", message = "Amount must be greater than 0")
+    @DecimalMax(value = "999999999999.99", message = "Amount is too large")
     private BigDecimal amount;
 
+    @Size(max = 3)
     private String currency;
 
     @NotNull
@@ -23,6 +25,12 @@ public class TransactionRequest {
 
     private UUID categoryId;
 
+    // Required for TRANSFER (debited side); optional otherwise
+    private UUID accountId;
+
+    // Credited side of a TRANSFER
+    private UUID counterAccountId;
+
     @Size(max = 1000)
     private String note;
 }
@@ -2,6 +2,7 @@ package com.akfinance.api.dto.transaction;
 
 import com.akfinance.api.domain.enums.TransactionType;
 import com.akfinance.api.dto.category.CategoryResponse;
+import com.akfinance.api.dto.merchant.MerchantResponse;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -19,7 +20,10 @@ public class TransactionResponse {
     private String currency;
     private Instant occurredAt;
     private CategoryResponse category;
+    private UUID accountId;
+    private UUID counterAccountId;
     private String note;
+    private MerchantResponse merchant;
     private Instant createdAt;
     private Instant updatedAt;
 }
@@ -2,6 +2,8 @@ package com.akfinance.api.exception;
 
 import com.akfinance.api.dto.common.ErrorResponse;
 import org.slf4j.MDC;
+import org.springframework.context.MessageSourceResolvable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.BadCredentialsException;
@@ -9,6 +11,7 @@ import org.springframework.validation.BindException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.method.annotation.HandlerMethodValidationException;
 
 import java.time.Instant;
 import java.util.List;
@@ -51,6 +54,26 @@ public class GlobalExceptionHandler {
                         .build());
     }
 
+    // Constraints on @RequestParam / @PathVariable arguments
+    @ExceptionHandler(HandlerMethodValidationException.class)
+    public ResponseEntity<ErrorResponse> handleMethodValidation(HandlerMethodValidationException ex) {
+        List<ErrorResponse.FieldError> details = ex.getAllValidationResults().stream()
+                .flatMap(r -> r.getResolvableErrors().stream()
+                        .map(e -> new ErrorResponse.FieldError(r.getMethodParameter().getParameterName(),
+                                code(e), e.getDefaultMessage())))
+                .collect(Collectors.toList());
+
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(ErrorResponse.builder()
+                        .timestamp(Instant.now())
+                        .status(400)
+                        .error("VALIDATION_ERROR")
+                        .message("Validation failed")
+                        .details(details)
+                        .requestId(MDC.get("requestId"))
+                        .build());
+    }
+
     @ExceptionHandler(ResourceNotFoundException.class)
     public ResponseEntity<ErrorResponse> handleNotFound(ResourceNotFoundException ex) {
         return ResponseEntity.status(HttpStatus.NOT_FOUND)
@@ -75,6 +98,43 @@ public class GlobalExceptionHandler {
                         .build());
     }
 
+    @ExceptionHandler(ConflictException.class)
+    public ResponseEntity<ErrorResponse> handleConflict(ConflictException ex) {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(ErrorResponse.builder()
+                        .timestamp(Instant.now())
+                        .status(409)
+                        .error("CONFLICT")
+                        .message(ex.getMessage())
+                        .requestId(MDC.get("requestId"))
+                        .build());
+    }
+
+    @ExceptionHandler(BadRequestException.class)
+    public ResponseEntity<ErrorResponse> handleBadRequest(BadRequestException ex) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(ErrorResponse.builder()
+                        .timestamp(Instant.now())
+                        .status(400)
+                        .error("BAD_REQUEST")
+                        .message(ex.getMessage())
+                        .requestId(MDC.get("requestId"))
+                        .build());
+    }
+
+    @ExceptionHandler(ServiceOverloadedException.class)
+    public ResponseEntity<ErrorResponse> handleOverloaded(ServiceOverloadedException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(ErrorResponse.builder()
+                        .timestamp(Instant.now())
+                        .status(503)
+                        .error("OVERLOADED")
+                        .message(ex.getMessage())
+                        .requestId(MDC.get("requestId"))
+                        .build());
+    }
+
     @ExceptionHandler(BadCredentialsException.class)
     public ResponseEntity<ErrorResponse> handleBadCredentials(BadCredentialsException ex) {
         return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
@@ -98,4 +158,10 @@ public class GlobalExceptionHandler {
                         .requestId(MDC.get("requestId"))
                         .build());
     }
+
+    // The least specific code, e.g. "Min", as FieldError.getCode() gives for request bodies
+    private static String code(MessageSourceResolvable error) {
+        String[] codes = error.getCodes();
+        return codes == null || codes.length == 0 ? null : codes[codes.length - 1];
+    }
 }
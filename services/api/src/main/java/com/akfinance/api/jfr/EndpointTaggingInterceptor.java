@@ -0,0 +1,25 @@
+package com.akfinance.api.jfr;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.MDC;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+// Puts the matched route ("GET /api/v1/transactions/{id}") in the MDC for service and repository events
+class EndpointTaggingInterceptor implements HandlerInterceptor {
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        if (pattern != null)
+            MDC.put(FlightEvents.ENDPOINT_KEY, request.getMethod() + " " + pattern);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+            Exception ex) {
+        MDC.remove(FlightEvents.ENDPOINT_KEY);
+    }
+}
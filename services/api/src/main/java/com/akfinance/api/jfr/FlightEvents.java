@@ -0,0 +1,53 @@
+package com.akfinance.api.jfr;
+
+import org.slf4j.MDC;
+
+import java.io.IOException;
+
+/**
+ * Tags shared by all custom events. The request id and endpoint come from the MDC, which
+ * {@code JwtAuthenticationFilter} and {@link EndpointTaggingInterceptor} fill for the request
+ * thread and {@code BootstrapService} copies to its workers.
+ */
+public final class FlightEvents {
+
+    static final String ENDPOINT_KEY = "endpoint";
+
+    private FlightEvents() {
+    }
+
+    static String requestId() {
+        return MDC.get("requestId");
+    }
+
+    static String endpoint() {
+        return MDC.get(ENDPOINT_KEY);
+    }
+
+    // For code that writes the response itself instead of going through a message converter
+    public static void recordSerialization(String mediaType, String payloadType, IoAction action) throws IOException {
+        SerializationEvent event = new SerializationEvent();
+        if (!event.isEnabled()) {
+            action.run();
+            return;
+        }
+        event.begin();
+        try {
+            action.run();
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.requestId = requestId();
+                event.endpoint = endpoint();
+                event.mediaType = mediaType;
+                event.payloadType = payloadType;
+                event.commit();
+            }
+        }
+    }
+
+    @FunctionalInterface
+    public interface IoAction {
+        void run() throws IOException;
+    }
+}
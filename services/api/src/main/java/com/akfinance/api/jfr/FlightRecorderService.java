@@ -0,0 +1,101 @@
+package com.akfinance.api.jfr;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import jdk.management.jfr.FlightRecorderMXBean;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * A continuous on-disk recording with the JDK's {@code default} settings (the profile meant for
+ * production, around 1% overhead) plus the AkFinance events. Only the last {@code max-age} is
+ * kept; {@link #dump} copies a window of it out without stopping it.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(prefix = "app.jfr", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class FlightRecorderService {
+
+    @Value("${app.jfr.settings:default}")
+    private String settings;
+
+    @Value("${app.jfr.max-age:PT30M}")
+    private Duration maxAge;
+
+    @Value("${app.jfr.max-size-mb:200}")
+    private long maxSizeMb;
+
+    private Recording recording;
+
+    @PostConstruct
+    void start() throws IOException, ParseException {
+        if (!FlightRecorder.isAvailable()) {
+            log.warn("Flight Recorder is not available in this JVM; continuous recording is off");
+            return;
+        }
+        recording = new Recording(Configuration.getConfiguration(settings));
+        recording.setName("akfinance-continuous");
+        recording.setToDisk(true);
+        recording.setMaxAge(maxAge);
+        recording.setMaxSize(maxSizeMb * 1024 * 1024);
+        recording.enable(HttpRequestEvent.class);
+        recording.enable(ServiceCallEvent.class);
+        recording.enable(RepositoryQueryEvent.class);
+        recording.enable(SerializationEvent.class);
+        recording.start();
+        log.info("Continuous flight recording started (settings={}, maxAge={})", settings, maxAge);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (recording != null)
+            recording.close();
+    }
+
+    public boolean isRecording() {
+        return recording != null;
+    }
+
+    public Duration getMaxAge() {
+        return maxAge;
+    }
+
+    // Clones the running recording so it keeps going, then streams only chunks newer than now - window
+    public Path dump(Duration window) throws IOException {
+        FlightRecorderMXBean bean = ManagementFactory.getPlatformMXBean(FlightRecorderMXBean.class);
+        long clone = bean.cloneRecording(recording.getId(), true);
+        Path file = Files.createTempFile("akfinance-", ".jfr");
+        try (OutputStream out = Files.newOutputStream(file)) {
+            long stream = bean.openStream(clone,
+                    Map.of("startTime", Instant.now().minus(window).toString()));
+            try {
+                byte[] block;
+                while ((block = bean.readStream(stream)) != null)
+                    out.write(block);
+            } finally {
+                bean.closeStream(stream);
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        } finally {
+            bean.closeRecording(clone);
+        }
+        return file;
+    }
+}
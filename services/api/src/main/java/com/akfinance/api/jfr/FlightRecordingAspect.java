@@ -0,0 +1,74 @@
+package com.akfinance.api.jfr;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Service and repository calls as JFR events. With no recording running {@code isEnabled()} is
+ * false and the call goes straight through; below the event threshold nothing is committed.
+ */
+@Aspect
+@Component
+@ConditionalOnProperty(prefix = "app.jfr", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class FlightRecordingAspect {
+
+    @Around("within(com.akfinance.api.service..*) && @within(org.springframework.stereotype.Service) "
+            + "&& execution(public * *(..))")
+    public Object serviceCall(ProceedingJoinPoint pjp) throws Throwable {
+        ServiceCallEvent event = new ServiceCallEvent();
+        if (!event.isEnabled())
+            return pjp.proceed();
+        event.begin();
+        try {
+            return pjp.proceed();
+        } catch (Throwable e) {
+            event.failed = true;
+            throw e;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.requestId = FlightEvents.requestId();
+                event.endpoint = FlightEvents.endpoint();
+                event.operation = operation(pjp);
+                event.commit();
+            }
+        }
+    }
+
+    @Around("execution(* org.springframework.data.repository.Repository+.*(..))")
+    public Object repositoryQuery(ProceedingJoinPoint pjp) throws Throwable {
+        RepositoryQueryEvent event = new RepositoryQueryEvent();
+        if (!event.isEnabled())
+            return pjp.proceed();
+        event.begin();
+        try {
+            return pjp.proceed();
+        } catch (Throwable e) {
+            event.failed = true;
+            throw e;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.requestId = FlightEvents.requestId();
+                event.endpoint = FlightEvents.endpoint();
+                event.operation = operation(pjp);
+                event.commit();
+            }
+        }
+    }
+
+    // Repository proxies report the Spring Data interface, so the name comes from the first of ours
+    private static String operation(ProceedingJoinPoint pjp) {
+        Class<?> type = pjp.getSignature().getDeclaringType();
+        for (Class<?> candidate : pjp.getThis().getClass().getInterfaces()) {
+            if (candidate.getName().startsWith("com.akfinance.")) {
+                type = candidate;
+                break;
+            }
+        }
+        return type.getSimpleName() + "." + pjp.getSignature().getName();
+    }
+}
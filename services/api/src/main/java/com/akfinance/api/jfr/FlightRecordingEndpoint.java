@@ -0,0 +1,69 @@
+package com.akfinance.api.jfr;
+
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.actuate.endpoint.web.annotation.WebEndpoint;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * {@code GET /actuator/flightrecording?minutes=5} returns the last N minutes of the continuous
+ * recording as a {@code .jfr} file for JDK Mission Control or {@code jfr print}. Restricted to
+ * loopback in {@code SecurityConfig}; reach it through a port-forward.
+ */
+@Component
+@WebEndpoint(id = "flightrecording")
+@ConditionalOnProperty(prefix = "app.jfr", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class FlightRecordingEndpoint {
+
+    private final FlightRecorderService recorder;
+
+    public FlightRecordingEndpoint(FlightRecorderService recorder) {
+        this.recorder = recorder;
+    }
+
+    @ReadOperation(produces = "application/octet-stream")
+    public WebEndpointResponse<Resource> dump(@Nullable Integer minutes) throws IOException {
+        if (!recorder.isRecording())
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_SERVICE_UNAVAILABLE);
+        Duration window = minutes != null && minutes > 0 ? Duration.ofMinutes(minutes) : Duration.ofMinutes(5);
+        if (window.compareTo(recorder.getMaxAge()) > 0)
+            window = recorder.getMaxAge();
+        return new WebEndpointResponse<>(new TemporaryFileResource(recorder.dump(window)));
+    }
+
+    // Deleted once the response has been streamed
+    private static final class TemporaryFileResource extends FileSystemResource {
+
+        private final Path path;
+
+        TemporaryFileResource(Path path) {
+            super(path);
+            this.path = path;
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return new FilterInputStream(super.getInputStream()) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        Files.deleteIfExists(path);
+                    }
+                }
+            };
+        }
+    }
+}
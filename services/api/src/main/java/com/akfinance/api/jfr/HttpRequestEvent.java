@@ -0,0 +1,27 @@
+package com.akfinance.api.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("akfinance.HttpRequest")
+@Label("HTTP Request")
+@Category({"AkFinance", "HTTP"})
+@Description("One HTTP request from the first servlet filter to the response being complete")
+@StackTrace(false)
+class HttpRequestEvent extends jdk.jfr.Event {
+
+    @Label("Request Id")
+    String requestId;
+
+    @Label("Endpoint")
+    String endpoint;
+
+    @Label("Method")
+    String method;
+
+    @Label("Status")
+    int status;
+}
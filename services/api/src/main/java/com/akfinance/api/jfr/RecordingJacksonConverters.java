@@ -0,0 +1,81 @@
+package com.akfinance.api.jfr;
+
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+/**
+ * Jackson converters that record their writes as serialization events. They subclass the stock
+ * converters rather than wrap them, so whatever checks for {@link AbstractJackson2HttpMessageConverter}
+ * (the {@code @JsonView} advice, {@link MappingJacksonValue} handling) still finds one.
+ */
+final class RecordingJacksonConverters {
+
+    private RecordingJacksonConverters() {
+    }
+
+    // Same mapper and media types; converters of other types are returned as they are
+    static HttpMessageConverter<?> recording(HttpMessageConverter<?> converter) {
+        AbstractJackson2HttpMessageConverter recording;
+        if (converter instanceof MappingJackson2HttpMessageConverter json)
+            recording = new Json(json);
+        else if (converter instanceof MappingJackson2CborHttpMessageConverter cbor)
+            recording = new Cbor(cbor);
+        else if (converter instanceof MappingJackson2SmileHttpMessageConverter smile)
+            recording = new Smile(smile);
+        else
+            return converter;
+        recording.setSupportedMediaTypes(converter.getSupportedMediaTypes());
+        return recording;
+    }
+
+    private static void record(Object object, HttpOutputMessage outputMessage, FlightEvents.IoAction write)
+            throws IOException {
+        Object payload = object instanceof MappingJacksonValue value ? value.getValue() : object;
+        FlightEvents.recordSerialization(String.valueOf(outputMessage.getHeaders().getContentType()),
+                payload.getClass().getSimpleName(), write);
+    }
+
+    private static final class Json extends MappingJackson2HttpMessageConverter {
+
+        Json(MappingJackson2HttpMessageConverter source) {
+            super(source.getObjectMapper());
+        }
+
+        @Override
+        protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage) throws IOException {
+            record(object, outputMessage, () -> super.writeInternal(object, type, outputMessage));
+        }
+    }
+
+    private static final class Cbor extends MappingJackson2CborHttpMessageConverter {
+
+        Cbor(MappingJackson2CborHttpMessageConverter source) {
+            super(source.getObjectMapper());
+        }
+
+        @Override
+        protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage) throws IOException {
+            record(object, outputMessage, () -> super.writeInternal(object, type, outputMessage));
+        }
+    }
+
+    private static final class Smile extends MappingJackson2SmileHttpMessageConverter {
+
+        Smile(MappingJackson2SmileHttpMessageConverter source) {
+            super(source.getObjectMapper());
+        }
+
+        @Override
+        protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage) throws IOException {
+            record(object, outputMessage, () -> super.writeInternal(object, type, outputMessage));
+        }
+    }
+}
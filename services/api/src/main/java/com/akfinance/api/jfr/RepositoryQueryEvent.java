@@ -0,0 +1,27 @@
+package com.akfinance.api.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+@Name("akfinance.RepositoryQuery")
+@Label("Repository Query")
+@Category({"AkFinance", "Repository"})
+@StackTrace(false)
+@Threshold("1 ms")
+class RepositoryQueryEvent extends jdk.jfr.Event {
+
+    @Label("Request Id")
+    String requestId;
+
+    @Label("Endpoint")
+    String endpoint;
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Failed")
+    boolean failed;
+}
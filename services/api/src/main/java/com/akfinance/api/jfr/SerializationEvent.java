@@ -0,0 +1,27 @@
+package com.akfinance.api.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+@Name("akfinance.Serialization")
+@Label("Response Serialization")
+@Category({"AkFinance", "Serialization"})
+@StackTrace(false)
+@Threshold("1 ms")
+class SerializationEvent extends jdk.jfr.Event {
+
+    @Label("Request Id")
+    String requestId;
+
+    @Label("Endpoint")
+    String endpoint;
+
+    @Label("Media Type")
+    String mediaType;
+
+    @Label("Payload Type")
+    String payloadType;
+}
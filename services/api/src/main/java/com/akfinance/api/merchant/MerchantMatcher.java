@@ -0,0 +1,114 @@
+package com.akfinance.api.merchant;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.UUID;
+
+/**
+ * Aho-Corasick automaton over merchant aliases: one pass over a note finds every alias in it,
+ * however many aliases there are. Aliases and notes are normalized by MerchantNormalizer and
+ * padded with a space on both sides, so an alias only matches whole words. The longest match
+ * wins, then the leftmost one. Immutable once built, so one instance serves every thread.
+ */
+public final class MerchantMatcher {
+
+    private final Node root = new Node();
+    private final int size;
+
+    public MerchantMatcher(Map<String, UUID> merchantByAlias) {
+        merchantByAlias.forEach((alias, merchantId) -> {
+            String pattern = pad(MerchantNormalizer.normalize(alias));
+            if (pattern.length() > 2)
+                add(pattern, merchantId);
+        });
+        size = merchantByAlias.size();
+        link();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public Optional<UUID> match(String normalizedNote) {
+        if (normalizedNote.isEmpty())
+            return Optional.empty();
+        String text = pad(normalizedNote);
+        Node node = root;
+        Node best = null;
+        int bestEnd = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            while (node != root && !node.next.containsKey(c))
+                node = node.fail;
+            node = node.next.getOrDefault(c, root);
+            // Only the longest pattern ending here can beat the best so far
+            Node found = node.merchantId != null ? node : node.output;
+            if (found != null && (best == null || isBetter(found, i, best, bestEnd))) {
+                best = found;
+                bestEnd = i;
+            }
+        }
+        return best == null ? Optional.empty() : Optional.of(best.merchantId);
+    }
+
+    private static boolean isBetter(Node found, int end, Node best, int bestEnd) {
+        if (found.depth != best.depth)
+            return found.depth > best.depth;
+        return end - found.depth < bestEnd - best.depth;
+    }
+
+    private void add(String pattern, UUID merchantId) {
+        Node node = root;
+        for (int i = 0; i < pattern.length(); i++) {
+            int depth = i + 1;
+            node = node.next.computeIfAbsent(pattern.charAt(i), c -> new Node(depth));
+        }
+        node.merchantId = merchantId;
+    }
+
+    // Breadth-first, so a node's failure target is finished before the node itself
+    private void link() {
+        Queue<Node> queue = new ArrayDeque<>();
+        root.fail = root;
+        for (Node child : root.next.values()) {
+            child.fail = root;
+            queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            Node node = queue.poll();
+            node.next.forEach((c, child) -> {
+                Node fail = node.fail;
+                while (fail != root && !fail.next.containsKey(c))
+                    fail = fail.fail;
+                Node target = fail.next.get(c);
+                child.fail = target != null && target != child ? target : root;
+                child.output = child.fail.merchantId != null ? child.fail : child.fail.output;
+                queue.add(child);
+            });
+        }
+    }
+
+    private static String pad(String text) {
+        return " " + text + " ";
+    }
+
+    private static final class Node {
+        final Map<Character, Node> next = new HashMap<>(4);
+        final int depth;
+        Node fail;
+        // Nearest node on the failure chain that ends a pattern
+        Node output;
+        UUID merchantId;
+
+        Node() {
+            this(0);
+        }
+
+        Node(int depth) {
+            this.depth = depth;
+        }
+    }
+}
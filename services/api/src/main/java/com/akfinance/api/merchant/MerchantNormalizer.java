@@ -0,0 +1,97 @@
+package com.akfinance.api.merchant;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * Turns free-form transaction notes into the text MerchantMatcher searches and, when no alias
+ * matches, into a fallback merchant key: the first words of the note that look like a name.
+ */
+public final class MerchantNormalizer {
+
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final int FALLBACK_WORDS = 2;
+    private static final int MAX_KEY_LENGTH = 100;
+
+    // Payment boilerplate and legal forms that bank exports put around the merchant's name
+    private static final Set<String> NOISE = Set.of(
+            "оплата", "покупка", "платеж", "списание", "счет", "карта", "карты", "по", "в", "на",
+            "ооо", "ип", "ао", "пао", "зао", "москва", "спб", "россия",
+            "payment", "purchase", "pos", "card", "visa", "mastercard", "mir", "retail", "shop",
+            "ooo", "ip", "ao", "pao", "llc", "ltd", "inc", "www", "com", "ru", "rus", "moscow");
+
+    private MerchantNormalizer() {
+    }
+
+    /** Lower case, 'ё' as 'е', words of letters and digits separated by single spaces. */
+    public static String normalize(String note) {
+        if (note == null)
+            return "";
+        String lower = note.toLowerCase(Locale.ROOT).replace('ё', 'е');
+        return SEPARATORS.matcher(lower).replaceAll(" ").strip();
+    }
+
+    /**
+     * Up to two leading words of a normalized note, skipping noise and anything with digits (card
+     * masks, store numbers, dates). Empty when nothing in the note looks like a name.
+     */
+    public static Optional<String> fallbackKey(String normalized) {
+        List<String> words = new ArrayList<>(FALLBACK_WORDS);
+        for (String word : normalized.split(" ")) {
+            if (word.length() < 2 || NOISE.contains(word) || !word.chars().allMatch(Character::isLetter))
+                continue;
+            words.add(word);
+            if (words.size() == FALLBACK_WORDS)
+                break;
+        }
+        String key = String.join(" ", words);
+        return key.isEmpty() ? Optional.empty() : Optional.of(truncate(key));
+    }
+
+    // "coffee bean" -> "Coffee Bean"
+    public static String displayName(String key) {
+        StringBuilder name = new StringBuilder(key.length());
+        for (String word : key.split(" ")) {
+            if (!name.isEmpty())
+                name.append(' ');
+            name.append(Character.toUpperCase(word.charAt(0))).append(word, 1, word.length());
+        }
+        return name.toString();
+    }
+
+    /** Same as {@code md5('merchant:' || key)::uuid} in SQL, so every shard agrees on the id. */
+    public static UUID idOf(String key) {
+        return md5Uuid("merchant:" + key);
+    }
+
+    /**
+     * A user's own fallback merchant: {@code md5('merchant:' || user_id || ':' || key)::uuid}, so it
+     * keeps its id when the user moves to another shard.
+     */
+    public static UUID idOf(UUID userId, String key) {
+        return md5Uuid("merchant:" + userId + ":" + key);
+    }
+
+    private static UUID md5Uuid(String text) {
+        try {
+            byte[] digest = MessageDigest.getInstance("MD5").digest(text.getBytes(StandardCharsets.UTF_8));
+            ByteBuffer buffer = ByteBuffer.wrap(digest);
+            return new UUID(buffer.getLong(), buffer.getLong());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("MD5 is not available", e);
+        }
+    }
+
+    private static String truncate(String key) {
+        return key.length() <= MAX_KEY_LENGTH ? key : key.substring(0, MAX_KEY_LENGTH).strip();
+    }
+}
@@ -0,0 +1,138 @@
+package com.akfinance.api.repository;
+
+import com.akfinance.api.domain.entity.Account;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface AccountRepository extends JpaRepository<Account, UUID> {
+
+    List<Account> findByUserIdOrderByCreatedAtAsc(UUID userId);
+
+    Optional<Account> findByIdAndUserId(UUID id, UUID userId);
+
+    boolean existsByUserIdAndName(UUID userId, String name);
+
+    @Modifying
+    @Query(value = """
+                UPDATE accounts SET balance = balance + :delta, updated_at = NOW()
+                WHERE id = :id
+            """, nativeQuery = true)
+    int addBalance(@Param("id") UUID id, @Param("delta") BigDecimal delta);
+
+    // Checkpoints after 'after' no longer include a write at 'after' and must be rebuilt
+    @Modifying
+    @Query(value = """
+                DELETE FROM account_balance_checkpoints
+                WHERE account_id IN (:ids) AND as_of > :after
+            """, nativeQuery = true)
+    int deleteCheckpointsAfter(@Param("ids") Collection<UUID> ids, @Param("after") Instant after);
+
+    // Returns (balance, checkpoint as_of or null): nearest checkpoint plus the transactions since it
+    @Query(value = """
+                SELECT COALESCE(c.balance, a.opening_balance)
+                    + COALESCE((SELECT SUM(CASE WHEN t.type = 'INCOME' THEN t.amount ELSE -t.amount END)
+                        FROM transactions t
+                        WHERE t.account_id = a.id
+                        AND t.occurred_at >= COALESCE(c.as_of, CAST('-infinity' AS timestamptz))
+                        AND t.occurred_at < :at), 0)
+                    + COALESCE((SELECT SUM(t.amount)
+                        FROM transactions t
+                        WHERE t.counter_account_id = a.id
+                        AND t.occurred_at >= COALESCE(c.as_of, CAST('-infinity' AS timestamptz))
+                        AND t.occurred_at < :at), 0),
+                    c.as_of
+                FROM accounts a
+                LEFT JOIN LATERAL (
+                    SELECT as_of, balance FROM account_balance_checkpoints
+                    WHERE account_id = a.id AND as_of <= :at
+                    ORDER BY as_of DESC LIMIT 1
+                ) c ON TRUE
+                WHERE a.id = :id
+            """, nativeQuery = true)
+    List<Object[]> balanceAt(@Param("id") UUID id, @Param("at") Instant at);
+
+    // balanceAt for points before the archive horizon; the archive is only indexed by user and date
+    @Query(value = """
+                SELECT COALESCE(c.balance, a.opening_balance)
+                    + COALESCE((SELECT SUM(CASE
+                            WHEN t.counter_account_id = a.id THEN t.amount
+                            WHEN t.type = 'INCOME' THEN t.amount
+                            ELSE -t.amount END)
+                        FROM (
+                            SELECT account_id, counter_account_id, type, amount FROM transactions
+                            WHERE user_id = a.user_id
+                            AND occurred_at >= COALESCE(c.as_of, CAST('-infinity' AS timestamptz))
+                            AND occurred_at < :at
+                            UNION ALL
+                            SELECT account_id, counter_account_id, type, amount FROM transactions_archive
+                            WHERE user_id = a.user_id
+                            AND occurred_at >= COALESCE(c.as_of, CAST('-infinity' AS timestamptz))
+                            AND occurred_at < :at
+                        ) t
+                        WHERE t.account_id = a.id OR t.counter_account_id = a.id), 0),
+                    c.as_of
+                FROM accounts a
+                LEFT JOIN LATERAL (
+                    SELECT as_of, balance FROM account_balance_checkpoints
+                    WHERE account_id = a.id AND as_of <= :at
+                    ORDER BY as_of DESC LIMIT 1
+                ) c ON TRUE
+                WHERE a.id = :id
+            """, nativeQuery = true)
+    List<Object[]> balanceAtWithArchive(@Param("id") UUID id, @Param("at") Instant at);
+
+    @Query(value = "SELECT id FROM accounts WHERE user_id IN (:userIds)", nativeQuery = true)
+    List<UUID> findIdsByUserIdIn(@Param("userIds") Collection<UUID> userIds);
+
+    // Locks the next batch so concurrent writes can't slip between reading and checkpointing
+    @Query(value = """
+                SELECT id FROM accounts
+                WHERE id > :after
+                ORDER BY id
+                LIMIT :limit
+                FOR UPDATE
+            """, nativeQuery = true)
+    List<UUID> lockBatchAfter(@Param("after") UUID after, @Param("limit") int limit);
+
+    // Only accounts with activity since their previous checkpoint get a new one
+    @Modifying
+    @Query(value = """
+                INSERT INTO account_balance_checkpoints (account_id, as_of, balance)
+                SELECT a.id, :asOf, COALESCE(c.balance, a.opening_balance)
+                    + COALESCE(d.debits, 0) + COALESCE(k.credits, 0)
+                FROM accounts a
+                LEFT JOIN LATERAL (
+                    SELECT as_of, balance FROM account_balance_checkpoints
+                    WHERE account_id = a.id AND as_of <= :asOf
+                    ORDER BY as_of DESC LIMIT 1
+                ) c ON TRUE
+                LEFT JOIN LATERAL (
+                    SELECT SUM(CASE WHEN t.type = 'INCOME' THEN t.amount ELSE -t.amount END) AS debits
+                    FROM transactions t
+                    WHERE t.account_id = a.id
+                    AND t.occurred_at >= COALESCE(c.as_of, CAST('-infinity' AS timestamptz))
+                    AND t.occurred_at < :asOf
+                ) d ON TRUE
+                LEFT JOIN LATERAL (
+                    SELECT SUM(t.amount) AS credits
+                    FROM transactions t
+                    WHERE t.counter_account_id = a.id
+                    AND t.occurred_at >= COALESCE(c.as_of, CAST('-infinity' AS timestamptz))
+                    AND t.occurred_at < :asOf
+                ) k ON TRUE
+                WHERE a.id IN (:ids)
+                AND (c.as_of IS NULL OR c.as_of < :asOf)
+                AND (d.debits IS NOT NULL OR k.credits IS NOT NULL)
+                ON CONFLICT DO NOTHING
+            """, nativeQuery = true)
+    int insertCheckpoints(@Param("ids") Collection<UUID> ids, @Param("asOf") Instant asOf);
+}
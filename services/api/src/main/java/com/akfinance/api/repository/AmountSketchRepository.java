@@ -0,0 +1,145 @@
+package com.akfinance.api.repository;
+
+import com.akfinance.api.analytics.AmountSketches;
+import com.tdunning.math.stats.TDigest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * {@code amount_sketches}: one t-digest of transaction amounts per user, month, category and
+ * currency. Writers merge into a sketch under its row lock; see {@code AmountSketchLog}.
+ */
+@Repository
+@RequiredArgsConstructor
+public class AmountSketchRepository {
+
+    private static final RowMapper<StoredSketch> STORED = (rs, i) -> new StoredSketch(
+            new SketchKey(rs.getObject(1, UUID.class), YearMonth.from(rs.getDate(2).toLocalDate()),
+                    rs.getObject(3, UUID.class), rs.getString(4)),
+            rs.getLong(5), rs.getBytes(6), rs.getBoolean(7));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Adds {@code values} to the stored sketch. A new key is one INSERT; an existing one is read
+     * under its row lock and written back. Stale sketches are left alone, their rebuild reads the
+     * rows anyway.
+     */
+    public void merge(SketchKey key, TDigest values) {
+        int inserted = jdbcTemplate.update("""
+                    INSERT INTO amount_sketches (user_id, month, category_id, currency, count, sketch)
+                    VALUES (?, ?, ?, ?, ?, ?)
+                    ON CONFLICT DO NOTHING
+                """, key.userId(), monthStart(key.month()), key.categoryId(), key.currency(), values.size(),
+                AmountSketches.toBytes(values));
+        if (inserted == 1)
+            return;
+
+        StoredSketch stored = jdbcTemplate.queryForObject("""
+                    SELECT user_id, month, category_id, currency, count, sketch, stale FROM amount_sketches
+                    WHERE user_id = ? AND month = ? AND category_id = ? AND currency = ?
+                    FOR UPDATE
+                """, STORED, key.userId(), monthStart(key.month()), key.categoryId(), key.currency());
+        if (stored.stale())
+            return;
+        TDigest merged = AmountSketches.merge(AmountSketches.fromBytes(stored.sketch()), values);
+        store(key, merged);
+    }
+
+    public void markStale(SketchKey key) {
+        jdbcTemplate.update("""
+                    INSERT INTO amount_sketches (user_id, month, category_id, currency, stale)
+                    VALUES (?, ?, ?, ?, TRUE)
+                    ON CONFLICT (user_id, month, category_id, currency) DO UPDATE
+                    SET stale = TRUE, updated_at = NOW()
+                """, key.userId(), monthStart(key.month()), key.categoryId(), key.currency());
+    }
+
+    public void store(SketchKey key, TDigest sketch) {
+        jdbcTemplate.update("""
+                    UPDATE amount_sketches SET count = ?, sketch = ?, stale = FALSE, updated_at = NOW()
+                    WHERE user_id = ? AND month = ? AND category_id = ? AND currency = ?
+                """, sketch.size(), AmountSketches.toBytes(sketch),
+                key.userId(), monthStart(key.month()), key.categoryId(), key.currency());
+    }
+
+    // Months from..to inclusive, optionally one category
+    public List<StoredSketch> findRange(UUID userId, YearMonth from, YearMonth to, UUID categoryId) {
+        List<Object> args = new ArrayList<>(List.of(userId, monthStart(from), monthStart(to.plusMonths(1))));
+        String category = "";
+        if (categoryId != null) {
+            category = " AND category_id = ?";
+            args.add(categoryId);
+        }
+        return jdbcTemplate.query("""
+                    SELECT user_id, month, category_id, currency, count, sketch, stale FROM amount_sketches
+                    WHERE user_id = ? AND month >= ? AND month < ?%s
+                """.formatted(category), STORED, args.toArray());
+    }
+
+    // Oldest first; rows another refresher holds are skipped
+    public List<SketchKey> lockStale(int limit) {
+        return jdbcTemplate.query("""
+                    SELECT user_id, month, category_id, currency, count, sketch, stale FROM amount_sketches
+                    WHERE stale
+                    ORDER BY updated_at
+                    LIMIT ?
+                    FOR UPDATE SKIP LOCKED
+                """, STORED, limit).stream().map(StoredSketch::key).toList();
+    }
+
+    // Everything the sketch summarizes, archived rows included
+    public List<BigDecimal> findAmounts(SketchKey key) {
+        Instant from = key.month().atDay(1).atStartOfDay(ZoneOffset.UTC).toInstant();
+        Instant to = key.month().plusMonths(1).atDay(1).atStartOfDay(ZoneOffset.UTC).toInstant();
+        Object[] args = { key.userId(), key.categoryId(), key.currency(), Timestamp.from(from), Timestamp.from(to) };
+        return jdbcTemplate.queryForList("""
+                    SELECT amount FROM transactions
+                    WHERE user_id = ? AND category_id = ? AND currency = ? AND occurred_at >= ? AND occurred_at < ?
+                    UNION ALL
+                    SELECT amount FROM transactions_archive
+                    WHERE user_id = ? AND category_id = ? AND currency = ? AND occurred_at >= ? AND occurred_at < ?
+                """, BigDecimal.class, concat(args, args));
+    }
+
+    private static Date monthStart(YearMonth month) {
+        return Date.valueOf(month.atDay(1));
+    }
+
+    private static Object[] concat(Object[] first, Object[] second) {
+        Object[] all = new Object[first.length + second.length];
+        System.arraycopy(first, 0, all, 0, first.length);
+        System.arraycopy(second, 0, all, first.length, second.length);
+        return all;
+    }
+
+    // Every writer locks sketch rows in this order
+    public record SketchKey(UUID userId, YearMonth month, UUID categoryId, String currency)
+            implements Comparable<SketchKey> {
+
+        @Override
+        public int compareTo(SketchKey other) {
+            int c = userId.compareTo(other.userId);
+            if (c == 0)
+                c = month.compareTo(other.month);
+            if (c == 0)
+                c = categoryId.compareTo(other.categoryId);
+            return c != 0 ? c : currency.compareTo(other.currency);
+        }
+    }
+
+    public record StoredSketch(SketchKey key, long count, byte[] sketch, boolean stale) {
+    }
+}
@@ -0,0 +1,33 @@
+package com.akfinance.api.repository;
+
+import com.akfinance.api.domain.entity.ApiKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface ApiKeyRepository extends JpaRepository<ApiKey, UUID> {
+
+    Optional<ApiKey> findByKeyHash(byte[] keyHash);
+
+    Optional<ApiKey> findByIdAndUserId(UUID id, UUID userId);
+
+    List<ApiKey> findByUserIdOrderByCreatedAtDesc(UUID userId);
+
+    long countByUserIdAndRevokedAtIsNull(UUID userId);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE ApiKey k SET k.lastUsedAt = :now WHERE k.id = :id")
+    int touch(@Param("id") UUID id, @Param("now") Instant now);
+
+    // Delivered to every listening instance when the surrounding transaction commits
+    @Query(value = "SELECT pg_notify('api_key_revoked', :keyHash)", nativeQuery = true)
+    Object notifyRevoked(@Param("keyHash") String keyHashHex);
+}
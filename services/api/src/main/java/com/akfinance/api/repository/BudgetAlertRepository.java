@@ -0,0 +1,43 @@
+package com.akfinance.api.repository;
+
+import com.akfinance.api.domain.entity.BudgetAlert;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface BudgetAlertRepository extends JpaRepository<BudgetAlert, UUID> {
+
+    @Query("""
+                SELECT a FROM BudgetAlert a
+                JOIN FETCH a.budget b
+                JOIN FETCH b.category
+                WHERE a.user.id = :userId
+                ORDER BY a.createdAt DESC
+            """)
+    List<BudgetAlert> findByUserId(@Param("userId") UUID userId);
+
+    Optional<BudgetAlert> findByIdAndUserId(UUID id, UUID userId);
+
+    @Modifying
+    @Query(value = """
+                INSERT INTO budget_alerts (user_id, budget_id, threshold, spent_amount, limit_amount)
+                VALUES (:userId, :budgetId, :threshold, :spent, :limit)
+                ON CONFLICT (budget_id, threshold) DO NOTHING
+            """, nativeQuery = true)
+    int insertIfAbsent(
+            @Param("userId") UUID userId,
+            @Param("budgetId") UUID budgetId,
+            @Param("threshold") int threshold,
+            @Param("spent") BigDecimal spent,
+            @Param("limit") BigDecimal limit);
+
+    @Modifying
+    @Query("DELETE FROM BudgetAlert a WHERE a.budget.id = :budgetId AND a.threshold > :maxReached")
+    int deleteAboveThreshold(@Param("budgetId") UUID budgetId, @Param("maxReached") int maxReached);
+}
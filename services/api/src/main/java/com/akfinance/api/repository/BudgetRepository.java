@@ -2,14 +2,109 @@ package com.akfinance.api.repository;
 
 import com.akfinance.api.domain.entity.Budget;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
-public interface BudgetRepository extends JpaRepository<Budget, UUID> {
+public interface BudgetRepository extends JpaRepository<Budget, UUID>, BudgetRepositoryCustom {
     List<Budget> findByUserIdAndMonthAndYear(UUID userId, Integer month, Integer year);
 
     Optional<Budget> findByIdAndUserId(UUID id, UUID userId);
 
+    List<Budget> findByUserIdAndIdIn(UUID userId, Collection<UUID> ids);
+
+    // Budgets that ON DELETE CASCADE removes along with the category
+    @Query("SELECT b.id FROM Budget b WHERE b.category.id = :categoryId")
+    List<UUID> findIdsByCategoryId(@Param("categoryId") UUID categoryId);
+
     boolean existsByUserIdAndCategoryIdAndMonthAndYear(UUID userId, UUID categoryId, Integer month, Integer year);
+
+    /**
+     * Copies the users' budgets of the source month into the month after it; categories that already
+     * have a budget there are left alone. The new limit is the old one times {@code factor}, plus
+     * what the source month left unspent when {@code carryOver} is set. One grouped scan of both
+     * months' expenses serves the carry-over and what the target month already holds; spent itself is
+     * recounted under the period locks after the insert (see {@link #recountSpent}). A budget whose new
+     * limit or spent would not fit NUMERIC(14,2) is skipped rather than failing the whole batch. Returns
+     * (id, user_id, category_id, currency, limit) of the created rows, the limit in minor units, and
+     * (NULL, user_id, category_id, currency, NULL) of the skipped ones.
+     */
+    @Query(value = """
+                WITH spent AS (
+                    SELECT t.user_id, t.category_id,
+                           SUM(t.amount) FILTER (WHERE t.occurred_at < :targetStart) AS source_spent,
+                           SUM(t.amount) FILTER (WHERE t.occurred_at >= :targetStart) AS target_spent
+                    FROM transactions t
+                    WHERE t.user_id IN (:userIds)
+                    AND t.type = 'EXPENSE'
+                    AND t.occurred_at >= :sourceStart
+                    AND t.occurred_at < :targetEnd
+                    GROUP BY t.user_id, t.category_id
+                ),
+                candidates AS (
+                    SELECT b.user_id, b.category_id, b.currency,
+                           GREATEST(ROUND(b.limit_amount * :factor
+                               + CASE WHEN :carryOver THEN GREATEST(b.limit_amount - COALESCE(s.source_spent, 0), 0)
+                                      ELSE 0 END, 2), 0.01) AS limit_amount,
+                           COALESCE(s.target_spent, 0) AS spent_amount
+                    FROM budgets b
+                    LEFT JOIN spent s ON s.user_id = b.user_id AND s.category_id = b.category_id
+                    WHERE b.user_id IN (:userIds)
+                    AND b.year = :sourceYear
+                    AND b.month = :sourceMonth
+                ),
+                created AS (
+                    INSERT INTO budgets (user_id, category_id, month, year, limit_amount, currency, spent_amount)
+                    SELECT c.user_id, c.category_id, :targetMonth, :targetYear, c.limit_amount, c.currency,
+                           c.spent_amount
+                    FROM candidates c
+                    WHERE c.limit_amount < 1000000000000 AND c.spent_amount < 1000000000000
+                    ON CONFLICT (user_id, category_id, month, year) DO NOTHING
+                    RETURNING id, user_id, category_id, currency, CAST(limit_amount * 100 AS BIGINT)
+                )
+                SELECT * FROM created
+                UNION ALL
+                SELECT NULL, c.user_id, c.category_id, c.currency, NULL
+                FROM candidates c
+                WHERE (c.limit_amount >= 1000000000000 OR c.spent_amount >= 1000000000000)
+                AND NOT EXISTS (
+                    SELECT 1 FROM budgets t
+                    WHERE t.user_id = c.user_id AND t.category_id = c.category_id
+                    AND t.year = :targetYear AND t.month = :targetMonth
+                )
+            """, nativeQuery = true)
+    List<Object[]> rollover(
+            @Param("userIds") Collection<UUID> userIds,
+            @Param("sourceYear") int sourceYear,
+            @Param("sourceMonth") int sourceMonth,
+            @Param("targetYear") int targetYear,
+            @Param("targetMonth") int targetMonth,
+            @Param("sourceStart") Instant sourceStart,
+            @Param("targetStart") Instant targetStart,
+            @Param("targetEnd") Instant targetEnd,
+            @Param("factor") BigDecimal factor,
+            @Param("carryOver") boolean carryOver);
+
+    // Row-level atomic increment in minor units; returns (id, currency, limit, spent after the update),
+    // amounts also in minor units
+    @Query(value = """
+                UPDATE budgets SET spent_amount = spent_amount + :deltaMinor * 0.01, updated_at = NOW()
+                WHERE user_id = :userId
+                AND category_id = :categoryId
+                AND year = :year
+                AND month = :month
+                RETURNING id, currency, CAST(limit_amount * 100 AS BIGINT), CAST(spent_amount * 100 AS BIGINT)
+            """, nativeQuery = true)
+    List<Object[]> addSpent(
+            @Param("userId") UUID userId,
+            @Param("categoryId") UUID categoryId,
+            @Param("year") int year,
+            @Param("month") int month,
+            @Param("deltaMinor") long deltaMinor);
 }
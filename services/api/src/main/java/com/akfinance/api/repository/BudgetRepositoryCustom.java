@@ -0,0 +1,37 @@
+package com.akfinance.api.repository;
+
+import com.akfinance.api.domain.enums.CategoryType;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+public interface BudgetRepositoryCustom {
+
+    // Limits and spending per category and month of the year; withArchive when the year reaches the archive
+    List<YearRow> findYearMatrix(UUID userId, int year, boolean withArchive);
+
+    /**
+     * Takes the transaction-scoped advisory locks of these budget periods, in key order. A new budget's
+     * spent is summed under it, and an expense that finds no budget to add to looks again under it, so
+     * whichever of the two commits second sees the other's write.
+     */
+    void lockPeriods(Collection<Period> periods);
+
+    // Sets spent of the budgets to the sum of their month's expenses in one statement; returns it in minor
+    // units by budget id. withArchive when the months reach the archive
+    Map<UUID, Long> recountSpent(Collection<UUID> budgetIds, boolean withArchive);
+
+    record Period(UUID userId, UUID categoryId, int year, int month) {
+    }
+
+    /**
+     * A category with a budget or spending in the year. Index 0 of the arrays is January; amounts are
+     * in minor units, and a null limit means no budget that month. currency is that of the budgets,
+     * null when there are none.
+     */
+    record YearRow(UUID categoryId, String name, CategoryType type, String icon, String color, String currency,
+            Long[] limitMinor, long[] spentMinor) {
+    }
+}
@@ -0,0 +1,119 @@
+package com.akfinance.api.repository;
+
+import com.akfinance.api.domain.enums.CategoryType;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+@RequiredArgsConstructor
+public class BudgetRepositoryCustomImpl implements BudgetRepositoryCustom {
+
+    // limit_1, spent_1, ... limit_12, spent_12: one conditional aggregate per month, so the year is a single GROUP BY
+    private static final String MONTH_COLUMNS = IntStream.rangeClosed(1, 12)
+            .mapToObj(m -> """
+                    CAST(SUM(x.limit_amount) FILTER (WHERE x.month = %1$d) * 100 AS BIGINT) AS limit_%1$d,
+                    CAST(COALESCE(SUM(x.spent) FILTER (WHERE x.month = %1$d), 0) * 100 AS BIGINT) AS spent_%1$d"""
+                    .formatted(m))
+            .collect(Collectors.joining(",\n"));
+
+    private static final RowMapper<YearRow> YEAR_ROW = (rs, i) -> {
+        Long[] limits = new Long[12];
+        long[] spent = new long[12];
+        for (int m = 0; m < 12; m++) {
+            limits[m] = rs.getObject("limit_" + (m + 1), Long.class);
+            spent[m] = rs.getLong("spent_" + (m + 1));
+        }
+        return new YearRow(
+                rs.getObject("id", UUID.class),
+                rs.getString("name"),
+                CategoryType.valueOf(rs.getString("type")),
+                rs.getString("icon"),
+                rs.getString("color"),
+                rs.getString("currency"),
+                limits,
+                spent);
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public List<YearRow> findYearMatrix(UUID userId, int year, boolean withArchive) {
+        OffsetDateTime from = OffsetDateTime.of(year, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+        return jdbcTemplate.query("""
+                    SELECT c.id, c.name, c.type, c.icon, c.color, MAX(x.currency) AS currency,
+                    %s
+                    FROM (
+                        SELECT b.category_id, b.month, b.limit_amount, CAST(NULL AS NUMERIC) AS spent, b.currency
+                        FROM budgets b
+                        WHERE b.user_id = ? AND b.year = ?
+                        UNION ALL
+                        SELECT t.category_id, CAST(EXTRACT(MONTH FROM t.occurred_at AT TIME ZONE 'UTC') AS INT),
+                               NULL, t.amount, NULL
+                        FROM %s
+                        WHERE t.user_id = ?
+                        AND t.type = 'EXPENSE'
+                        AND t.category_id IS NOT NULL
+                        AND t.occurred_at >= ?
+                        AND t.occurred_at < ?
+                    ) x
+                    JOIN categories c ON c.id = x.category_id
+                    GROUP BY c.id
+                    ORDER BY c.name
+                """.formatted(MONTH_COLUMNS, withArchive ? TransactionRepository.ALL_TRANSACTIONS : "transactions t"),
+                YEAR_ROW, userId, year, userId, from, from.plusYears(1));
+    }
+
+    @Override
+    public void lockPeriods(Collection<Period> periods) {
+        if (periods.isEmpty())
+            return;
+        Long[] keys = periods.stream()
+                .map(p -> UUID.nameUUIDFromBytes((p.userId() + "/" + p.categoryId() + "/" + p.year() + "/" + p.month())
+                        .getBytes(StandardCharsets.UTF_8)).getMostSignificantBits())
+                .distinct()
+                .toArray(Long[]::new);
+        // Volatile functions of the select list run after the sort, so the locks are taken in key order
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement("SELECT pg_advisory_xact_lock(k) FROM unnest(?) k ORDER BY k");
+            ps.setArray(1, con.createArrayOf("bigint", keys));
+            return ps;
+        }, (RowCallbackHandler) rs -> { });
+    }
+
+    @Override
+    public Map<UUID, Long> recountSpent(Collection<UUID> budgetIds, boolean withArchive) {
+        Map<UUID, Long> spent = new HashMap<>();
+        if (budgetIds.isEmpty())
+            return spent;
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement("""
+                    UPDATE budgets b SET spent_amount = COALESCE((
+                        SELECT SUM(t.amount) FROM %s
+                        WHERE t.user_id = b.user_id
+                        AND t.category_id = b.category_id
+                        AND t.type = 'EXPENSE'
+                        AND t.occurred_at >= CAST(make_date(b.year, b.month, 1) AS TIMESTAMP) AT TIME ZONE 'UTC'
+                        AND t.occurred_at < (make_date(b.year, b.month, 1) + INTERVAL '1 month') AT TIME ZONE 'UTC'
+                    ), 0), updated_at = NOW()
+                    WHERE b.id = ANY(?)
+                    RETURNING b.id, CAST(b.spent_amount * 100 AS BIGINT)
+                    """.formatted(withArchive ? TransactionRepository.ALL_TRANSACTIONS : "transactions t"));
+            ps.setArray(1, con.createArrayOf("uuid", budgetIds.toArray()));
+            return ps;
+        }, (RowCallbackHandler) rs -> spent.put(rs.getObject(1, UUID.class), rs.getLong(2)));
+        return spent;
+    }
+}
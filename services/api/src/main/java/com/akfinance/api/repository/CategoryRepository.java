@@ -3,6 +3,7 @@ package com.akfinance.api.repository;
 import com.akfinance.api.domain.entity.Category;
 import com.akfinance.api.domain.enums.CategoryType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -14,5 +15,9 @@ public interface CategoryRepository extends JpaRepository<Category, UUID> {
 
     Optional<Category> findByIdAndUserId(UUID id, UUID userId);
 
+    List<Category> findByUserIdAndIdIn(UUID userId, Collection<UUID> ids);
+
+    boolean existsByIdAndUserId(UUID id, UUID userId);
+
     boolean existsByUserIdAndTypeAndName(UUID userId, CategoryType type, String name);
 }
@@ -0,0 +1,42 @@
+package com.akfinance.api.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * {@code closed_period_versions}: per user and closed month, how many writes landed in it after it
+ * closed. Months without a row are at version 0.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ClosedPeriodVersionRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public Map<YearMonth, Long> find(UUID userId) {
+        Map<YearMonth, Long> versions = new HashMap<>();
+        jdbcTemplate.query("SELECT month, version FROM closed_period_versions WHERE user_id = ?",
+                rs -> {
+                    versions.put(YearMonth.from(rs.getObject(1, LocalDate.class)), rs.getLong(2));
+                }, userId);
+        return versions;
+    }
+
+    // Months in order, so two writers of the same user lock their rows in the same order
+    public void bump(UUID userId, Collection<YearMonth> months) {
+        jdbcTemplate.batchUpdate("""
+                    INSERT INTO closed_period_versions (user_id, month, version) VALUES (?, ?, 1)
+                    ON CONFLICT (user_id, month) DO UPDATE SET version = closed_period_versions.version + 1
+                """, months.stream().sorted().distinct()
+                .map(month -> new Object[] { userId, month.atDay(1) })
+                .toList());
+    }
+}
@@ -0,0 +1,88 @@
+package com.akfinance.api.repository;
+
+import com.akfinance.api.domain.enums.IngestStatus;
+import com.akfinance.api.dto.ingest.IngestStatusResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * {@code ingest_acks}: the status of every item accepted for write-behind ingestion, from the 202
+ * until {@code app.ingest.ack-retention} after it settled.
+ */
+@Repository
+@RequiredArgsConstructor
+public class IngestAckRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void insertPending(UUID userId, List<UUID> ids) {
+        jdbcTemplate.batchUpdate("INSERT INTO ingest_acks (id, user_id, status) VALUES (?, ?, 'PENDING')",
+                ids.stream().map(id -> new Object[] { id, userId }).toList());
+    }
+
+    /**
+     * Locks the still-PENDING rows among {@code ids} for the caller's batch transaction and returns
+     * their ids. The locks keep the sweeper from failing an item whose batch is committing, and an
+     * item it already failed is left out of the batch.
+     */
+    public Set<UUID> claim(List<UUID> ids) {
+        String placeholders = String.join(", ", Collections.nCopies(ids.size(), "?"));
+        return new HashSet<>(jdbcTemplate.queryForList("""
+                    SELECT id FROM ingest_acks
+                    WHERE id IN (%s) AND status = 'PENDING'
+                    FOR UPDATE
+                """.formatted(placeholders), UUID.class, ids.toArray()));
+    }
+
+    // Only PENDING rows: an item the sweeper already failed stays failed
+    public void settle(List<Settled> settled) {
+        jdbcTemplate.batchUpdate("""
+                    UPDATE ingest_acks SET status = ?, transaction_id = ?, error = ?, updated_at = NOW()
+                    WHERE id = ? AND status = 'PENDING'
+                """, settled.stream()
+                .map(s -> new Object[] { s.status().name(), s.transactionId(), s.error(), s.id() })
+                .toList());
+    }
+
+    public Optional<IngestStatusResponse> find(UUID userId, UUID id) {
+        return jdbcTemplate.query("""
+                    SELECT status, transaction_id, error, updated_at FROM ingest_acks
+                    WHERE id = ? AND user_id = ?
+                """, (rs, i) -> IngestStatusResponse.builder()
+                        .id(id)
+                        .status(IngestStatus.valueOf(rs.getString(1)))
+                        .transactionId(rs.getObject(2, UUID.class))
+                        .error(rs.getString(3))
+                        .updatedAt(rs.getTimestamp(4).toInstant())
+                        .build(), id, userId).stream().findFirst();
+    }
+
+    /**
+     * Fails items still PENDING since before {@code acceptedBefore}: their instance went down with
+     * them in its queue, and they will never commit.
+     */
+    public int failLost(Instant acceptedBefore, String error) {
+        return jdbcTemplate.update("""
+                    UPDATE ingest_acks SET status = 'FAILED', error = ?, updated_at = NOW()
+                    WHERE status = 'PENDING' AND created_at < ?
+                """, error, Timestamp.from(acceptedBefore));
+    }
+
+    public int purgeSettled(Instant before) {
+        return jdbcTemplate.update("DELETE FROM ingest_acks WHERE status <> 'PENDING' AND updated_at < ?",
+                Timestamp.from(before));
+    }
+
+    public record Settled(UUID id, IngestStatus status, UUID transactionId, String error) {
+    }
+}
@@ -0,0 +1,75 @@
+package com.akfinance.api.repository;
+
+import com.akfinance.api.domain.entity.Job;
+import com.akfinance.api.domain.enums.JobStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface JobRepository extends JpaRepository<Job, UUID> {
+
+    Optional<Job> findByIdAndUserId(UUID id, UUID userId);
+
+    long countByUserIdAndStatusIn(UUID userId, Collection<JobStatus> statuses);
+
+    // Oldest claimable job: queued and past its backoff, or running with an expired lease (crashed worker).
+    // SKIP LOCKED lets workers on every instance claim concurrently without blocking each other.
+    @Query(value = """
+                UPDATE jobs SET status = 'RUNNING',
+                                attempts = attempts + 1,
+                                started_at = NOW(),
+                                locked_until = NOW() + make_interval(secs => :leaseSeconds),
+                                lease_token = :token
+                WHERE id = (
+                    SELECT id FROM jobs
+                    WHERE (status = 'QUEUED' AND (locked_until IS NULL OR locked_until <= NOW()))
+                       OR (status = 'RUNNING' AND locked_until < NOW())
+                    ORDER BY created_at
+                    LIMIT 1
+                    FOR UPDATE SKIP LOCKED)
+                RETURNING *
+            """, nativeQuery = true)
+    List<Job> claimNext(@Param("leaseSeconds") long leaseSeconds, @Param("token") UUID token);
+
+    // Heartbeat of a running job; 0 once the lease was lost to another worker
+    @Modifying
+    @Query("UPDATE Job j SET j.lockedUntil = :until WHERE j.id = :id AND j.leaseToken = :token")
+    int renewLease(@Param("id") UUID id, @Param("token") UUID token, @Param("until") Instant until);
+
+    // DONE or FAILED; the lease is released and the row kept until the retention purge.
+    // Only by the lease holder: 0 means another worker has reclaimed the job.
+    @Modifying
+    @Query("""
+                UPDATE Job j SET j.status = :status, j.resultSize = :size, j.error = :error,
+                                 j.lockedUntil = NULL, j.leaseToken = NULL, j.finishedAt = :now
+                WHERE j.id = :id AND j.leaseToken = :token
+            """)
+    int finish(@Param("id") UUID id, @Param("token") UUID token, @Param("status") JobStatus status,
+            @Param("size") Long size, @Param("error") String error, @Param("now") Instant now);
+
+    // Written in the transaction that marks the job DONE, so a DONE job always has its file
+    @Modifying
+    @Query(value = "INSERT INTO job_results (job_id, content) VALUES (:id, :content)", nativeQuery = true)
+    int saveResult(@Param("id") UUID id, @Param("content") byte[] content);
+
+    @Query(value = "SELECT content FROM job_results WHERE job_id = :id", nativeQuery = true)
+    Optional<byte[]> findResult(@Param("id") UUID id);
+
+    @Modifying
+    @Query("""
+                UPDATE Job j SET j.status = :status, j.error = :error, j.lockedUntil = :retryAt,
+                                 j.leaseToken = NULL
+                WHERE j.id = :id AND j.leaseToken = :token
+            """)
+    int requeue(@Param("id") UUID id, @Param("token") UUID token, @Param("status") JobStatus status,
+            @Param("error") String error, @Param("retryAt") Instant retryAt);
+
+    List<Job> findByFinishedAtBefore(Instant before);
+}
@@ -0,0 +1,29 @@
+package com.akfinance.api.repository;
+
+import com.akfinance.api.domain.entity.Merchant;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.util.List;
+import java.util.UUID;
+
+public interface MerchantRepository extends JpaRepository<Merchant, UUID> {
+
+    // Rows are [alias, merchant id, key, name]
+    @Query(value = """
+            SELECT a.alias, m.id, m.key, m.name FROM merchant_aliases a
+            JOIN merchants m ON m.id = a.merchant_id
+            """, nativeQuery = true)
+    List<Object[]> findAliases();
+
+    // A concurrent writer's uncommitted insert of the same merchant makes this wait for it; the id
+    // is the same either way, so both succeed
+    @Modifying
+    @Query(value = """
+            INSERT INTO merchants (id, key, name, user_id) VALUES (:id, :key, :name, :userId)
+            ON CONFLICT DO NOTHING
+            """, nativeQuery = true)
+    void insertIfAbsent(@Param("id") UUID id, @Param("key") String key, @Param("name") String name,
+            @Param("userId") UUID userId);
+}
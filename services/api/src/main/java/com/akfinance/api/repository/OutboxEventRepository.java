@@ -0,0 +1,64 @@
+package com.akfinance.api.repository;
+
+import com.akfinance.api.domain.entity.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long>, OutboxEventRepositoryCustom {
+
+    // Rows locked by another dispatcher are skipped, so instances never block each other. An event waiting
+    // for a retry holds back the later events of its aggregate only
+    @Query(value = """
+                SELECT * FROM outbox_events e
+                WHERE e.dispatched_at IS NULL
+                AND (e.next_attempt_at IS NULL OR e.next_attempt_at <= NOW())
+                AND NOT EXISTS (
+                    SELECT 1 FROM outbox_events r
+                    WHERE r.aggregate_id = e.aggregate_id
+                    AND r.id < e.id
+                    AND r.dispatched_at IS NULL
+                    AND r.next_attempt_at > NOW()
+                )
+                ORDER BY e.id
+                LIMIT :limit
+                FOR UPDATE SKIP LOCKED
+            """, nativeQuery = true)
+    List<OutboxEvent> claimBatch(@Param("limit") int limit);
+
+    @Query(value = """
+                SELECT created_at FROM outbox_events
+                WHERE dispatched_at IS NULL
+                ORDER BY id
+                LIMIT 1
+            """, nativeQuery = true)
+    Optional<Instant> findOldestPendingCreatedAt();
+
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.dispatchedAt = :now WHERE e.id IN :ids")
+    int markDispatched(@Param("ids") Collection<Long> ids, @Param("now") Instant now);
+
+    // Backoff doubles with every failed attempt, up to maxBackoffMs
+    @Modifying
+    @Query(value = """
+                UPDATE outbox_events SET attempts = attempts + 1,
+                    next_attempt_at = :now + LEAST(:backoffMs * POWER(2, LEAST(attempts, 30)), :maxBackoffMs)
+                        * INTERVAL '1 millisecond'
+                WHERE id IN (:ids)
+            """, nativeQuery = true)
+    int scheduleRetry(
+            @Param("ids") Collection<Long> ids,
+            @Param("now") Instant now,
+            @Param("backoffMs") long backoffMs,
+            @Param("maxBackoffMs") long maxBackoffMs);
+
+    @Modifying
+    @Query("DELETE FROM OutboxEvent e WHERE e.dispatchedAt < :before")
+    int deleteDispatchedBefore(@Param("before") Instant before);
+}
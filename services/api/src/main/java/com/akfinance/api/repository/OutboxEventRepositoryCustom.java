@@ -0,0 +1,11 @@
+package com.akfinance.api.repository;
+
+import com.akfinance.api.domain.entity.OutboxEvent;
+
+import java.util.List;
+
+public interface OutboxEventRepositoryCustom {
+
+    // All events in one multi-row INSERT; ids follow the order of the list
+    void insertAll(List<OutboxEvent> events);
+}
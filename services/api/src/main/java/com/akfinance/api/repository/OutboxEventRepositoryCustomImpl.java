@@ -0,0 +1,54 @@
+package com.akfinance.api.repository;
+
+import com.akfinance.api.domain.entity.OutboxEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class OutboxEventRepositoryCustomImpl implements OutboxEventRepositoryCustom {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public void insertAll(List<OutboxEvent> events) {
+        if (events.isEmpty())
+            return;
+        Object[] userIds = events.stream().map(OutboxEvent::getUserId).toArray();
+        String[] aggregateTypes = events.stream().map(e -> e.getAggregateType().name()).toArray(String[]::new);
+        Object[] aggregateIds = events.stream().map(OutboxEvent::getAggregateId).toArray();
+        String[] changeTypes = events.stream().map(e -> e.getChangeType().name()).toArray(String[]::new);
+        String[] payloads = events.stream().map(e -> toJson(e.getPayload())).toArray(String[]::new);
+        // Rows come out of unnest in array order, so the BIGSERIAL ids do too
+        jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement("""
+                    INSERT INTO outbox_events (user_id, aggregate_type, aggregate_id, change_type, payload)
+                    SELECT e.user_id, e.aggregate_type, e.aggregate_id, e.change_type, CAST(e.payload AS JSONB)
+                    FROM unnest(?, ?, ?, ?, ?) WITH ORDINALITY
+                        AS e(user_id, aggregate_type, aggregate_id, change_type, payload, n)
+                    ORDER BY e.n
+                    """);
+            ps.setArray(1, con.createArrayOf("uuid", userIds));
+            ps.setArray(2, con.createArrayOf("varchar", aggregateTypes));
+            ps.setArray(3, con.createArrayOf("uuid", aggregateIds));
+            ps.setArray(4, con.createArrayOf("varchar", changeTypes));
+            ps.setArray(5, con.createArrayOf("text", payloads));
+            return ps;
+        });
+    }
+
+    private String toJson(Object payload) {
+        if (payload == null)
+            return null;
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unserializable outbox payload", e);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.akfinance.api.repository;
+
+import com.akfinance.api.domain.enums.AggregateType;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * {@code sync_state} and {@code sync_changes}: the per-user change sequence behind delta sync and
+ * the latest change of every entity, tombstones included.
+ */
+@Repository
+@RequiredArgsConstructor
+public class SyncChangeRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Takes the next {@code count} numbers of the user's sequence and returns the last one. The row
+     * stays locked until commit, which serializes the user's writers.
+     */
+    public long reserve(UUID userId, int count) {
+        return jdbcTemplate.queryForObject("""
+                    INSERT INTO sync_state (user_id, seq) VALUES (?, ?)
+                    ON CONFLICT (user_id) DO UPDATE SET seq = sync_state.seq + EXCLUDED.seq
+                    RETURNING seq
+                """, Long.class, userId, count);
+    }
+
+    // Numbered firstSeq, firstSeq + 1, ... in iteration order
+    public void upsert(UUID userId, Map<EntityKey, Boolean> deletedByEntity, long firstSeq) {
+        List<Object[]> args = new ArrayList<>(deletedByEntity.size());
+        long seq = firstSeq;
+        for (Map.Entry<EntityKey, Boolean> e : deletedByEntity.entrySet()) {
+            args.add(new Object[] { e.getKey().type().name(), e.getKey().id(), userId, seq++, e.getValue() });
+        }
+        jdbcTemplate.batchUpdate("""
+                    INSERT INTO sync_changes (entity_type, entity_id, user_id, seq, deleted)
+                    VALUES (?, ?, ?, ?, ?)
+                    ON CONFLICT (entity_type, entity_id) DO UPDATE
+                    SET seq = EXCLUDED.seq, deleted = EXCLUDED.deleted, changed_at = NOW()
+                """, args);
+    }
+
+    public Optional<SyncState> findState(UUID userId) {
+        return jdbcTemplate.query("SELECT seq, purged_seq FROM sync_state WHERE user_id = ?",
+                (rs, i) -> new SyncState(rs.getLong(1), rs.getLong(2)), userId).stream().findFirst();
+    }
+
+    public List<Change> findAfter(UUID userId, long since, int limit) {
+        return jdbcTemplate.query("""
+                    SELECT entity_type, entity_id, seq, deleted FROM sync_changes
+                    WHERE user_id = ? AND seq > ?
+                    ORDER BY seq
+                    LIMIT ?
+                """, (rs, i) -> new Change(
+                        new EntityKey(AggregateType.valueOf(rs.getString(1)), rs.getObject(2, UUID.class)),
+                        rs.getLong(3), rs.getBoolean(4)), userId, since, limit);
+    }
+
+    /**
+     * Whether a change numbered in ({@code after}, {@code upTo}] touched a transaction or deleted a
+     * category, or purged tombstones reach past {@code after}. An entity keeps only its latest number,
+     * so a change overwritten by a later one shows up under the later number, not in this range.
+     */
+    public boolean transactionsChanged(UUID userId, long after, long upTo) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject("""
+                    SELECT EXISTS (
+                        SELECT 1 FROM sync_changes
+                        WHERE user_id = ? AND seq > ? AND seq <= ?
+                        AND (entity_type = 'TRANSACTION' OR entity_type = 'CATEGORY' AND deleted)
+                    ) OR EXISTS (
+                        SELECT 1 FROM sync_state WHERE user_id = ? AND purged_seq > ?
+                    )
+                """, Boolean.class, userId, after, upTo, userId, after));
+    }
+
+    /**
+     * Drops up to {@code limit} tombstones older than {@code before} and raises each affected user's
+     * purged_seq past them, so cursors that could have missed them are sent to a full resync.
+     */
+    public int purgeTombstones(Instant before, int limit) {
+        return jdbcTemplate.queryForObject("""
+                    WITH purged AS (
+                        DELETE FROM sync_changes
+                        WHERE (entity_type, entity_id) IN (
+                            SELECT entity_type, entity_id FROM sync_changes
+                            WHERE deleted AND changed_at < ?
+                            LIMIT ?)
+                        RETURNING user_id, seq
+                    ), raised AS (
+                        UPDATE sync_state s SET purged_seq = GREATEST(s.purged_seq, p.seq)
+                        FROM (SELECT user_id, MAX(seq) AS seq FROM purged GROUP BY user_id) p
+                        WHERE s.user_id = p.user_id
+                    )
+                    SELECT COUNT(*) FROM purged
+                """, Integer.class, Timestamp.from(before), limit);
+    }
+
+    public record EntityKey(AggregateType type, UUID id) {
+    }
+
+    public record Change(EntityKey entity, long seq, boolean deleted) {
+    }
+
+    public record SyncState(long seq, long purgedSeq) {
+    }
+}
@@ -4,8 +4,11 @@ import com.akfinance.api.domain.entity.Transaction;
 import com.akfinance.api.domain.enums.TransactionType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
@@ -15,14 +18,31 @@ import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
-public interface TransactionRepository extends JpaRepository<Transaction, UUID>, JpaSpecificationExecutor<Transaction> {
+public interface TransactionRepository extends JpaRepository<Transaction, UUID>, JpaSpecificationExecutor<Transaction>,
+        TransactionRepositoryCustom {
+
+    // Hot and archived rows as one relation; the planner pushes the WHERE into both branches
+    String ALL_TRANSACTIONS = """
+            (SELECT user_id, type, amount, occurred_at, category_id, merchant_id FROM transactions
+             UNION ALL
+             SELECT user_id, type, amount, occurred_at, category_id, merchant_id FROM transactions_archive) t
+            """;
 
     Optional<Transaction> findByIdAndUserId(UUID id, UUID userId);
 
+    boolean existsByAccountIdOrCounterAccountId(UUID accountId, UUID counterAccountId);
+
+    // Pages are mapped to responses with their category and merchant, so both come in the same query
+    @EntityGraph(attributePaths = { "category", "merchant" })
     Page<Transaction> findByUserIdOrderByOccurredAtDesc(UUID userId, Pageable pageable);
 
+    @EntityGraph(attributePaths = { "category", "merchant" })
     Page<Transaction> findByUserIdAndTypeOrderByOccurredAtDesc(UUID userId, TransactionType type, Pageable pageable);
 
+    @Override
+    @EntityGraph(attributePaths = { "category", "merchant" })
+    Page<Transaction> findAll(Specification<Transaction> spec, Pageable pageable);
+
     @Query("""
                 SELECT COALESCE(SUM(t.amount), 0) FROM Transaction t
                 WHERE t.user.id = :userId
@@ -53,19 +73,116 @@ public interface TransactionRepository extends JpaRepository<Transaction, UUID>,
             @Param("from") Instant from,
             @Param("to") Instant to);
 
+    // Largest first; the page only limits how many
     @Query("""
-                SELECT COALESCE(SUM(t.amount), 0) FROM Transaction t
+                SELECT m.id, m.name, COUNT(t), SUM(t.amount)
+                FROM Transaction t JOIN t.merchant m
                 WHERE t.user.id = :userId
-                AND t.type = 'EXPENSE'
-                AND t.category.id = :categoryId
+                AND t.type = :type
                 AND t.occurredAt >= :from
                 AND t.occurredAt < :to
+                GROUP BY m.id, m.name
+                ORDER BY SUM(t.amount) DESC
             """)
-    BigDecimal sumByCategoryAndPeriod(
+    List<Object[]> sumByMerchantAndPeriod(
             @Param("userId") UUID userId,
-            @Param("categoryId") UUID categoryId,
+            @Param("type") TransactionType type,
+            @Param("from") Instant from,
+            @Param("to") Instant to,
+            Pageable page);
+
+    @Query(value = """
+                SELECT CAST(date_trunc('month', t.occurred_at AT TIME ZONE 'UTC') AS date),
+                       CAST(date_trunc(:unit, t.occurred_at AT TIME ZONE 'UTC') AS date),
+                       t.category_id, t.type, SUM(t.amount)
+                FROM transactions t
+                WHERE t.user_id = :userId
+                AND t.type IN ('INCOME', 'EXPENSE')
+                AND t.occurred_at >= :from
+                AND t.occurred_at < :to
+                GROUP BY 1, 2, 3, 4
+            """, nativeQuery = true)
+    List<Object[]> sumSeriesByPeriod(
+            @Param("userId") UUID userId,
+            @Param("unit") String unit,
+            @Param("from") Instant from,
+            @Param("to") Instant to);
+
+    // Archive-inclusive twins of the aggregates above, for ranges that start before the archive horizon
+
+    @Query(value = "SELECT COALESCE(SUM(t.amount), 0) FROM " + ALL_TRANSACTIONS + """
+                WHERE t.user_id = :userId
+                AND t.type = :type
+                AND t.occurred_at >= :from
+                AND t.occurred_at < :to
+            """, nativeQuery = true)
+    BigDecimal sumByTypeAndPeriodWithArchive(
+            @Param("userId") UUID userId,
+            @Param("type") String type,
             @Param("from") Instant from,
             @Param("to") Instant to);
 
+    @Query(value = "SELECT c.id, c.name, SUM(t.amount) FROM " + ALL_TRANSACTIONS + """
+                JOIN categories c ON c.id = t.category_id
+                WHERE t.user_id = :userId
+                AND t.type = :type
+                AND t.occurred_at >= :from
+                AND t.occurred_at < :to
+                GROUP BY c.id, c.name
+                ORDER BY SUM(t.amount) DESC
+            """, nativeQuery = true)
+    List<Object[]> sumByCategoryAndPeriodWithArchive(
+            @Param("userId") UUID userId,
+            @Param("type") String type,
+            @Param("from") Instant from,
+            @Param("to") Instant to);
+
+    @Query(value = "SELECT m.id, m.name, COUNT(*), SUM(t.amount) FROM " + ALL_TRANSACTIONS + """
+                JOIN merchants m ON m.id = t.merchant_id
+                WHERE t.user_id = :userId
+                AND t.type = :type
+                AND t.occurred_at >= :from
+                AND t.occurred_at < :to
+                GROUP BY m.id, m.name
+                ORDER BY SUM(t.amount) DESC
+            """, nativeQuery = true)
+    List<Object[]> sumByMerchantAndPeriodWithArchive(
+            @Param("userId") UUID userId,
+            @Param("type") String type,
+            @Param("from") Instant from,
+            @Param("to") Instant to,
+            Pageable page);
+
+    @Query(value = """
+                SELECT CAST(date_trunc('month', t.occurred_at AT TIME ZONE 'UTC') AS date),
+                       CAST(date_trunc(:unit, t.occurred_at AT TIME ZONE 'UTC') AS date),
+                       t.category_id, t.type, SUM(t.amount)
+                FROM\s""" + ALL_TRANSACTIONS + """
+                WHERE t.user_id = :userId
+                AND t.type IN ('INCOME', 'EXPENSE')
+                AND t.occurred_at >= :from
+                AND t.occurred_at < :to
+                GROUP BY 1, 2, 3, 4
+            """, nativeQuery = true)
+    List<Object[]> sumSeriesByPeriodWithArchive(
+            @Param("userId") UUID userId,
+            @Param("unit") String unit,
+            @Param("from") Instant from,
+            @Param("to") Instant to);
+
+    @Query(value = """
+                SELECT EXISTS (SELECT 1 FROM transactions_archive
+                    WHERE user_id = :userId AND (account_id = :accountId OR counter_account_id = :accountId))
+            """, nativeQuery = true)
+    boolean existsArchivedByAccount(@Param("userId") UUID userId, @Param("accountId") UUID accountId);
+
+    // transactions_archive has no category foreign key; this is its ON DELETE SET NULL
+    @Modifying
+    @Query(value = """
+                UPDATE transactions_archive SET category_id = NULL
+                WHERE user_id = :userId AND category_id = :categoryId
+            """, nativeQuery = true)
+    int clearArchivedCategory(@Param("userId") UUID userId, @Param("categoryId") UUID categoryId);
+
     long countByUserId(UUID userId);
 }
@@ -0,0 +1,106 @@
+package com.akfinance.api.repository;
+
+import com.akfinance.api.domain.entity.Transaction;
+import com.akfinance.api.domain.enums.CategoryType;
+import com.akfinance.api.domain.enums.TransactionType;
+import com.akfinance.api.dto.transaction.TransactionFilter;
+import jakarta.persistence.Tuple;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface TransactionRepositoryCustom {
+
+    // Scalar rows, aliased by TransactionResponse field names (category fields prefixed)
+    List<Tuple> findRows(Specification<Transaction> spec, long offset, int limit);
+
+    // Entities with their category fetched, no count query
+    List<Transaction> findWindow(Specification<Transaction> spec, long offset, int limit);
+
+    // Planner row estimate for the filter; cheap but approximate
+    long estimateCount(UUID userId, TransactionFilter filter, boolean withArchive);
+
+    // Hot and archived rows together, newest first; only worth it when the range reaches the archive
+    List<TransactionRow> findRowsWithArchive(UUID userId, TransactionFilter filter, long offset, int limit);
+
+    long countWithArchive(UUID userId, TransactionFilter filter);
+
+    Optional<TransactionRow> findArchivedRow(UUID id, UUID userId);
+
+    // By id from either table; ids the user doesn't own are skipped
+    List<TransactionRow> findRowsByIds(UUID userId, Collection<UUID> ids);
+
+    // Moves the users' transactions before the horizon into transactions_archive; returns the row count
+    int archiveBefore(Collection<UUID> userIds, Instant horizon);
+
+    Optional<ArchiveState> findArchiveState();
+
+    // Never moves the horizon back
+    void publishArchiveHorizon(Instant horizon);
+
+    // Single-statement bulk writes over the filter, optionally narrowed to ids; return the rows they
+    // touched, at most limit of them
+    List<AffectedRow> deleteMatching(UUID userId, TransactionFilter filter, Collection<UUID> ids, int limit);
+
+    List<AffectedRow> recategorizeMatching(UUID userId, TransactionFilter filter, Collection<UUID> ids,
+            UUID categoryId, int limit);
+
+    // UTC months holding the category's transactions, hot or archived
+    List<YearMonth> findCategoryMonths(UUID userId, UUID categoryId);
+
+    // Hot rows with a note but no merchant, by id after the given one; for the merchant backfill
+    List<NoteRow> findUnresolvedNotes(UUID after, int limit);
+
+    // Rows that got a merchant in the meantime keep it; returns the ids of the rows it was set on
+    List<UUID> assignMerchants(Map<UUID, UUID> merchantByTransaction);
+
+    record AffectedRow(UUID id, TransactionType type, BigDecimal amount, String currency, Instant occurredAt,
+            UUID categoryId, UUID previousCategoryId, UUID accountId, UUID counterAccountId) {
+    }
+
+    record TransactionRow(UUID id, TransactionType type, BigDecimal amount, String currency, Instant occurredAt,
+            String note, UUID accountId, UUID counterAccountId, Instant createdAt, Instant updatedAt,
+            UUID categoryId, String categoryName, CategoryType categoryType, String categoryIcon,
+            String categoryColor, UUID merchantId, String merchantName) {
+
+        public static TransactionRow of(Tuple row) {
+            return new TransactionRow(
+                    row.get("id", UUID.class),
+                    row.get("type", TransactionType.class),
+                    row.get("amount", BigDecimal.class),
+                    row.get("currency", String.class),
+                    row.get("occurredAt", Instant.class),
+                    row.get("note", String.class),
+                    row.get("accountId", UUID.class),
+                    row.get("counterAccountId", UUID.class),
+                    row.get("createdAt", Instant.class),
+                    row.get("updatedAt", Instant.class),
+                    row.get("categoryId", UUID.class),
+                    row.get("categoryName", String.class),
+                    row.get("categoryType", CategoryType.class),
+                    row.get("categoryIcon", String.class),
+                    row.get("categoryColor", String.class),
+                    row.get("merchantId", UUID.class),
+                    row.get("merchantName", String.class));
+        }
+
+        public TransactionRow withMerchant(UUID merchantId, String merchantName) {
+            return new TransactionRow(id, type, amount, currency, occurredAt, note, accountId, counterAccountId,
+                    createdAt, updatedAt, categoryId, categoryName, categoryType, categoryIcon, categoryColor,
+                    merchantId, merchantName);
+        }
+    }
+
+    record NoteRow(UUID id, UUID userId, String note) {
+    }
+
+    record ArchiveState(Instant horizon, Instant publishedAt) {
+    }
+}
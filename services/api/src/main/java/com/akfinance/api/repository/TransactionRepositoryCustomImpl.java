@@ -0,0 +1,347 @@
+package com.akfinance.api.repository;
+
+import com.akfinance.api.domain.entity.Category;
+import com.akfinance.api.domain.entity.Merchant;
+import com.akfinance.api.domain.entity.Transaction;
+import com.akfinance.api.domain.enums.CategoryType;
+import com.akfinance.api.domain.enums.TransactionType;
+import com.akfinance.api.dto.transaction.TransactionFilter;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Root;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+@RequiredArgsConstructor
+public class TransactionRepositoryCustomImpl implements TransactionRepositoryCustom {
+
+    private static final RowMapper<AffectedRow> AFFECTED_ROW = (rs, i) -> new AffectedRow(
+            rs.getObject("id", UUID.class),
+            TransactionType.valueOf(rs.getString("type")),
+            rs.getBigDecimal("amount"),
+            rs.getString("currency"),
+            rs.getObject("occurred_at", OffsetDateTime.class).toInstant(),
+            rs.getObject("category_id", UUID.class),
+            rs.getObject("previous_category_id", UUID.class),
+            rs.getObject("account_id", UUID.class),
+            rs.getObject("counter_account_id", UUID.class));
+
+    private static final RowMapper<TransactionRow> TRANSACTION_ROW = (rs, i) -> {
+        String categoryType = rs.getString("category_type");
+        return new TransactionRow(
+                rs.getObject("id", UUID.class),
+                TransactionType.valueOf(rs.getString("type")),
+                rs.getBigDecimal("amount"),
+                rs.getString("currency"),
+                instant(rs, "occurred_at"),
+                rs.getString("note"),
+                rs.getObject("account_id", UUID.class),
+                rs.getObject("counter_account_id", UUID.class),
+                instant(rs, "created_at"),
+                instant(rs, "updated_at"),
+                rs.getObject("category_id", UUID.class),
+                rs.getString("category_name"),
+                categoryType != null ? CategoryType.valueOf(categoryType) : null,
+                rs.getString("category_icon"),
+                rs.getString("category_color"),
+                rs.getObject("merchant_id", UUID.class),
+                rs.getString("merchant_name"));
+    };
+
+    // Shared by both tables, in transactions_archive column order
+    private static final String ROW_COLUMNS = """
+            t.id, t.user_id, t.category_id, t.account_id, t.counter_account_id,
+            t.occurred_at, t.created_at, t.updated_at, t.amount, t.type, t.currency, t.note, t.merchant_id""";
+
+    private static final String CATEGORY_COLUMNS =
+            "c.name AS category_name, c.type AS category_type, c.icon AS category_icon, c.color AS category_color";
+
+    private static final String MERCHANT_COLUMNS = "m.name AS merchant_name";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Tuple> findRows(Specification<Transaction> spec, long offset, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Transaction> root = query.from(Transaction.class);
+        Join<Transaction, Category> category = root.join("category", JoinType.LEFT);
+        Join<Transaction, Merchant> merchant = root.join("merchant", JoinType.LEFT);
+
+        query.multiselect(
+                root.get("id").alias("id"),
+                root.get("type").alias("type"),
+                root.get("amount").alias("amount"),
+                root.get("currency").alias("currency"),
+                root.get("occurredAt").alias("occurredAt"),
+                root.get("note").alias("note"),
+                root.get("account").get("id").alias("accountId"),
+                root.get("counterAccount").get("id").alias("counterAccountId"),
+                root.get("createdAt").alias("createdAt"),
+                root.get("updatedAt").alias("updatedAt"),
+                category.get("id").alias("categoryId"),
+                category.get("name").alias("categoryName"),
+                category.get("type").alias("categoryType"),
+                category.get("icon").alias("categoryIcon"),
+                category.get("color").alias("categoryColor"),
+                root.get("merchantId").alias("merchantId"),
+                merchant.get("name").alias("merchantName"));
+        query.where(spec.toPredicate(root, query, cb));
+
+        return entityManager.createQuery(query)
+                .setFirstResult((int) offset)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Transaction> findWindow(Specification<Transaction> spec, long offset, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Transaction> query = cb.createQuery(Transaction.class);
+        Root<Transaction> root = query.from(Transaction.class);
+        root.fetch("category", JoinType.LEFT);
+        root.fetch("merchant", JoinType.LEFT);
+        query.select(root).where(spec.toPredicate(root, query, cb));
+
+        return entityManager.createQuery(query)
+                .setFirstResult((int) offset)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public long estimateCount(UUID userId, TransactionFilter filter, boolean withArchive) {
+        TransactionSqlFilter sql = TransactionSqlFilter.of(userId, filter);
+        String select = "SELECT 1 FROM transactions t WHERE " + sql.where();
+        Object[] params = sql.paramArray();
+        if (withArchive) {
+            select += " UNION ALL SELECT 1 FROM transactions_archive t WHERE " + sql.where();
+            params = twice(sql.params());
+        }
+        String plan = jdbcTemplate.queryForObject("EXPLAIN (FORMAT JSON) " + select, String.class, params);
+        try {
+            return objectMapper.readTree(plan).path(0).path("Plan").path("Plan Rows").asLong();
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable query plan", e);
+        }
+    }
+
+    @Override
+    public List<TransactionRow> findRowsWithArchive(UUID userId, TransactionFilter filter, long offset, int limit) {
+        TransactionSqlFilter sql = TransactionSqlFilter.of(userId, filter);
+        List<Object> params = new ArrayList<>(List.of(twice(sql.params())));
+        params.add(limit);
+        params.add(offset);
+        return jdbcTemplate.query("""
+                    SELECT t.*, %2$s, %4$s FROM (
+                        SELECT %3$s FROM transactions t WHERE %1$s
+                        UNION ALL
+                        SELECT %3$s FROM transactions_archive t WHERE %1$s
+                    ) t
+                    LEFT JOIN categories c ON c.id = t.category_id
+                    LEFT JOIN merchants m ON m.id = t.merchant_id
+                    ORDER BY t.occurred_at DESC, t.id DESC
+                    LIMIT ? OFFSET ?
+                """.formatted(sql.where(), CATEGORY_COLUMNS, ROW_COLUMNS, MERCHANT_COLUMNS),
+                TRANSACTION_ROW, params.toArray());
+    }
+
+    @Override
+    public long countWithArchive(UUID userId, TransactionFilter filter) {
+        TransactionSqlFilter sql = TransactionSqlFilter.of(userId, filter);
+        Long count = jdbcTemplate.queryForObject("""
+                    SELECT (SELECT COUNT(*) FROM transactions t WHERE %1$s)
+                        + (SELECT COUNT(*) FROM transactions_archive t WHERE %1$s)
+                """.formatted(sql.where()), Long.class, twice(sql.params()));
+        return count != null ? count : 0;
+    }
+
+    @Override
+    public Optional<TransactionRow> findArchivedRow(UUID id, UUID userId) {
+        return jdbcTemplate.query("""
+                    SELECT %s, %s, %s FROM transactions_archive t
+                    LEFT JOIN categories c ON c.id = t.category_id
+                    LEFT JOIN merchants m ON m.id = t.merchant_id
+                    WHERE t.id = ? AND t.user_id = ?
+                """.formatted(ROW_COLUMNS, CATEGORY_COLUMNS, MERCHANT_COLUMNS), TRANSACTION_ROW, id, userId)
+                .stream().findFirst();
+    }
+
+    @Override
+    public List<TransactionRow> findRowsByIds(UUID userId, Collection<UUID> ids) {
+        if (ids.isEmpty())
+            return List.of();
+        List<Object> params = new ArrayList<>(ids.size() * 2 + 2);
+        for (int i = 0; i < 2; i++) {
+            params.addAll(ids);
+            params.add(userId);
+        }
+        String placeholders = String.join(", ", Collections.nCopies(ids.size(), "?"));
+        return jdbcTemplate.query("""
+                    SELECT t.*, %2$s, %4$s FROM (
+                        SELECT %3$s FROM transactions t WHERE t.id IN (%1$s) AND t.user_id = ?
+                        UNION ALL
+                        SELECT %3$s FROM transactions_archive t WHERE t.id IN (%1$s) AND t.user_id = ?
+                    ) t
+                    LEFT JOIN categories c ON c.id = t.category_id
+                    LEFT JOIN merchants m ON m.id = t.merchant_id
+                """.formatted(placeholders, CATEGORY_COLUMNS, ROW_COLUMNS, MERCHANT_COLUMNS),
+                TRANSACTION_ROW, params.toArray());
+    }
+
+    // One statement per batch, so a row is never in both tables or in neither
+    @Override
+    public int archiveBefore(Collection<UUID> userIds, Instant horizon) {
+        List<Object> params = new ArrayList<>(userIds);
+        params.add(OffsetDateTime.ofInstant(horizon, ZoneOffset.UTC));
+        String placeholders = String.join(", ", Collections.nCopies(userIds.size(), "?"));
+        return jdbcTemplate.update("""
+                    WITH moved AS (
+                        DELETE FROM transactions t
+                        WHERE t.user_id IN (%1$s) AND t.occurred_at < ?
+                        RETURNING %2$s
+                    )
+                    INSERT INTO transactions_archive (id, user_id, category_id, account_id, counter_account_id,
+                        occurred_at, created_at, updated_at, amount, type, currency, note, merchant_id)
+                    SELECT id, user_id, category_id, account_id, counter_account_id,
+                        occurred_at, created_at, updated_at, amount, type, currency, note, merchant_id
+                    FROM moved
+                """.formatted(placeholders, ROW_COLUMNS), params.toArray());
+    }
+
+    @Override
+    public Optional<ArchiveState> findArchiveState() {
+        return jdbcTemplate.query("SELECT horizon, published_at FROM transaction_archive_state",
+                (rs, i) -> new ArchiveState(instant(rs, "horizon"), instant(rs, "published_at")))
+                .stream().findFirst();
+    }
+
+    @Override
+    public void publishArchiveHorizon(Instant horizon) {
+        jdbcTemplate.update("""
+                    INSERT INTO transaction_archive_state (id, horizon) VALUES (TRUE, ?)
+                    ON CONFLICT (id) DO UPDATE SET horizon = EXCLUDED.horizon, published_at = NOW()
+                    WHERE transaction_archive_state.horizon < EXCLUDED.horizon
+                """, OffsetDateTime.ofInstant(horizon, ZoneOffset.UTC));
+    }
+
+    @Override
+    public List<AffectedRow> deleteMatching(UUID userId, TransactionFilter filter, Collection<UUID> ids, int limit) {
+        TransactionSqlFilter sql = TransactionSqlFilter.of(userId, filter).withIds(ids);
+        List<Object> params = new ArrayList<>(sql.params());
+        params.add(limit);
+        return jdbcTemplate.query("""
+                    DELETE FROM transactions d
+                    USING (
+                        SELECT t.id FROM transactions t
+                        WHERE %s
+                        LIMIT ?
+                        FOR UPDATE
+                    ) o
+                    WHERE d.id = o.id
+                    RETURNING d.id, d.type, d.amount, d.currency, d.occurred_at,
+                        d.category_id, d.category_id AS previous_category_id, d.account_id, d.counter_account_id
+                """.formatted(sql.where()), AFFECTED_ROW, params.toArray());
+    }
+
+    // Rows already in the target category are left alone, so they don't count or emit events
+    @Override
+    public List<AffectedRow> recategorizeMatching(UUID userId, TransactionFilter filter, Collection<UUID> ids,
+            UUID categoryId, int limit) {
+        TransactionSqlFilter sql = TransactionSqlFilter.of(userId, filter).withIds(ids);
+        List<Object> params = new ArrayList<>(sql.params().size() + 3);
+        params.add(categoryId);
+        params.addAll(sql.params());
+        params.add(categoryId);
+        params.add(limit);
+        return jdbcTemplate.query("""
+                    UPDATE transactions u SET category_id = ?, updated_at = NOW()
+                    FROM (
+                        SELECT t.id, t.category_id FROM transactions t
+                        WHERE %s AND t.category_id IS DISTINCT FROM ?
+                        LIMIT ?
+                        FOR UPDATE
+                    ) o
+                    WHERE u.id = o.id
+                    RETURNING u.id, u.type, u.amount, u.currency, u.occurred_at,
+                        u.category_id, o.category_id AS previous_category_id, u.account_id, u.counter_account_id
+                """.formatted(sql.where()), AFFECTED_ROW, params.toArray());
+    }
+
+    @Override
+    public List<YearMonth> findCategoryMonths(UUID userId, UUID categoryId) {
+        return jdbcTemplate.queryForList("""
+                    SELECT DISTINCT CAST(date_trunc('month', occurred_at AT TIME ZONE 'UTC') AS DATE)
+                    FROM (SELECT occurred_at FROM transactions WHERE user_id = ? AND category_id = ?
+                          UNION ALL
+                          SELECT occurred_at FROM transactions_archive WHERE user_id = ? AND category_id = ?) t
+                """, LocalDate.class, userId, categoryId, userId, categoryId)
+                .stream().map(YearMonth::from).toList();
+    }
+
+    @Override
+    public List<NoteRow> findUnresolvedNotes(UUID after, int limit) {
+        return jdbcTemplate.query("""
+                    SELECT id, user_id, note FROM transactions
+                    WHERE id > ? AND merchant_id IS NULL AND note IS NOT NULL
+                    ORDER BY id
+                    LIMIT ?
+                """,
+                (rs, i) -> new NoteRow(rs.getObject("id", UUID.class), rs.getObject("user_id", UUID.class),
+                        rs.getString("note")), after, limit);
+    }
+
+    // updated_at moves with merchant_id, which clients see; the caller records the sync changes
+    @Override
+    public List<UUID> assignMerchants(Map<UUID, UUID> merchantByTransaction) {
+        List<UUID> ids = new ArrayList<>(merchantByTransaction.keySet());
+        int[] counts = jdbcTemplate.batchUpdate(
+                "UPDATE transactions SET merchant_id = ?, updated_at = NOW() WHERE id = ? AND merchant_id IS NULL",
+                ids.stream().map(id -> new Object[] { merchantByTransaction.get(id), id }).toList());
+        return IntStream.range(0, counts.length).filter(i -> counts[i] > 0).mapToObj(ids::get).toList();
+    }
+
+    // The same filter binds once per side of a UNION ALL
+    private static Object[] twice(List<Object> params) {
+        List<Object> both = new ArrayList<>(params.size() * 2);
+        both.addAll(params);
+        both.addAll(params);
+        return both.toArray();
+    }
+
+    private static Instant instant(ResultSet rs, String column) throws SQLException {
+        return rs.getObject(column, OffsetDateTime.class).toInstant();
+    }
+}
@@ -0,0 +1,48 @@
+package com.akfinance.api.repository;
+
+import com.akfinance.api.domain.entity.Transaction;
+import com.akfinance.api.dto.transaction.TransactionFilter;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+public final class TransactionSpecifications {
+
+    private TransactionSpecifications() {
+    }
+
+    public static Specification<Transaction> matching(UUID userId, TransactionFilter filter) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            predicates.add(cb.equal(root.get("user").get("id"), userId));
+
+            if (filter.getFrom() != null)
+                predicates.add(cb.greaterThanOrEqualTo(root.get("occurredAt"), filter.getFrom()));
+            if (filter.getTo() != null)
+                predicates.add(cb.lessThanOrEqualTo(root.get("occurredAt"), filter.getTo()));
+            if (filter.getType() != null)
+                predicates.add(cb.equal(root.get("type"), filter.getType()));
+            if (filter.getCategoryId() != null)
+                predicates.add(cb.equal(root.get("category").get("id"), filter.getCategoryId()));
+            if (filter.getAccountId() != null)
+                predicates.add(cb.or(
+                        cb.equal(root.get("account").get("id"), filter.getAccountId()),
+                        cb.equal(root.get("counterAccount").get("id"), filter.getAccountId())));
+            if (filter.getMerchantId() != null)
+                predicates.add(cb.equal(root.get("merchantId"), filter.getMerchantId()));
+            if (filter.getMinAmount() != null)
+                predicates.add(cb.greaterThanOrEqualTo(root.get("amount"), filter.getMinAmount()));
+            if (filter.getMaxAmount() != null)
+                predicates.add(cb.lessThanOrEqualTo(root.get("amount"), filter.getMaxAmount()));
+            if (filter.hasQuery()) {
+                predicates.add(cb.like(cb.lower(root.get("note")), "%" + filter.getQ().toLowerCase() + "%"));
+            }
+
+            query.orderBy(cb.desc(root.get("occurredAt")));
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+}
@@ -0,0 +1,76 @@
+package com.akfinance.api.repository;
+
+import com.akfinance.api.dto.transaction.TransactionFilter;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Native-SQL twin of {@link TransactionSpecifications#matching}: the same predicates as a
+ * WHERE clause over {@code transactions t} with positional JDBC parameters.
+ */
+public record TransactionSqlFilter(String where, List<Object> params) {
+
+    public static TransactionSqlFilter of(UUID userId, TransactionFilter filter) {
+        StringBuilder where = new StringBuilder("t.user_id = ?");
+        List<Object> params = new ArrayList<>();
+        params.add(userId);
+
+        if (filter.getFrom() != null) {
+            where.append(" AND t.occurred_at >= ?");
+            params.add(OffsetDateTime.ofInstant(filter.getFrom(), ZoneOffset.UTC));
+        }
+        if (filter.getTo() != null) {
+            where.append(" AND t.occurred_at <= ?");
+            params.add(OffsetDateTime.ofInstant(filter.getTo(), ZoneOffset.UTC));
+        }
+        if (filter.getType() != null) {
+            where.append(" AND t.type = ?");
+            params.add(filter.getType().name());
+        }
+        if (filter.getCategoryId() != null) {
+            where.append(" AND t.category_id = ?");
+            params.add(filter.getCategoryId());
+        }
+        if (filter.getAccountId() != null) {
+            where.append(" AND (t.account_id = ? OR t.counter_account_id = ?)");
+            params.add(filter.getAccountId());
+            params.add(filter.getAccountId());
+        }
+        if (filter.getMerchantId() != null) {
+            where.append(" AND t.merchant_id = ?");
+            params.add(filter.getMerchantId());
+        }
+        if (filter.getMinAmount() != null) {
+            where.append(" AND t.amount >= ?");
+            params.add(filter.getMinAmount());
+        }
+        if (filter.getMaxAmount() != null) {
+            where.append(" AND t.amount <= ?");
+            params.add(filter.getMaxAmount());
+        }
+        if (filter.hasQuery()) {
+            where.append(" AND lower(t.note) LIKE ?");
+            params.add("%" + filter.getQ().toLowerCase() + "%");
+        }
+        return new TransactionSqlFilter(where.toString(), params);
+    }
+
+    public TransactionSqlFilter withIds(Collection<UUID> ids) {
+        if (ids == null || ids.isEmpty())
+            return this;
+        List<Object> withIds = new ArrayList<>(params);
+        withIds.addAll(ids);
+        String placeholders = String.join(", ", Collections.nCopies(ids.size(), "?"));
+        return new TransactionSqlFilter(where + " AND t.id IN (" + placeholders + ")", withIds);
+    }
+
+    public Object[] paramArray() {
+        return params.toArray();
+    }
+}
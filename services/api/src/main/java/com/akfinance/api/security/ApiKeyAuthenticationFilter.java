@@ -0,0 +1,74 @@
+package com.akfinance.api.security;
+
+import com.akfinance.api.domain.enums.ApiKeyScope;
+import com.akfinance.api.exception.ServiceOverloadedException;
+import com.akfinance.api.service.ApiKeyService;
+import com.akfinance.api.sharding.ShardContext;
+import com.akfinance.api.sharding.ShardRouter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+
+import java.io.IOException;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Authenticates requests carrying {@code X-API-Key}. Runs after {@link JwtAuthenticationFilter},
+ * which owns the request id and clears the shard binding; a request that already has a session
+ * is left alone. The granted authorities are the key's scopes.
+ */
+@Component
+public class ApiKeyAuthenticationFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "X-API-Key";
+
+    private final ApiKeyService apiKeyService;
+    private final ShardRouter shardRouter;
+    private final HandlerExceptionResolver exceptionResolver;
+
+    public ApiKeyAuthenticationFilter(ApiKeyService apiKeyService, ShardRouter shardRouter,
+            @Qualifier("handlerExceptionResolver") HandlerExceptionResolver exceptionResolver) {
+        this.apiKeyService = apiKeyService;
+        this.shardRouter = shardRouter;
+        this.exceptionResolver = exceptionResolver;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain) throws ServletException, IOException {
+        String key = request.getHeader(HEADER);
+        Optional<UUID> userId = ApiKeyService.userIdOf(key);
+        if (userId.isEmpty() || SecurityContextHolder.getContext().getAuthentication() != null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        Optional<Integer> shard;
+        try {
+            shard = shardRouter.shardFor(userId.get());
+        } catch (ServiceOverloadedException e) {
+            exceptionResolver.resolveException(request, response, null, e);
+            return;
+        }
+        // Unknown users and invalid keys stay unauthenticated
+        if (shard.isPresent()) {
+            ShardContext.bind(shard.get());
+            apiKeyService.verify(key).ifPresent(verified -> SecurityContextHolder.getContext().setAuthentication(
+                    new UsernamePasswordAuthenticationToken(verified.userId(), null, verified.scopes().stream()
+                            .map(ApiKeyScope::authority)
+                            .map(SimpleGrantedAuthority::new)
+                            .toList())));
+        }
+        filterChain.doFilter(request, response);
+    }
+}
@@ -4,23 +4,48 @@ import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import lombok.RequiredArgsConstructor;
+import com.akfinance.api.exception.ServiceOverloadedException;
+import com.akfinance.api.sharding.ShardContext;
+import com.akfinance.api.sharding.ShardRouter;
 import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Qualifier;
+import com.akfinance.api.domain.enums.ApiKeyScope;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerExceptionResolver;
 
 import java.io.IOException;
-import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Component
-@RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
+    public static final String SESSION = "SESSION";
+
+    // A signed-in user may do everything an API key could, and manage the keys themselves
+    private static final List<GrantedAuthority> SESSION_AUTHORITIES = Stream.concat(
+            Stream.of(SESSION), Stream.of(ApiKeyScope.values()).map(ApiKeyScope::authority))
+            .<GrantedAuthority>map(SimpleGrantedAuthority::new)
+            .toList();
+
     private final JwtTokenProvider tokenProvider;
+    private final ShardRouter shardRouter;
+    private final HandlerExceptionResolver exceptionResolver;
+
+    public JwtAuthenticationFilter(JwtTokenProvider tokenProvider, ShardRouter shardRouter,
+            @Qualifier("handlerExceptionResolver") HandlerExceptionResolver exceptionResolver) {
+        this.tokenProvider = tokenProvider;
+        this.shardRouter = shardRouter;
+        this.exceptionResolver = exceptionResolver;
+    }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
@@ -35,12 +60,25 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             String token = extractToken(request);
             if (token != null && tokenProvider.validateToken(token)) {
                 UUID userId = tokenProvider.getUserIdFromToken(token);
-                UsernamePasswordAuthenticationToken auth = new UsernamePasswordAuthenticationToken(userId, null,
-                        Collections.emptyList());
-                SecurityContextHolder.getContext().setAuthentication(auth);
+                Optional<Integer> shard;
+                try {
+                    shard = shardRouter.shardFor(userId);
+                } catch (ServiceOverloadedException e) {
+                    // The user is being moved between shards
+                    exceptionResolver.resolveException(request, response, null, e);
+                    return;
+                }
+                // A user missing from the shard directory stays unauthenticated
+                if (shard.isPresent()) {
+                    ShardContext.bind(shard.get());
+                    UsernamePasswordAuthenticationToken auth = new UsernamePasswordAuthenticationToken(userId, null,
+                            SESSION_AUTHORITIES);
+                    SecurityContextHolder.getContext().setAuthentication(auth);
+                }
             }
             filterChain.doFilter(request, response);
         } finally {
+            ShardContext.clear();
             MDC.clear();
         }
     }
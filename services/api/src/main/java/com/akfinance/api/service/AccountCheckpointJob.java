@@ -0,0 +1,77 @@
+package com.akfinance.api.service;
+
+import com.akfinance.api.repository.AccountRepository;
+import com.akfinance.api.sharding.ShardRouter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Writes a daily balance checkpoint (as of UTC midnight) for every account that had activity
+ * since its previous one, so a point-in-time balance only scans transactions after the nearest
+ * checkpoint. Accounts are processed in id order, a locked batch per transaction.
+ */
+@Slf4j
+@Component
+public class AccountCheckpointJob {
+
+    private static final UUID MIN_ID = new UUID(0, 0);
+
+    private final AccountRepository accountRepository;
+    private final ShardRouter shardRouter;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter written;
+
+    @Value("${app.accounts.checkpoint-batch-size:500}")
+    private int batchSize;
+
+    public AccountCheckpointJob(AccountRepository accountRepository,
+            ShardRouter shardRouter,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry) {
+        this.accountRepository = accountRepository;
+        this.shardRouter = shardRouter;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.written = meterRegistry.counter("accounts.checkpoints.written");
+    }
+
+    @Scheduled(cron = "${app.accounts.checkpoint-cron:0 15 0 * * *}", zone = "UTC")
+    public void run() {
+        Instant asOf = LocalDate.now(ZoneOffset.UTC).atStartOfDay().toInstant(ZoneOffset.UTC);
+        shardRouter.forEachShard(shard -> checkpoint(asOf));
+    }
+
+    public int checkpoint(Instant asOf) {
+        UUID after = MIN_ID;
+        int total = 0;
+        while (true) {
+            UUID cursor = after;
+            Batch batch = transactionTemplate.execute(status -> {
+                List<UUID> ids = accountRepository.lockBatchAfter(cursor, batchSize);
+                int inserted = ids.isEmpty() ? 0 : accountRepository.insertCheckpoints(ids, asOf);
+                return new Batch(ids.isEmpty() ? null : ids.get(ids.size() - 1), ids.size(), inserted);
+            });
+            total += batch.inserted();
+            if (batch.size() < batchSize)
+                break;
+            after = batch.lastId();
+        }
+        written.increment(total);
+        log.info("Wrote {} account balance checkpoints as of {}", total, asOf);
+        return total;
+    }
+
+    private record Batch(UUID lastId, int size, int inserted) {
+    }
+}
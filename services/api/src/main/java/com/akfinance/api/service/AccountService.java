@@ -0,0 +1,191 @@
+package com.akfinance.api.service;
+
+import com.akfinance.api.domain.entity.Account;
+import com.akfinance.api.domain.entity.User;
+import com.akfinance.api.domain.enums.AggregateType;
+import com.akfinance.api.domain.enums.ChangeType;
+import com.akfinance.api.dto.account.AccountBalanceResponse;
+import com.akfinance.api.dto.account.AccountRequest;
+import com.akfinance.api.dto.account.AccountResponse;
+import com.akfinance.api.exception.BadRequestException;
+import com.akfinance.api.exception.DuplicateResourceException;
+import com.akfinance.api.exception.ResourceNotFoundException;
+import com.akfinance.api.repository.AccountRepository;
+import com.akfinance.api.repository.TransactionRepository;
+import com.akfinance.api.repository.UserPreferenceRepository;
+import com.akfinance.api.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+public class AccountService {
+
+    // Same order as PostgreSQL's uuid comparison, so row locks are always taken in one order
+    private static final Comparator<UUID> LOCK_ORDER = Comparator.comparing(UUID::toString);
+
+    private final AccountRepository accountRepository;
+    private final TransactionRepository transactionRepository;
+    private final UserRepository userRepository;
+    private final UserPreferenceRepository preferenceRepository;
+    private final OutboxService outboxService;
+    private final TransactionArchive transactionArchive;
+
+    @Transactional(readOnly = true)
+    public List<AccountResponse> getAccounts(UUID userId) {
+        return accountRepository.findByUserIdOrderByCreatedAtAsc(userId).stream()
+                .map(this::toResponse)
+                .collect(Collectors.toList());
+    }
+
+    @Transactional
+    public AccountResponse createAccount(UUID userId, AccountRequest request) {
+        if (accountRepository.existsByUserIdAndName(userId, request.getName())) {
+            throw new DuplicateResourceException("Account already exists with this name");
+        }
+
+        String currency = request.getCurrency();
+        if (currency == null) {
+            currency = preferenceRepository.findById(userId)
+                    .map(p -> p.getDefaultCurrency())
+                    .orElse("RUB");
+        }
+        BigDecimal opening = request.getOpeningBalance() != null ? request.getOpeningBalance() : BigDecimal.ZERO;
+
+        User user = userRepository.getReferenceById(userId);
+        Account account = Account.builder()
+                .user(user)
+                .name(request.getName())
+                .currency(currency)
+                .openingBalance(opening)
+                .balance(opening)
+                .archived(request.isArchived())
+                .build();
+        account = accountRepository.save(account);
+        outboxService.record(userId, AggregateType.ACCOUNT, account.getId(), ChangeType.CREATED, payload(account));
+        return toResponse(account);
+    }
+
+    @Transactional
+    public AccountResponse updateAccount(UUID userId, UUID accountId, AccountRequest request) {
+        Account account = accountRepository.findByIdAndUserId(accountId, userId)
+                .orElseThrow(() -> new ResourceNotFoundException("Account not found"));
+        if (!account.getName().equals(request.getName())
+                && accountRepository.existsByUserIdAndName(userId, request.getName())) {
+            throw new DuplicateResourceException("Account already exists with this name");
+        }
+        if (request.getCurrency() != null && !request.getCurrency().equals(account.getCurrency())) {
+            throw new BadRequestException("Account currency cannot be changed");
+        }
+        account.setName(request.getName());
+        account.setArchived(request.isArchived());
+        account = accountRepository.save(account);
+        outboxService.record(userId, AggregateType.ACCOUNT, account.getId(), ChangeType.UPDATED, payload(account));
+        return toResponse(account);
+    }
+
+    @Transactional
+    public void deleteAccount(UUID userId, UUID accountId) {
+        Account account = accountRepository.findByIdAndUserId(accountId, userId)
+                .orElseThrow(() -> new ResourceNotFoundException("Account not found"));
+        if (transactionRepository.existsByAccountIdOrCounterAccountId(accountId, accountId)
+                || transactionRepository.existsArchivedByAccount(userId, accountId)) {
+            throw new BadRequestException("Account has transactions; archive it instead");
+        }
+        accountRepository.delete(account);
+        outboxService.record(userId, AggregateType.ACCOUNT, account.getId(), ChangeType.DELETED, payload(account));
+    }
+
+    // Without 'at' this is the materialized balance; otherwise nearest checkpoint plus the delta since
+    @Transactional(readOnly = true)
+    public AccountBalanceResponse getBalance(UUID userId, UUID accountId, Instant at) {
+        Account account = accountRepository.findByIdAndUserId(accountId, userId)
+                .orElseThrow(() -> new ResourceNotFoundException("Account not found"));
+        if (at == null) {
+            return AccountBalanceResponse.builder()
+                    .accountId(account.getId())
+                    .balance(account.getBalance())
+                    .currency(account.getCurrency())
+                    .build();
+        }
+
+        // Archived transactions are behind a checkpoint at the horizon; only earlier points read them
+        Object[] row = (transactionArchive.reaches(at)
+                ? accountRepository.balanceAtWithArchive(accountId, at)
+                : accountRepository.balanceAt(accountId, at)).get(0);
+        return AccountBalanceResponse.builder()
+                .accountId(account.getId())
+                .at(at)
+                .balance((BigDecimal) row[0])
+                .currency(account.getCurrency())
+                .checkpointAt(row[1] != null ? toInstant(row[1]) : null)
+                .build();
+    }
+
+    // Validation for transaction writes; must not write anything. Its exceptions leave the caller's
+    // transaction usable: the ingestion batch reports the item and carries on with the rest.
+    @Transactional(propagation = Propagation.MANDATORY,
+            noRollbackFor = { ResourceNotFoundException.class, BadRequestException.class })
+    public Account resolve(UUID userId, UUID accountId) {
+        if (accountId == null)
+            return null;
+        Account account = accountRepository.findByIdAndUserId(accountId, userId)
+                .orElseThrow(() -> new ResourceNotFoundException("Account not found"));
+        if (account.isArchived()) {
+            throw new BadRequestException("Account is archived");
+        }
+        return account;
+    }
+
+    // Applies per-account deltas from a transaction write and drops checkpoints it invalidated.
+    // Balance updates come first: the row locks they take are what the checkpoint job waits on.
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void applyBalanceDeltas(Map<UUID, BigDecimal> deltas, Instant earliestOccurredAt) {
+        if (deltas.isEmpty())
+            return;
+        Map<UUID, BigDecimal> ordered = new TreeMap<>(LOCK_ORDER);
+        ordered.putAll(deltas);
+        ordered.forEach((id, delta) -> {
+            if (delta.signum() != 0)
+                accountRepository.addBalance(id, delta);
+        });
+        accountRepository.deleteCheckpointsAfter(ordered.keySet(), earliestOccurredAt);
+    }
+
+    private static Instant toInstant(Object value) {
+        if (value instanceof Instant instant)
+            return instant;
+        if (value instanceof OffsetDateTime odt)
+            return odt.toInstant();
+        return ((Timestamp) value).toInstant();
+    }
+
+    private Map<String, Object> payload(Account account) {
+        return Map.of("name", account.getName(), "currency", account.getCurrency(),
+                "archived", String.valueOf(account.isArchived()));
+    }
+
+    private AccountResponse toResponse(Account account) {
+        return AccountResponse.builder()
+                .id(account.getId())
+                .name(account.getName())
+                .currency(account.getCurrency())
+                .openingBalance(account.getOpeningBalance())
+                .balance(account.getBalance())
+                .archived(account.isArchived())
+                .build();
+    }
+}
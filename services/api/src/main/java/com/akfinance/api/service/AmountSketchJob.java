@@ -0,0 +1,68 @@
+package com.akfinance.api.service;
+
+import com.akfinance.api.analytics.AmountSketches;
+import com.akfinance.api.repository.AmountSketchRepository;
+import com.akfinance.api.repository.AmountSketchRepository.SketchKey;
+import com.akfinance.api.sharding.ShardRouter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Rebuilds stale amount sketches (after updates, deletes and the initial backfill) from their
+ * month's rows. Each batch locks its sketches with SKIP LOCKED, so it neither waits for writers
+ * nor for another instance running the same job.
+ */
+@Slf4j
+@Component
+public class AmountSketchJob {
+
+    private final AmountSketchRepository amountSketchRepository;
+    private final ShardRouter shardRouter;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter rebuilt;
+
+    @Value("${app.analytics.sketches.batch-size:200}")
+    private int batchSize;
+
+    public AmountSketchJob(AmountSketchRepository amountSketchRepository,
+            ShardRouter shardRouter,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry) {
+        this.amountSketchRepository = amountSketchRepository;
+        this.shardRouter = shardRouter;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.rebuilt = meterRegistry.counter("analytics.sketches.rebuilt");
+    }
+
+    @Scheduled(fixedDelayString = "${app.analytics.sketches.refresh-interval-ms:60000}")
+    public void run() {
+        shardRouter.forEachShard(shard -> refresh());
+    }
+
+    public int refresh() {
+        int total = 0;
+        while (true) {
+            Integer count = transactionTemplate.execute(status -> {
+                List<SketchKey> stale = amountSketchRepository.lockStale(batchSize);
+                for (SketchKey key : stale)
+                    amountSketchRepository.store(key, AmountSketches.of(amountSketchRepository.findAmounts(key)));
+                return stale.size();
+            });
+            total += count;
+            if (count < batchSize)
+                break;
+        }
+        rebuilt.increment(total);
+        if (total > 0)
+            log.debug("Rebuilt {} stale amount sketches", total);
+        return total;
+    }
+}
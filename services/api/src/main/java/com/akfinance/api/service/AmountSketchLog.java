@@ -0,0 +1,94 @@
+package com.akfinance.api.service;
+
+import com.akfinance.api.analytics.AmountSketches;
+import com.akfinance.api.repository.AmountSketchRepository;
+import com.akfinance.api.repository.AmountSketchRepository.SketchKey;
+import com.tdunning.math.stats.TDigest;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Collects the amounts a transaction adds to or removes from the monthly amount sketches and
+ * applies them right before commit, one row per sketch in key order. Added amounts are merged
+ * into the stored t-digest; a removal can't be merged, so it marks the sketch stale for
+ * {@link AmountSketchJob} to rebuild. Transactions without a category have no sketch.
+ */
+@Component
+public class AmountSketchLog {
+
+    private final AmountSketchRepository amountSketchRepository;
+
+    public AmountSketchLog(AmountSketchRepository amountSketchRepository) {
+        this.amountSketchRepository = amountSketchRepository;
+    }
+
+    public void add(UUID userId, UUID categoryId, String currency, Instant occurredAt, BigDecimal amount) {
+        Pending pending = pending(userId, categoryId, currency, occurredAt);
+        if (pending != null && !pending.removed)
+            pending.added.add(amount.doubleValue());
+    }
+
+    public void remove(UUID userId, UUID categoryId, String currency, Instant occurredAt) {
+        Pending pending = pending(userId, categoryId, currency, occurredAt);
+        if (pending != null)
+            pending.removed = true;
+    }
+
+    private Pending pending(UUID userId, UUID categoryId, String currency, Instant occurredAt) {
+        if (categoryId == null)
+            return null;
+        if (!TransactionSynchronizationManager.isSynchronizationActive())
+            throw new IllegalStateException("Sketch changes must be recorded inside a transaction");
+        SketchKey key = new SketchKey(userId, YearMonth.from(occurredAt.atZone(ZoneOffset.UTC)), categoryId, currency);
+        return pendingByKey().computeIfAbsent(key, k -> new Pending());
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<SketchKey, Pending> pendingByKey() {
+        Map<SketchKey, Pending> pending = (Map<SketchKey, Pending>) TransactionSynchronizationManager.getResource(this);
+        if (pending != null)
+            return pending;
+
+        // Sorted, so concurrent writers lock shared sketch rows in the same order
+        Map<SketchKey, Pending> created = new TreeMap<>();
+        TransactionSynchronizationManager.bindResource(this, created);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            // Before SyncLog, whose sync_state lock has to stay the last one taken
+            @Override
+            public int getOrder() {
+                return Ordered.LOWEST_PRECEDENCE - 1;
+            }
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                created.forEach((key, changes) -> {
+                    if (changes.removed)
+                        amountSketchRepository.markStale(key);
+                    else
+                        amountSketchRepository.merge(key, changes.added);
+                });
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResource(AmountSketchLog.this);
+            }
+        });
+        return created;
+    }
+
+    private static final class Pending {
+        private final TDigest added = AmountSketches.empty();
+        private boolean removed;
+    }
+}
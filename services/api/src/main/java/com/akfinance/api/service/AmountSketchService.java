@@ -0,0 +1,112 @@
+package com.akfinance.api.service;
+
+import com.akfinance.api.analytics.AmountSketches;
+import com.akfinance.api.domain.entity.Category;
+import com.akfinance.api.domain.enums.CategoryType;
+import com.akfinance.api.dto.analytics.AmountPercentilesResponse;
+import com.akfinance.api.exception.BadRequestException;
+import com.akfinance.api.repository.AmountSketchRepository;
+import com.akfinance.api.repository.AmountSketchRepository.StoredSketch;
+import com.akfinance.api.repository.CategoryRepository;
+import com.tdunning.math.stats.TDigest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.YearMonth;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Amount percentiles over a range of months, merged from the monthly t-digests instead of
+ * sorting the transactions. A month whose sketch is stale is rebuilt from its rows for this
+ * answer only; storing it is left to {@link AmountSketchJob}.
+ */
+@Service
+@RequiredArgsConstructor
+public class AmountSketchService {
+
+    private static final int MAX_MONTHS = 120;
+
+    private final AmountSketchRepository amountSketchRepository;
+    private final CategoryRepository categoryRepository;
+
+    @Transactional(readOnly = true)
+    public AmountPercentilesResponse getPercentiles(UUID userId, YearMonth from, YearMonth to, UUID categoryId,
+            CategoryType type, List<Double> percentiles) {
+        if (from.isAfter(to)) {
+            throw new BadRequestException("'from' must not be after 'to'");
+        }
+        if (from.plusMonths(MAX_MONTHS).isBefore(to)) {
+            throw new BadRequestException("Range must not exceed " + MAX_MONTHS + " months");
+        }
+        if (percentiles.isEmpty() || percentiles.stream().anyMatch(p -> p <= 0 || p >= 100)) {
+            throw new BadRequestException("Percentiles must be between 0 and 100, exclusive");
+        }
+
+        Map<GroupKey, TDigest> merged = new TreeMap<>(GroupKey.ORDER);
+        for (StoredSketch stored : amountSketchRepository.findRange(userId, from, to, categoryId)) {
+            TDigest sketch = stored.stale()
+                    ? AmountSketches.of(amountSketchRepository.findAmounts(stored.key()))
+                    : AmountSketches.fromBytes(stored.sketch());
+            if (sketch.size() == 0)
+                continue;
+            GroupKey key = new GroupKey(stored.key().categoryId(), stored.key().currency());
+            merged.merge(key, sketch, AmountSketches::merge);
+        }
+
+        Map<UUID, Category> categories = merged.isEmpty() ? Map.of()
+                : categoryRepository.findByUserIdAndIdIn(userId,
+                        merged.keySet().stream().map(GroupKey::categoryId).collect(Collectors.toSet()))
+                        .stream().collect(Collectors.toMap(Category::getId, Function.identity()));
+
+        List<AmountPercentilesResponse.Row> rows = merged.entrySet().stream()
+                .filter(e -> categories.containsKey(e.getKey().categoryId()))
+                .filter(e -> type == null || categories.get(e.getKey().categoryId()).getType() == type)
+                .map(e -> toRow(categories.get(e.getKey().categoryId()), e.getKey().currency(), e.getValue(),
+                        percentiles))
+                .toList();
+
+        return AmountPercentilesResponse.builder()
+                .from(from)
+                .to(to)
+                .rows(rows)
+                .build();
+    }
+
+    private static AmountPercentilesResponse.Row toRow(Category category, String currency, TDigest sketch,
+            List<Double> percentiles) {
+        Map<String, BigDecimal> values = new LinkedHashMap<>();
+        for (double p : percentiles.stream().sorted().distinct().toList()) {
+            values.put("p" + BigDecimal.valueOf(p).stripTrailingZeros().toPlainString(),
+                    amount(sketch.quantile(p / 100)));
+        }
+        return AmountPercentilesResponse.Row.builder()
+                .categoryId(category.getId())
+                .categoryName(category.getName())
+                .categoryType(category.getType())
+                .currency(currency)
+                .count(sketch.size())
+                .min(amount(sketch.getMin()))
+                .max(amount(sketch.getMax()))
+                .percentiles(values)
+                .build();
+    }
+
+    private static BigDecimal amount(double value) {
+        return BigDecimal.valueOf(value).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    private record GroupKey(UUID categoryId, String currency) {
+        static final Comparator<GroupKey> ORDER = Comparator.comparing(GroupKey::categoryId)
+                .thenComparing(GroupKey::currency);
+    }
+}
@@ -0,0 +1,310 @@
+package com.akfinance.api.service;
+
+import com.akfinance.api.analytics.TransactionColumnStore;
+import com.akfinance.api.analytics.TransactionColumnStore.SeriesTotals;
+import com.akfinance.api.domain.entity.Category;
+import com.akfinance.api.domain.enums.Granularity;
+import com.akfinance.api.domain.enums.TransactionType;
+import com.akfinance.api.domain.money.Money;
+import com.akfinance.api.dto.analytics.TimeSeriesResponse;
+import com.akfinance.api.exception.BadRequestException;
+import com.akfinance.api.repository.CategoryRepository;
+import com.akfinance.api.repository.ClosedPeriodVersionRepository;
+import com.akfinance.api.repository.TransactionRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Income/expense series over arbitrary ranges. Rows are grouped per UTC month; closed
+ * (past) months are cached until a write touches them, so only the open month is re-queried.
+ * Each cached month is stamped with its version in closed_period_versions, which only writes
+ * landing in that month bump, so a write served by another instance drops just the months it
+ * touched on the next read here. With the columnar store enabled the series is summed in memory
+ * instead.
+ */
+@Service
+@RequiredArgsConstructor
+public class AnalyticsService {
+
+    private final TransactionRepository transactionRepository;
+    private final CategoryRepository categoryRepository;
+    private final TransactionColumnStore columnStore;
+    private final TransactionArchive transactionArchive;
+    private final ClosedPeriodVersionRepository closedPeriodVersionRepository;
+
+    @Value("${app.analytics.cache.max-users:10000}")
+    private int maxUsers;
+
+    private final Map<UUID, ClosedPeriods> closedPeriods = Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<UUID, ClosedPeriods> eldest) {
+                    return size() > maxUsers;
+                }
+            });
+
+    @Transactional(readOnly = true)
+    public TimeSeriesResponse getSeries(UUID userId, LocalDate from, LocalDate to,
+            Granularity granularity, UUID categoryId, boolean byCategory) {
+        if (from.isAfter(to)) {
+            throw new BadRequestException("'from' must not be after 'to'");
+        }
+
+        LocalDate start = truncate(from, granularity);
+        LocalDate end = next(truncate(to, granularity), granularity);
+        Map<BucketKey, BigDecimal[]> totals = columnStore.isEnabled()
+                ? columnarTotals(userId, start, end, granularity, categoryId, byCategory)
+                : sqlTotals(userId, start, end, granularity, categoryId, byCategory);
+
+        if (!byCategory) {
+            for (LocalDate d = start; d.isBefore(end); d = next(d, granularity)) {
+                totals.computeIfAbsent(new BucketKey(d, null), k -> new BigDecimal[] { BigDecimal.ZERO, BigDecimal.ZERO });
+            }
+        }
+
+        Map<UUID, String> categoryNames = byCategory
+                ? categoryRepository.findByUserId(userId).stream()
+                        .collect(Collectors.toMap(Category::getId, Category::getName))
+                : Map.of();
+
+        List<TimeSeriesResponse.Point> points = totals.entrySet().stream()
+                .map(e -> TimeSeriesResponse.Point.builder()
+                        .period(e.getKey().bucket())
+                        .categoryId(e.getKey().categoryId())
+                        .categoryName(e.getKey().categoryId() != null
+                                ? categoryNames.get(e.getKey().categoryId())
+                                : null)
+                        .income(e.getValue()[0])
+                        .expense(e.getValue()[1])
+                        .build())
+                .collect(Collectors.toList());
+
+        return TimeSeriesResponse.builder()
+                .granularity(granularity)
+                .from(start)
+                .to(end.minusDays(1))
+                .points(points)
+                .build();
+    }
+
+    private Map<BucketKey, BigDecimal[]> sqlTotals(UUID userId, LocalDate start, LocalDate end,
+            Granularity granularity, UUID categoryId, boolean byCategory) {
+        YearMonth firstMonth = YearMonth.from(start);
+        YearMonth lastMonth = YearMonth.from(end.minusDays(1));
+        Map<YearMonth, List<SeriesRow>> segments = loadSegments(userId, granularity, firstMonth, lastMonth);
+
+        // Weeks can straddle two months, so partial rows of the same bucket are merged here
+        Map<BucketKey, BigDecimal[]> totals = new TreeMap<>(BucketKey.ORDER);
+        for (List<SeriesRow> rows : segments.values()) {
+            for (SeriesRow row : rows) {
+                if (row.bucket().isBefore(start) || !row.bucket().isBefore(end))
+                    continue;
+                if (categoryId != null && !categoryId.equals(row.categoryId()))
+                    continue;
+                BucketKey key = new BucketKey(row.bucket(), byCategory ? row.categoryId() : null);
+                BigDecimal[] sums = totals.computeIfAbsent(key, k -> new BigDecimal[] { BigDecimal.ZERO, BigDecimal.ZERO });
+                int idx = row.type() == TransactionType.INCOME ? 0 : 1;
+                sums[idx] = sums[idx].add(row.amount());
+            }
+        }
+        return totals;
+    }
+
+    // One scan over the user's columns; bucket bounds are epoch days, so weeks need no merging
+    private Map<BucketKey, BigDecimal[]> columnarTotals(UUID userId, LocalDate start, LocalDate end,
+            Granularity granularity, UUID categoryId, boolean byCategory) {
+        List<LocalDate> buckets = new ArrayList<>();
+        for (LocalDate d = start; d.isBefore(end); d = next(d, granularity)) {
+            buckets.add(d);
+        }
+        int[] bounds = new int[buckets.size() + 1];
+        for (int b = 0; b < buckets.size(); b++) {
+            bounds[b] = (int) buckets.get(b).toEpochDay();
+        }
+        bounds[buckets.size()] = (int) end.toEpochDay();
+
+        SeriesTotals series = columnStore.series(userId, bounds, categoryId, byCategory);
+        Map<BucketKey, BigDecimal[]> totals = new TreeMap<>(BucketKey.ORDER);
+        for (int b = 0; b < series.buckets(); b++) {
+            for (int c = 0; c < series.width(); c++) {
+                long income = series.incomeMinor(b, c);
+                long expense = series.expenseMinor(b, c);
+                if (income == 0 && expense == 0)
+                    continue;
+                totals.put(new BucketKey(buckets.get(b), series.category(c)),
+                        new BigDecimal[] { Money.toBigDecimal(income), Money.toBigDecimal(expense) });
+            }
+        }
+        return totals;
+    }
+
+    public void evictPeriods(UUID userId, Instant... occurredAt) {
+        List<YearMonth> months = new ArrayList<>();
+        for (Instant instant : occurredAt) {
+            if (instant != null)
+                months.add(YearMonth.from(instant.atZone(ZoneOffset.UTC)));
+        }
+        evictMonths(userId, months);
+    }
+
+    /**
+     * Bumps the versions of the closed months among {@code months} in the caller's transaction, for
+     * other instances, and drops them from the local cache after commit, so a concurrent reader
+     * can't re-cache the pre-commit state. Writes to the open month cost nothing here.
+     */
+    public void evictMonths(UUID userId, Collection<YearMonth> months) {
+        YearMonth openMonth = YearMonth.now(ZoneOffset.UTC);
+        List<YearMonth> closed = months.stream().filter(m -> m.isBefore(openMonth)).distinct().toList();
+        if (closed.isEmpty())
+            return;
+        closedPeriodVersionRepository.bump(userId, closed);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(userId, closed);
+                }
+            });
+        } else {
+            evict(userId, closed);
+        }
+    }
+
+    private void evict(UUID userId, List<YearMonth> months) {
+        ClosedPeriods cache = closedPeriods.get(userId);
+        if (cache == null)
+            return;
+        synchronized (cache) {
+            cache.version++;
+            cache.segments.keySet().removeIf(key -> months.contains(key.month()));
+        }
+    }
+
+    private Map<YearMonth, List<SeriesRow>> loadSegments(UUID userId, Granularity granularity,
+            YearMonth firstMonth, YearMonth lastMonth) {
+        YearMonth openMonth = YearMonth.now(ZoneOffset.UTC);
+        ClosedPeriods cache = closedPeriods.computeIfAbsent(userId, id -> new ClosedPeriods());
+        long version;
+        synchronized (cache) {
+            version = cache.version;
+        }
+        // Read before the data, so a write committing in between only makes the next read reload
+        Map<YearMonth, Long> monthVersions = closedPeriodVersionRepository.find(userId);
+
+        Map<YearMonth, List<SeriesRow>> segments = new TreeMap<>();
+        YearMonth firstMissing = null;
+        for (YearMonth m = firstMonth; !m.isAfter(lastMonth); m = m.plusMonths(1)) {
+            Segment cached = m.isBefore(openMonth)
+                    ? cache.segments.get(new SegmentKey(granularity, m))
+                    : null;
+            if (cached == null || cached.version() != monthVersions.getOrDefault(m, 0L)) {
+                firstMissing = m;
+                break;
+            }
+            segments.put(m, cached.rows());
+        }
+        if (firstMissing == null)
+            return segments;
+
+        // One grouped query from the first uncached month to the end of the range
+        Instant from = firstMissing.atDay(1).atStartOfDay().toInstant(ZoneOffset.UTC);
+        Instant to = lastMonth.plusMonths(1).atDay(1).atStartOfDay().toInstant(ZoneOffset.UTC);
+        Map<YearMonth, List<SeriesRow>> loaded = new HashMap<>();
+        String unit = granularity.name().toLowerCase();
+        List<Object[]> rows = transactionArchive.reaches(from)
+                ? transactionRepository.sumSeriesByPeriodWithArchive(userId, unit, from, to)
+                : transactionRepository.sumSeriesByPeriod(userId, unit, from, to);
+        for (Object[] row : rows) {
+            YearMonth month = YearMonth.from(toLocalDate(row[0]));
+            loaded.computeIfAbsent(month, k -> new ArrayList<>()).add(new SeriesRow(
+                    toLocalDate(row[1]),
+                    (UUID) row[2],
+                    TransactionType.valueOf((String) row[3]),
+                    (BigDecimal) row[4]));
+        }
+
+        for (YearMonth m = firstMissing; !m.isAfter(lastMonth); m = m.plusMonths(1)) {
+            segments.put(m, List.copyOf(loaded.getOrDefault(m, List.of())));
+        }
+        // Under the lock evict takes, so an eviction can't land between the check and the put
+        synchronized (cache) {
+            if (cache.version == version && closedPeriods.get(userId) == cache) {
+                segments.forEach((m, rows) -> {
+                    if (m.isBefore(openMonth))
+                        cache.segments.put(new SegmentKey(granularity, m),
+                                new Segment(monthVersions.getOrDefault(m, 0L), rows));
+                });
+            }
+        }
+        return segments;
+    }
+
+    private static LocalDate truncate(LocalDate date, Granularity granularity) {
+        return switch (granularity) {
+            case DAY -> date;
+            case WEEK -> date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MONTH -> date.withDayOfMonth(1);
+        };
+    }
+
+    private static LocalDate next(LocalDate bucket, Granularity granularity) {
+        return switch (granularity) {
+            case DAY -> bucket.plusDays(1);
+            case WEEK -> bucket.plusWeeks(1);
+            case MONTH -> bucket.plusMonths(1);
+        };
+    }
+
+    private static LocalDate toLocalDate(Object value) {
+        if (value instanceof LocalDate date)
+            return date;
+        return ((Date) value).toLocalDate();
+    }
+
+    private record SeriesRow(LocalDate bucket, UUID categoryId, TransactionType type, BigDecimal amount) {
+    }
+
+    private record SegmentKey(Granularity granularity, YearMonth month) {
+    }
+
+    // version is the month's closed_period_versions version the rows were read under
+    private record Segment(long version, List<SeriesRow> rows) {
+    }
+
+    private record BucketKey(LocalDate bucket, UUID categoryId) {
+        static final Comparator<BucketKey> ORDER = Comparator.comparing(BucketKey::bucket)
+                .thenComparing(BucketKey::categoryId, Comparator.nullsFirst(Comparator.naturalOrder()));
+    }
+
+    // version counts local evictions
+    private static class ClosedPeriods {
+        long version;
+        final Map<SegmentKey, Segment> segments = new ConcurrentHashMap<>();
+    }
+}
@@ -0,0 +1,109 @@
+package com.akfinance.api.service;
+
+import com.akfinance.api.sharding.ShardContext;
+import com.akfinance.api.sharding.ShardRouter;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Receives {@code api_key_revoked} notifications, which {@link ApiKeyService#revokeApiKey} sends
+ * on the shard that holds the key, and evicts the key from this instance's cache. One thread per
+ * shard keeps one pooled connection in LISTEN. Notifications sent while the connection was down
+ * are lost, so the whole cache is dropped on every (re)connect.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "app.api-keys", name = "listen", havingValue = "true", matchIfMissing = true)
+public class ApiKeyRevocationListener {
+
+    static final String CHANNEL = "api_key_revoked";
+
+    private final ApiKeyService apiKeyService;
+    private final ShardRouter shardRouter;
+    private final DataSource dataSource;
+    private final List<Thread> listeners = new ArrayList<>();
+    private volatile boolean running;
+
+    @Value("${app.api-keys.listen-poll-timeout:PT1S}")
+    private Duration pollTimeout;
+
+    @Value("${app.api-keys.listen-retry:PT5S}")
+    private Duration retry;
+
+    public ApiKeyRevocationListener(ApiKeyService apiKeyService, ShardRouter shardRouter, DataSource dataSource) {
+        this.apiKeyService = apiKeyService;
+        this.shardRouter = shardRouter;
+        this.dataSource = dataSource;
+    }
+
+    @PostConstruct
+    void start() {
+        running = true;
+        for (int shard : shardRouter.shardIds()) {
+            listeners.add(Thread.ofPlatform().name("api-key-listener-" + shard).daemon()
+                    .start(() -> listen(shard)));
+        }
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        listeners.forEach(Thread::interrupt);
+        for (Thread listener : listeners)
+            listener.join(pollTimeout.toMillis() + TimeUnit.SECONDS.toMillis(1));
+    }
+
+    private void listen(int shard) {
+        while (running) {
+            try (Connection connection = ShardContext.call(shard, this::connect)) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                apiKeyService.evictAll();
+                log.debug("Listening for API key revocations on shard {}", shard);
+
+                PGConnection pg = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pg.getNotifications((int) pollTimeout.toMillis());
+                    if (notifications == null)
+                        continue;
+                    for (PGNotification notification : notifications)
+                        apiKeyService.evict(notification.getParameter());
+                }
+            } catch (SQLException | RuntimeException e) {
+                if (!running)
+                    return;
+                log.warn("API key revocation listener on shard {} failed, retrying in {}: {}",
+                        shard, retry, e.getMessage());
+                try {
+                    Thread.sleep(retry);
+                } catch (InterruptedException ie) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private Connection connect() {
+        try {
+            return dataSource.getConnection();
+        } catch (SQLException e) {
+            throw new IllegalStateException("No connection for the revocation listener", e);
+        }
+    }
+}
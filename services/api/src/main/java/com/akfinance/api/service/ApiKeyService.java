@@ -0,0 +1,231 @@
+package com.akfinance.api.service;
+
+import com.akfinance.api.domain.entity.ApiKey;
+import com.akfinance.api.domain.enums.ApiKeyScope;
+import com.akfinance.api.dto.apikey.ApiKeyCreatedResponse;
+import com.akfinance.api.dto.apikey.ApiKeyRequest;
+import com.akfinance.api.dto.apikey.ApiKeyResponse;
+import com.akfinance.api.exception.ConflictException;
+import com.akfinance.api.exception.ResourceNotFoundException;
+import com.akfinance.api.repository.ApiKeyRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * API keys for scripts and integrations. A key is {@code akf_<user id>_<secret>}: the user id
+ * routes the request to its shard before anything is looked up, and the secret is 256 random
+ * bits, so an HMAC of the whole key is as good as a password hash and costs microseconds instead
+ * of a bcrypt round. Verified keys are cached for {@code cache-ttl}; revocation evicts them on
+ * every instance through {@link ApiKeyRevocationListener}.
+ */
+@Service
+public class ApiKeyService {
+
+    public static final String PREFIX = "akf_";
+    private static final int SECRET_BYTES = 32;
+    private static final int HINT_LENGTH = 6;
+    private static final String HMAC = "HmacSHA256";
+
+    private final ApiKeyRepository apiKeyRepository;
+    private final SecretKeySpec pepper;
+    private final ThreadLocal<Mac> macs;
+    private final SecureRandom random = new SecureRandom();
+    private final Map<String, Cached> cache;
+    private final long ttlNanos;
+    private final int maxPerUser;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter rejected;
+
+    public ApiKeyService(ApiKeyRepository apiKeyRepository, MeterRegistry meterRegistry,
+            @Value("${app.api-keys.pepper}") String pepper,
+            @Value("${app.api-keys.cache-size:10000}") int cacheSize,
+            @Value("${app.api-keys.cache-ttl:PT5M}") Duration cacheTtl,
+            @Value("${app.api-keys.max-per-user:10}") int maxPerUser) {
+        this.apiKeyRepository = apiKeyRepository;
+        this.pepper = new SecretKeySpec(pepper.getBytes(StandardCharsets.UTF_8), HMAC);
+        this.macs = ThreadLocal.withInitial(this::newMac);
+        this.ttlNanos = cacheTtl.toNanos();
+        this.maxPerUser = maxPerUser;
+        this.cache = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Cached> eldest) {
+                return size() > cacheSize;
+            }
+        });
+        this.hits = meterRegistry.counter("api_keys.verify", "outcome", "hit");
+        this.misses = meterRegistry.counter("api_keys.verify", "outcome", "miss");
+        this.rejected = meterRegistry.counter("api_keys.verify", "outcome", "rejected");
+        meterRegistry.gaugeMapSize("api_keys.cache.size", List.of(), cache);
+    }
+
+    public List<ApiKeyResponse> getApiKeys(UUID userId) {
+        return apiKeyRepository.findByUserIdOrderByCreatedAtDesc(userId).stream()
+                .map(this::toResponse)
+                .toList();
+    }
+
+    // The only time the full key is returned
+    @Transactional
+    public ApiKeyCreatedResponse createApiKey(UUID userId, ApiKeyRequest request) {
+        if (apiKeyRepository.countByUserIdAndRevokedAtIsNull(userId) >= maxPerUser) {
+            throw new ConflictException("At most " + maxPerUser + " active API keys per user");
+        }
+        byte[] secret = new byte[SECRET_BYTES];
+        random.nextBytes(secret);
+        String encoded = Base64.getUrlEncoder().withoutPadding().encodeToString(secret);
+        String key = PREFIX + userId.toString().replace("-", "") + "_" + encoded;
+
+        ApiKey apiKey = ApiKey.builder()
+                .userId(userId)
+                .name(request.getName())
+                .keyHash(hash(key))
+                .hint(encoded.substring(0, HINT_LENGTH))
+                .scopes(EnumSet.copyOf(request.getScopes()))
+                .expiresAt(request.getExpiresInDays() != null
+                        ? Instant.now().plus(Duration.ofDays(request.getExpiresInDays()))
+                        : null)
+                .build();
+        apiKey = apiKeyRepository.save(apiKey);
+        return new ApiKeyCreatedResponse(toResponse(apiKey), key);
+    }
+
+    // Evicted everywhere once the revocation commits; an instance that misses the notification
+    // still drops the key within cache-ttl
+    @Transactional
+    public void revokeApiKey(UUID userId, UUID id) {
+        ApiKey apiKey = apiKeyRepository.findByIdAndUserId(id, userId)
+                .orElseThrow(() -> new ResourceNotFoundException("API key not found"));
+        if (apiKey.getRevokedAt() != null)
+            return;
+        apiKey.setRevokedAt(Instant.now());
+        apiKeyRepository.save(apiKey);
+
+        String cacheKey = HexFormat.of().formatHex(apiKey.getKeyHash());
+        apiKeyRepository.notifyRevoked(cacheKey);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                evict(cacheKey);
+            }
+        });
+    }
+
+    /**
+     * Checks a presented key; the caller has already bound the shard of {@link #userIdOf}. Only
+     * valid keys are cached, so an unknown key costs one index probe every time.
+     */
+    public Optional<Verified> verify(String key) {
+        byte[] keyHash = hash(key);
+        String cacheKey = HexFormat.of().formatHex(keyHash);
+        Cached cached = cache.get(cacheKey);
+        long now = System.nanoTime();
+        if (cached != null && now - cached.loadedAt() < ttlNanos) {
+            if (cached.verified().expired()) {
+                cache.remove(cacheKey);
+                rejected.increment();
+                return Optional.empty();
+            }
+            hits.increment();
+            return Optional.of(cached.verified());
+        }
+
+        misses.increment();
+        Optional<Verified> verified = apiKeyRepository.findByKeyHash(keyHash)
+                .filter(apiKey -> apiKey.getRevokedAt() == null)
+                .filter(apiKey -> apiKey.getUserId().equals(userIdOf(key).orElse(null)))
+                .map(apiKey -> {
+                    // Written on cache misses only, so it is accurate to within cache-ttl
+                    apiKeyRepository.touch(apiKey.getId(), Instant.now());
+                    return new Verified(apiKey.getUserId(), Set.copyOf(apiKey.getScopes()), apiKey.getExpiresAt());
+                })
+                .filter(v -> !v.expired());
+        verified.ifPresentOrElse(v -> cache.put(cacheKey, new Cached(v, now)), () -> {
+            cache.remove(cacheKey);
+            rejected.increment();
+        });
+        return verified;
+    }
+
+    // Empty for anything that is not shaped like one of our keys
+    public static Optional<UUID> userIdOf(String key) {
+        if (key == null || !key.startsWith(PREFIX) || key.length() < PREFIX.length() + 33
+                || key.charAt(PREFIX.length() + 32) != '_')
+            return Optional.empty();
+        try {
+            String hex = key.substring(PREFIX.length(), PREFIX.length() + 32);
+            return Optional.of(new UUID(Long.parseUnsignedLong(hex.substring(0, 16), 16),
+                    Long.parseUnsignedLong(hex.substring(16), 16)));
+        } catch (NumberFormatException e) {
+            return Optional.empty();
+        }
+    }
+
+    public void evict(String keyHashHex) {
+        cache.remove(keyHashHex);
+    }
+
+    public void evictAll() {
+        cache.clear();
+    }
+
+    private byte[] hash(String key) {
+        return macs.get().doFinal(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(HMAC);
+            mac.init(pepper);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 is not available", e);
+        }
+    }
+
+    private ApiKeyResponse toResponse(ApiKey apiKey) {
+        return ApiKeyResponse.builder()
+                .id(apiKey.getId())
+                .name(apiKey.getName())
+                .hint(apiKey.getHint())
+                .scopes(apiKey.getScopes())
+                .createdAt(apiKey.getCreatedAt())
+                .expiresAt(apiKey.getExpiresAt())
+                .lastUsedAt(apiKey.getLastUsedAt())
+                .revokedAt(apiKey.getRevokedAt())
+                .build();
+    }
+
+    public record Verified(UUID userId, Set<ApiKeyScope> scopes, Instant expiresAt) {
+
+        boolean expired() {
+            return expiresAt != null && !Instant.now().isBefore(expiresAt);
+        }
+    }
+
+    private record Cached(Verified verified, long loadedAt) {
+    }
+}
@@ -7,33 +7,88 @@ import com.akfinance.api.dto.auth.AuthResponse;
 import com.akfinance.api.dto.auth.LoginRequest;
 import com.akfinance.api.dto.auth.RegisterRequest;
 import com.akfinance.api.exception.DuplicateResourceException;
+import com.akfinance.api.exception.ServiceOverloadedException;
 import com.akfinance.api.repository.UserPreferenceRepository;
 import com.akfinance.api.repository.UserRepository;
 import com.akfinance.api.security.JwtTokenProvider;
-import lombok.RequiredArgsConstructor;
+import com.akfinance.api.security.PasswordHasher;
+import com.akfinance.api.sharding.ShardContext;
+import com.akfinance.api.sharding.ShardRouter;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.BadCredentialsException;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+@Slf4j
 @Service
-@RequiredArgsConstructor
 public class AuthService {
 
     private final UserRepository userRepository;
     private final UserPreferenceRepository preferenceRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHasher passwordHasher;
     private final JwtTokenProvider tokenProvider;
+    private final ShardRouter shardRouter;
+    private final TransactionTemplate transactionTemplate;
 
-    @Transactional
+    public AuthService(UserRepository userRepository,
+            UserPreferenceRepository preferenceRepository,
+            PasswordHasher passwordHasher,
+            JwtTokenProvider tokenProvider,
+            ShardRouter shardRouter,
+            PlatformTransactionManager transactionManager) {
+        this.userRepository = userRepository;
+        this.preferenceRepository = preferenceRepository;
+        this.passwordHasher = passwordHasher;
+        this.tokenProvider = tokenProvider;
+        this.shardRouter = shardRouter;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    // The shard has to be bound before the transaction opens its connection, hence the template.
+    // The password is hashed first, so no connection is held while bcrypt waits for its pool
     public AuthResponse register(RegisterRequest request) {
+        String passwordHash = passwordHasher.encode(request.getPassword());
+        int shard = shardRouter.placementFor(request.getEmail());
+        return ShardContext.call(shard, () -> transactionTemplate.execute(
+                status -> createUser(request, passwordHash, shard)));
+    }
+
+    public AuthResponse login(LoginRequest request) {
+        int shard = shardRouter.shardForEmail(request.getEmail())
+                .orElseThrow(() -> new BadCredentialsException("Invalid credentials"));
+        User user = ShardContext.call(shard, () -> userRepository.findByEmail(request.getEmail()))
+                .orElseThrow(() -> new BadCredentialsException("Invalid credentials"));
+
+        if (!passwordHasher.matches(request.getPassword(), user.getPasswordHash())) {
+            throw new BadCredentialsException("Invalid credentials");
+        }
+        if (passwordHasher.needsRehash(user.getPasswordHash()))
+            rehash(shard, user, request.getPassword());
+
+        String token = tokenProvider.generateToken(user.getId(), user.getEmail());
+        return new AuthResponse(token, tokenProvider.getExpirationMs() / 1000);
+    }
+
+    // Best effort: the login has already succeeded, and the next one retries
+    private void rehash(int shard, User user, String rawPassword) {
+        try {
+            String newHash = passwordHasher.encode(rawPassword);
+            ShardContext.run(shard, () ->
+                    userRepository.replacePasswordHash(user.getId(), user.getPasswordHash(), newHash));
+        } catch (ServiceOverloadedException e) {
+            log.debug("Skipped password rehash for user {}: {}", user.getId(), e.getMessage());
+        }
+    }
+
+    private AuthResponse createUser(RegisterRequest request, String passwordHash, int shard) {
         if (userRepository.existsByEmail(request.getEmail())) {
             throw new DuplicateResourceException("Email already registered");
         }
 
         User user = User.builder()
                 .email(request.getEmail())
-                .passwordHash(passwordEncoder.encode(request.getPassword()))
+                .passwordHash(passwordHash)
                 .build();
         user = userRepository.save(user);
 
@@ -46,17 +101,8 @@ public class AuthService {
                 .build();
         preferenceRepository.save(prefs);
 
-        String token = tokenProvider.generateToken(user.getId(), user.getEmail());
-        return new AuthResponse(token, tokenProvider.getExpirationMs() / 1000);
-    }
-
-    public AuthResponse login(LoginRequest request) {
-        User user = userRepository.findByEmail(request.getEmail())
-                .orElseThrow(() -> new BadCredentialsException("Invalid credentials"));
-
-        if (!passwordEncoder.matches(request.getPassword(), user.getPasswordHash())) {
-            throw new BadCredentialsException("Invalid credentials");
-        }
+        // Global email uniqueness is enforced here, since each shard only sees its own users
+        shardRouter.register(user.getId(), user.getEmail(), shard);
 
         String token = tokenProvider.generateToken(user.getId(), user.getEmail());
         return new AuthResponse(token, tokenProvider.getExpirationMs() / 1000);
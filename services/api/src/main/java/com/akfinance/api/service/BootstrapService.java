@@ -0,0 +1,141 @@
+package com.akfinance.api.service;
+
+import com.akfinance.api.domain.enums.CountMode;
+import com.akfinance.api.dto.bootstrap.BootstrapResponse;
+import com.akfinance.api.dto.budget.BudgetResponse;
+import com.akfinance.api.dto.category.CategoryResponse;
+import com.akfinance.api.dto.common.PageResponse;
+import com.akfinance.api.dto.dashboard.DashboardSummary;
+import com.akfinance.api.dto.preference.PreferenceResponse;
+import com.akfinance.api.dto.transaction.TransactionFilter;
+import com.akfinance.api.dto.transaction.TransactionResponse;
+import com.akfinance.api.exception.ServiceOverloadedException;
+import com.akfinance.api.sharding.ShardContext;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Everything the web client needs for its first render, loaded in parallel on virtual threads.
+ * Each branch runs its own read-only transaction; the first failure cancels the rest. Every branch
+ * holds a pooled connection, so branches of all requests together take at most
+ * {@code app.bootstrap.max-connections} of them; the rest wait for a permit within the timeout.
+ */
+@Service
+public class BootstrapService {
+
+    private final DashboardService dashboardService;
+    private final BudgetService budgetService;
+    private final CategoryService categoryService;
+    private final PreferenceService preferenceService;
+    private final TransactionService transactionService;
+    private final Semaphore connections;
+
+    @Value("${app.bootstrap.timeout:PT10S}")
+    private Duration timeout;
+
+    public BootstrapService(DashboardService dashboardService, BudgetService budgetService,
+            CategoryService categoryService, PreferenceService preferenceService,
+            TransactionService transactionService,
+            @Value("${app.bootstrap.max-connections:6}") int maxConnections) {
+        this.dashboardService = dashboardService;
+        this.budgetService = budgetService;
+        this.categoryService = categoryService;
+        this.preferenceService = preferenceService;
+        this.transactionService = transactionService;
+        this.connections = new Semaphore(maxConnections);
+    }
+
+    public BootstrapResponse load(UUID userId, int month, int year, int pageSize) {
+        try (Scope scope = new Scope(timeout, connections)) {
+            Future<DashboardSummary> dashboard = scope.fork(() -> dashboardService.getSummary(userId, month, year));
+            Future<List<BudgetResponse>> budgets = scope.fork(() -> budgetService.getBudgets(userId, month, year));
+            Future<List<CategoryResponse>> categories = scope.fork(() -> categoryService.getCategories(userId, null));
+            Future<PreferenceResponse> preferences = scope.fork(() -> preferenceService.getPreferences(userId));
+            Future<PageResponse<TransactionResponse>> transactions = scope.fork(() -> transactionService
+                    .getTransactionPage(userId, TransactionFilter.builder().build(),
+                            PageRequest.of(0, pageSize), CountMode.EXACT));
+
+            return BootstrapResponse.builder()
+                    .dashboard(scope.join(dashboard))
+                    .budgets(scope.join(budgets))
+                    .categories(scope.join(categories))
+                    .preferences(scope.join(preferences))
+                    .transactions(scope.join(transactions))
+                    .build();
+        }
+    }
+
+    // Minimal stand-in for StructuredTaskScope.ShutdownOnFailure, which is still a preview API on Java 21
+    private static final class Scope implements AutoCloseable {
+
+        private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        private final Map<String, String> mdc = MDC.getCopyOfContextMap();
+        private final Integer shard = ShardContext.current();
+        private final Semaphore connections;
+        private final long deadline;
+
+        Scope(Duration timeout, Semaphore connections) {
+            this.connections = connections;
+            this.deadline = System.nanoTime() + timeout.toNanos();
+        }
+
+        <T> Future<T> fork(Callable<T> task) {
+            return executor.submit(() -> {
+                if (mdc != null)
+                    MDC.setContextMap(mdc);
+                ShardContext.bind(shard);
+                boolean permitted = false;
+                try {
+                    permitted = connections.tryAcquire(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                    if (!permitted)
+                        throw new ServiceOverloadedException("Bootstrap did not complete in time, retry later");
+                    return task.call();
+                } catch (Exception e) {
+                    executor.shutdownNow();
+                    throw e;
+                } finally {
+                    if (permitted)
+                        connections.release();
+                    ShardContext.clear();
+                    MDC.clear();
+                }
+            });
+        }
+
+        <T> T join(Future<T> future) {
+            try {
+                return future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException cause)
+                    throw cause;
+                throw new IllegalStateException(e.getCause());
+            } catch (TimeoutException | CancellationException e) {
+                throw new ServiceOverloadedException("Bootstrap did not complete in time, retry later");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while loading bootstrap data", e);
+            }
+        }
+
+        @Override
+        public void close() {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.akfinance.api.service;
+
+import com.akfinance.api.repository.UserRepository;
+import com.akfinance.api.sharding.ShardRouter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Once the month is over, rolls every user's budgets over into the new one, a batch of users per
+ * statement (see {@link BudgetService#rollover}). Budgets the user already created for the new
+ * month are kept, so a rerun only fills in what is missing. Budgets whose new amounts overflow are
+ * skipped and counted in {@code budgets.rollover_skipped}.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.budget.rollover.enabled", havingValue = "true")
+public class BudgetRolloverJob {
+
+    private static final UUID MIN_ID = new UUID(0, 0);
+
+    private final BudgetService budgetService;
+    private final UserRepository userRepository;
+    private final ShardRouter shardRouter;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter rolledOver;
+    private final Counter skipped;
+
+    @Value("${app.budget.rollover.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.budget.rollover.adjust-percent:0}")
+    private int adjustPercent;
+
+    @Value("${app.budget.rollover.carry-over:false}")
+    private boolean carryOver;
+
+    public BudgetRolloverJob(BudgetService budgetService,
+            UserRepository userRepository,
+            ShardRouter shardRouter,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry) {
+        this.budgetService = budgetService;
+        this.userRepository = userRepository;
+        this.shardRouter = shardRouter;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.rolledOver = meterRegistry.counter("budgets.rolled_over");
+        this.skipped = meterRegistry.counter("budgets.rollover_skipped");
+    }
+
+    @Scheduled(cron = "${app.budget.rollover.cron:0 5 0 1 * *}", zone = "UTC")
+    public void run() {
+        YearMonth source = YearMonth.now(ZoneOffset.UTC).minusMonths(1);
+        shardRouter.forEachShard(shard -> rollover(source));
+    }
+
+    public int rollover(YearMonth source) {
+        UUID after = MIN_ID;
+        int total = 0;
+        int overflowed = 0;
+        while (true) {
+            UUID cursor = after;
+            Batch batch = transactionTemplate.execute(status -> {
+                List<UUID> userIds = userRepository.findIdsAfter(cursor, batchSize);
+                if (userIds.isEmpty())
+                    return new Batch(null, 0, 0, 0);
+                BudgetService.RolloverResult result = budgetService.rollover(userIds, source, adjustPercent, carryOver);
+                return new Batch(userIds.get(userIds.size() - 1), userIds.size(), result.created(), result.skipped());
+            });
+            total += batch.created();
+            overflowed += batch.skipped();
+            if (batch.size() < batchSize)
+                break;
+            after = batch.lastId();
+        }
+        rolledOver.increment(total);
+        skipped.increment(overflowed);
+        log.info("Rolled {} budgets over from {} into {}", total, source, source.plusMonths(1));
+        if (overflowed > 0)
+            log.warn("Skipped {} budgets whose rolled-over limit or spent does not fit", overflowed);
+        return total;
+    }
+
+    private record Batch(UUID lastId, int size, int created, int skipped) {
+    }
+}
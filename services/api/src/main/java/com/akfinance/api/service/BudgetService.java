@@ -1,28 +1,44 @@
 package com.akfinance.api.service;
 
 import com.akfinance.api.domain.entity.Budget;
+import com.akfinance.api.domain.entity.BudgetAlert;
 import com.akfinance.api.domain.entity.Category;
 import com.akfinance.api.domain.entity.User;
-import com.akfinance.api.domain.enums.TransactionType;
+import com.akfinance.api.domain.enums.AggregateType;
+import com.akfinance.api.domain.enums.ChangeType;
+import com.akfinance.api.domain.money.Money;
+import com.akfinance.api.dto.budget.BudgetAlertResponse;
 import com.akfinance.api.dto.budget.BudgetRequest;
+import com.akfinance.api.dto.budget.BudgetRolloverRequest;
+import com.akfinance.api.dto.budget.BudgetYearResponse;
+import com.akfinance.api.dto.budget.BudgetYearRow;
 import com.akfinance.api.dto.budget.BudgetResponse;
 import com.akfinance.api.dto.category.CategoryResponse;
+import com.akfinance.api.exception.BadRequestException;
 import com.akfinance.api.exception.DuplicateResourceException;
 import com.akfinance.api.exception.ResourceNotFoundException;
+import com.akfinance.api.repository.BudgetAlertRepository;
 import com.akfinance.api.repository.BudgetRepository;
+import com.akfinance.api.repository.BudgetRepositoryCustom.Period;
+import com.akfinance.api.repository.BudgetRepositoryCustom.YearRow;
 import com.akfinance.api.repository.CategoryRepository;
-import com.akfinance.api.repository.TransactionRepository;
 import com.akfinance.api.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.Instant;
 import java.time.YearMonth;
+import java.time.ZonedDateTime;
 import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -32,12 +48,37 @@ public class BudgetService {
 
     private final BudgetRepository budgetRepository;
     private final CategoryRepository categoryRepository;
-    private final TransactionRepository transactionRepository;
     private final UserRepository userRepository;
+    private final BudgetAlertRepository alertRepository;
+    private final OutboxService outboxService;
+    private final TransactionArchive transactionArchive;
+    private final SyncLog syncLog;
 
+    @Value("${app.budget.alert-thresholds:80,100}")
+    private int[] alertThresholds;
+
+    @Transactional(readOnly = true)
     public List<BudgetResponse> getBudgets(UUID userId, Integer month, Integer year) {
         List<Budget> budgets = budgetRepository.findByUserIdAndMonthAndYear(userId, month, year);
-        return budgets.stream().map(b -> toResponse(b, userId)).collect(Collectors.toList());
+        return budgets.stream().map(this::toResponse).collect(Collectors.toList());
+    }
+
+    // Every category x month of the year from one grouped query, instead of twelve getBudgets calls
+    @Transactional(readOnly = true)
+    public BudgetYearResponse getYear(UUID userId, int year) {
+        boolean withArchive = transactionArchive.reaches(YearMonth.of(year, 1).atDay(1).atStartOfDay()
+                .toInstant(ZoneOffset.UTC));
+        List<BudgetYearRow> rows = budgetRepository.findYearMatrix(userId, year, withArchive).stream()
+                .map(BudgetService::toYearRow)
+                .toList();
+        return new BudgetYearResponse(year, rows);
+    }
+
+    @Transactional(readOnly = true)
+    public List<BudgetResponse> getBudgetsByIds(UUID userId, Collection<UUID> ids) {
+        if (ids.isEmpty())
+            return List.of();
+        return budgetRepository.findByUserIdAndIdIn(userId, ids).stream().map(this::toResponse).toList();
     }
 
     @Transactional
@@ -57,22 +98,96 @@ public class BudgetService {
                 .category(category)
                 .month(request.getMonth())
                 .year(request.getYear())
-                .limitAmount(request.getLimitAmount())
+                .limitMinor(Money.toMinor(request.getLimitAmount()))
+                .spentMinor(0L)
                 .currency(request.getCurrency() != null ? request.getCurrency() : "RUB")
                 .build();
-        budget = budgetRepository.save(budget);
-        return toResponse(budget, userId);
+        budget = budgetRepository.saveAndFlush(budget);
+        // Summed after the insert and under the period lock, so an expense written meanwhile is either in
+        // the sum or finds the budget to add to (see recordSpending)
+        Period period = new Period(userId, category.getId(), budget.getYear(), budget.getMonth());
+        budgetRepository.lockPeriods(List.of(period));
+        boolean withArchive = transactionArchive.reaches(monthStart(YearMonth.of(period.year(), period.month())));
+        budget.setSpentMinor(budgetRepository.recountSpent(List.of(budget.getId()), withArchive).get(budget.getId()));
+        outboxService.record(userId, AggregateType.BUDGET, budget.getId(), ChangeType.CREATED, payload(budget));
+        emitAlerts(userId, budget.getId(), budget.getLimit(), Money.zero(budget.getCurrency()), budget.getSpent());
+        return toResponse(budget);
+    }
+
+    // Copies the month's budgets into the next one and returns the next month's budgets
+    @Transactional
+    public List<BudgetResponse> rolloverBudgets(UUID userId, BudgetRolloverRequest request) {
+        YearMonth source = YearMonth.of(request.getYear(), request.getMonth());
+        YearMonth target = source.plusMonths(1);
+        if (target.getYear() > 2100)
+            throw new BadRequestException("Budgets can't be rolled over past 2100");
+        // Carry-over and spent are summed from the hot table only
+        if (transactionArchive.reaches(monthStart(source)))
+            throw new BadRequestException("Budgets can't be rolled over from an archived month");
+
+        rollover(List.of(userId), source, request.getAdjustPercent(), request.isCarryOver());
+        return getBudgets(userId, target.getMonthValue(), target.getYear());
+    }
+
+    /**
+     * Rolls the users' budgets of {@code source} over into the following month in one statement
+     * (see {@link BudgetRepository#rollover}); returns how many budgets were created and how many
+     * were skipped because their new amounts overflow. {@code adjustPercent} scales every limit, e.g.
+     * 5 for +5%.
+     */
+    @Transactional
+    public RolloverResult rollover(Collection<UUID> userIds, YearMonth source, int adjustPercent,
+            boolean carryOver) {
+        YearMonth target = source.plusMonths(1);
+        BigDecimal factor = BigDecimal.valueOf(100L + adjustPercent).movePointLeft(2);
+        List<Object[]> created = budgetRepository.rollover(userIds,
+                source.getYear(), source.getMonthValue(), target.getYear(), target.getMonthValue(),
+                monthStart(source), monthStart(target), monthStart(target.plusMonths(1)), factor, carryOver);
+
+        List<Object[]> inserted = created.stream().filter(row -> row[0] != null).toList();
+        // As in createBudget: expenses written since the insert's snapshot are either in the recount or
+        // wait for the lock and find the budget
+        budgetRepository.lockPeriods(inserted.stream()
+                .map(row -> new Period((UUID) row[1], (UUID) row[2], target.getYear(), target.getMonthValue()))
+                .toList());
+        Map<UUID, Long> spentMinor = budgetRepository.recountSpent(
+                inserted.stream().map(row -> (UUID) row[0]).toList(), false);
+
+        Map<UUID, Map<UUID, Map<String, Object>>> events = new HashMap<>();
+        for (Object[] row : inserted) {
+            UUID budgetId = (UUID) row[0];
+            UUID userId = (UUID) row[1];
+            String currency = (String) row[3];
+            Money limit = Money.ofMinor(((Number) row[4]).longValue(), currency);
+            Money spent = Money.ofMinor(spentMinor.get(budgetId), currency);
+            events.computeIfAbsent(userId, id -> new LinkedHashMap<>())
+                    .put(budgetId, payload((UUID) row[2], target, limit));
+            emitAlerts(userId, budgetId, limit, Money.zero(currency), spent);
+        }
+        events.forEach((userId, payloads) ->
+                outboxService.recordAll(userId, AggregateType.BUDGET, ChangeType.CREATED, payloads));
+        return new RolloverResult(inserted.size(), created.size() - inserted.size());
     }
 
     @Transactional
     public BudgetResponse updateBudget(UUID userId, UUID budgetId, BudgetRequest request) {
         Budget budget = budgetRepository.findByIdAndUserId(budgetId, userId)
                 .orElseThrow(() -> new ResourceNotFoundException("Budget not found"));
-        budget.setLimitAmount(request.getLimitAmount());
+        budget.setLimitMinor(Money.toMinor(request.getLimitAmount()));
         if (request.getCurrency() != null)
             budget.setCurrency(request.getCurrency());
         budget = budgetRepository.save(budget);
-        return toResponse(budget, userId);
+        outboxService.record(userId, AggregateType.BUDGET, budget.getId(), ChangeType.UPDATED, payload(budget));
+
+        // Re-arm thresholds the new limit no longer reaches, fire the ones it now does
+        int maxReached = 0;
+        for (int threshold : alertThresholds) {
+            if (budget.getSpent().reaches(budget.getLimit(), threshold))
+                maxReached = Math.max(maxReached, threshold);
+        }
+        alertRepository.deleteAboveThreshold(budget.getId(), maxReached);
+        emitAlerts(userId, budget.getId(), budget.getLimit(), Money.zero(budget.getCurrency()), budget.getSpent());
+        return toResponse(budget);
     }
 
     @Transactional
@@ -80,21 +195,120 @@ public class BudgetService {
         Budget budget = budgetRepository.findByIdAndUserId(budgetId, userId)
                 .orElseThrow(() -> new ResourceNotFoundException("Budget not found"));
         budgetRepository.delete(budget);
+        outboxService.record(userId, AggregateType.BUDGET, budget.getId(), ChangeType.DELETED, payload(budget));
+    }
+
+    // Applies an expense delta in minor units to the budget of that category and month, alerting on crossed thresholds
+    @Transactional
+    public void recordSpending(UUID userId, UUID categoryId, Instant occurredAt, long deltaMinor) {
+        if (categoryId == null || deltaMinor == 0)
+            return;
+
+        ZonedDateTime at = occurredAt.atZone(ZoneOffset.UTC);
+        List<Object[]> updated = budgetRepository.addSpent(
+                userId, categoryId, at.getYear(), at.getMonthValue(), deltaMinor);
+        if (updated.isEmpty()) {
+            // A budget being created for this month sums spent under the period lock: once it's ours, that
+            // budget has either committed and takes the delta here, or will count this expense itself
+            budgetRepository.lockPeriods(List.of(new Period(userId, categoryId, at.getYear(), at.getMonthValue())));
+            updated = budgetRepository.addSpent(userId, categoryId, at.getYear(), at.getMonthValue(), deltaMinor);
+        }
+        for (Object[] row : updated) {
+            String currency = (String) row[1];
+            Money limit = Money.ofMinor(((Number) row[2]).longValue(), currency);
+            Money after = Money.ofMinor(((Number) row[3]).longValue(), currency);
+            emitAlerts(userId, (UUID) row[0], limit, after.plusMinor(-deltaMinor), after);
+        }
+        // Spent changes aren't outbox events, but synced clients show it
+        syncLog.record(userId, AggregateType.BUDGET, updated.stream().map(row -> (UUID) row[0]).toList(), false);
+    }
+
+    @Transactional(readOnly = true)
+    public List<BudgetAlertResponse> getAlerts(UUID userId) {
+        return alertRepository.findByUserId(userId).stream()
+                .map(this::toAlertResponse)
+                .collect(Collectors.toList());
+    }
+
+    @Transactional
+    public void acknowledgeAlert(UUID userId, UUID alertId) {
+        BudgetAlert alert = alertRepository.findByIdAndUserId(alertId, userId)
+                .orElseThrow(() -> new ResourceNotFoundException("Budget alert not found"));
+        alert.setAcknowledged(true);
+        alertRepository.save(alert);
     }
 
-    private BudgetResponse toResponse(Budget budget, UUID userId) {
-        YearMonth ym = YearMonth.of(budget.getYear(), budget.getMonth());
-        Instant from = ym.atDay(1).atStartOfDay().toInstant(ZoneOffset.UTC);
-        Instant to = ym.plusMonths(1).atDay(1).atStartOfDay().toInstant(ZoneOffset.UTC);
+    private void emitAlerts(UUID userId, UUID budgetId, Money limit, Money before, Money after) {
+        for (int threshold : alertThresholds) {
+            if (!before.reaches(limit, threshold) && after.reaches(limit, threshold)) {
+                alertRepository.insertIfAbsent(userId, budgetId, threshold, after.toBigDecimal(), limit.toBigDecimal());
+            }
+        }
+    }
+
+    private Map<String, Object> payload(Budget budget) {
+        return payload(budget.getCategory().getId(), YearMonth.of(budget.getYear(), budget.getMonth()),
+                budget.getLimit());
+    }
 
-        BigDecimal spent = transactionRepository.sumByCategoryAndPeriod(
-                userId, budget.getCategory().getId(), from, to);
-        if (spent == null)
-            spent = BigDecimal.ZERO;
+    private static Map<String, Object> payload(UUID categoryId, YearMonth month, Money limit) {
+        return Map.of(
+                "categoryId", categoryId.toString(),
+                "month", month.getMonthValue(),
+                "year", month.getYear(),
+                "limitAmount", limit.toBigDecimal().toPlainString(),
+                "currency", limit.currency());
+    }
 
-        double progress = budget.getLimitAmount().compareTo(BigDecimal.ZERO) > 0
-                ? spent.divide(budget.getLimitAmount(), 4, RoundingMode.HALF_UP).doubleValue() * 100
-                : 0;
+    private static Instant monthStart(YearMonth month) {
+        return month.atDay(1).atStartOfDay().toInstant(ZoneOffset.UTC);
+    }
+
+    private static BudgetYearRow toYearRow(YearRow row) {
+        List<BigDecimal> limits = new ArrayList<>(12);
+        List<BigDecimal> spent = new ArrayList<>(12);
+        List<Double> progress = new ArrayList<>(12);
+        for (int m = 0; m < 12; m++) {
+            Long limitMinor = row.limitMinor()[m];
+            long spentMinor = row.spentMinor()[m];
+            limits.add(limitMinor != null ? Money.toBigDecimal(limitMinor) : null);
+            spent.add(Money.toBigDecimal(spentMinor));
+            progress.add(limitMinor != null
+                    ? Math.min(Money.ofMinor(spentMinor, row.currency()).percentOf(
+                            Money.ofMinor(limitMinor, row.currency())), 100)
+                    : null);
+        }
+
+        CategoryResponse category = CategoryResponse.builder()
+                .id(row.categoryId())
+                .name(row.name())
+                .type(row.type())
+                .icon(row.icon())
+                .color(row.color())
+                .build();
+        return new BudgetYearRow(category, row.currency(), limits, spent, progress);
+    }
+
+    private BudgetAlertResponse toAlertResponse(BudgetAlert alert) {
+        Budget b = alert.getBudget();
+        return BudgetAlertResponse.builder()
+                .id(alert.getId())
+                .budgetId(b.getId())
+                .categoryName(b.getCategory().getName())
+                .month(b.getMonth())
+                .year(b.getYear())
+                .threshold(alert.getThreshold())
+                .spentAmount(alert.getSpentAmount())
+                .limitAmount(alert.getLimitAmount())
+                .acknowledged(alert.isAcknowledged())
+                .createdAt(alert.getCreatedAt())
+                .build();
+    }
+
+    private BudgetResponse toResponse(Budget budget) {
+        Money spent = budget.getSpent();
+        Money limit = budget.getLimit();
+        double progress = spent.percentOf(limit);
 
         Category c = budget.getCategory();
         CategoryResponse catResp = CategoryResponse.builder()
@@ -110,10 +324,13 @@ public class BudgetService {
                 .category(catResp)
                 .month(budget.getMonth())
                 .year(budget.getYear())
-                .limitAmount(budget.getLimitAmount())
-                .spentAmount(spent)
+                .limitAmount(limit.toBigDecimal())
+                .spentAmount(spent.toBigDecimal())
                 .currency(budget.getCurrency())
                 .progressPercent(Math.min(progress, 100))
                 .build();
     }
+
+    public record RolloverResult(int created, int skipped) {
+    }
 }
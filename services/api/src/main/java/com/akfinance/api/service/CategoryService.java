@@ -1,19 +1,26 @@
 package com.akfinance.api.service;
 
+import com.akfinance.api.analytics.TransactionColumnStore;
 import com.akfinance.api.domain.entity.Category;
 import com.akfinance.api.domain.entity.User;
+import com.akfinance.api.domain.enums.AggregateType;
 import com.akfinance.api.domain.enums.CategoryType;
+import com.akfinance.api.domain.enums.ChangeType;
 import com.akfinance.api.dto.category.CategoryRequest;
 import com.akfinance.api.dto.category.CategoryResponse;
 import com.akfinance.api.exception.DuplicateResourceException;
 import com.akfinance.api.exception.ResourceNotFoundException;
+import com.akfinance.api.repository.BudgetRepository;
 import com.akfinance.api.repository.CategoryRepository;
+import com.akfinance.api.repository.TransactionRepository;
 import com.akfinance.api.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -23,6 +30,12 @@ public class CategoryService {
 
     private final CategoryRepository categoryRepository;
     private final UserRepository userRepository;
+    private final OutboxService outboxService;
+    private final TransactionRepository transactionRepository;
+    private final TransactionColumnStore columnStore;
+    private final BudgetRepository budgetRepository;
+    private final SyncLog syncLog;
+    private final AnalyticsService analyticsService;
 
     public List<CategoryResponse> getCategories(UUID userId, CategoryType type) {
         List<Category> categories = (type != null)
@@ -31,6 +44,13 @@ public class CategoryService {
         return categories.stream().map(this::toResponse).collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
+    public List<CategoryResponse> getCategoriesByIds(UUID userId, Collection<UUID> ids) {
+        if (ids.isEmpty())
+            return List.of();
+        return categoryRepository.findByUserIdAndIdIn(userId, ids).stream().map(this::toResponse).toList();
+    }
+
     @Transactional
     public CategoryResponse createCategory(UUID userId, CategoryRequest request) {
         if (categoryRepository.existsByUserIdAndTypeAndName(userId, request.getType(), request.getName())) {
@@ -46,6 +66,7 @@ public class CategoryService {
                 .color(request.getColor())
                 .build();
         cat = categoryRepository.save(cat);
+        outboxService.record(userId, AggregateType.CATEGORY, cat.getId(), ChangeType.CREATED, payload(cat));
         return toResponse(cat);
     }
 
@@ -58,6 +79,7 @@ public class CategoryService {
         cat.setIcon(request.getIcon());
         cat.setColor(request.getColor());
         cat = categoryRepository.save(cat);
+        outboxService.record(userId, AggregateType.CATEGORY, cat.getId(), ChangeType.UPDATED, payload(cat));
         return toResponse(cat);
     }
 
@@ -65,7 +87,19 @@ public class CategoryService {
     public void deleteCategory(UUID userId, UUID categoryId) {
         Category cat = categoryRepository.findByIdAndUserId(categoryId, userId)
                 .orElseThrow(() -> new ResourceNotFoundException("Category not found"));
+        List<UUID> budgetIds = budgetRepository.findIdsByCategoryId(categoryId);
+        // Its transactions lose their category in every month they are in
+        analyticsService.evictMonths(userId, transactionRepository.findCategoryMonths(userId, categoryId));
         categoryRepository.delete(cat);
+        transactionRepository.clearArchivedCategory(userId, categoryId);
+        outboxService.record(userId, AggregateType.CATEGORY, cat.getId(), ChangeType.DELETED, payload(cat));
+        syncLog.record(userId, AggregateType.BUDGET, budgetIds, true);
+        // ON DELETE SET NULL rewrites the category's transactions behind the write path
+        columnStore.invalidate(userId);
+    }
+
+    private Map<String, Object> payload(Category cat) {
+        return Map.of("name", cat.getName(), "type", cat.getType().name());
     }
 
     public CategoryResponse toResponse(Category cat) {
@@ -0,0 +1,12 @@
+package com.akfinance.api.service;
+
+import com.akfinance.api.dto.event.ChangeEvent;
+
+/**
+ * In-process consumer of the outbox change feed. Delivery is at-least-once, so
+ * implementations must tolerate seeing the same {@link ChangeEvent#getSequence()} twice.
+ */
+public interface ChangeEventSubscriber {
+
+    void onChange(ChangeEvent event);
+}
@@ -1,21 +1,31 @@
 package com.akfinance.api.service;
 
+import com.akfinance.api.analytics.TransactionColumnStore;
+import com.akfinance.api.analytics.TransactionColumnStore.MonthTotals;
 import com.akfinance.api.domain.entity.Budget;
+import com.akfinance.api.domain.entity.Category;
 import com.akfinance.api.domain.enums.TransactionType;
+import com.akfinance.api.domain.money.Money;
 import com.akfinance.api.dto.dashboard.DashboardSummary;
 import com.akfinance.api.repository.BudgetRepository;
+import com.akfinance.api.repository.CategoryRepository;
 import com.akfinance.api.repository.TransactionRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.Instant;
 import java.time.YearMonth;
 import java.time.ZoneOffset;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 @Service
 @RequiredArgsConstructor
@@ -23,44 +33,57 @@ public class DashboardService {
 
     private final TransactionRepository transactionRepository;
     private final BudgetRepository budgetRepository;
+    private final CategoryRepository categoryRepository;
+    private final TransactionColumnStore columnStore;
+    private final TransactionArchive transactionArchive;
 
+    @Transactional(readOnly = true)
     public DashboardSummary getSummary(UUID userId, int month, int year) {
         YearMonth ym = YearMonth.of(year, month);
-        Instant from = ym.atDay(1).atStartOfDay().toInstant(ZoneOffset.UTC);
-        Instant to = ym.plusMonths(1).atDay(1).atStartOfDay().toInstant(ZoneOffset.UTC);
-
-        BigDecimal income = transactionRepository.sumByTypeAndPeriod(userId, TransactionType.INCOME, from, to);
-        BigDecimal expense = transactionRepository.sumByTypeAndPeriod(userId, TransactionType.EXPENSE, from, to);
+        BigDecimal income;
+        BigDecimal expense;
+        List<DashboardSummary.CategoryBreakdown> topCategories;
+        if (columnStore.isEnabled()) {
+            MonthTotals totals = columnStore.monthTotals(userId, ym.atDay(1), ym.plusMonths(1).atDay(1));
+            income = totals.income();
+            expense = totals.expense();
+            topCategories = topCategories(userId, totals);
+        } else {
+            Instant from = ym.atDay(1).atStartOfDay().toInstant(ZoneOffset.UTC);
+            Instant to = ym.plusMonths(1).atDay(1).atStartOfDay().toInstant(ZoneOffset.UTC);
+            List<Object[]> byCategory;
+            if (transactionArchive.reaches(from)) {
+                income = transactionRepository.sumByTypeAndPeriodWithArchive(userId, "INCOME", from, to);
+                expense = transactionRepository.sumByTypeAndPeriodWithArchive(userId, "EXPENSE", from, to);
+                byCategory = transactionRepository.sumByCategoryAndPeriodWithArchive(userId, "EXPENSE", from, to);
+            } else {
+                income = transactionRepository.sumByTypeAndPeriod(userId, TransactionType.INCOME, from, to);
+                expense = transactionRepository.sumByTypeAndPeriod(userId, TransactionType.EXPENSE, from, to);
+                byCategory = transactionRepository.sumByCategoryAndPeriod(userId, TransactionType.EXPENSE, from, to);
+            }
+            topCategories = byCategory.stream()
+                    .limit(5)
+                    .map(row -> DashboardSummary.CategoryBreakdown.builder()
+                            .categoryId(row[0].toString())
+                            .categoryName((String) row[1])
+                            .amount((BigDecimal) row[2])
+                            .build())
+                    .collect(Collectors.toList());
+        }
         BigDecimal balance = income.subtract(expense);
-
-        List<Object[]> categoryTotals = transactionRepository.sumByCategoryAndPeriod(
-                userId, TransactionType.EXPENSE, from, to);
-
-        List<DashboardSummary.CategoryBreakdown> topCategories = categoryTotals.stream()
-                .limit(5)
-                .map(row -> DashboardSummary.CategoryBreakdown.builder()
-                        .categoryId(row[0].toString())
-                        .categoryName((String) row[1])
-                        .amount((BigDecimal) row[2])
-                        .build())
-                .collect(Collectors.toList());
+        List<DashboardSummary.MerchantBreakdown> topMerchants = topMerchants(userId, ym);
 
         List<Budget> budgets = budgetRepository.findByUserIdAndMonthAndYear(userId, month, year);
         List<DashboardSummary.BudgetPreview> budgetPreviews = budgets.stream()
                 .limit(3)
                 .map(b -> {
-                    BigDecimal spent = transactionRepository.sumByCategoryAndPeriod(
-                            userId, b.getCategory().getId(), from, to);
-                    if (spent == null)
-                        spent = BigDecimal.ZERO;
-                    double progress = b.getLimitAmount().compareTo(BigDecimal.ZERO) > 0
-                            ? spent.divide(b.getLimitAmount(), 4, RoundingMode.HALF_UP).doubleValue() * 100
-                            : 0;
+                    Money spent = b.getSpent();
+                    Money limit = b.getLimit();
                     return DashboardSummary.BudgetPreview.builder()
                             .categoryName(b.getCategory().getName())
-                            .limitAmount(b.getLimitAmount())
-                            .spentAmount(spent)
-                            .progressPercent(Math.min(progress, 100))
+                            .limitAmount(limit.toBigDecimal())
+                            .spentAmount(spent.toBigDecimal())
+                            .progressPercent(Math.min(spent.percentOf(limit), 100))
                             .build();
                 })
                 .collect(Collectors.toList());
@@ -70,7 +93,49 @@ public class DashboardService {
                 .totalExpense(expense)
                 .balance(balance)
                 .topCategories(topCategories)
+                .topMerchants(topMerchants)
                 .budgets(budgetPreviews)
                 .build();
     }
+
+    // Not in the column store; idx_transactions_user_merchant keeps this to the user's merchant rows
+    private List<DashboardSummary.MerchantBreakdown> topMerchants(UUID userId, YearMonth ym) {
+        Instant from = ym.atDay(1).atStartOfDay().toInstant(ZoneOffset.UTC);
+        Instant to = ym.plusMonths(1).atDay(1).atStartOfDay().toInstant(ZoneOffset.UTC);
+        Pageable top = PageRequest.of(0, 5);
+        List<Object[]> byMerchant = transactionArchive.reaches(from)
+                ? transactionRepository.sumByMerchantAndPeriodWithArchive(userId, "EXPENSE", from, to, top)
+                : transactionRepository.sumByMerchantAndPeriod(userId, TransactionType.EXPENSE, from, to, top);
+        return byMerchant.stream()
+                .map(row -> DashboardSummary.MerchantBreakdown.builder()
+                        .merchantId(row[0].toString())
+                        .merchantName((String) row[1])
+                        .count(((Number) row[2]).longValue())
+                        .amount((BigDecimal) row[3])
+                        .build())
+                .collect(Collectors.toList());
+    }
+
+    // Category code 0 is "no category", which the SQL path leaves out as well
+    private List<DashboardSummary.CategoryBreakdown> topCategories(UUID userId, MonthTotals totals) {
+        long[] byCategory = totals.expenseByCategory();
+        List<Integer> top = IntStream.range(1, byCategory.length)
+                .filter(c -> byCategory[c] > 0)
+                .boxed()
+                .sorted(Comparator.comparingLong((Integer c) -> byCategory[c]).reversed())
+                .limit(5)
+                .toList();
+        if (top.isEmpty())
+            return List.of();
+        Map<UUID, String> names = categoryRepository.findByUserId(userId).stream()
+                .collect(Collectors.toMap(Category::getId, Category::getName));
+        return top.stream()
+                .filter(c -> names.containsKey(totals.categories().get(c)))
+                .map(c -> DashboardSummary.CategoryBreakdown.builder()
+                        .categoryId(totals.categories().get(c).toString())
+                        .categoryName(names.get(totals.categories().get(c)))
+                        .amount(totals.expense(c))
+                        .build())
+                .collect(Collectors.toList());
+    }
 }
@@ -0,0 +1,263 @@
+package com.akfinance.api.service;
+
+import com.akfinance.api.domain.enums.IngestStatus;
+import com.akfinance.api.dto.ingest.IngestStatusResponse;
+import com.akfinance.api.dto.transaction.TransactionRequest;
+import com.akfinance.api.exception.ResourceNotFoundException;
+import com.akfinance.api.exception.ServiceOverloadedException;
+import com.akfinance.api.repository.IngestAckRepository;
+import com.akfinance.api.repository.IngestAckRepository.Settled;
+import com.akfinance.api.sharding.ShardContext;
+import com.akfinance.api.sharding.ShardRouter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind ingestion for high-frequency feeds. Accepted transactions wait in a bounded
+ * in-memory queue and a single writer commits them in batches, either every
+ * {@code max-batch-size} rows or {@code max-batch-delay-ms} after the first queued row.
+ * Until its batch commits an accepted item is not durable; clients poll its status.
+ * <p>
+ * Statuses live in {@code ingest_acks}, so a poll can land on any instance. The item itself is
+ * only queued on the instance that accepted it: if that instance dies first, the item stays
+ * PENDING until {@code app.ingest.lost-after} and then turns FAILED, and the client resubmits it.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(prefix = "app.ingest", name = "enabled", havingValue = "true")
+public class IngestionService {
+
+    private final TransactionService transactionService;
+    private final ShardRouter shardRouter;
+    private final IngestAckRepository ingestAckRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    private final Semaphore capacity;
+    private final int maxBatchSize;
+    private final long maxBatchDelayNanos;
+    private final Counter rejected;
+    private final DistributionSummary batchSize;
+    private final Timer commitTimer;
+
+    @Value("${app.ingest.ack-retention:PT10M}")
+    private Duration ackRetention;
+
+    @Value("${app.ingest.lost-after:PT5M}")
+    private Duration lostAfter;
+
+    private volatile boolean running = true;
+    private Thread writer;
+
+    public IngestionService(TransactionService transactionService,
+            ShardRouter shardRouter,
+            IngestAckRepository ingestAckRepository,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${app.ingest.queue-capacity:10000}") int queueCapacity,
+            @Value("${app.ingest.max-batch-size:500}") int maxBatchSize,
+            @Value("${app.ingest.max-batch-delay-ms:5}") long maxBatchDelayMs) {
+        this.transactionService = transactionService;
+        this.shardRouter = shardRouter;
+        this.ingestAckRepository = ingestAckRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.capacity = new Semaphore(queueCapacity);
+        this.maxBatchSize = maxBatchSize;
+        this.maxBatchDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxBatchDelayMs);
+        this.rejected = meterRegistry.counter("ingest.rejected");
+        this.batchSize = meterRegistry.summary("ingest.batch.size");
+        this.commitTimer = meterRegistry.timer("ingest.commit");
+        meterRegistry.gauge("ingest.queue.depth", queue, BlockingQueue::size);
+    }
+
+    @PostConstruct
+    void start() {
+        writer = new Thread(this::runWriter, "ingest-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    // All-or-nothing: capacity for the whole request is reserved up front, or it is rejected.
+    // The PENDING rows commit before anything is queued, so every returned id can be polled.
+    public List<UUID> accept(UUID userId, List<TransactionRequest> requests) {
+        if (!running || !capacity.tryAcquire(requests.size())) {
+            rejected.increment(requests.size());
+            throw new ServiceOverloadedException("Ingestion queue is full, retry later");
+        }
+
+        List<UUID> ids = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            ids.add(UUID.randomUUID());
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> ingestAckRepository.insertPending(userId, ids));
+        } catch (RuntimeException e) {
+            capacity.release(requests.size());
+            throw e;
+        }
+        for (int i = 0; i < requests.size(); i++) {
+            queue.add(new Pending(ids.get(i), userId, requests.get(i)));
+        }
+        return ids;
+    }
+
+    public IngestStatusResponse getStatus(UUID userId, UUID id) {
+        return ingestAckRepository.find(userId, id)
+                .orElseThrow(() -> new ResourceNotFoundException("Ingestion id not found"));
+    }
+
+    // Every instance sweeps every shard; the statements are idempotent, so overlapping runs are harmless
+    @Scheduled(fixedDelay = 60_000)
+    public void expireAcks() {
+        Instant now = Instant.now();
+        shardRouter.forEachShard(shard -> {
+            int lost = ingestAckRepository.failLost(now.minus(lostAfter), "Not committed, resubmit");
+            if (lost > 0) {
+                log.warn("Failed {} ingestion items lost before commit", lost);
+            }
+            ingestAckRepository.purgeSettled(now.minus(ackRetention));
+        });
+    }
+
+    private void runWriter() {
+        List<Pending> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null)
+                    continue;
+                batch.add(first);
+
+                long deadline = System.nanoTime() + maxBatchDelayNanos;
+                while (batch.size() < maxBatchSize) {
+                    queue.drainTo(batch, maxBatchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= maxBatchSize || remaining <= 0)
+                        break;
+                    Pending next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null)
+                        break;
+                    batch.add(next);
+                }
+                commit(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                capacity.release(batch.size());
+                batch.clear();
+            }
+        }
+    }
+
+    // A batch can span users on different shards; each shard's slice commits on its own. Items
+    // whose user was deleted lost their ack row with it; items of a user being moved keep theirs
+    // (it moves with the user) and are failed by the sweeper on the new shard.
+    private void commit(List<Pending> batch) {
+        batchSize.record(batch.size());
+        Map<Integer, List<Pending>> byShard = new TreeMap<>();
+        for (Pending p : batch) {
+            try {
+                Optional<Integer> shard = shardRouter.shardFor(p.userId());
+                shard.ifPresent(s -> byShard.computeIfAbsent(s, k -> new ArrayList<>()).add(p));
+            } catch (ServiceOverloadedException e) {
+                log.warn("Ingestion item {} dropped: {}", p.id(), e.getMessage());
+            }
+        }
+        byShard.forEach(this::commitShard);
+    }
+
+    private void commitShard(int shard, List<Pending> batch) {
+        try {
+            commitTimer.recordCallable(() -> ShardContext.call(shard,
+                    () -> transactionTemplate.execute(status -> commitClaimed(batch))));
+        } catch (Exception e) {
+            // A constraint error aborts the shared transaction for every item, so the items are
+            // retried one per transaction and only the offending one fails
+            if (batch.size() > 1 && isDataError(e)) {
+                log.warn("Ingestion batch of {} on shard {} hit a data error, committing items one by one",
+                        batch.size(), shard, e);
+                batch.forEach(p -> commitShard(shard, List.of(p)));
+                return;
+            }
+            log.error("Ingestion batch of {} on shard {} failed", batch.size(), shard, e);
+            fail(shard, batch, "Batch commit failed");
+        }
+    }
+
+    // Outages and lock timeouts would fail every single-item retry too, so they fail the batch
+    private static boolean isDataError(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof DataIntegrityViolationException)
+                return true;
+        }
+        return false;
+    }
+
+    // The acks settle in the batch's own transaction, so COMMITTED is never reported for a
+    // transaction that rolled back, nor is a committed one left for the sweeper to fail
+    private Void commitClaimed(List<Pending> batch) {
+        Set<UUID> claimed = ingestAckRepository.claim(batch.stream().map(Pending::id).toList());
+        List<Pending> live = batch.stream().filter(p -> claimed.contains(p.id())).toList();
+        if (live.isEmpty())
+            return null;
+        List<TransactionService.BatchResult> results = transactionService.createTransactions(live.stream()
+                .map(p -> new TransactionService.BatchItem(p.userId(), p.request()))
+                .toList());
+        List<Settled> settled = new ArrayList<>(live.size());
+        for (int i = 0; i < live.size(); i++) {
+            TransactionService.BatchResult r = results.get(i);
+            settled.add(new Settled(live.get(i).id(),
+                    r.transactionId() != null ? IngestStatus.COMMITTED : IngestStatus.FAILED,
+                    r.transactionId(), r.error()));
+        }
+        ingestAckRepository.settle(settled);
+        return null;
+    }
+
+    private void fail(int shard, List<Pending> batch, String error) {
+        List<Settled> failed = batch.stream()
+                .map(p -> new Settled(p.id(), IngestStatus.FAILED, null, error))
+                .toList();
+        try {
+            ShardContext.run(shard, () -> transactionTemplate.executeWithoutResult(
+                    status -> ingestAckRepository.settle(failed)));
+        } catch (RuntimeException e) {
+            log.error("Could not fail {} ingestion acks on shard {}; the sweeper will", batch.size(), shard, e);
+        }
+    }
+
+    private record Pending(UUID id, UUID userId, TransactionRequest request) {
+    }
+}
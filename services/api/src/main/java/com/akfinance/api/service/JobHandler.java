@@ -0,0 +1,23 @@
+package com.akfinance.api.service;
+
+import com.akfinance.api.domain.entity.Job;
+import com.akfinance.api.domain.enums.JobType;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Produces the file of one job type. Runs on a {@link JobWorkerPool} thread with the job's shard
+ * bound; the worker owns the file and only publishes it once {@link #write} returns.
+ */
+public interface JobHandler {
+
+    JobType type();
+
+    void write(Job job, OutputStream out) throws IOException;
+
+    // Download name and media type of the result
+    String fileName(Job job);
+
+    String contentType(Job job);
+}
@@ -0,0 +1,97 @@
+package com.akfinance.api.service;
+
+import com.akfinance.api.domain.entity.Job;
+import com.akfinance.api.domain.enums.JobStatus;
+import com.akfinance.api.domain.enums.JobType;
+import com.akfinance.api.dto.job.JobResponse;
+import com.akfinance.api.dto.job.StatementJobRequest;
+import com.akfinance.api.exception.ConflictException;
+import com.akfinance.api.exception.ResourceNotFoundException;
+import com.akfinance.api.exception.ServiceOverloadedException;
+import com.akfinance.api.repository.JobRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Submission and polling side of the job queue; {@link JobWorkerPool} does the work. Submitting
+ * only inserts a QUEUED row, so the request never waits on the file being built.
+ */
+@Service
+public class JobService {
+
+    private final JobRepository jobRepository;
+    private final Map<JobType, JobHandler> handlers = new EnumMap<>(JobType.class);
+
+    @Value("${app.jobs.max-pending-per-user:5}")
+    private int maxPendingPerUser;
+
+    public JobService(JobRepository jobRepository, List<JobHandler> handlers) {
+        this.jobRepository = jobRepository;
+        handlers.forEach(handler -> this.handlers.put(handler.type(), handler));
+    }
+
+    @Transactional
+    public JobResponse submitStatement(UUID userId, StatementJobRequest request) {
+        if (jobRepository.countByUserIdAndStatusIn(userId, EnumSet.of(JobStatus.QUEUED, JobStatus.RUNNING))
+                >= maxPendingPerUser) {
+            throw new ServiceOverloadedException("Too many pending jobs, retry when one has finished");
+        }
+        Job job = Job.builder()
+                .userId(userId)
+                .type(JobType.STATEMENT)
+                .status(JobStatus.QUEUED)
+                .params(StatementJobHandler.params(request.getYear(), request.getMonth(), request.getFormat()))
+                .build();
+        return toResponse(jobRepository.save(job));
+    }
+
+    @Transactional(readOnly = true)
+    public JobResponse getJob(UUID userId, UUID jobId) {
+        return toResponse(find(userId, jobId));
+    }
+
+    @Transactional(readOnly = true)
+    public JobResult getResult(UUID userId, UUID jobId) {
+        Job job = find(userId, jobId);
+        if (job.getStatus() != JobStatus.DONE) {
+            throw new ConflictException("Job is " + job.getStatus());
+        }
+        byte[] content = jobRepository.findResult(jobId)
+                .orElseThrow(() -> new ResourceNotFoundException("Job result is no longer available"));
+        JobHandler handler = handlers.get(job.getType());
+        return new JobResult(new ByteArrayResource(content), handler.fileName(job), handler.contentType(job),
+                content.length);
+    }
+
+    private Job find(UUID userId, UUID jobId) {
+        return jobRepository.findByIdAndUserId(jobId, userId)
+                .orElseThrow(() -> new ResourceNotFoundException("Job not found"));
+    }
+
+    private JobResponse toResponse(Job job) {
+        return JobResponse.builder()
+                .id(job.getId())
+                .type(job.getType())
+                .status(job.getStatus())
+                .params(job.getParams())
+                .attempts(job.getAttempts())
+                .error(job.getError())
+                .resultSize(job.getResultSize())
+                .createdAt(job.getCreatedAt())
+                .startedAt(job.getStartedAt())
+                .finishedAt(job.getFinishedAt())
+                .build();
+    }
+
+    public record JobResult(Resource resource, String fileName, String contentType, long size) {
+    }
+}
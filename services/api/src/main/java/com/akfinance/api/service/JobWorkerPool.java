@@ -0,0 +1,254 @@
+package com.akfinance.api.service;
+
+import com.akfinance.api.domain.entity.Job;
+import com.akfinance.api.domain.enums.JobStatus;
+import com.akfinance.api.domain.enums.JobType;
+import com.akfinance.api.repository.JobRepository;
+import com.akfinance.api.sharding.ShardContext;
+import com.akfinance.api.sharding.ShardRouter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A fixed number of worker threads draining the {@code jobs} table. A worker claims one job with
+ * {@code FOR UPDATE SKIP LOCKED} in a short transaction and builds its file outside of it, under a
+ * lease; a worker that dies mid-job leaves the lease to expire and another one reclaims the job.
+ * Running jobs renew their lease every {@code heartbeat-interval-ms} from the pool's own heartbeat
+ * thread, so busy {@code @Scheduled} tasks can't delay it, and only the claim that
+ * holds the lease token can write the outcome, so a job is never finished twice. Failures are
+ * retried with linear backoff up to {@code max-attempts}. Results are stored in
+ * {@code job_results}, so whichever instance gets the download can serve it.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "app.jobs", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class JobWorkerPool {
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final JobRepository jobRepository;
+    private final Map<JobType, JobHandler> handlers = new EnumMap<>(JobType.class);
+    private final ShardRouter shardRouter;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final DistributionSummary resultSize;
+    private final AtomicInteger busy = new AtomicInteger();
+    private final List<Thread> workers = new ArrayList<>();
+    private final Map<UUID, Lease> leases = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService heartbeat = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("job-heartbeat").daemon().factory());
+    private volatile boolean running;
+
+    @Value("${app.jobs.workers:2}")
+    private int workerCount;
+
+    @Value("${app.jobs.poll-interval:PT1S}")
+    private Duration pollInterval;
+
+    @Value("${app.jobs.lease:PT10M}")
+    private Duration lease;
+
+    @Value("${app.jobs.heartbeat-interval-ms:60000}")
+    private long heartbeatIntervalMs;
+
+    @Value("${app.jobs.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${app.jobs.retry-backoff:PT30S}")
+    private Duration retryBackoff;
+
+    @Value("${app.jobs.retention:P7D}")
+    private Duration retention;
+
+    public JobWorkerPool(JobRepository jobRepository, List<JobHandler> handlers, ShardRouter shardRouter,
+            PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.jobRepository = jobRepository;
+        handlers.forEach(handler -> this.handlers.put(handler.type(), handler));
+        this.shardRouter = shardRouter;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+        this.resultSize = meterRegistry.summary("jobs.result.bytes");
+        meterRegistry.gauge("jobs.workers.busy", busy);
+    }
+
+    @PostConstruct
+    void start() {
+        running = true;
+        for (int i = 0; i < workerCount; i++) {
+            int worker = i;
+            workers.add(Thread.ofPlatform().name("job-worker-" + i).start(() -> work(worker)));
+        }
+        heartbeat.scheduleWithFixedDelay(this::renewLeases, heartbeatIntervalMs, heartbeatIntervalMs,
+                TimeUnit.MILLISECONDS);
+        log.info("Started {} job workers", workerCount);
+    }
+
+    // Interrupted jobs stay RUNNING and are picked up again once their lease expires
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        heartbeat.shutdownNow();
+        workers.forEach(Thread::interrupt);
+        for (Thread worker : workers)
+            worker.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    @Scheduled(cron = "${app.jobs.purge-cron:0 30 * * * *}")
+    public void purge() {
+        shardRouter.forEachShard(shard -> transactionTemplate.executeWithoutResult(status -> {
+            // Results go with their jobs (ON DELETE CASCADE)
+            List<Job> expired = jobRepository.findByFinishedAtBefore(Instant.now().minus(retention));
+            jobRepository.deleteAll(expired);
+            if (!expired.isEmpty())
+                log.debug("Purged {} finished jobs on shard {}", expired.size(), shard);
+        }));
+    }
+
+    void renewLeases() {
+        leases.forEach((jobId, held) -> {
+            try {
+                int renewed = ShardContext.call(held.shard(), () -> transactionTemplate.execute(status ->
+                        jobRepository.renewLease(jobId, held.token(), Instant.now().plus(lease))));
+                if (renewed == 0) {
+                    log.warn("Job {} lost its lease to another worker; its outcome will be discarded", jobId);
+                    leases.remove(jobId, held);
+                }
+            } catch (RuntimeException e) {
+                // Anything thrown out of here would cancel the heartbeat for good
+                log.warn("Lease renewal of job {} failed: {}", jobId, e.getMessage());
+            }
+        });
+    }
+
+    private void work(int worker) {
+        while (running) {
+            boolean claimed = false;
+            for (int shard : shardRouter.shardIds()) {
+                Job job = ShardContext.call(shard, this::claim);
+                if (job == null)
+                    continue;
+                claimed = true;
+                leases.put(job.getId(), new Lease(shard, job.getLeaseToken()));
+                try {
+                    ShardContext.run(shard, () -> execute(worker, job));
+                } finally {
+                    leases.remove(job.getId());
+                }
+            }
+            if (!claimed) {
+                try {
+                    Thread.sleep(pollInterval);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private Job claim() {
+        if (!running)
+            return null;
+        try {
+            return transactionTemplate.execute(status -> jobRepository.claimNext(lease.toSeconds(), UUID.randomUUID())
+                    .stream().findFirst().orElse(null));
+        } catch (DataAccessException e) {
+            log.warn("Job claim failed: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private void execute(int worker, Job job) {
+        busy.incrementAndGet();
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = run(job);
+        sample.stop(Timer.builder("jobs.run")
+                .tag("worker", Integer.toString(worker))
+                .tag("type", job.getType().name())
+                .tag("outcome", outcome)
+                .register(meterRegistry));
+        busy.decrementAndGet();
+    }
+
+    // Built in memory (a statement covers one month) and stored with the DONE status in one
+    // transaction, and only while this claim still holds the lease
+    private String run(Job job) {
+        if (job.getAttempts() > maxAttempts) {
+            boolean owned = finish(job, JobStatus.FAILED, "Gave up after " + maxAttempts + " attempts");
+            return owned ? "failed" : lost(job);
+        }
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            handlers.get(job.getType()).write(job, out);
+            byte[] content = out.toByteArray();
+            Boolean owned = transactionTemplate.execute(tx -> {
+                if (jobRepository.finish(job.getId(), job.getLeaseToken(), JobStatus.DONE, (long) content.length,
+                        null, Instant.now()) == 0)
+                    return false;
+                jobRepository.saveResult(job.getId(), content);
+                return true;
+            });
+            if (!Boolean.TRUE.equals(owned))
+                return lost(job);
+            resultSize.record(content.length);
+            return "done";
+        } catch (Exception e) {
+            if (!running) {
+                log.info("Job {} interrupted by shutdown, it will be reclaimed after its lease", job.getId());
+                return "interrupted";
+            }
+            String error = abbreviate(e.getClass().getSimpleName() + ": " + e.getMessage());
+            log.warn("Job {} attempt {} failed: {}", job.getId(), job.getAttempts(), error);
+            if (job.getAttempts() >= maxAttempts)
+                return finish(job, JobStatus.FAILED, error) ? "failed" : lost(job);
+            Instant retryAt = Instant.now().plus(retryBackoff.multipliedBy(job.getAttempts()));
+            Integer requeued = transactionTemplate.execute(status ->
+                    jobRepository.requeue(job.getId(), job.getLeaseToken(), JobStatus.QUEUED, error, retryAt));
+            return requeued != null && requeued > 0 ? "retried" : lost(job);
+        }
+    }
+
+    private boolean finish(Job job, JobStatus status, String error) {
+        Integer finished = transactionTemplate.execute(tx ->
+                jobRepository.finish(job.getId(), job.getLeaseToken(), status, null, error, Instant.now()));
+        return finished != null && finished > 0;
+    }
+
+    // The lease expired and the job was reclaimed; that claim decides the outcome
+    private String lost(Job job) {
+        log.warn("Job {} attempt {} finished after losing its lease, outcome discarded",
+                job.getId(), job.getAttempts());
+        return "lease-lost";
+    }
+
+    private static String abbreviate(String error) {
+        return error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+    }
+
+    private record Lease(int shard, UUID token) {
+    }
+}
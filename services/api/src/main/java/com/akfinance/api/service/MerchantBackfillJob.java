@@ -0,0 +1,108 @@
+package com.akfinance.api.service;
+
+import com.akfinance.api.domain.entity.Merchant;
+import com.akfinance.api.domain.enums.AggregateType;
+import com.akfinance.api.repository.TransactionRepository;
+import com.akfinance.api.repository.TransactionRepositoryCustom.NoteRow;
+import com.akfinance.api.sharding.ShardRouter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Resolves merchants for hot rows written before merchant extraction existed. New and updated
+ * rows get theirs on write, so the job only has work after V12 or after new aliases ship; a run
+ * walks the table once by id, and notes with nothing name-like in them are passed over again on
+ * every run. Each row it sets a merchant on goes to the sync log, so clients fetch it again.
+ * Archived rows are write-once and left alone: theirs is resolved on read
+ * (see {@link MerchantResolver#withMerchant}).
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.merchants.backfill.enabled", havingValue = "true")
+public class MerchantBackfillJob {
+
+    private static final UUID FIRST = new UUID(0, 0);
+
+    private final TransactionRepository transactionRepository;
+    private final MerchantResolver merchantResolver;
+    private final SyncLog syncLog;
+    private final ShardRouter shardRouter;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter assigned;
+
+    @Value("${app.merchants.backfill.batch-size:1000}")
+    private int batchSize;
+
+    public MerchantBackfillJob(TransactionRepository transactionRepository,
+            MerchantResolver merchantResolver,
+            SyncLog syncLog,
+            ShardRouter shardRouter,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry) {
+        this.transactionRepository = transactionRepository;
+        this.merchantResolver = merchantResolver;
+        this.syncLog = syncLog;
+        this.shardRouter = shardRouter;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.assigned = meterRegistry.counter("merchants.backfill.assigned");
+    }
+
+    @Scheduled(cron = "${app.merchants.backfill.cron:0 0 3 * * *}", zone = "UTC")
+    public void run() {
+        shardRouter.forEachShard(shard -> backfill());
+    }
+
+    public int backfill() {
+        int total = 0;
+        UUID after = FIRST;
+        while (true) {
+            UUID from = after;
+            List<NoteRow> rows = transactionTemplate.execute(
+                    status -> transactionRepository.findUnresolvedNotes(from, batchSize));
+            if (rows.isEmpty())
+                break;
+            // Own transaction per batch: new merchants and the sync changes are written at its commit
+            total += transactionTemplate.execute(status -> assign(rows));
+            after = rows.get(rows.size() - 1).id();
+            if (rows.size() < batchSize)
+                break;
+        }
+        assigned.increment(total);
+        log.info("Assigned merchants to {} transactions", total);
+        return total;
+    }
+
+    private int assign(List<NoteRow> rows) {
+        Map<UUID, UUID> merchantByTransaction = new HashMap<>();
+        Map<UUID, UUID> userByTransaction = new HashMap<>();
+        for (NoteRow row : rows) {
+            merchantResolver.resolve(row.userId(), row.note())
+                    .map(Merchant::getId)
+                    .ifPresent(merchantId -> {
+                        merchantByTransaction.put(row.id(), merchantId);
+                        userByTransaction.put(row.id(), row.userId());
+                    });
+        }
+        if (merchantByTransaction.isEmpty())
+            return 0;
+
+        List<UUID> updated = transactionRepository.assignMerchants(merchantByTransaction);
+        updated.stream()
+                .collect(Collectors.groupingBy(userByTransaction::get))
+                .forEach((userId, ids) -> syncLog.record(userId, AggregateType.TRANSACTION, ids, false));
+        return updated.size();
+    }
+}
@@ -0,0 +1,140 @@
+package com.akfinance.api.service;
+
+import com.akfinance.api.domain.entity.Merchant;
+import com.akfinance.api.merchant.MerchantMatcher;
+import com.akfinance.api.merchant.MerchantNormalizer;
+import com.akfinance.api.repository.MerchantRepository;
+import com.akfinance.api.repository.TransactionRepositoryCustom.TransactionRow;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Resolves a transaction note to its merchant: first an alias match over the whole note, then
+ * the note's leading words as a merchant of the user's own. The aliases are seeded by migrations
+ * and identical on every shard, so they are loaded once at startup. Fallback merchants hold text
+ * from the user's notes, so they are never shared: they are deleted with the user and move with
+ * them between shards. They are inserted right before the writing transaction commits, in id
+ * order, which keeps two batches that introduce the same merchants from deadlocking on them.
+ */
+@Slf4j
+@Service
+public class MerchantResolver {
+
+    private final MerchantRepository merchantRepository;
+    private final Counter matched;
+    private final Counter fallback;
+    private final Counter unresolved;
+    private volatile MerchantMatcher matcher = new MerchantMatcher(Map.of());
+    private volatile Map<UUID, Merchant> known = Map.of();
+
+    public MerchantResolver(MerchantRepository merchantRepository, MeterRegistry meterRegistry) {
+        this.merchantRepository = merchantRepository;
+        this.matched = meterRegistry.counter("merchants.resolved", "source", "alias");
+        this.fallback = meterRegistry.counter("merchants.resolved", "source", "fallback");
+        this.unresolved = meterRegistry.counter("merchants.resolved", "source", "none");
+    }
+
+    @PostConstruct
+    void load() {
+        Map<String, UUID> aliases = new HashMap<>();
+        Map<UUID, Merchant> merchants = new HashMap<>();
+        for (Object[] row : merchantRepository.findAliases()) {
+            UUID id = (UUID) row[1];
+            aliases.put((String) row[0], id);
+            merchants.computeIfAbsent(id, k -> Merchant.builder()
+                    .id(id).key((String) row[2]).name((String) row[3]).build());
+        }
+        matcher = new MerchantMatcher(aliases);
+        known = Map.copyOf(merchants);
+        log.info("Loaded {} aliases of {} known merchants", aliases.size(), merchants.size());
+    }
+
+    /**
+     * The merchant of a note, not attached to the persistence context: only its id goes into the
+     * transaction row. A new merchant is queued for insertion, so this must run inside the
+     * transaction that writes the row.
+     */
+    public Optional<Merchant> resolve(UUID userId, String note) {
+        Optional<Merchant> merchant = find(userId, note);
+        if (merchant.isEmpty()) {
+            unresolved.increment();
+        } else if (merchant.get().getUserId() == null) {
+            matched.increment();
+        } else {
+            fallback.increment();
+            pending().putIfAbsent(merchant.get().getId(), merchant.get());
+        }
+        return merchant;
+    }
+
+    /**
+     * The row with the merchant its note resolves to, if it has none yet: archived rows are never
+     * rewritten and hot rows may not have been backfilled, so theirs is resolved on read. Nothing
+     * is inserted, so the merchant filter and per-merchant totals still pass such rows over.
+     */
+    public TransactionRow withMerchant(UUID userId, TransactionRow row) {
+        if (row.merchantId() != null || row.note() == null)
+            return row;
+        return find(userId, row.note())
+                .map(merchant -> row.withMerchant(merchant.getId(), merchant.getName()))
+                .orElse(row);
+    }
+
+    private Optional<Merchant> find(UUID userId, String note) {
+        String normalized = MerchantNormalizer.normalize(note);
+        Optional<UUID> alias = matcher.match(normalized);
+        if (alias.isPresent())
+            return Optional.of(known.get(alias.get()));
+
+        return MerchantNormalizer.fallbackKey(normalized).map(key -> Merchant.builder()
+                .id(MerchantNormalizer.idOf(userId, key))
+                .key(key)
+                .name(MerchantNormalizer.displayName(key))
+                .userId(userId)
+                .build());
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<UUID, Merchant> pending() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive())
+            throw new IllegalStateException("Merchants must be resolved inside a transaction");
+        Map<UUID, Merchant> pending = (Map<UUID, Merchant>) TransactionSynchronizationManager.getResource(this);
+        if (pending != null)
+            return pending;
+
+        Map<UUID, Merchant> created = new TreeMap<>();
+        TransactionSynchronizationManager.bindResource(this, created);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            // Before AmountSketchLog and SyncLog, which lock per-user rows that only this user's
+            // writers contend for
+            @Override
+            public int getOrder() {
+                return Ordered.LOWEST_PRECEDENCE - 2;
+            }
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                created.values().forEach(m ->
+                        merchantRepository.insertIfAbsent(m.getId(), m.getKey(), m.getName(), m.getUserId()));
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResource(MerchantResolver.this);
+            }
+        });
+        return created;
+    }
+}
@@ -0,0 +1,156 @@
+package com.akfinance.api.service;
+
+import com.akfinance.api.domain.entity.OutboxEvent;
+import com.akfinance.api.dto.event.ChangeEvent;
+import com.akfinance.api.repository.OutboxEventRepository;
+import com.akfinance.api.sharding.ShardRouter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drains {@code outbox_events} to {@link ChangeEventSubscriber}s. A batch is claimed with
+ * {@code FOR UPDATE SKIP LOCKED}, delivered, and marked dispatched in the same transaction,
+ * so a crash before commit simply redelivers it (at-least-once). An event that fails is retried
+ * after a backoff that doubles up to {@code app.outbox.max-backoff}; meanwhile only the later
+ * events of the same aggregate wait behind it.
+ */
+@Slf4j
+@Component
+public class OutboxDispatcher {
+
+    private final OutboxEventRepository outboxRepository;
+    private final ObjectProvider<ChangeEventSubscriber> subscribers;
+    private final ShardRouter shardRouter;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter dispatched;
+    private final Counter failures;
+    private final Timer batchTimer;
+    private final Timer deliveryLag;
+    private final AtomicLong pendingLagMs = new AtomicLong();
+
+    @Value("${app.outbox.batch-size:200}")
+    private int batchSize;
+
+    @Value("${app.outbox.max-batches-per-poll:10}")
+    private int maxBatchesPerPoll;
+
+    @Value("${app.outbox.retention:P7D}")
+    private Duration retention;
+
+    @Value("${app.outbox.retry-backoff:PT1S}")
+    private Duration retryBackoff;
+
+    @Value("${app.outbox.max-backoff:PT15M}")
+    private Duration maxBackoff;
+
+    public OutboxDispatcher(OutboxEventRepository outboxRepository,
+            ObjectProvider<ChangeEventSubscriber> subscribers,
+            ShardRouter shardRouter,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry) {
+        this.outboxRepository = outboxRepository;
+        this.subscribers = subscribers;
+        this.shardRouter = shardRouter;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.dispatched = meterRegistry.counter("outbox.events.dispatched");
+        this.failures = meterRegistry.counter("outbox.dispatch.failures");
+        this.batchTimer = meterRegistry.timer("outbox.dispatch.batch");
+        this.deliveryLag = meterRegistry.timer("outbox.delivery.lag");
+        meterRegistry.gauge("outbox.pending.lag.ms", pendingLagMs);
+    }
+
+    // Each shard has its own outbox; the lag gauge reports the worst one
+    @Scheduled(fixedDelayString = "${app.outbox.poll-interval-ms:500}")
+    public void poll() {
+        AtomicLong worstLagMs = new AtomicLong();
+        shardRouter.forEachShard(shard -> worstLagMs.accumulateAndGet(pollShard(), Math::max));
+        pendingLagMs.set(worstLagMs.get());
+    }
+
+    @Scheduled(cron = "${app.outbox.purge-cron:0 0 * * * *}")
+    public void purge() {
+        shardRouter.forEachShard(shard -> {
+            Integer purged = transactionTemplate.execute(status ->
+                    outboxRepository.deleteDispatchedBefore(Instant.now().minus(retention)));
+            if (purged != null && purged > 0)
+                log.debug("Purged {} dispatched outbox events on shard {}", purged, shard);
+        });
+    }
+
+    private long pollShard() {
+        for (int i = 0; i < maxBatchesPerPoll; i++) {
+            Integer delivered = batchTimer.record(() -> transactionTemplate.execute(status -> dispatchBatch()));
+            if (delivered == null || delivered < batchSize)
+                break;
+        }
+        return outboxRepository.findOldestPendingCreatedAt()
+                .map(oldest -> Duration.between(oldest, Instant.now()).toMillis())
+                .orElse(0L);
+    }
+
+    private int dispatchBatch() {
+        List<OutboxEvent> batch = outboxRepository.claimBatch(batchSize);
+        if (batch.isEmpty())
+            return 0;
+
+        List<Long> delivered = new ArrayList<>(batch.size());
+        List<Long> failed = new ArrayList<>();
+        Set<UUID> blocked = new HashSet<>();
+        Instant now = Instant.now();
+        for (OutboxEvent event : batch) {
+            // Later events of a failed aggregate stay pending to keep its order; claimBatch holds them back
+            if (blocked.contains(event.getAggregateId()))
+                continue;
+            try {
+                ChangeEvent change = toChangeEvent(event);
+                subscribers.orderedStream().forEach(s -> s.onChange(change));
+            } catch (RuntimeException e) {
+                failures.increment();
+                log.warn("Outbox delivery failed for event {} (attempt {}): {}",
+                        event.getId(), event.getAttempts() + 1, e.getMessage());
+                failed.add(event.getId());
+                blocked.add(event.getAggregateId());
+                continue;
+            }
+            delivered.add(event.getId());
+            deliveryLag.record(Duration.between(event.getCreatedAt(), now));
+        }
+
+        if (!delivered.isEmpty()) {
+            outboxRepository.markDispatched(delivered, now);
+            dispatched.increment(delivered.size());
+        }
+        if (!failed.isEmpty())
+            outboxRepository.scheduleRetry(failed, now, retryBackoff.toMillis(), maxBackoff.toMillis());
+        return batch.size();
+    }
+
+    private ChangeEvent toChangeEvent(OutboxEvent event) {
+        return ChangeEvent.builder()
+                .sequence(event.getId())
+                .userId(event.getUserId())
+                .aggregateType(event.getAggregateType())
+                .aggregateId(event.getAggregateId())
+                .changeType(event.getChangeType())
+                .payload(event.getPayload())
+                .createdAt(event.getCreatedAt())
+                .build();
+    }
+}
@@ -0,0 +1,65 @@
+package com.akfinance.api.service;
+
+import com.akfinance.api.domain.entity.OutboxEvent;
+import com.akfinance.api.domain.enums.AggregateType;
+import com.akfinance.api.domain.enums.ChangeType;
+import com.akfinance.api.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+@Service
+public class OutboxService {
+
+    private final OutboxEventRepository outboxRepository;
+    private final SyncLog syncLog;
+    private final Counter recorded;
+
+    public OutboxService(OutboxEventRepository outboxRepository, SyncLog syncLog, MeterRegistry meterRegistry) {
+        this.outboxRepository = outboxRepository;
+        this.syncLog = syncLog;
+        this.recorded = meterRegistry.counter("outbox.events.recorded");
+    }
+
+    // MANDATORY: the event must commit or roll back together with the change it describes.
+    // Every recorded change also lands in the delta-sync log (SyncLog)
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(UUID userId, AggregateType aggregateType, UUID aggregateId,
+            ChangeType changeType, Map<String, Object> payload) {
+        outboxRepository.save(OutboxEvent.builder()
+                .userId(userId)
+                .aggregateType(aggregateType)
+                .aggregateId(aggregateId)
+                .changeType(changeType)
+                .payload(payload)
+                .build());
+        syncLog.record(userId, aggregateType, List.of(aggregateId), changeType == ChangeType.DELETED);
+        recorded.increment();
+    }
+
+    // One event per aggregate in a single multi-row INSERT, for bulk writes
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordAll(UUID userId, AggregateType aggregateType, ChangeType changeType,
+            Map<UUID, Map<String, Object>> payloads) {
+        if (payloads.isEmpty())
+            return;
+        List<OutboxEvent> events = payloads.entrySet().stream()
+                .map(e -> OutboxEvent.builder()
+                        .userId(userId)
+                        .aggregateType(aggregateType)
+                        .aggregateId(e.getKey())
+                        .changeType(changeType)
+                        .payload(e.getValue())
+                        .build())
+                .toList();
+        outboxRepository.insertAll(events);
+        syncLog.record(userId, aggregateType, payloads.keySet(), changeType == ChangeType.DELETED);
+        recorded.increment(events.size());
+    }
+}
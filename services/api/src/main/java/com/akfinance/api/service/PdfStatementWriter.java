@@ -0,0 +1,140 @@
+package com.akfinance.api.service;
+
+import com.lowagie.text.Document;
+import com.lowagie.text.DocumentException;
+import com.lowagie.text.Element;
+import com.lowagie.text.Font;
+import com.lowagie.text.PageSize;
+import com.lowagie.text.Paragraph;
+import com.lowagie.text.Phrase;
+import com.lowagie.text.pdf.BaseFont;
+import com.lowagie.text.pdf.PdfPCell;
+import com.lowagie.text.pdf.PdfPTable;
+import com.lowagie.text.pdf.PdfWriter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * OpenPDF statement. The transaction table is an incomplete large element that is handed to the
+ * document every {@code FLUSH_ROWS} rows, so rendered rows are released instead of accumulating.
+ */
+final class PdfStatementWriter implements StatementWriter {
+
+    private static final int FLUSH_ROWS = 200;
+    private static final DateTimeFormatter DATE = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm")
+            .withZone(ZoneOffset.UTC);
+
+    private final Document document = new Document(PageSize.A4.rotate(), 28, 28, 28, 28);
+    private final Font font;
+    private final Font bold;
+    private final Font title;
+    private PdfPTable transactions;
+    private int pending;
+
+    PdfStatementWriter(OutputStream out, BaseFont baseFont) {
+        this.font = new Font(baseFont, 8);
+        this.bold = new Font(baseFont, 8, Font.BOLD);
+        this.title = new Font(baseFont, 14, Font.BOLD);
+        try {
+            PdfWriter.getInstance(document, out).setCloseStream(false);
+        } catch (DocumentException e) {
+            throw new UncheckedIOException(new IOException("Cannot start statement", e));
+        }
+        document.open();
+    }
+
+    @Override
+    public void begin(YearMonth month, String owner) {
+        add(new Paragraph("Statement " + month + (owner.isEmpty() ? "" : " — " + owner), title));
+        add(new Paragraph(" ", font));
+        transactions = table(new float[] { 12, 8, 16, 14, 10, 5, 35 },
+                "Date (UTC)", "Type", "Category", "Account", "Amount", "Cur", "Note");
+        transactions.setComplete(false);
+    }
+
+    @Override
+    public void transaction(Line line) {
+        cell(transactions, DATE.format(line.occurredAt()));
+        cell(transactions, line.type().name());
+        cell(transactions, line.category());
+        cell(transactions, line.account());
+        amount(transactions, line.amount().toPlainString());
+        cell(transactions, line.currency());
+        cell(transactions, line.note());
+        if (++pending == FLUSH_ROWS) {
+            add(transactions);
+            pending = 0;
+        }
+    }
+
+    @Override
+    public void categoryTotals(List<CategoryTotal> totals) {
+        transactions.setComplete(true);
+        add(transactions);
+        add(new Paragraph("Categories", title));
+        PdfPTable table = table(new float[] { 40, 10, 20, 20, 10 }, "Category", "Cur", "Income", "Expense", "Count");
+        for (CategoryTotal total : totals) {
+            cell(table, total.category());
+            cell(table, total.currency());
+            amount(table, total.income().toPlainString());
+            amount(table, total.expense().toPlainString());
+            amount(table, Integer.toString(total.count()));
+        }
+        add(table);
+    }
+
+    @Override
+    public void budgets(List<BudgetLine> budgets) {
+        add(new Paragraph("Budgets", title));
+        PdfPTable table = table(new float[] { 40, 10, 20, 20, 10 }, "Category", "Cur", "Limit", "Spent", "%");
+        for (BudgetLine budget : budgets) {
+            cell(table, budget.category());
+            cell(table, budget.currency());
+            amount(table, budget.limit().toPlainString());
+            amount(table, budget.spent().toPlainString());
+            amount(table, String.format("%.2f", budget.progressPercent()));
+        }
+        add(table);
+    }
+
+    @Override
+    public void close() {
+        document.close();
+    }
+
+    private PdfPTable table(float[] widths, String... headers) {
+        PdfPTable table = new PdfPTable(widths);
+        table.setWidthPercentage(100);
+        table.setHeaderRows(1);
+        table.setSpacingBefore(6);
+        table.setSpacingAfter(12);
+        for (String header : headers) {
+            table.addCell(new PdfPCell(new Phrase(header, bold)));
+        }
+        return table;
+    }
+
+    private void cell(PdfPTable table, String text) {
+        table.addCell(new PdfPCell(new Phrase(text != null ? text : "", font)));
+    }
+
+    private void amount(PdfPTable table, String text) {
+        PdfPCell cell = new PdfPCell(new Phrase(text, font));
+        cell.setHorizontalAlignment(Element.ALIGN_RIGHT);
+        table.addCell(cell);
+    }
+
+    private void add(Element element) {
+        try {
+            document.add(element);
+        } catch (DocumentException e) {
+            throw new UncheckedIOException(new IOException("Cannot render statement", e));
+        }
+    }
+}
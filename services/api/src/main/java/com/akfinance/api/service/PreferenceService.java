@@ -2,6 +2,8 @@ package com.akfinance.api.service;
 
 import com.akfinance.api.domain.entity.UserPreference;
 import com.akfinance.api.domain.entity.User;
+import com.akfinance.api.domain.enums.AggregateType;
+import com.akfinance.api.domain.enums.ChangeType;
 import com.akfinance.api.dto.preference.PreferenceRequest;
 import com.akfinance.api.dto.preference.PreferenceResponse;
 import com.akfinance.api.exception.ResourceNotFoundException;
@@ -10,6 +12,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Map;
 import java.util.UUID;
 
 @Service
@@ -17,6 +20,7 @@ import java.util.UUID;
 public class PreferenceService {
 
     private final UserPreferenceRepository preferenceRepository;
+    private final OutboxService outboxService;
 
     public PreferenceResponse getPreferences(UUID userId) {
         UserPreference prefs = preferenceRepository.findById(userId)
@@ -37,9 +41,17 @@ public class PreferenceService {
             prefs.setDefaultCurrency(request.getDefaultCurrency());
 
         prefs = preferenceRepository.save(prefs);
+        outboxService.record(userId, AggregateType.PREFERENCE, userId, ChangeType.UPDATED, payload(prefs));
         return toResponse(prefs);
     }
 
+    private Map<String, Object> payload(UserPreference prefs) {
+        return Map.of(
+                "locale", prefs.getLocale(),
+                "theme", prefs.getTheme().name(),
+                "defaultCurrency", prefs.getDefaultCurrency());
+    }
+
     private PreferenceResponse toResponse(UserPreference prefs) {
         return PreferenceResponse.builder()
                 .locale(prefs.getLocale())
@@ -0,0 +1,227 @@
+package com.akfinance.api.service;
+
+import com.akfinance.api.domain.entity.Budget;
+import com.akfinance.api.domain.entity.Job;
+import com.akfinance.api.domain.entity.User;
+import com.akfinance.api.domain.enums.JobType;
+import com.akfinance.api.domain.enums.StatementFormat;
+import com.akfinance.api.domain.enums.TransactionType;
+import com.akfinance.api.domain.money.Money;
+import com.akfinance.api.repository.BudgetRepository;
+import com.akfinance.api.repository.UserRepository;
+import com.lowagie.text.pdf.BaseFont;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.OffsetDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Monthly statement as PDF or XLSX. Transactions are streamed through a server-side cursor
+ * ({@code fetch-size} rows at a time) straight into the writer, and category totals are summed
+ * in minor units along the way, so memory does not grow with the month's size.
+ */
+@Slf4j
+@Service
+public class StatementJobHandler implements JobHandler {
+
+    private static final String ROWS_SQL = """
+            SELECT t.occurred_at, t.type, t.amount, t.currency, t.note,
+                   t.category_id, c.name AS category_name, a.name AS account_name
+            FROM transactions t
+            LEFT JOIN categories c ON c.id = t.category_id
+            LEFT JOIN accounts a ON a.id = t.account_id
+            WHERE t.user_id = ?
+            AND t.occurred_at >= ?
+            AND t.occurred_at < ?
+            ORDER BY t.occurred_at, t.id
+            """;
+    // Months before the archive horizon; each side of the UNION ALL binds the same three parameters
+    private static final String ROWS_WITH_ARCHIVE_SQL = """
+            SELECT t.occurred_at, t.type, t.amount, t.currency, t.note,
+                   t.category_id, c.name AS category_name, a.name AS account_name
+            FROM (
+                SELECT id, occurred_at, type, amount, currency, note, category_id, account_id
+                FROM transactions
+                WHERE user_id = ? AND occurred_at >= ? AND occurred_at < ?
+                UNION ALL
+                SELECT id, occurred_at, type, amount, currency, note, category_id, account_id
+                FROM transactions_archive
+                WHERE user_id = ? AND occurred_at >= ? AND occurred_at < ?
+            ) t
+            LEFT JOIN categories c ON c.id = t.category_id
+            LEFT JOIN accounts a ON a.id = t.account_id
+            ORDER BY t.occurred_at, t.id
+            """;
+    private static final String UNCATEGORIZED = "Uncategorized";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BudgetRepository budgetRepository;
+    private final UserRepository userRepository;
+    private final TransactionArchive transactionArchive;
+    private final TransactionTemplate readOnly;
+    private BaseFont pdfFont;
+
+    @Value("${app.jobs.statement.fetch-size:500}")
+    private int fetchSize;
+
+    // A TTF with Cyrillic glyphs; without it PDFs fall back to Helvetica (Latin only)
+    @Value("${app.jobs.statement.pdf-font:/usr/share/fonts/truetype/dejavu/DejaVuSans.ttf}")
+    private String pdfFontPath;
+
+    public StatementJobHandler(JdbcTemplate jdbcTemplate, BudgetRepository budgetRepository,
+            UserRepository userRepository, TransactionArchive transactionArchive,
+            PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.budgetRepository = budgetRepository;
+        this.userRepository = userRepository;
+        this.transactionArchive = transactionArchive;
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+    }
+
+    @PostConstruct
+    void loadFont() throws IOException {
+        if (Files.isReadable(Path.of(pdfFontPath))) {
+            pdfFont = BaseFont.createFont(pdfFontPath, BaseFont.IDENTITY_H, BaseFont.EMBEDDED);
+        } else {
+            log.warn("PDF font {} not found, statements will use Helvetica", pdfFontPath);
+            pdfFont = BaseFont.createFont(BaseFont.HELVETICA, BaseFont.CP1252, BaseFont.NOT_EMBEDDED);
+        }
+    }
+
+    public static Map<String, Object> params(int year, int month, StatementFormat format) {
+        return Map.of("year", year, "month", month, "format", format.name());
+    }
+
+    @Override
+    public JobType type() {
+        return JobType.STATEMENT;
+    }
+
+    @Override
+    public String fileName(Job job) {
+        return "statement-" + month(job) + "." + format(job).getExtension();
+    }
+
+    @Override
+    public String contentType(Job job) {
+        return format(job).getContentType();
+    }
+
+    @Override
+    public void write(Job job, OutputStream out) throws IOException {
+        YearMonth month = month(job);
+        try (StatementWriter writer = format(job) == StatementFormat.PDF
+                ? new PdfStatementWriter(out, pdfFont)
+                : new XlsxStatementWriter(out)) {
+            readOnly.executeWithoutResult(status -> fill(job.getUserId(), month, writer));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private void fill(UUID userId, YearMonth month, StatementWriter writer) {
+        writer.begin(month, userRepository.findById(userId).map(User::getEmail).orElse(""));
+
+        Timestamp from = Timestamp.from(month.atDay(1).atStartOfDay().toInstant(ZoneOffset.UTC));
+        Timestamp to = Timestamp.from(month.plusMonths(1).atDay(1).atStartOfDay().toInstant(ZoneOffset.UTC));
+        boolean withArchive = transactionArchive.reaches(from.toInstant());
+        Map<TotalKey, Total> totals = new LinkedHashMap<>();
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(withArchive ? ROWS_WITH_ARCHIVE_SQL : ROWS_SQL);
+            ps.setFetchSize(fetchSize);
+            for (int side = 0, sides = withArchive ? 2 : 1; side < sides; side++) {
+                ps.setObject(side * 3 + 1, userId);
+                ps.setTimestamp(side * 3 + 2, from);
+                ps.setTimestamp(side * 3 + 3, to);
+            }
+            return ps;
+        }, rs -> {
+            TransactionType type = TransactionType.valueOf(rs.getString("type"));
+            String currency = rs.getString("currency");
+            String category = rs.getString("category_name");
+            StatementWriter.Line line = new StatementWriter.Line(
+                    rs.getObject("occurred_at", OffsetDateTime.class).toInstant(), type,
+                    rs.getBigDecimal("amount"), currency, category, rs.getString("account_name"),
+                    rs.getString("note"));
+            writer.transaction(line);
+            if (type != TransactionType.TRANSFER) {
+                Total total = totals.computeIfAbsent(
+                        new TotalKey(rs.getObject("category_id", UUID.class), currency),
+                        key -> new Total(Objects.requireNonNullElse(category, UNCATEGORIZED)));
+                total.add(type, Money.toMinor(line.amount()));
+            }
+        });
+
+        List<StatementWriter.CategoryTotal> categoryTotals = new ArrayList<>();
+        totals.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<TotalKey, Total> e) -> e.getValue().expense).reversed()
+                        .thenComparing(e -> e.getValue().name))
+                .forEach(e -> categoryTotals.add(new StatementWriter.CategoryTotal(e.getValue().name,
+                        e.getKey().currency(), Money.toBigDecimal(e.getValue().income),
+                        Money.toBigDecimal(e.getValue().expense), e.getValue().count)));
+        writer.categoryTotals(categoryTotals);
+
+        List<StatementWriter.BudgetLine> budgets = new ArrayList<>();
+        for (Budget budget : budgetRepository.findByUserIdAndMonthAndYear(userId, month.getMonthValue(),
+                month.getYear())) {
+            Money limit = budget.getLimit();
+            Money spent = budget.getSpent();
+            budgets.add(new StatementWriter.BudgetLine(budget.getCategory().getName(), limit.toBigDecimal(),
+                    spent.toBigDecimal(), budget.getCurrency(), spent.percentOf(limit)));
+        }
+        writer.budgets(budgets);
+    }
+
+    private static YearMonth month(Job job) {
+        return YearMonth.of(((Number) job.getParams().get("year")).intValue(),
+                ((Number) job.getParams().get("month")).intValue());
+    }
+
+    private static StatementFormat format(Job job) {
+        return StatementFormat.valueOf((String) job.getParams().get("format"));
+    }
+
+    private record TotalKey(UUID categoryId, String currency) {
+    }
+
+    private static final class Total {
+        final String name;
+        long income;
+        long expense;
+        int count;
+
+        Total(String name) {
+            this.name = name;
+        }
+
+        void add(TransactionType type, long minor) {
+            if (type == TransactionType.INCOME)
+                income = Math.addExact(income, minor);
+            else
+                expense = Math.addExact(expense, minor);
+            count++;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.akfinance.api.service;
+
+import com.akfinance.api.domain.enums.TransactionType;
+
+import java.io.Closeable;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * Sections of a monthly statement, written in this order: header, every transaction, category
+ * totals, budgets. Transactions arrive one at a time so implementations can flush as they go.
+ * {@link #close} finishes the document on the underlying stream without closing it.
+ */
+interface StatementWriter extends Closeable {
+
+    void begin(YearMonth month, String owner);
+
+    void transaction(Line line);
+
+    void categoryTotals(List<CategoryTotal> totals);
+
+    void budgets(List<BudgetLine> budgets);
+
+    record Line(Instant occurredAt, TransactionType type, BigDecimal amount, String currency, String category,
+            String account, String note) {
+    }
+
+    record CategoryTotal(String category, String currency, BigDecimal income, BigDecimal expense, int count) {
+    }
+
+    record BudgetLine(String category, BigDecimal limit, BigDecimal spent, String currency, double progressPercent) {
+    }
+}
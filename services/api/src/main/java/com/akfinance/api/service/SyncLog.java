@@ -0,0 +1,97 @@
+package com.akfinance.api.service;
+
+import com.akfinance.api.domain.enums.AggregateType;
+import com.akfinance.api.repository.SyncChangeRepository;
+import com.akfinance.api.repository.SyncChangeRepository.EntityKey;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Collects the entities a transaction changes and writes them to the sync log right before it
+ * commits, in one sequence increment per user. The user's sync_state row is then the last lock
+ * the transaction takes, so it can't deadlock against account or budget row locks.
+ */
+@Component
+public class SyncLog {
+
+    // Account balances move with every transaction and carry no event of their own, so clients
+    // get accounts from their own endpoint rather than through sync
+    private static final Set<AggregateType> SYNCED = EnumSet.of(
+            AggregateType.TRANSACTION, AggregateType.CATEGORY, AggregateType.BUDGET, AggregateType.PREFERENCE);
+
+    private final SyncChangeRepository syncChangeRepository;
+
+    public SyncLog(SyncChangeRepository syncChangeRepository) {
+        this.syncChangeRepository = syncChangeRepository;
+    }
+
+    // The last call for an entity within the transaction decides whether it is a tombstone
+    public void record(UUID userId, AggregateType type, Collection<UUID> ids, boolean deleted) {
+        if (!SYNCED.contains(type) || ids.isEmpty())
+            return;
+        if (!TransactionSynchronizationManager.isSynchronizationActive())
+            throw new IllegalStateException("Sync changes must be recorded inside a transaction");
+
+        Map<EntityKey, Boolean> changes = pending().changes.computeIfAbsent(userId, id -> new LinkedHashMap<>());
+        for (UUID id : ids) {
+            EntityKey key = new EntityKey(type, id);
+            changes.remove(key);
+            changes.put(key, deleted);
+        }
+    }
+
+    /**
+     * The sequence numbers the current transaction took for the user, from its commit until it
+     * completes, so after-commit callbacks can tell whether any other write came in between.
+     */
+    public Optional<Range> committedRange(UUID userId) {
+        Pending pending = (Pending) TransactionSynchronizationManager.getResource(this);
+        return pending != null ? Optional.ofNullable(pending.reserved.get(userId)) : Optional.empty();
+    }
+
+    private Pending pending() {
+        Pending pending = (Pending) TransactionSynchronizationManager.getResource(this);
+        if (pending != null)
+            return pending;
+
+        Pending created = new Pending();
+        TransactionSynchronizationManager.bindResource(this, created);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                created.changes.forEach((userId, changes) -> {
+                    long last = syncChangeRepository.reserve(userId, changes.size());
+                    long first = last - changes.size() + 1;
+                    syncChangeRepository.upsert(userId, changes, first);
+                    created.reserved.put(userId, new Range(first, last));
+                });
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResource(SyncLog.this);
+            }
+        });
+        return created;
+    }
+
+    public record Range(long first, long last) {
+    }
+
+    private static final class Pending {
+        // Sorted: an ingestion batch spans users, and every batch must lock their rows in the same order
+        final Map<UUID, Map<EntityKey, Boolean>> changes = new TreeMap<>();
+        final Map<UUID, Range> reserved = new HashMap<>();
+    }
+}
@@ -0,0 +1,99 @@
+package com.akfinance.api.service;
+
+import com.akfinance.api.domain.enums.AggregateType;
+import com.akfinance.api.dto.sync.SyncChangesResponse;
+import com.akfinance.api.dto.sync.SyncTombstone;
+import com.akfinance.api.exception.BadRequestException;
+import com.akfinance.api.repository.SyncChangeRepository;
+import com.akfinance.api.repository.SyncChangeRepository.Change;
+import com.akfinance.api.repository.SyncChangeRepository.SyncState;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+@Service
+@RequiredArgsConstructor
+public class SyncService {
+
+    private final SyncChangeRepository syncChangeRepository;
+    private final TransactionService transactionService;
+    private final CategoryService categoryService;
+    private final BudgetService budgetService;
+    private final PreferenceService preferenceService;
+
+    // One snapshot for the change list and the rows it points at, so a row deleted in between
+    // shows up as a tombstone on the next call rather than going missing from this one
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public SyncChangesResponse getChanges(UUID userId, String cursor, int limit) {
+        long since = parseCursor(cursor);
+        SyncState state = syncChangeRepository.findState(userId).orElse(new SyncState(0, 0));
+
+        // Tombstones past the cursor were purged, or the cursor came from somewhere else
+        if (since > state.seq() || (since > 0 && since < state.purgedSeq()))
+            return response(0, false).reset(true).build();
+        // Nothing new: the sync_state lookup above is the whole cost
+        if (since > 0 && since == state.seq())
+            return response(since, false).build();
+
+        List<Change> changes = syncChangeRepository.findAfter(userId, since, limit + 1);
+        boolean hasMore = changes.size() > limit;
+        if (hasMore)
+            changes = changes.subList(0, limit);
+
+        Map<AggregateType, List<UUID>> live = new EnumMap<>(AggregateType.class);
+        List<SyncTombstone> deleted = new ArrayList<>();
+        for (Change change : changes) {
+            if (change.deleted())
+                deleted.add(new SyncTombstone(change.entity().type(), change.entity().id()));
+            else
+                live.computeIfAbsent(change.entity().type(), type -> new ArrayList<>()).add(change.entity().id());
+        }
+
+        // The last page ends at the user's sequence, so the next call takes the fast path
+        long next = hasMore ? changes.get(changes.size() - 1).seq() : state.seq();
+        return response(next, hasMore)
+                .transactions(transactionService.getTransactionsByIds(userId, ids(live, AggregateType.TRANSACTION)))
+                .categories(categoryService.getCategoriesByIds(userId, ids(live, AggregateType.CATEGORY)))
+                .budgets(budgetService.getBudgetsByIds(userId, ids(live, AggregateType.BUDGET)))
+                .preferences(since == 0 || live.containsKey(AggregateType.PREFERENCE)
+                        ? preferenceService.getPreferences(userId)
+                        : null)
+                .deleted(deleted)
+                .build();
+    }
+
+    // No cursor means a first sync
+    private static long parseCursor(String cursor) {
+        if (cursor == null || cursor.isBlank())
+            return 0;
+        try {
+            long since = Long.parseLong(cursor);
+            if (since >= 0)
+                return since;
+        } catch (NumberFormatException ignored) {
+            // reported below
+        }
+        throw new BadRequestException("Invalid sync cursor");
+    }
+
+    private static SyncChangesResponse.SyncChangesResponseBuilder response(long cursor, boolean hasMore) {
+        return SyncChangesResponse.builder()
+                .cursor(Long.toString(cursor))
+                .hasMore(hasMore)
+                .transactions(List.of())
+                .categories(List.of())
+                .budgets(List.of())
+                .deleted(List.of());
+    }
+
+    private static List<UUID> ids(Map<AggregateType, List<UUID>> live, AggregateType type) {
+        return live.getOrDefault(type, List.of());
+    }
+}
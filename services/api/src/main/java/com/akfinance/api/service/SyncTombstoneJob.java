@@ -0,0 +1,67 @@
+package com.akfinance.api.service;
+
+import com.akfinance.api.repository.SyncChangeRepository;
+import com.akfinance.api.sharding.ShardRouter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Purges sync tombstones older than {@code app.sync.tombstone-retention}. A client that last
+ * synced before a purged tombstone gets {@code reset} and starts over, so the retention is how
+ * long a device may stay offline and still sync incrementally.
+ */
+@Slf4j
+@Component
+public class SyncTombstoneJob {
+
+    private final SyncChangeRepository syncChangeRepository;
+    private final ShardRouter shardRouter;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter purged;
+
+    @Value("${app.sync.tombstone-retention:P90D}")
+    private Duration retention;
+
+    @Value("${app.sync.purge-batch-size:1000}")
+    private int batchSize;
+
+    public SyncTombstoneJob(SyncChangeRepository syncChangeRepository,
+            ShardRouter shardRouter,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry) {
+        this.syncChangeRepository = syncChangeRepository;
+        this.shardRouter = shardRouter;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.purged = meterRegistry.counter("sync.tombstones.purged");
+    }
+
+    @Scheduled(cron = "${app.sync.purge-cron:0 30 0 * * *}", zone = "UTC")
+    public void run() {
+        Instant before = Instant.now().minus(retention);
+        shardRouter.forEachShard(shard -> purge(before));
+    }
+
+    // Short batches: each one briefly locks the sync_state rows of the users it touches
+    public int purge(Instant before) {
+        int total = 0;
+        while (true) {
+            Integer deleted = transactionTemplate.execute(
+                    status -> syncChangeRepository.purgeTombstones(before, batchSize));
+            total += deleted;
+            if (deleted < batchSize)
+                break;
+        }
+        purged.increment(total);
+        log.info("Purged {} sync tombstones older than {}", total, before);
+        return total;
+    }
+}
@@ -0,0 +1,71 @@
+package com.akfinance.api.service;
+
+import com.akfinance.api.exception.ConflictException;
+import com.akfinance.api.repository.TransactionRepository;
+import com.akfinance.api.repository.TransactionRepositoryCustom.ArchiveState;
+import com.akfinance.api.sharding.ShardContext;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The current shard's archive horizon. Transactions before it may already live in
+ * {@code transactions_archive} and are read-only; reads add the archive only when their range
+ * starts before it. Each shard's value is cached for {@code horizon-cache-ttl}, and
+ * {@link TransactionArchiveJob} only moves rows below a horizon published at least twice that
+ * long ago, so no reader or writer can still be working from an older one.
+ */
+@Component
+@RequiredArgsConstructor
+public class TransactionArchive {
+
+    private static final int UNBOUND = -1;
+
+    private final TransactionRepository transactionRepository;
+    private final Map<Integer, Cached> horizons = new ConcurrentHashMap<>();
+
+    @Value("${app.archive.horizon-cache-ttl:PT1M}")
+    private Duration cacheTtl;
+
+    // Null until a horizon has been published on this shard
+    public Instant horizon() {
+        int shard = Objects.requireNonNullElse(ShardContext.current(), UNBOUND);
+        Instant now = Instant.now();
+        Cached cached = horizons.get(shard);
+        if (cached == null || cached.loadedAt().plus(cacheTtl).isBefore(now)) {
+            cached = new Cached(transactionRepository.findArchiveState().map(ArchiveState::horizon).orElse(null), now);
+            horizons.put(shard, cached);
+        }
+        return cached.horizon();
+    }
+
+    // An open start always reaches it
+    public boolean reaches(Instant from) {
+        Instant horizon = horizon();
+        return horizon != null && (from == null || from.isBefore(horizon));
+    }
+
+    public void requireWritable(Instant occurredAt) {
+        Instant horizon = horizon();
+        if (horizon != null && occurredAt.isBefore(horizon)) {
+            throw new ConflictException("Transactions before " + horizon + " are archived and read-only");
+        }
+    }
+
+    Duration cacheTtl() {
+        return cacheTtl;
+    }
+
+    void evict() {
+        horizons.remove(Objects.requireNonNullElse(ShardContext.current(), UNBOUND));
+    }
+
+    private record Cached(Instant horizon, Instant loadedAt) {
+    }
+}
@@ -0,0 +1,114 @@
+package com.akfinance.api.service;
+
+import com.akfinance.api.repository.AccountRepository;
+import com.akfinance.api.repository.TransactionRepository;
+import com.akfinance.api.repository.UserRepository;
+import com.akfinance.api.sharding.ShardRouter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Moves transactions older than {@code app.archive.age} into {@code transactions_archive}, a
+ * batch of users per transaction. A run first moves rows below the horizon an earlier run
+ * published and only then publishes the next one (see {@link TransactionArchive}); the first run
+ * on a shard therefore only publishes. Before its rows move, every account of the batch gets a
+ * balance checkpoint at the horizon, so balances from the horizon on never read the archive.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.archive.enabled", havingValue = "true")
+public class TransactionArchiveJob {
+
+    private static final UUID MIN_ID = new UUID(0, 0);
+
+    private final TransactionRepository transactionRepository;
+    private final AccountRepository accountRepository;
+    private final UserRepository userRepository;
+    private final TransactionArchive transactionArchive;
+    private final ShardRouter shardRouter;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter archived;
+
+    @Value("${app.archive.age:P730D}")
+    private Duration age;
+
+    @Value("${app.archive.batch-size:100}")
+    private int batchSize;
+
+    public TransactionArchiveJob(TransactionRepository transactionRepository,
+            AccountRepository accountRepository,
+            UserRepository userRepository,
+            TransactionArchive transactionArchive,
+            ShardRouter shardRouter,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry) {
+        this.transactionRepository = transactionRepository;
+        this.accountRepository = accountRepository;
+        this.userRepository = userRepository;
+        this.transactionArchive = transactionArchive;
+        this.shardRouter = shardRouter;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.archived = meterRegistry.counter("transactions.archived");
+    }
+
+    // Every shard gets the same horizon, so a user moved between shards keeps a consistent one
+    @Scheduled(cron = "${app.archive.cron:0 45 1 * * *}", zone = "UTC")
+    public void run() {
+        Instant next = LocalDate.now(ZoneOffset.UTC).atStartOfDay().toInstant(ZoneOffset.UTC).minus(age);
+        shardRouter.forEachShard(shard -> archive(next));
+    }
+
+    public int archive(Instant nextHorizon) {
+        Instant settled = Instant.now().minus(transactionArchive.cacheTtl().multipliedBy(2));
+        int moved = transactionRepository.findArchiveState()
+                .filter(state -> state.publishedAt().isBefore(settled))
+                .map(state -> moveBefore(state.horizon()))
+                .orElse(0);
+        transactionTemplate.executeWithoutResult(status -> transactionRepository.publishArchiveHorizon(nextHorizon));
+        transactionArchive.evict();
+        return moved;
+    }
+
+    // Rows below a settled horizon can no longer change, so nothing here needs account locks
+    private int moveBefore(Instant horizon) {
+        UUID after = MIN_ID;
+        int total = 0;
+        while (true) {
+            UUID cursor = after;
+            Batch batch = transactionTemplate.execute(status -> {
+                List<UUID> userIds = userRepository.findIdsAfter(cursor, batchSize);
+                if (userIds.isEmpty())
+                    return new Batch(null, 0, 0);
+                List<UUID> accountIds = accountRepository.findIdsByUserIdIn(userIds);
+                if (!accountIds.isEmpty())
+                    accountRepository.insertCheckpoints(accountIds, horizon);
+                int moved = transactionRepository.archiveBefore(userIds, horizon);
+                return new Batch(userIds.get(userIds.size() - 1), userIds.size(), moved);
+            });
+            total += batch.moved();
+            if (batch.size() < batchSize)
+                break;
+            after = batch.lastId();
+        }
+        archived.increment(total);
+        log.info("Archived {} transactions before {}", total, horizon);
+        return total;
+    }
+
+    private record Batch(UUID lastId, int size, int moved) {
+    }
+}
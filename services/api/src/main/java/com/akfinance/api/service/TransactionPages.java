@@ -0,0 +1,59 @@
+package com.akfinance.api.service;
+
+import com.akfinance.api.domain.entity.Transaction;
+import com.akfinance.api.domain.enums.CountMode;
+import com.akfinance.api.dto.common.PageResponse;
+import com.akfinance.api.dto.transaction.TransactionFilter;
+import com.akfinance.api.repository.TransactionRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Totals for windowed pages. Callers fetch {@code size + 1} rows; the extra row only says
+ * whether a next page exists, and the total is then exact, estimated or omitted per {@link CountMode}.
+ * Pages that reach the archive count it as well.
+ */
+@Component
+@RequiredArgsConstructor
+class TransactionPages {
+
+    private final TransactionRepository transactionRepository;
+
+    <T> PageResponse<T> build(List<T> content, boolean hasNext, Pageable pageable, CountMode countMode,
+            UUID userId, TransactionFilter filter, Specification<Transaction> spec, boolean withArchive) {
+        long seen = pageable.getOffset() + content.size();
+        Long total = null;
+        CountMode resolved = countMode;
+
+        if (!hasNext && (!content.isEmpty() || pageable.getOffset() == 0)) {
+            // Last page: the total is known without counting
+            total = seen;
+            resolved = CountMode.EXACT;
+        } else if (countMode == CountMode.EXACT) {
+            total = withArchive ? transactionRepository.countWithArchive(userId, filter)
+                    : transactionRepository.count(spec);
+        } else if (countMode == CountMode.ESTIMATED) {
+            long lowerBound = hasNext ? seen + 1 : seen;
+            total = Math.max(transactionRepository.estimateCount(userId, filter, withArchive), lowerBound);
+        }
+
+        int size = pageable.getPageSize();
+        return PageResponse.<T>builder()
+                .content(content)
+                .number(pageable.getPageNumber())
+                .size(size)
+                .numberOfElements(content.size())
+                .first(pageable.getPageNumber() == 0)
+                .last(!hasNext)
+                .hasNext(hasNext)
+                .totalElements(total)
+                .totalPages(total != null ? (int) ((total + size - 1) / size) : null)
+                .countMode(resolved)
+                .build();
+    }
+}
@@ -1,20 +1,39 @@
 package com.akfinance.api.service;
 
+import com.akfinance.api.analytics.TransactionColumnStore;
+import com.akfinance.api.analytics.TransactionColumnStore.Change;
+import com.akfinance.api.domain.entity.Account;
 import com.akfinance.api.domain.entity.Category;
+import com.akfinance.api.domain.entity.Merchant;
 import com.akfinance.api.domain.entity.Transaction;
 import com.akfinance.api.domain.entity.User;
+import com.akfinance.api.domain.enums.AggregateType;
+import com.akfinance.api.domain.enums.ChangeType;
+import com.akfinance.api.domain.enums.CountMode;
 import com.akfinance.api.domain.enums.TransactionType;
+import com.akfinance.api.domain.money.Money;
 import com.akfinance.api.dto.category.CategoryResponse;
+import com.akfinance.api.dto.common.PageResponse;
+import com.akfinance.api.dto.merchant.MerchantResponse;
+import com.akfinance.api.dto.transaction.BulkTransactionRequest;
+import com.akfinance.api.dto.transaction.BulkTransactionResponse;
+import com.akfinance.api.dto.transaction.TransactionFilter;
 import com.akfinance.api.dto.transaction.TransactionRequest;
 import com.akfinance.api.dto.transaction.TransactionResponse;
+import com.akfinance.api.exception.BadRequestException;
+import com.akfinance.api.exception.ConflictException;
 import com.akfinance.api.exception.ResourceNotFoundException;
 import com.akfinance.api.repository.CategoryRepository;
 import com.akfinance.api.repository.TransactionRepository;
+import com.akfinance.api.repository.TransactionRepositoryCustom.AffectedRow;
+import com.akfinance.api.repository.TransactionRepositoryCustom.TransactionRow;
+import com.akfinance.api.repository.TransactionSpecifications;
 import com.akfinance.api.repository.UserPreferenceRepository;
 import com.akfinance.api.repository.UserRepository;
-import jakarta.persistence.criteria.Predicate;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
@@ -22,8 +41,14 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 @Service
@@ -34,64 +59,119 @@ public class TransactionService {
     private final CategoryRepository categoryRepository;
     private final UserRepository userRepository;
     private final UserPreferenceRepository preferenceRepository;
+    private final AccountService accountService;
+    private final AnalyticsService analyticsService;
+    private final BudgetService budgetService;
+    private final OutboxService outboxService;
+    private final TransactionPages transactionPages;
+    private final TransactionColumnStore columnStore;
+    private final TransactionArchive transactionArchive;
+    private final AmountSketchLog amountSketchLog;
+    private final MerchantResolver merchantResolver;
+
+    // Filter-based bulk writes return every touched row to memory; above this the request is a 400
+    @Value("${app.transactions.bulk-max-rows:10000}")
+    private int bulkMaxRows;
 
     @Transactional(readOnly = true)
     public Page<TransactionResponse> getTransactions(UUID userId, Instant from, Instant to,
-            TransactionType type, UUID categoryId,
+            TransactionType type, UUID categoryId, UUID accountId, UUID merchantId,
             BigDecimal minAmount, BigDecimal maxAmount,
             String q, Pageable pageable) {
 
+        // Archive path: the range starts before the archive horizon; always newest first
+        TransactionFilter filter = new TransactionFilter(
+                from, to, type, categoryId, accountId, merchantId, minAmount, maxAmount, q);
+        if (transactionArchive.reaches(from)) {
+            List<TransactionResponse> content = transactionRepository
+                    .findRowsWithArchive(userId, filter, pageable.getOffset(), pageable.getPageSize())
+                    .stream().map(row -> toResponse(userId, row)).toList();
+            return new PageImpl<>(content, pageable, transactionRepository.countWithArchive(userId, filter));
+        }
+
         // Simple path: no filters — just get by userId
-        if (type == null && from == null && to == null && categoryId == null
-                && minAmount == null && maxAmount == null && (q == null || q.isBlank())) {
+        if (type == null && from == null && to == null && categoryId == null && accountId == null
+                && merchantId == null && minAmount == null && maxAmount == null && (q == null || q.isBlank())) {
             return transactionRepository.findByUserIdOrderByOccurredAtDesc(userId, pageable)
                     .map(this::toResponse);
         }
 
         // Simple path: only type filter
-        if (type != null && from == null && to == null && categoryId == null
-                && minAmount == null && maxAmount == null && (q == null || q.isBlank())) {
+        if (type != null && from == null && to == null && categoryId == null && accountId == null
+                && merchantId == null && minAmount == null && maxAmount == null && (q == null || q.isBlank())) {
             return transactionRepository.findByUserIdAndTypeOrderByOccurredAtDesc(userId, type, pageable)
                     .map(this::toResponse);
         }
 
         // Complex path: use Specification
-        Specification<Transaction> spec = (root, query, cb) -> {
-            List<Predicate> predicates = new ArrayList<>();
-            predicates.add(cb.equal(root.get("user").get("id"), userId));
-
-            if (from != null)
-                predicates.add(cb.greaterThanOrEqualTo(root.get("occurredAt"), from));
-            if (to != null)
-                predicates.add(cb.lessThanOrEqualTo(root.get("occurredAt"), to));
-            if (type != null)
-                predicates.add(cb.equal(root.get("type"), type));
-            if (categoryId != null)
-                predicates.add(cb.equal(root.get("category").get("id"), categoryId));
-            if (minAmount != null)
-                predicates.add(cb.greaterThanOrEqualTo(root.get("amount"), minAmount));
-            if (maxAmount != null)
-                predicates.add(cb.lessThanOrEqualTo(root.get("amount"), maxAmount));
-            if (q != null && !q.isBlank()) {
-                predicates.add(cb.like(cb.lower(root.get("note")), "%" + q.toLowerCase() + "%"));
-            }
-
-            query.orderBy(cb.desc(root.get("occurredAt")));
-            return cb.and(predicates.toArray(new Predicate[0]));
-        };
+        Specification<Transaction> spec = TransactionSpecifications.matching(userId, filter);
 
         return transactionRepository.findAll(spec, pageable).map(this::toResponse);
     }
 
+    // Windowed variant: no COUNT(*) unless the client asks for an exact total
+    @Transactional(readOnly = true)
+    public PageResponse<TransactionResponse> getTransactionPage(UUID userId, TransactionFilter filter,
+            Pageable pageable, CountMode countMode) {
+        Specification<Transaction> spec = TransactionSpecifications.matching(userId, filter);
+        int size = pageable.getPageSize();
+        boolean withArchive = transactionArchive.reaches(filter.getFrom());
+        List<TransactionResponse> content;
+        if (withArchive) {
+            content = transactionRepository.findRowsWithArchive(userId, filter, pageable.getOffset(), size + 1)
+                    .stream().map(row -> toResponse(userId, row)).toList();
+        } else {
+            content = transactionRepository.findWindow(spec, pageable.getOffset(), size + 1)
+                    .stream().map(this::toResponse).toList();
+        }
+        boolean hasNext = content.size() > size;
+        if (hasNext)
+            content = content.subList(0, size);
+        return transactionPages.build(content, hasNext, pageable, countMode, userId, filter, spec, withArchive);
+    }
+
+    // Hot or archived, in no particular order
+    @Transactional(readOnly = true)
+    public List<TransactionResponse> getTransactionsByIds(UUID userId, Collection<UUID> ids) {
+        return transactionRepository.findRowsByIds(userId, ids).stream().map(row -> toResponse(userId, row)).toList();
+    }
+
     @Transactional(readOnly = true)
     public TransactionResponse getTransaction(UUID userId, UUID transactionId) {
-        Transaction tx = transactionRepository.findByIdAndUserId(transactionId, userId)
+        return transactionRepository.findByIdAndUserId(transactionId, userId)
+                .map(this::toResponse)
+                .or(() -> transactionRepository.findArchivedRow(transactionId, userId)
+                        .map(row -> toResponse(userId, row)))
                 .orElseThrow(() -> new ResourceNotFoundException("Transaction not found"));
-        return toResponse(tx);
     }
 
     @Transactional
     public TransactionResponse createTransaction(UUID userId, TransactionRequest request) {
+        Merchant merchant = merchantResolver.resolve(userId, request.getNote()).orElse(null);
+        return toResponse(create(userId, request, merchant), merchant);
+    }
+
+    // Group commit for the ingestion pipeline: the whole batch shares one transaction, and an
+    // item that fails validation is reported and skipped without rolling back the others. Checks
+    // run before the item's first write; column bounds are checked on the request, so a database
+    // error here is a race (e.g. a category deleted meanwhile); it fails the whole batch, which
+    // the ingestion writer then retries item by item
+    @Transactional
+    public List<BatchResult> createTransactions(List<BatchItem> items) {
+        List<BatchResult> results = new ArrayList<>(items.size());
+        for (BatchItem item : items) {
+            try {
+                Merchant merchant = merchantResolver.resolve(item.userId(), item.request().getNote()).orElse(null);
+                results.add(new BatchResult(create(item.userId(), item.request(), merchant).getId(), null));
+            } catch (ResourceNotFoundException | BadRequestException | ConflictException e) {
+                results.add(new BatchResult(null, e.getMessage()));
+            }
+        }
+        return results;
+    }
+
+    private Transaction create(UUID userId, TransactionRequest request, Merchant merchant) {
+        transactionArchive.requireWritable(request.getOccurredAt());
         User user = userRepository.getReferenceById(userId);
 
         String currency = request.getCurrency();
@@ -107,6 +187,15 @@ public class TransactionService {
                     .orElseThrow(() -> new ResourceNotFoundException("Category not found"));
         }
 
+        Account account = accountService.resolve(userId, request.getAccountId());
+        Account counterAccount = accountService.resolve(userId, request.getCounterAccountId());
+        validateAccounts(request, account, counterAccount);
+        if (account != null && request.getCurrency() == null)
+            currency = account.getCurrency();
+        if (account != null && !account.getCurrency().equals(currency)) {
+            throw new BadRequestException("Currency must match the account currency");
+        }
+
         Transaction tx = Transaction.builder()
                 .user(user)
                 .type(request.getType())
@@ -114,16 +203,27 @@ public class TransactionService {
                 .currency(currency)
                 .occurredAt(request.getOccurredAt())
                 .category(category)
+                .account(account)
+                .counterAccount(counterAccount)
                 .note(request.getNote())
+                .merchantId(merchant != null ? merchant.getId() : null)
                 .build();
         tx = transactionRepository.save(tx);
-        return toResponse(tx);
+        recordSpending(userId, tx, false);
+        recordSketch(userId, tx, false);
+        Map<UUID, BigDecimal> balanceDeltas = new HashMap<>();
+        collectBalanceDeltas(tx, false, balanceDeltas);
+        accountService.applyBalanceDeltas(balanceDeltas, tx.getOccurredAt());
+        outboxService.record(userId, AggregateType.TRANSACTION, tx.getId(), ChangeType.CREATED, payload(tx));
+        analyticsService.evictPeriods(userId, tx.getOccurredAt());
+        columnStore.recordChanges(userId, List.of(Change.upsert(tx)));
+        return tx;
     }
 
     @Transactional
     public TransactionResponse updateTransaction(UUID userId, UUID transactionId, TransactionRequest request) {
-        Transaction tx = transactionRepository.findByIdAndUserId(transactionId, userId)
-                .orElseThrow(() -> new ResourceNotFoundException("Transaction not found"));
+        Transaction tx = findWritable(userId, transactionId);
+        transactionArchive.requireWritable(request.getOccurredAt());
 
         Category category = null;
         if (request.getCategoryId() != null) {
@@ -131,25 +231,260 @@ public class TransactionService {
                     .orElseThrow(() -> new ResourceNotFoundException("Category not found"));
         }
 
+        Account account = accountService.resolve(userId, request.getAccountId());
+        Account counterAccount = accountService.resolve(userId, request.getCounterAccountId());
+        validateAccounts(request, account, counterAccount);
+        String currency = request.getCurrency() != null ? request.getCurrency()
+                : account != null ? account.getCurrency() : tx.getCurrency();
+        if (account != null && !account.getCurrency().equals(currency)) {
+            throw new BadRequestException("Currency must match the account currency");
+        }
+
+        Merchant merchant = merchantResolver.resolve(userId, request.getNote()).orElse(null);
+        Instant previousOccurredAt = tx.getOccurredAt();
+        Map<String, Object> previous = payload(tx);
+        Map<UUID, BigDecimal> balanceDeltas = new HashMap<>();
+        collectBalanceDeltas(tx, true, balanceDeltas);
+        recordSpending(userId, tx, true);
+        recordSketch(userId, tx, true);
         tx.setType(request.getType());
         tx.setAmount(request.getAmount());
-        if (request.getCurrency() != null)
-            tx.setCurrency(request.getCurrency());
+        tx.setCurrency(currency);
         tx.setOccurredAt(request.getOccurredAt());
         tx.setCategory(category);
+        tx.setAccount(account);
+        tx.setCounterAccount(counterAccount);
         tx.setNote(request.getNote());
+        tx.setMerchantId(merchant != null ? merchant.getId() : null);
         tx = transactionRepository.save(tx);
-        return toResponse(tx);
+        recordSpending(userId, tx, false);
+        recordSketch(userId, tx, false);
+        collectBalanceDeltas(tx, false, balanceDeltas);
+        accountService.applyBalanceDeltas(balanceDeltas,
+                previousOccurredAt.isBefore(tx.getOccurredAt()) ? previousOccurredAt : tx.getOccurredAt());
+        Map<String, Object> payload = payload(tx);
+        payload.put("previous", previous);
+        outboxService.record(userId, AggregateType.TRANSACTION, tx.getId(), ChangeType.UPDATED, payload);
+        analyticsService.evictPeriods(userId, previousOccurredAt, tx.getOccurredAt());
+        columnStore.recordChanges(userId, List.of(Change.upsert(tx)));
+        return toResponse(tx, merchant);
     }
 
     @Transactional
     public void deleteTransaction(UUID userId, UUID transactionId) {
-        Transaction tx = transactionRepository.findByIdAndUserId(transactionId, userId)
-                .orElseThrow(() -> new ResourceNotFoundException("Transaction not found"));
+        Transaction tx = findWritable(userId, transactionId);
         transactionRepository.delete(tx);
+        recordSpending(userId, tx, true);
+        recordSketch(userId, tx, true);
+        Map<UUID, BigDecimal> balanceDeltas = new HashMap<>();
+        collectBalanceDeltas(tx, true, balanceDeltas);
+        accountService.applyBalanceDeltas(balanceDeltas, tx.getOccurredAt());
+        outboxService.record(userId, AggregateType.TRANSACTION, tx.getId(), ChangeType.DELETED, payload(tx));
+        analyticsService.evictPeriods(userId, tx.getOccurredAt());
+        columnStore.recordChanges(userId, List.of(Change.delete(tx.getId())));
+    }
+
+    // One UPDATE over the selection; budget counters move per (category, month), not per row
+    @Transactional
+    public BulkTransactionResponse bulkRecategorize(UUID userId, BulkTransactionRequest request) {
+        TransactionFilter filter = bulkFilter(request);
+        if (request.getCategoryId() != null && !categoryRepository.existsByIdAndUserId(request.getCategoryId(), userId)) {
+            throw new ResourceNotFoundException("Category not found");
+        }
+
+        List<AffectedRow> rows = requireWithinLimit(transactionRepository.recategorizeMatching(
+                userId, filter, request.getIds(), request.getCategoryId(), bulkMaxRows + 1));
+        Map<SpendKey, Long> spending = new HashMap<>();
+        Map<UUID, Map<String, Object>> events = new LinkedHashMap<>();
+        for (AffectedRow row : rows) {
+            long amount = Money.toMinor(row.amount());
+            collectSpending(row.type(), row.previousCategoryId(), row.occurredAt(), -amount, spending);
+            collectSpending(row.type(), row.categoryId(), row.occurredAt(), amount, spending);
+            amountSketchLog.remove(userId, row.previousCategoryId(), row.currency(), row.occurredAt());
+            amountSketchLog.add(userId, row.categoryId(), row.currency(), row.occurredAt(), row.amount());
+            Map<String, Object> payload = payload(row);
+            Map<String, Object> previous = payload(row);
+            previous.remove("categoryId");
+            if (row.previousCategoryId() != null)
+                previous.put("categoryId", row.previousCategoryId().toString());
+            payload.put("previous", previous);
+            events.put(row.id(), payload);
+        }
+        applyBulkEffects(userId, rows, spending, ChangeType.UPDATED, events);
+        return new BulkTransactionResponse(rows.size());
+    }
+
+    // One DELETE ... RETURNING; counters, balances and checkpoints are reversed from the returned rows
+    @Transactional
+    public BulkTransactionResponse bulkDelete(UUID userId, BulkTransactionRequest request) {
+        List<AffectedRow> rows = requireWithinLimit(
+                transactionRepository.deleteMatching(userId, bulkFilter(request), request.getIds(), bulkMaxRows + 1));
+        Map<SpendKey, Long> spending = new HashMap<>();
+        Map<UUID, BigDecimal> balanceDeltas = new HashMap<>();
+        Map<UUID, Map<String, Object>> events = new LinkedHashMap<>();
+        Instant earliest = null;
+        for (AffectedRow row : rows) {
+            collectSpending(row.type(), row.categoryId(), row.occurredAt(), -Money.toMinor(row.amount()), spending);
+            amountSketchLog.remove(userId, row.categoryId(), row.currency(), row.occurredAt());
+            collectBalanceDeltas(row.type(), row.amount().negate(), row.accountId(), row.counterAccountId(),
+                    balanceDeltas);
+            if (row.accountId() != null && (earliest == null || row.occurredAt().isBefore(earliest)))
+                earliest = row.occurredAt();
+            events.put(row.id(), payload(row));
+        }
+        if (earliest != null)
+            accountService.applyBalanceDeltas(balanceDeltas, earliest);
+        applyBulkEffects(userId, rows, spending, ChangeType.DELETED, events);
+        return new BulkTransactionResponse(rows.size());
+    }
+
+    // An empty filter would select everything, so it has to be asked for with ids or real criteria.
+    // Rows before the archive horizon are read-only, so the selection never starts earlier.
+    private TransactionFilter bulkFilter(BulkTransactionRequest request) {
+        boolean hasIds = request.getIds() != null && !request.getIds().isEmpty();
+        boolean hasFilter = request.getFilter() != null && !request.getFilter().isEmpty();
+        if (hasIds == hasFilter) {
+            throw new BadRequestException("Specify either ids or a non-empty filter");
+        }
+        TransactionFilter filter = hasFilter ? request.getFilter() : new TransactionFilter();
+        Instant horizon = transactionArchive.horizon();
+        if (horizon == null || (filter.getFrom() != null && !filter.getFrom().isBefore(horizon)))
+            return filter;
+        return new TransactionFilter(horizon, filter.getTo(), filter.getType(), filter.getCategoryId(),
+                filter.getAccountId(), filter.getMerchantId(), filter.getMinAmount(), filter.getMaxAmount(),
+                filter.getQ());
+    }
+
+    // The statement stops one row past the cap, so an oversized filter costs bulkMaxRows + 1 rows of
+    // memory; the exception rolls the partial write back
+    private List<AffectedRow> requireWithinLimit(List<AffectedRow> rows) {
+        if (rows.size() > bulkMaxRows) {
+            throw new BadRequestException("Filter matches more than " + bulkMaxRows
+                    + " transactions; narrow it or split the range");
+        }
+        return rows;
+    }
+
+    // Archived rows are found but can't change; a write may not touch the period before the horizon
+    private Transaction findWritable(UUID userId, UUID transactionId) {
+        Transaction tx = transactionRepository.findByIdAndUserId(transactionId, userId)
+                .orElseThrow(() -> transactionRepository.findArchivedRow(transactionId, userId).isPresent()
+                        ? new ConflictException("Archived transactions are read-only")
+                        : new ResourceNotFoundException("Transaction not found"));
+        transactionArchive.requireWritable(tx.getOccurredAt());
+        return tx;
+    }
+
+    private void applyBulkEffects(UUID userId, List<AffectedRow> rows, Map<SpendKey, Long> spending,
+            ChangeType changeType, Map<UUID, Map<String, Object>> events) {
+        spending.forEach((key, delta) -> budgetService.recordSpending(userId, key.categoryId(),
+                key.month().atDay(1).atStartOfDay(ZoneOffset.UTC).toInstant(), delta));
+        outboxService.recordAll(userId, AggregateType.TRANSACTION, changeType, events);
+        analyticsService.evictPeriods(userId, rows.stream().map(AffectedRow::occurredAt).toArray(Instant[]::new));
+        columnStore.recordChanges(userId, rows.stream()
+                .map(row -> changeType == ChangeType.DELETED ? Change.delete(row.id()) : Change.upsert(row))
+                .toList());
+    }
+
+    private static void collectSpending(TransactionType type, UUID categoryId, Instant occurredAt, long deltaMinor,
+            Map<SpendKey, Long> spending) {
+        if (type != TransactionType.EXPENSE || categoryId == null)
+            return;
+        spending.merge(new SpendKey(categoryId, YearMonth.from(occurredAt.atZone(ZoneOffset.UTC))), deltaMinor,
+                Math::addExact);
+    }
+
+    private void recordSpending(UUID userId, Transaction tx, boolean reverse) {
+        if (tx.getType() != TransactionType.EXPENSE || tx.getCategory() == null)
+            return;
+        long amount = Money.toMinor(tx.getAmount());
+        budgetService.recordSpending(userId, tx.getCategory().getId(), tx.getOccurredAt(), reverse ? -amount : amount);
+    }
+
+    // A removed amount can't be taken out of a sketch, so removals only mark it for a rebuild
+    private void recordSketch(UUID userId, Transaction tx, boolean remove) {
+        if (tx.getCategory() == null)
+            return;
+        if (remove)
+            amountSketchLog.remove(userId, tx.getCategory().getId(), tx.getCurrency(), tx.getOccurredAt());
+        else
+            amountSketchLog.add(userId, tx.getCategory().getId(), tx.getCurrency(), tx.getOccurredAt(), tx.getAmount());
+    }
+
+    private static void validateAccounts(TransactionRequest request, Account account, Account counterAccount) {
+        if (request.getType() == TransactionType.TRANSFER) {
+            if (account == null || counterAccount == null) {
+                throw new BadRequestException("Transfer requires accountId and counterAccountId");
+            }
+            if (account.getId().equals(counterAccount.getId())) {
+                throw new BadRequestException("Transfer accounts must differ");
+            }
+            if (!account.getCurrency().equals(counterAccount.getCurrency())) {
+                throw new BadRequestException("Transfer accounts must share a currency");
+            }
+        } else if (counterAccount != null) {
+            throw new BadRequestException("counterAccountId is only allowed for transfers");
+        }
+    }
+
+    // Income credits the account, expense debits it, a transfer moves the amount to the counter account
+    private static void collectBalanceDeltas(Transaction tx, boolean reverse, Map<UUID, BigDecimal> deltas) {
+        if (tx.getAccount() == null)
+            return;
+        collectBalanceDeltas(tx.getType(), reverse ? tx.getAmount().negate() : tx.getAmount(),
+                tx.getAccount().getId(),
+                tx.getCounterAccount() != null ? tx.getCounterAccount().getId() : null,
+                deltas);
+    }
+
+    private static void collectBalanceDeltas(TransactionType type, BigDecimal amount, UUID accountId,
+            UUID counterAccountId, Map<UUID, BigDecimal> deltas) {
+        if (accountId == null)
+            return;
+        BigDecimal effect = type == TransactionType.INCOME ? amount : amount.negate();
+        deltas.merge(accountId, effect, BigDecimal::add);
+        if (counterAccountId != null)
+            deltas.merge(counterAccountId, amount, BigDecimal::add);
+    }
+
+    private Map<String, Object> payload(Transaction tx) {
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("type", tx.getType().name());
+        payload.put("amount", tx.getAmount().toPlainString());
+        payload.put("currency", tx.getCurrency());
+        payload.put("occurredAt", tx.getOccurredAt().toString());
+        if (tx.getCategory() != null)
+            payload.put("categoryId", tx.getCategory().getId().toString());
+        if (tx.getAccount() != null)
+            payload.put("accountId", tx.getAccount().getId().toString());
+        if (tx.getCounterAccount() != null)
+            payload.put("counterAccountId", tx.getCounterAccount().getId().toString());
+        if (tx.getMerchantId() != null)
+            payload.put("merchantId", tx.getMerchantId().toString());
+        return payload;
+    }
+
+    private static Map<String, Object> payload(AffectedRow row) {
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("type", row.type().name());
+        payload.put("amount", row.amount().toPlainString());
+        payload.put("currency", row.currency());
+        payload.put("occurredAt", row.occurredAt().toString());
+        if (row.categoryId() != null)
+            payload.put("categoryId", row.categoryId().toString());
+        if (row.accountId() != null)
+            payload.put("accountId", row.accountId().toString());
+        if (row.counterAccountId() != null)
+            payload.put("counterAccountId", row.counterAccountId().toString());
+        return payload;
     }
 
     private TransactionResponse toResponse(Transaction tx) {
+        return toResponse(tx, tx.getMerchant());
+    }
+
+    // The merchant is passed in after a write: a new one can't be loaded through tx until commit
+    private TransactionResponse toResponse(Transaction tx, Merchant merchant) {
         CategoryResponse catResp = null;
         if (tx.getCategory() != null) {
             Category c = tx.getCategory();
@@ -169,9 +504,55 @@ public class TransactionService {
                 .currency(tx.getCurrency())
                 .occurredAt(tx.getOccurredAt())
                 .category(catResp)
+                .accountId(tx.getAccount() != null ? tx.getAccount().getId() : null)
+                .counterAccountId(tx.getCounterAccount() != null ? tx.getCounterAccount().getId() : null)
                 .note(tx.getNote())
+                .merchant(merchant != null ? new MerchantResponse(merchant.getId(), merchant.getName()) : null)
                 .createdAt(tx.getCreatedAt())
                 .updatedAt(tx.getUpdatedAt())
                 .build();
     }
+
+    // A row without a merchant gets the one its note resolves to (see MerchantResolver.withMerchant)
+    private TransactionResponse toResponse(UUID userId, TransactionRow row) {
+        return toResponse(merchantResolver.withMerchant(userId, row));
+    }
+
+    // Package-private for TransactionStreamBenchmark
+    static TransactionResponse toResponse(TransactionRow row) {
+        CategoryResponse category = null;
+        if (row.categoryId() != null) {
+            category = CategoryResponse.builder()
+                    .id(row.categoryId())
+                    .name(row.categoryName())
+                    .type(row.categoryType())
+                    .icon(row.categoryIcon())
+                    .color(row.categoryColor())
+                    .build();
+        }
+
+        return TransactionResponse.builder()
+                .id(row.id())
+                .type(row.type())
+                .amount(row.amount())
+                .currency(row.currency())
+                .occurredAt(row.occurredAt())
+                .category(category)
+                .accountId(row.accountId())
+                .counterAccountId(row.counterAccountId())
+                .note(row.note())
+                .merchant(row.merchantId() != null ? new MerchantResponse(row.merchantId(), row.merchantName()) : null)
+                .createdAt(row.createdAt())
+                .updatedAt(row.updatedAt())
+                .build();
+    }
+
+    public record BatchItem(UUID userId, TransactionRequest request) {
+    }
+
+    public record BatchResult(UUID transactionId, String error) {
+    }
+
+    private record SpendKey(UUID categoryId, YearMonth month) {
+    }
 }
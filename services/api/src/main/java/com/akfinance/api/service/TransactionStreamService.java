@@ -0,0 +1,205 @@
+package com.akfinance.api.service;
+
+import com.akfinance.api.domain.entity.Transaction;
+import com.akfinance.api.domain.enums.CountMode;
+import com.akfinance.api.dto.common.PageResponse;
+import com.akfinance.api.dto.transaction.TransactionFilter;
+import com.akfinance.api.jfr.FlightEvents;
+import com.akfinance.api.repository.TransactionRepository;
+import com.akfinance.api.repository.TransactionRepositoryCustom.TransactionRow;
+import com.akfinance.api.repository.TransactionSpecifications;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Writes a transaction page straight from scalar query rows to the response with a
+ * {@link JsonGenerator}, skipping the entity -> DTO -> tree round trip of the regular endpoint.
+ * The shape is that of {@link PageResponse}, encoded as JSON, CBOR or Smile. In compact mode each
+ * category is written once into a {@code categories} lookup and rows carry only its id. Ranges
+ * that reach the archive read both tables, as the regular endpoint does.
+ */
+@Service
+@RequiredArgsConstructor
+public class TransactionStreamService {
+
+    public static final MediaType APPLICATION_SMILE = new MediaType("application", "x-jackson-smile");
+    private static final List<MediaType> SUPPORTED =
+            List.of(MediaType.APPLICATION_JSON, MediaType.APPLICATION_CBOR, APPLICATION_SMILE);
+
+    private final TransactionRepository transactionRepository;
+    private final TransactionPages transactionPages;
+    private final TransactionArchive transactionArchive;
+    private final MerchantResolver merchantResolver;
+    private final ObjectMapper objectMapper;
+    private final JsonFactory cborFactory = new CBORFactory();
+    private final JsonFactory smileFactory = new SmileFactory();
+
+    // Highest-quality supported type wins; wildcards and unknown types fall back to JSON
+    public MediaType negotiate(String accept) {
+        List<MediaType> accepted = new ArrayList<>(MediaType.parseMediaTypes(accept != null ? accept : "*/*"));
+        accepted.sort(Comparator.comparingDouble(MediaType::getQualityValue).reversed());
+        for (MediaType type : accepted) {
+            for (MediaType supported : SUPPORTED) {
+                if (type.includes(supported))
+                    return supported;
+            }
+        }
+        return MediaType.APPLICATION_JSON;
+    }
+
+    public void writePage(UUID userId, TransactionFilter filter, Pageable pageable, CountMode countMode,
+            boolean compact, MediaType format, OutputStream out) throws IOException {
+        Specification<Transaction> spec = TransactionSpecifications.matching(userId, filter);
+        int size = pageable.getPageSize();
+        boolean withArchive = transactionArchive.reaches(filter.getFrom());
+        List<TransactionRow> rows = withArchive
+                ? transactionRepository.findRowsWithArchive(userId, filter, pageable.getOffset(), size + 1)
+                : transactionRepository.findRows(spec, pageable.getOffset(), size + 1).stream()
+                        .map(TransactionRow::of).toList();
+        boolean hasNext = rows.size() > size;
+        if (hasNext)
+            rows = rows.subList(0, size);
+        PageResponse<TransactionRow> page = transactionPages.build(rows, hasNext, pageable, countMode,
+                userId, filter, spec, withArchive);
+
+        List<TransactionRow> content = rows.stream().map(row -> merchantResolver.withMerchant(userId, row)).toList();
+        FlightEvents.recordSerialization(format.toString(), "TransactionPage",
+                () -> writeBody(out, format, content, page, compact));
+    }
+
+    // Package-private for TransactionStreamBenchmark
+    void writeBody(OutputStream out, MediaType format, List<TransactionRow> rows,
+            PageResponse<TransactionRow> page, boolean compact) throws IOException {
+        try (JsonGenerator gen = factoryFor(format).createGenerator(out, JsonEncoding.UTF8)) {
+            gen.writeStartObject();
+            if (compact)
+                writeCategoryLookup(gen, rows);
+            gen.writeArrayFieldStart("content");
+            for (TransactionRow row : rows) {
+                writeRow(gen, row, compact);
+            }
+            gen.writeEndArray();
+            if (page.getTotalElements() != null) {
+                gen.writeNumberField("totalElements", page.getTotalElements());
+                gen.writeNumberField("totalPages", page.getTotalPages());
+            }
+            gen.writeNumberField("number", page.getNumber());
+            gen.writeNumberField("size", page.getSize());
+            gen.writeNumberField("numberOfElements", page.getNumberOfElements());
+            gen.writeBooleanField("first", page.isFirst());
+            gen.writeBooleanField("last", page.isLast());
+            gen.writeBooleanField("hasNext", page.isHasNext());
+            gen.writeBooleanField("empty", rows.isEmpty());
+            gen.writeStringField("countMode", page.getCountMode().name());
+            gen.writeEndObject();
+        }
+    }
+
+    private JsonFactory factoryFor(MediaType format) {
+        if (MediaType.APPLICATION_CBOR.equalsTypeAndSubtype(format))
+            return cborFactory;
+        if (APPLICATION_SMILE.equalsTypeAndSubtype(format))
+            return smileFactory;
+        return objectMapper.getFactory();
+    }
+
+    private static void writeCategoryLookup(JsonGenerator gen, List<TransactionRow> rows) throws IOException {
+        Set<UUID> written = new HashSet<>();
+        gen.writeObjectFieldStart("categories");
+        for (TransactionRow row : rows) {
+            UUID categoryId = row.categoryId();
+            if (categoryId == null || !written.add(categoryId))
+                continue;
+            gen.writeObjectFieldStart(categoryId.toString());
+            writeCategoryFields(gen, row);
+            gen.writeEndObject();
+        }
+        gen.writeEndObject();
+    }
+
+    private static void writeRow(JsonGenerator gen, TransactionRow row, boolean compact) throws IOException {
+        gen.writeStartObject();
+        writeUuid(gen, "id", row.id());
+        gen.writeStringField("type", row.type().name());
+        gen.writeFieldName("amount");
+        gen.writeNumber(row.amount());
+        gen.writeStringField("currency", row.currency());
+        writeInstant(gen, "occurredAt", row.occurredAt());
+
+        UUID categoryId = row.categoryId();
+        if (categoryId != null && compact) {
+            // A key into the categories lookup, whose field names are strings in every format
+            gen.writeStringField("categoryId", categoryId.toString());
+        } else if (categoryId != null) {
+            gen.writeObjectFieldStart("category");
+            writeUuid(gen, "id", categoryId);
+            writeCategoryFields(gen, row);
+            gen.writeEndObject();
+        }
+
+        if (row.accountId() != null)
+            writeUuid(gen, "accountId", row.accountId());
+        if (row.counterAccountId() != null)
+            writeUuid(gen, "counterAccountId", row.counterAccountId());
+        writeOptional(gen, "note", row.note());
+        if (row.merchantId() != null) {
+            gen.writeObjectFieldStart("merchant");
+            writeUuid(gen, "id", row.merchantId());
+            gen.writeStringField("name", row.merchantName());
+            gen.writeEndObject();
+        }
+        writeInstant(gen, "createdAt", row.createdAt());
+        writeInstant(gen, "updatedAt", row.updatedAt());
+        gen.writeEndObject();
+    }
+
+    private static void writeCategoryFields(JsonGenerator gen, TransactionRow row) throws IOException {
+        gen.writeStringField("name", row.categoryName());
+        gen.writeStringField("type", row.categoryType().name());
+        writeOptional(gen, "icon", row.categoryIcon());
+        writeOptional(gen, "color", row.categoryColor());
+    }
+
+    // Null fields are omitted, as with the application's non_null inclusion
+    private static void writeOptional(JsonGenerator gen, String field, String value) throws IOException {
+        if (value != null)
+            gen.writeStringField(field, value);
+    }
+
+    // Binary formats get the 16 raw bytes, as Jackson's own UUIDSerializer does
+    private static void writeUuid(JsonGenerator gen, String field, UUID value) throws IOException {
+        gen.writeFieldName(field);
+        if (!gen.canWriteBinaryNatively()) {
+            gen.writeString(value.toString());
+            return;
+        }
+        byte[] bytes = new byte[16];
+        ByteBuffer.wrap(bytes).putLong(value.getMostSignificantBits()).putLong(value.getLeastSignificantBits());
+        gen.writeBinary(bytes);
+    }
+
+    private static void writeInstant(JsonGenerator gen, String field, Instant value) throws IOException {
+        if (value != null)
+            gen.writeStringField(field, value.toString());
+    }
+}
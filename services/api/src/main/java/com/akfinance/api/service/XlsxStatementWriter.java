@@ -0,0 +1,115 @@
+package com.akfinance.api.service;
+
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * POI streaming workbook: only the last {@code WINDOW} rows of a sheet stay in memory, older ones
+ * are flushed to a temp file that {@link #close} assembles into the output and then deletes.
+ */
+final class XlsxStatementWriter implements StatementWriter {
+
+    private static final int WINDOW = 100;
+
+    private final OutputStream out;
+    private final SXSSFWorkbook workbook = new SXSSFWorkbook(WINDOW);
+    private final CellStyle money;
+    private final CellStyle date;
+    private SXSSFSheet transactions;
+    private int rowIndex;
+
+    XlsxStatementWriter(OutputStream out) {
+        this.out = out;
+        this.money = workbook.createCellStyle();
+        this.money.setDataFormat(workbook.createDataFormat().getFormat("#,##0.00"));
+        this.date = workbook.createCellStyle();
+        this.date.setDataFormat(workbook.createDataFormat().getFormat("yyyy-mm-dd hh:mm"));
+    }
+
+    @Override
+    public void begin(YearMonth month, String owner) {
+        transactions = workbook.createSheet("Transactions " + month);
+        header(transactions, "Date (UTC)", "Type", "Category", "Account", "Amount", "Currency", "Note");
+        rowIndex = 1;
+    }
+
+    @Override
+    public void transaction(Line line) {
+        Row row = transactions.createRow(rowIndex++);
+        row.createCell(0).setCellValue(LocalDateTime.ofInstant(line.occurredAt(), ZoneOffset.UTC));
+        row.getCell(0).setCellStyle(date);
+        row.createCell(1).setCellValue(line.type().name());
+        text(row, 2, line.category());
+        text(row, 3, line.account());
+        row.createCell(4).setCellValue(line.amount().doubleValue());
+        row.getCell(4).setCellStyle(money);
+        row.createCell(5).setCellValue(line.currency());
+        text(row, 6, line.note());
+    }
+
+    @Override
+    public void categoryTotals(List<CategoryTotal> totals) {
+        SXSSFSheet sheet = workbook.createSheet("Categories");
+        header(sheet, "Category", "Currency", "Income", "Expense", "Count");
+        int r = 1;
+        for (CategoryTotal total : totals) {
+            Row row = sheet.createRow(r++);
+            row.createCell(0).setCellValue(total.category());
+            row.createCell(1).setCellValue(total.currency());
+            number(row, 2, total.income().doubleValue());
+            number(row, 3, total.expense().doubleValue());
+            row.createCell(4).setCellValue(total.count());
+        }
+    }
+
+    @Override
+    public void budgets(List<BudgetLine> budgets) {
+        SXSSFSheet sheet = workbook.createSheet("Budgets");
+        header(sheet, "Category", "Currency", "Limit", "Spent", "Progress %");
+        int r = 1;
+        for (BudgetLine budget : budgets) {
+            Row row = sheet.createRow(r++);
+            row.createCell(0).setCellValue(budget.category());
+            row.createCell(1).setCellValue(budget.currency());
+            number(row, 2, budget.limit().doubleValue());
+            number(row, 3, budget.spent().doubleValue());
+            row.createCell(4).setCellValue(budget.progressPercent());
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            workbook.write(out);
+        } finally {
+            workbook.dispose();
+            workbook.close();
+        }
+    }
+
+    private static void header(SXSSFSheet sheet, String... names) {
+        Row row = sheet.createRow(0);
+        for (int i = 0; i < names.length; i++) {
+            row.createCell(i).setCellValue(names[i]);
+        }
+    }
+
+    private static void text(Row row, int column, String value) {
+        if (value != null)
+            row.createCell(column).setCellValue(value);
+    }
+
+    private void number(Row row, int column, double value) {
+        row.createCell(column).setCellValue(value);
+        row.getCell(column).setCellStyle(money);
+    }
+}
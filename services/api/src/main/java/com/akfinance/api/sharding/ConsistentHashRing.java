@@ -0,0 +1,42 @@
+package com.akfinance.api.sharding;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Placement for new users. Each shard owns {@code weight * virtualNodes} points on the ring, so
+ * adding a shard only claims the keys that land just before its points.
+ */
+final class ConsistentHashRing {
+
+    private final NavigableMap<Long, Integer> ring = new TreeMap<>();
+
+    ConsistentHashRing(Map<Integer, Integer> weights, int virtualNodes) {
+        weights.forEach((shard, weight) -> {
+            for (int i = 0; i < weight * virtualNodes; i++)
+                ring.put(hash("shard-" + shard + "#" + i), shard);
+        });
+        if (ring.isEmpty()) {
+            throw new IllegalStateException("No shard accepts new users");
+        }
+    }
+
+    int shardFor(String key) {
+        Map.Entry<Long, Integer> entry = ring.ceilingEntry(hash(key));
+        return (entry != null ? entry : ring.firstEntry()).getValue();
+    }
+
+    private static long hash(String key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("MD5").digest(key.getBytes(StandardCharsets.UTF_8));
+            return ByteBuffer.wrap(digest).getLong();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.akfinance.api.sharding;
+
+import java.util.function.Supplier;
+
+/**
+ * Shard bound to the current thread. It must be set before a transaction starts, because the
+ * routing data source picks the shard when the connection is acquired. Nothing bound means the
+ * directory shard (or the only database when sharding is off).
+ */
+public final class ShardContext {
+
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    public static Integer current() {
+        return CURRENT.get();
+    }
+
+    public static void bind(Integer shard) {
+        if (shard == null)
+            CURRENT.remove();
+        else
+            CURRENT.set(shard);
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+
+    public static <T> T call(Integer shard, Supplier<T> action) {
+        Integer previous = CURRENT.get();
+        bind(shard);
+        try {
+            return action.get();
+        } finally {
+            bind(previous);
+        }
+    }
+
+    public static void run(Integer shard, Runnable action) {
+        call(shard, () -> {
+            action.run();
+            return null;
+        });
+    }
+}
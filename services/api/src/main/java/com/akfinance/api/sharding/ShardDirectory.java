@@ -0,0 +1,107 @@
+package com.akfinance.api.sharding;
+
+import com.akfinance.api.exception.DuplicateResourceException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * The {@code user_shards} table: which shard holds each user, indexed by id and by email.
+ * Statements run in autocommit on the directory shard's own pool, outside any shard transaction.
+ * Id lookups are cached for {@code directory-cache-ttl}, which bounds how long another instance
+ * can keep routing to a shard after a move has started.
+ */
+public class ShardDirectory {
+
+    private final JdbcTemplate jdbc;
+    private final long ttlNanos;
+    private final Map<UUID, Cached> cache;
+
+    public ShardDirectory(DataSource dataSource, Duration ttl, int maxUsers) {
+        this.jdbc = new JdbcTemplate(dataSource);
+        this.ttlNanos = ttl.toNanos();
+        this.cache = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, Cached> eldest) {
+                return size() > maxUsers;
+            }
+        });
+    }
+
+    public Optional<Entry> find(UUID userId) {
+        Cached cached = cache.get(userId);
+        if (cached != null && System.nanoTime() - cached.loadedAt() < ttlNanos)
+            return Optional.of(cached.entry());
+
+        Optional<Entry> entry = jdbc.query("SELECT user_id, shard, moving FROM user_shards WHERE user_id = ?",
+                (rs, i) -> new Entry(rs.getObject(1, UUID.class), rs.getInt(2), rs.getBoolean(3)), userId)
+                .stream().findFirst();
+        entry.ifPresentOrElse(e -> cache.put(userId, new Cached(e, System.nanoTime())), () -> cache.remove(userId));
+        return entry;
+    }
+
+    // Not cached: login is rare next to authenticated requests
+    public Optional<Entry> findByEmail(String email) {
+        return jdbc.query("SELECT user_id, shard, moving FROM user_shards WHERE email = ?",
+                (rs, i) -> new Entry(rs.getObject(1, UUID.class), rs.getInt(2), rs.getBoolean(3)), email)
+                .stream().findFirst();
+    }
+
+    public List<UUID> findUsersOnShard(int shard, int limit) {
+        return jdbc.queryForList("SELECT user_id FROM user_shards WHERE shard = ? AND NOT moving LIMIT ?",
+                UUID.class, shard, limit);
+    }
+
+    // Called inside the shard transaction that creates the user; the row is removed again if it rolls back
+    public void assign(UUID userId, String email, int shard) {
+        try {
+            jdbc.update("INSERT INTO user_shards (user_id, email, shard) VALUES (?, ?, ?)", userId, email, shard);
+        } catch (DuplicateKeyException e) {
+            throw new DuplicateResourceException("Email already registered");
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED)
+                        jdbc.update("DELETE FROM user_shards WHERE user_id = ?", userId);
+                }
+            });
+        }
+    }
+
+    public boolean markMoving(UUID userId, int fromShard) {
+        cache.remove(userId);
+        return jdbc.update("""
+                    UPDATE user_shards SET moving = TRUE, updated_at = NOW()
+                    WHERE user_id = ? AND shard = ? AND NOT moving
+                """, userId, fromShard) == 1;
+    }
+
+    public void completeMove(UUID userId, int toShard) {
+        cache.remove(userId);
+        jdbc.update("UPDATE user_shards SET shard = ?, moving = FALSE, updated_at = NOW() WHERE user_id = ?",
+                toShard, userId);
+    }
+
+    public void abortMove(UUID userId) {
+        cache.remove(userId);
+        jdbc.update("UPDATE user_shards SET moving = FALSE, updated_at = NOW() WHERE user_id = ?", userId);
+    }
+
+    public record Entry(UUID userId, int shard, boolean moving) {
+    }
+
+    private record Cached(Entry entry, long loadedAt) {
+    }
+}
@@ -0,0 +1,70 @@
+package com.akfinance.api.sharding;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Command-line shard move, run as a separate process next to the live instances:
+ * <pre>
+ * java -jar api.jar --spring.main.web-application-type=none --app.sharding.enabled=true \
+ *     --app.sharding.move.to=2 --app.sharding.move.users=&lt;uuid&gt;,&lt;uuid&gt;
+ * java -jar api.jar ... --app.sharding.move.to=2 --app.sharding.move.from=0 --app.sharding.move.limit=100
+ * </pre>
+ * Users are moved one at a time, so each is unavailable only for its own copy. Exits when done.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "app.sharding.move", name = "to")
+public class ShardMoveRunner implements ApplicationRunner {
+
+    private final ShardMoveService moveService;
+    private final ConfigurableApplicationContext context;
+
+    @Value("${app.sharding.move.to}")
+    private int toShard;
+
+    @Value("${app.sharding.move.users:}")
+    private List<UUID> users;
+
+    @Value("${app.sharding.move.from:-1}")
+    private int fromShard;
+
+    @Value("${app.sharding.move.limit:100}")
+    private int limit;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        List<UUID> toMove = new ArrayList<>(users);
+        if (fromShard >= 0)
+            toMove.addAll(moveService.usersOnShard(fromShard, limit));
+
+        int failed = 0;
+        for (UUID userId : toMove) {
+            try {
+                moveService.move(userId, toShard);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failed++;
+                break;
+            } catch (RuntimeException e) {
+                log.error("Failed to move user {} to shard {}", userId, toShard, e);
+                failed++;
+            }
+        }
+        log.info("Shard move finished: {} users, {} failed", toMove.size(), failed);
+        int exitCode = failed == 0 ? 0 : 1;
+        System.exit(SpringApplication.exit(context, () -> exitCode));
+    }
+}
@@ -0,0 +1,146 @@
+package com.akfinance.api.sharding;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Moves one user's rows between shards while everyone else keeps working. The user is marked
+ * moving in the directory (their requests get 503), the move waits out every instance's
+ * directory cache, copies the rows in one target transaction, flips the directory entry and
+ * only then deletes the source rows.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(prefix = "app.sharding", name = "enabled", havingValue = "true")
+public class ShardMoveService {
+
+    // Parent tables first; outbox ids are shard-local, so pending events are re-sequenced on the target
+    private static final List<Copy> COPIES = List.of(
+            new Copy("users", "SELECT * FROM users WHERE id = ?", List.of()),
+            new Copy("user_preferences", "SELECT * FROM user_preferences WHERE user_id = ?", List.of()),
+            new Copy("api_keys", "SELECT * FROM api_keys WHERE user_id = ?", List.of()),
+            new Copy("categories", "SELECT * FROM categories WHERE user_id = ?", List.of()),
+            new Copy("accounts", "SELECT * FROM accounts WHERE user_id = ?", List.of()),
+            new Copy("account_balance_checkpoints", """
+                        SELECT c.* FROM account_balance_checkpoints c
+                        JOIN accounts a ON a.id = c.account_id
+                        WHERE a.user_id = ?
+                    """, List.of()),
+            new Copy("budgets", "SELECT * FROM budgets WHERE user_id = ?", List.of()),
+            new Copy("amount_sketches", "SELECT * FROM amount_sketches WHERE user_id = ?", List.of()),
+            // The user's fallback merchants; the shared ones are seeded on every shard
+            new Copy("merchants", "SELECT * FROM merchants WHERE user_id = ?", List.of()),
+            new Copy("transactions", "SELECT * FROM transactions WHERE user_id = ?", List.of()),
+            new Copy("transactions_archive", "SELECT * FROM transactions_archive WHERE user_id = ?", List.of()),
+            new Copy("budget_alerts", "SELECT * FROM budget_alerts WHERE user_id = ?", List.of()),
+            new Copy("sync_state", "SELECT * FROM sync_state WHERE user_id = ?", List.of()),
+            new Copy("sync_changes", "SELECT * FROM sync_changes WHERE user_id = ?", List.of()),
+            new Copy("closed_period_versions", "SELECT * FROM closed_period_versions WHERE user_id = ?", List.of()),
+            // A job running on the source during the move is reclaimed on the target once its lease expires
+            new Copy("jobs", "SELECT * FROM jobs WHERE user_id = ?", List.of()),
+            new Copy("job_results", """
+                        SELECT r.* FROM job_results r
+                        JOIN jobs j ON j.id = r.job_id
+                        WHERE j.user_id = ?
+                    """, List.of()),
+            new Copy("ingest_acks", "SELECT * FROM ingest_acks WHERE user_id = ?", List.of()),
+            new Copy("outbox_events",
+                    "SELECT * FROM outbox_events WHERE user_id = ? AND dispatched_at IS NULL ORDER BY id",
+                    List.of("id")));
+
+    private final ShardRoutingDataSource dataSource;
+    private final ShardDirectory directory;
+    private final ShardingProperties properties;
+
+    public ShardMoveService(ShardRoutingDataSource dataSource, ShardDirectory directory,
+            ShardingProperties properties) {
+        this.dataSource = dataSource;
+        this.directory = directory;
+        this.properties = properties;
+    }
+
+    public List<UUID> usersOnShard(int shard, int limit) {
+        return directory.findUsersOnShard(shard, limit);
+    }
+
+    public void move(UUID userId, int toShard) throws InterruptedException {
+        DataSource target = dataSource.getShard(toShard);
+        ShardDirectory.Entry entry = directory.find(userId)
+                .orElseThrow(() -> new IllegalArgumentException("User " + userId + " is not in the directory"));
+        if (entry.shard() == toShard) {
+            log.info("User {} is already on shard {}", userId, toShard);
+            return;
+        }
+        int fromShard = entry.shard();
+        DataSource source = dataSource.getShard(fromShard);
+        if (!directory.markMoving(userId, fromShard)) {
+            throw new IllegalStateException("User " + userId + " is already being moved");
+        }
+
+        try {
+            Thread.sleep(properties.directoryCacheTtl().plus(properties.moveDrainGrace()).toMillis());
+            int rows = copy(userId, source, target);
+            directory.completeMove(userId, toShard);
+            log.info("Moved user {} from shard {} to shard {} ({} rows)", userId, fromShard, toShard, rows);
+        } catch (RuntimeException | InterruptedException e) {
+            directory.abortMove(userId);
+            throw e;
+        }
+
+        try {
+            deleteSource(userId, source);
+        } catch (RuntimeException e) {
+            // The directory already points at the target, so leftovers are unreachable, just not reclaimed
+            log.error("User {} moved but source rows on shard {} were not deleted", userId, fromShard, e);
+        }
+    }
+
+    private int copy(UUID userId, DataSource source, DataSource target) {
+        JdbcTemplate from = new JdbcTemplate(source);
+        JdbcTemplate to = new JdbcTemplate(target);
+        TransactionTemplate tx = new TransactionTemplate(new DataSourceTransactionManager(target));
+        Integer copied = tx.execute(status -> {
+            int total = 0;
+            for (Copy copy : COPIES) {
+                List<Map<String, Object>> rows = from.queryForList(copy.select(), userId);
+                if (rows.isEmpty())
+                    continue;
+                List<String> columns = rows.get(0).keySet().stream()
+                        .filter(c -> !copy.skipColumns().contains(c))
+                        .toList();
+                String insert = "INSERT INTO " + copy.table()
+                        + " (" + String.join(", ", columns) + ") VALUES ("
+                        + columns.stream().map(c -> "?").collect(Collectors.joining(", ")) + ")";
+                to.batchUpdate(insert, rows.stream()
+                        .map(row -> columns.stream().map(row::get).toArray())
+                        .toList());
+                total += rows.size();
+            }
+            return total;
+        });
+        return copied != null ? copied : 0;
+    }
+
+    // Transactions go first: they reference accounts with ON DELETE RESTRICT
+    private void deleteSource(UUID userId, DataSource source) {
+        JdbcTemplate jdbc = new JdbcTemplate(source);
+        new TransactionTemplate(new DataSourceTransactionManager(source)).executeWithoutResult(status -> {
+            jdbc.update("DELETE FROM transactions WHERE user_id = ?", userId);
+            jdbc.update("DELETE FROM outbox_events WHERE user_id = ?", userId);
+            jdbc.update("DELETE FROM users WHERE id = ?", userId);
+        });
+    }
+
+    private record Copy(String table, String select, List<String> skipColumns) {
+    }
+}
@@ -0,0 +1,90 @@
+package com.akfinance.api.sharding;
+
+import com.akfinance.api.exception.ServiceOverloadedException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.IntConsumer;
+import java.util.stream.Collectors;
+
+/**
+ * Maps users to shards. Existing users are looked up in the {@link ShardDirectory}; new users are
+ * placed on a consistent-hash ring over the shards that accept them. With sharding off every user
+ * is on the single database and none of this touches the directory.
+ */
+@Component
+public class ShardRouter {
+
+    private final boolean enabled;
+    private final ShardDirectory directory;
+    private final List<Integer> shardIds;
+    private final ConsistentHashRing ring;
+
+    public ShardRouter(ShardingProperties properties, ObjectProvider<ShardDirectory> directory) {
+        this.enabled = properties.enabled();
+        if (!enabled) {
+            this.directory = null;
+            this.shardIds = List.of(properties.directoryShard());
+            this.ring = null;
+            return;
+        }
+        this.directory = directory.getObject();
+        this.shardIds = properties.shards().stream().map(ShardingProperties.Shard::id).sorted().toList();
+        Map<Integer, Integer> weights = properties.shards().stream()
+                .filter(ShardingProperties.Shard::acceptsNewUsers)
+                .collect(Collectors.toMap(ShardingProperties.Shard::id, ShardingProperties.Shard::weight));
+        this.ring = new ConsistentHashRing(weights, properties.virtualNodes());
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public List<Integer> shardIds() {
+        return shardIds;
+    }
+
+    // Empty for a user missing from the directory; 503 while the user is being moved
+    public Optional<Integer> shardFor(UUID userId) {
+        if (!enabled)
+            return Optional.of(shardIds.get(0));
+        return directory.find(userId).map(ShardRouter::routable);
+    }
+
+    public Optional<Integer> shardForEmail(String email) {
+        if (!enabled)
+            return Optional.of(shardIds.get(0));
+        return directory.findByEmail(email).map(ShardRouter::routable);
+    }
+
+    // The id is not known before the user row exists, so placement hashes the email instead
+    public int placementFor(String email) {
+        if (!enabled)
+            return shardIds.get(0);
+        return ring.shardFor(email.toLowerCase(Locale.ROOT));
+    }
+
+    // Must run inside the shard transaction that creates the user
+    public void register(UUID userId, String email, int shard) {
+        if (enabled)
+            directory.assign(userId, email, shard);
+    }
+
+    // For jobs that are not scoped to a user: runs the action once per shard with that shard bound
+    public void forEachShard(IntConsumer action) {
+        for (int shard : shardIds)
+            ShardContext.run(shard, () -> action.accept(shard));
+    }
+
+    private static int routable(ShardDirectory.Entry entry) {
+        if (entry.moving()) {
+            throw new ServiceOverloadedException("Account data is being moved, retry shortly");
+        }
+        return entry.shard();
+    }
+}
@@ -0,0 +1,38 @@
+package com.akfinance.api.sharding;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.Map;
+import java.util.TreeMap;
+
+public class ShardRoutingDataSource extends AbstractRoutingDataSource {
+
+    private final Map<Integer, DataSource> shards;
+
+    public ShardRoutingDataSource(Map<Integer, DataSource> shards, int defaultShard) {
+        this.shards = new TreeMap<>(shards);
+        setTargetDataSources(Map.copyOf(shards));
+        setDefaultTargetDataSource(shards.get(defaultShard));
+        // An unknown shard id is a routing bug, not something to silently send to the default
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return ShardContext.current();
+    }
+
+    public Map<Integer, DataSource> getShards() {
+        return shards;
+    }
+
+    public DataSource getShard(int id) {
+        DataSource shard = shards.get(id);
+        if (shard == null) {
+            throw new IllegalArgumentException("Unknown shard " + id);
+        }
+        return shard;
+    }
+}
@@ -0,0 +1,90 @@
+package com.akfinance.api.sharding;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.flywaydb.core.Flyway;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.context.annotation.Primary;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * With {@code app.sharding.enabled=true} the application data source becomes a
+ * {@link ShardRoutingDataSource} over one pool per configured shard, and {@code spring.datasource}
+ * is ignored. Every shard gets the full schema; the directory shard additionally gets
+ * {@code db/directory}.
+ */
+@Configuration
+@EnableConfigurationProperties(ShardingProperties.class)
+@ImportRuntimeHints(ShardingConfig.DirectoryMigrationHints.class)
+public class ShardingConfig {
+
+    @Bean
+    @Primary
+    @ConditionalOnProperty(prefix = "app.sharding", name = "enabled", havingValue = "true")
+    public ShardRoutingDataSource dataSource(ShardingProperties properties) {
+        Map<Integer, DataSource> shards = new LinkedHashMap<>();
+        for (ShardingProperties.Shard shard : properties.shards()) {
+            HikariDataSource pool = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(shard.url())
+                    .username(shard.username())
+                    .password(shard.password())
+                    .build();
+            pool.setPoolName("shard-" + shard.id());
+            pool.setMaximumPoolSize(shard.maxPoolSize());
+            if (shards.put(shard.id(), pool) != null) {
+                throw new IllegalStateException("Duplicate shard id " + shard.id());
+            }
+        }
+        if (!shards.containsKey(properties.directoryShard())) {
+            throw new IllegalStateException("Directory shard " + properties.directoryShard() + " is not configured");
+        }
+        return new ShardRoutingDataSource(shards, properties.directoryShard());
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "app.sharding", name = "enabled", havingValue = "true")
+    public ShardDirectory shardDirectory(ShardRoutingDataSource dataSource, ShardingProperties properties) {
+        return new ShardDirectory(dataSource.getShard(properties.directoryShard()),
+                properties.directoryCacheTtl(), properties.directoryCacheMaxUsers());
+    }
+
+    // Boot migrates only the unrouted (directory) shard; the others and the directory itself are done here
+    @Bean
+    @ConditionalOnProperty(prefix = "app.sharding", name = "enabled", havingValue = "true")
+    public FlywayMigrationStrategy shardedMigration(ShardRoutingDataSource dataSource, ShardingProperties properties) {
+        return flyway -> {
+            flyway.migrate();
+            dataSource.getShards().forEach((id, shard) -> {
+                if (id != properties.directoryShard())
+                    Flyway.configure().configuration(flyway.getConfiguration()).dataSource(shard).load().migrate();
+            });
+            Flyway.configure().configuration(flyway.getConfiguration())
+                    .dataSource(dataSource.getShard(properties.directoryShard()))
+                    .locations("classpath:db/directory")
+                    .table("flyway_directory_history")
+                    .baselineVersion("0")
+                    .placeholders(Map.of("directoryShard", String.valueOf(properties.directoryShard())))
+                    .load()
+                    .migrate();
+        };
+    }
+
+    // Boot only registers db/migration for native images; the directory location is ours
+    static class DirectoryMigrationHints implements RuntimeHintsRegistrar {
+        @Override
+        public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+            hints.resources().registerPattern("db/directory/*.sql");
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.akfinance.api.sharding;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+@ConfigurationProperties(prefix = "app.sharding")
+public record ShardingProperties(
+        boolean enabled,
+        // Shard whose database also holds the user_shards directory and serves unrouted connections
+        @DefaultValue("0") int directoryShard,
+        @DefaultValue("PT30S") Duration directoryCacheTtl,
+        @DefaultValue("100000") int directoryCacheMaxUsers,
+        @DefaultValue("64") int virtualNodes,
+        // Extra wait after the cache TTL so requests routed before a move started can finish
+        @DefaultValue("PT5S") Duration moveDrainGrace,
+        @DefaultValue List<Shard> shards) {
+
+    public record Shard(
+            int id,
+            String url,
+            String username,
+            String password,
+            @DefaultValue("1") int weight,
+            // False keeps the shard serving existing users but out of placement for new ones
+            @DefaultValue("true") boolean acceptsNewUsers,
+            @DefaultValue("10") int maxPoolSize) {
+    }
+}
@@ -0,0 +1,14 @@
+-- V1__create_user_shards.sql (directory shard only)
+CREATE TABLE user_shards (
+    user_id UUID PRIMARY KEY,
+    email VARCHAR(255) NOT NULL UNIQUE,
+    shard INT NOT NULL,
+    moving BOOLEAN NOT NULL DEFAULT FALSE,
+    updated_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT NOW()
+);
+
+CREATE INDEX idx_user_shards_shard ON user_shards(shard);
+
+-- Users from before sharding was enabled live on the directory shard's database
+INSERT INTO user_shards (user_id, email, shard)
+SELECT id, email, ${directoryShard} FROM users;
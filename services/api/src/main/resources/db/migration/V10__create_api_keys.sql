@@ -0,0 +1,19 @@
+-- V10__create_api_keys.sql
+-- Keys for machine clients. Only an HMAC-SHA256 of the key (keyed with app.api-keys.pepper) is
+-- stored: the key is random, so a fast hash is enough and verification is one unique-index probe.
+-- Revoked keys are kept for the audit trail.
+CREATE TABLE api_keys (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    user_id UUID NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    name VARCHAR(100) NOT NULL,
+    key_hash BYTEA NOT NULL,
+    hint VARCHAR(10) NOT NULL,
+    scopes JSONB NOT NULL,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT NOW(),
+    expires_at TIMESTAMP WITH TIME ZONE,
+    last_used_at TIMESTAMP WITH TIME ZONE,
+    revoked_at TIMESTAMP WITH TIME ZONE
+);
+
+CREATE UNIQUE INDEX idx_api_keys_hash ON api_keys(key_hash);
+CREATE INDEX idx_api_keys_user ON api_keys(user_id, created_at DESC);
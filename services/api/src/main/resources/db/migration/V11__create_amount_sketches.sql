@@ -0,0 +1,31 @@
+-- V11__create_amount_sketches.sql
+-- Mergeable quantile sketches (t-digest) of transaction amounts per user, month, category and
+-- currency, so percentiles over a range merge a few blobs instead of sorting every row. New
+-- transactions are merged in at commit; a sketch can't forget a value, so updates and deletes
+-- mark it stale and AmountSketchJob rebuilds it from that month's rows. A NULL sketch is empty.
+CREATE TABLE amount_sketches (
+    user_id UUID NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    month DATE NOT NULL,
+    category_id UUID NOT NULL REFERENCES categories(id) ON DELETE CASCADE,
+    currency VARCHAR(3) NOT NULL,
+    count BIGINT NOT NULL DEFAULT 0,
+    sketch BYTEA,
+    stale BOOLEAN NOT NULL DEFAULT FALSE,
+    updated_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT NOW(),
+    PRIMARY KEY (user_id, month, category_id, currency)
+);
+
+CREATE INDEX idx_amount_sketches_stale ON amount_sketches(updated_at) WHERE stale;
+
+-- Existing data starts stale and is built by the job; reads rebuild stale months on the fly meanwhile
+INSERT INTO amount_sketches (user_id, month, category_id, currency, count, stale)
+SELECT user_id, month, category_id, currency, COUNT(*), TRUE
+FROM (
+    SELECT user_id, date_trunc('month', occurred_at AT TIME ZONE 'UTC')::date AS month, category_id, currency
+    FROM transactions WHERE category_id IS NOT NULL
+    UNION ALL
+    SELECT a.user_id, date_trunc('month', a.occurred_at AT TIME ZONE 'UTC')::date, a.category_id, a.currency
+    FROM transactions_archive a
+    JOIN categories c ON c.id = a.category_id
+) existing
+GROUP BY user_id, month, category_id, currency;
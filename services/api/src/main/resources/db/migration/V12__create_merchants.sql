@@ -0,0 +1,81 @@
+-- V12__create_merchants.sql
+-- Canonical merchants extracted from transaction notes. A merchant's id is md5('merchant:' || key),
+-- so the same merchant has the same id on every shard and rows can move between shards as they
+-- are. Aliases are normalized note fragments (lower case, 'ё' as 'е', words separated by single
+-- spaces) that MerchantMatcher looks for; notes matching no alias get a merchant from
+-- MerchantNormalizer's fallback key, inserted on first use right before the writing transaction
+-- commits.
+CREATE TABLE merchants (
+    id UUID PRIMARY KEY,
+    key VARCHAR(100) NOT NULL UNIQUE,
+    name VARCHAR(100) NOT NULL,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT NOW()
+);
+
+CREATE TABLE merchant_aliases (
+    alias VARCHAR(100) PRIMARY KEY,
+    merchant_id UUID NOT NULL REFERENCES merchants(id)
+);
+
+INSERT INTO merchants (id, key, name)
+SELECT md5('merchant:' || key)::uuid, key, name
+FROM (VALUES
+    ('pyaterochka', 'Пятёрочка'),
+    ('magnit', 'Магнит'),
+    ('perekrestok', 'Перекрёсток'),
+    ('vkusvill', 'ВкусВилл'),
+    ('lenta', 'Лента'),
+    ('auchan', 'Ашан'),
+    ('yandex-taxi', 'Яндекс Такси'),
+    ('yandex-eda', 'Яндекс Еда'),
+    ('ozon', 'Ozon'),
+    ('wildberries', 'Wildberries'),
+    ('starbucks', 'Starbucks'),
+    ('vkusno-i-tochka', 'Вкусно — и точка'),
+    ('kfc', 'KFC'),
+    ('netflix', 'Netflix'),
+    ('spotify', 'Spotify'),
+    ('apple', 'Apple'),
+    ('steam', 'Steam'),
+    ('aeroflot', 'Аэрофлот'),
+    ('rzd', 'РЖД'),
+    ('mts', 'МТС'),
+    ('megafon', 'МегаФон'),
+    ('beeline', 'Билайн')
+) m(key, name);
+
+INSERT INTO merchant_aliases (alias, merchant_id)
+SELECT alias, md5('merchant:' || key)::uuid
+FROM (VALUES
+    ('пятерочка', 'pyaterochka'), ('pyaterochka', 'pyaterochka'), ('5ka', 'pyaterochka'),
+    ('магнит', 'magnit'), ('magnit', 'magnit'),
+    ('перекресток', 'perekrestok'), ('perekrestok', 'perekrestok'),
+    ('вкусвилл', 'vkusvill'), ('vkusvill', 'vkusvill'),
+    ('лента', 'lenta'), ('lenta', 'lenta'),
+    ('ашан', 'auchan'), ('auchan', 'auchan'),
+    ('яндекс такси', 'yandex-taxi'), ('yandex taxi', 'yandex-taxi'), ('yandex go', 'yandex-taxi'),
+    ('яндекс еда', 'yandex-eda'), ('yandex eda', 'yandex-eda'),
+    ('озон', 'ozon'), ('ozon', 'ozon'),
+    ('вайлдберриз', 'wildberries'), ('wildberries', 'wildberries'),
+    ('старбакс', 'starbucks'), ('starbucks', 'starbucks'),
+    ('вкусно и точка', 'vkusno-i-tochka'), ('vkusno i tochka', 'vkusno-i-tochka'),
+    ('kfc', 'kfc'), ('ростикс', 'kfc'), ('rostics', 'kfc'),
+    ('netflix', 'netflix'), ('spotify', 'spotify'),
+    ('apple com bill', 'apple'), ('itunes', 'apple'),
+    ('steam', 'steam'), ('steampowered', 'steam'),
+    ('аэрофлот', 'aeroflot'), ('aeroflot', 'aeroflot'),
+    ('ржд', 'rzd'), ('rzd', 'rzd'),
+    ('мтс', 'mts'), ('mts', 'mts'),
+    ('мегафон', 'megafon'), ('megafon', 'megafon'),
+    ('билайн', 'beeline'), ('beeline', 'beeline')
+) a(alias, key);
+
+-- Deferred: a new merchant is inserted at commit, after the rows that reference it
+ALTER TABLE transactions ADD COLUMN merchant_id UUID REFERENCES merchants(id) DEFERRABLE INITIALLY DEFERRED;
+-- Merchant filter and per-merchant totals for one user
+CREATE INDEX idx_transactions_user_merchant ON transactions(user_id, merchant_id, occurred_at DESC)
+    WHERE merchant_id IS NOT NULL;
+
+-- No foreign key, like the archive's other references; appended, so archive column order still
+-- matches transactions
+ALTER TABLE transactions_archive ADD COLUMN merchant_id UUID;
@@ -0,0 +1,17 @@
+-- V13__create_ingest_acks.sql
+-- Status of items accepted by POST /transactions/ingest. A row is written PENDING before the 202
+-- and settled in the same transaction as the item's batch, so any instance can answer a status
+-- poll, and an item lost with its instance's queue turns FAILED instead of disappearing.
+-- transaction_id has no foreign key: the transaction may be deleted or archived later.
+CREATE TABLE ingest_acks (
+    id UUID PRIMARY KEY,
+    user_id UUID NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    status VARCHAR(10) NOT NULL CHECK (status IN ('PENDING', 'COMMITTED', 'FAILED')),
+    transaction_id UUID,
+    error TEXT,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT NOW(),
+    updated_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT NOW()
+);
+
+CREATE INDEX idx_ingest_acks_pending ON ingest_acks(created_at) WHERE status = 'PENDING';
+CREATE INDEX idx_ingest_acks_settled ON ingest_acks(updated_at) WHERE status <> 'PENDING';
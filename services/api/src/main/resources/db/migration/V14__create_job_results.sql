@@ -0,0 +1,13 @@
+-- V14__create_job_results.sql
+-- Job results move from the worker's local disk into the database, so any instance can serve a
+-- download and the retention purge removes a result together with its job. Results built before
+-- this migration stay on disk and are reported as no longer available.
+CREATE TABLE job_results (
+    job_id UUID PRIMARY KEY REFERENCES jobs(id) ON DELETE CASCADE,
+    content BYTEA NOT NULL
+);
+
+-- PDF and XLSX are compressed already; TOAST would only spend CPU trying again
+ALTER TABLE job_results ALTER COLUMN content SET STORAGE EXTERNAL;
+
+ALTER TABLE jobs DROP COLUMN result_path;
@@ -0,0 +1,4 @@
+-- V15__add_job_lease_token.sql
+-- Random per claim: the worker holding it renews the lease and writes the outcome; a worker whose
+-- lease expired and was reclaimed no longer matches, so its late writes change nothing
+ALTER TABLE jobs ADD COLUMN lease_token UUID;
@@ -0,0 +1,58 @@
+-- V16__scope_fallback_merchants.sql
+-- Fallback merchants (the leading words of a note that matched no alias) belong to the user whose
+-- note they came from: they no longer join a dictionary shared by everyone and go away with the
+-- user. Their id is md5('merchant:' || user_id || ':' || key); the seeded merchants with aliases
+-- stay shared, with user_id NULL, and keep their ids.
+ALTER TABLE merchants ADD COLUMN user_id UUID REFERENCES users(id) ON DELETE CASCADE;
+ALTER TABLE merchants DROP CONSTRAINT merchants_key_key;
+CREATE UNIQUE INDEX uq_merchants_shared_key ON merchants(key) WHERE user_id IS NULL;
+CREATE INDEX idx_merchants_user ON merchants(user_id) WHERE user_id IS NOT NULL;
+
+CREATE TEMPORARY TABLE shared_fallback ON COMMIT DROP AS
+SELECT m.id, m.key, m.name FROM merchants m
+WHERE NOT EXISTS (SELECT 1 FROM merchant_aliases a WHERE a.merchant_id = m.id);
+
+INSERT INTO merchants (id, key, name, user_id)
+SELECT DISTINCT md5('merchant:' || t.user_id || ':' || f.key)::uuid, f.key, f.name, t.user_id
+FROM (SELECT user_id, merchant_id FROM transactions
+      UNION
+      SELECT user_id, merchant_id FROM transactions_archive) t
+JOIN shared_fallback f ON f.id = t.merchant_id;
+
+-- Re-pointed rows, hot and archived, go to the sync log so clients pick up the new merchant ids
+CREATE TEMPORARY TABLE remapped (id UUID PRIMARY KEY, user_id UUID NOT NULL) ON COMMIT DROP;
+
+WITH updated AS (
+    UPDATE transactions t SET merchant_id = md5('merchant:' || t.user_id || ':' || f.key)::uuid,
+        updated_at = NOW()
+    FROM shared_fallback f
+    WHERE f.id = t.merchant_id
+    RETURNING t.id, t.user_id
+)
+INSERT INTO remapped SELECT id, user_id FROM updated;
+
+-- A one-time rewrite of the write-once archive, so its rows keep their merchant
+WITH updated AS (
+    UPDATE transactions_archive t SET merchant_id = md5('merchant:' || t.user_id || ':' || f.key)::uuid
+    FROM shared_fallback f
+    WHERE f.id = t.merchant_id
+    RETURNING t.id, t.user_id
+)
+INSERT INTO remapped SELECT id, user_id FROM updated;
+
+DELETE FROM merchants m USING shared_fallback f WHERE m.id = f.id;
+
+INSERT INTO sync_state (user_id, seq)
+SELECT user_id, 0 FROM remapped GROUP BY user_id
+ON CONFLICT (user_id) DO NOTHING;
+
+INSERT INTO sync_changes (entity_type, entity_id, user_id, seq)
+SELECT 'TRANSACTION', r.id, r.user_id, s.seq + ROW_NUMBER() OVER (PARTITION BY r.user_id ORDER BY r.id)
+FROM remapped r
+JOIN sync_state s ON s.user_id = r.user_id
+ON CONFLICT (entity_type, entity_id) DO UPDATE
+SET seq = EXCLUDED.seq, deleted = FALSE, changed_at = NOW();
+
+UPDATE sync_state s SET seq = s.seq + r.changed
+FROM (SELECT user_id, COUNT(*) AS changed FROM remapped GROUP BY user_id) r
+WHERE s.user_id = r.user_id;
@@ -0,0 +1,11 @@
+-- V17__create_closed_period_versions.sql
+-- Version of a user's closed (past) UTC month, bumped by every write that lands in it: a back-dated
+-- transaction, an edit or delete of an old one, a deleted category. Instances cache closed months
+-- of the analytics series and compare these on read, so a write through another instance drops
+-- only the months it touched. Months never written to after they closed have no row (version 0).
+CREATE TABLE closed_period_versions (
+    user_id UUID NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    month DATE NOT NULL,
+    version BIGINT NOT NULL,
+    PRIMARY KEY (user_id, month)
+);
@@ -0,0 +1,8 @@
+-- V18__add_outbox_retry.sql
+-- A failed delivery is retried after a growing backoff. Until then it holds back only the later events
+-- of its aggregate; the partial index keeps that check to the few events waiting for a retry
+ALTER TABLE outbox_events ADD COLUMN attempts INT NOT NULL DEFAULT 0;
+ALTER TABLE outbox_events ADD COLUMN next_attempt_at TIMESTAMP WITH TIME ZONE;
+
+CREATE INDEX idx_outbox_retrying ON outbox_events(aggregate_id, id)
+    WHERE dispatched_at IS NULL AND next_attempt_at IS NOT NULL;
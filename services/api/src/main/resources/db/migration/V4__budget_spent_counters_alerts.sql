@@ -0,0 +1,25 @@
+-- V4__budget_spent_counters_alerts.sql
+ALTER TABLE budgets ADD COLUMN spent_amount DECIMAL(14,2) NOT NULL DEFAULT 0;
+
+UPDATE budgets b SET spent_amount = COALESCE((
+    SELECT SUM(t.amount) FROM transactions t
+    WHERE t.user_id = b.user_id
+    AND t.category_id = b.category_id
+    AND t.type = 'EXPENSE'
+    AND t.occurred_at >= make_timestamptz(b.year, b.month, 1, 0, 0, 0, 'UTC')
+    AND t.occurred_at < make_timestamptz(b.year, b.month, 1, 0, 0, 0, 'UTC') + INTERVAL '1 month'
+), 0);
+
+CREATE TABLE budget_alerts (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    user_id UUID NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    budget_id UUID NOT NULL REFERENCES budgets(id) ON DELETE CASCADE,
+    threshold INT NOT NULL CHECK (threshold > 0),
+    spent_amount DECIMAL(14,2) NOT NULL,
+    limit_amount DECIMAL(14,2) NOT NULL,
+    acknowledged BOOLEAN NOT NULL DEFAULT FALSE,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT NOW(),
+    UNIQUE(budget_id, threshold)
+);
+
+CREATE INDEX idx_budget_alerts_user ON budget_alerts(user_id, created_at DESC);
@@ -0,0 +1,14 @@
+-- V5__create_outbox_events.sql
+CREATE TABLE outbox_events (
+    id BIGSERIAL PRIMARY KEY,
+    user_id UUID NOT NULL,
+    aggregate_type VARCHAR(20) NOT NULL,
+    aggregate_id UUID NOT NULL,
+    change_type VARCHAR(10) NOT NULL CHECK (change_type IN ('CREATED', 'UPDATED', 'DELETED')),
+    payload JSONB,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT NOW(),
+    dispatched_at TIMESTAMP WITH TIME ZONE
+);
+
+CREATE INDEX idx_outbox_pending ON outbox_events(id) WHERE dispatched_at IS NULL;
+CREATE INDEX idx_outbox_dispatched ON outbox_events(dispatched_at) WHERE dispatched_at IS NOT NULL;
@@ -0,0 +1,39 @@
+-- V6__create_accounts.sql
+CREATE TABLE accounts (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    user_id UUID NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    name VARCHAR(100) NOT NULL,
+    currency VARCHAR(3) NOT NULL DEFAULT 'RUB',
+    opening_balance DECIMAL(14,2) NOT NULL DEFAULT 0,
+    balance DECIMAL(14,2) NOT NULL DEFAULT 0,
+    archived BOOLEAN NOT NULL DEFAULT FALSE,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT NOW(),
+    updated_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT NOW(),
+    UNIQUE(user_id, name)
+);
+
+CREATE INDEX idx_accounts_user ON accounts(user_id);
+
+ALTER TABLE transactions ADD COLUMN account_id UUID REFERENCES accounts(id) ON DELETE RESTRICT;
+ALTER TABLE transactions ADD COLUMN counter_account_id UUID REFERENCES accounts(id) ON DELETE RESTRICT;
+
+-- Existing TRANSFER rows predate accounts, so the rule only applies to new writes
+ALTER TABLE transactions ADD CONSTRAINT chk_transactions_transfer_accounts CHECK (
+    (type = 'TRANSFER' AND account_id IS NOT NULL AND counter_account_id IS NOT NULL
+        AND account_id <> counter_account_id)
+    OR (type <> 'TRANSFER' AND counter_account_id IS NULL)
+) NOT VALID;
+
+CREATE INDEX idx_transactions_account_date ON transactions(account_id, occurred_at)
+    WHERE account_id IS NOT NULL;
+CREATE INDEX idx_transactions_counter_account_date ON transactions(counter_account_id, occurred_at)
+    WHERE counter_account_id IS NOT NULL;
+
+-- balance = opening_balance + effect of every transaction with occurred_at < as_of
+CREATE TABLE account_balance_checkpoints (
+    account_id UUID NOT NULL REFERENCES accounts(id) ON DELETE CASCADE,
+    as_of TIMESTAMP WITH TIME ZONE NOT NULL,
+    balance DECIMAL(14,2) NOT NULL,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT NOW(),
+    PRIMARY KEY (account_id, as_of)
+);
@@ -0,0 +1,21 @@
+-- V7__create_jobs.sql
+CREATE TABLE jobs (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    user_id UUID NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    type VARCHAR(30) NOT NULL,
+    status VARCHAR(10) NOT NULL CHECK (status IN ('QUEUED', 'RUNNING', 'DONE', 'FAILED')),
+    params JSONB NOT NULL,
+    attempts INT NOT NULL DEFAULT 0,
+    -- QUEUED: not claimable before this (retry backoff); RUNNING: lease, reclaimable after it
+    locked_until TIMESTAMP WITH TIME ZONE,
+    result_path VARCHAR(500),
+    result_size BIGINT,
+    error TEXT,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT NOW(),
+    started_at TIMESTAMP WITH TIME ZONE,
+    finished_at TIMESTAMP WITH TIME ZONE
+);
+
+CREATE INDEX idx_jobs_claimable ON jobs(created_at) WHERE status IN ('QUEUED', 'RUNNING');
+CREATE INDEX idx_jobs_user ON jobs(user_id, created_at DESC);
+CREATE INDEX idx_jobs_finished ON jobs(finished_at) WHERE finished_at IS NOT NULL;
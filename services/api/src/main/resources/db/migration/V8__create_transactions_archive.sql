@@ -0,0 +1,29 @@
+-- V8__create_transactions_archive.sql
+-- Cold storage for transactions older than the archive horizon. Rows are written once by the
+-- archive job and never updated, so the table carries only what reads by user and period need:
+-- fixed-width columns first (no alignment padding), no CHECKs, no category/account foreign keys
+-- (their ON DELETE actions would scan the whole table; the application clears them by user
+-- instead) and a single secondary index.
+CREATE TABLE transactions_archive (
+    id UUID PRIMARY KEY,
+    user_id UUID NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    category_id UUID,
+    account_id UUID,
+    counter_account_id UUID,
+    occurred_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    updated_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    amount DECIMAL(14,2) NOT NULL,
+    type VARCHAR(10) NOT NULL,
+    currency VARCHAR(3) NOT NULL,
+    note TEXT
+) WITH (fillfactor = 100);
+
+CREATE INDEX idx_transactions_archive_user_date ON transactions_archive(user_id, occurred_at DESC);
+
+-- Single row per shard: transactions before 'horizon' may be archived and are read-only
+CREATE TABLE transaction_archive_state (
+    id BOOLEAN PRIMARY KEY DEFAULT TRUE CHECK (id),
+    horizon TIMESTAMP WITH TIME ZONE NOT NULL,
+    published_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT NOW()
+);
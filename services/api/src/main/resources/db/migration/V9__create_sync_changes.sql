@@ -0,0 +1,44 @@
+-- V9__create_sync_changes.sql
+-- Delta sync for clients (GET /sync/changes). Every change gets the next number of its user's
+-- sequence; the increment locks the user's sync_state row until commit, so a user's changes
+-- commit in sequence order and a cursor never skips one that committed late. purged_seq is the
+-- highest tombstone already purged: cursors below it must resync from scratch.
+CREATE TABLE sync_state (
+    user_id UUID PRIMARY KEY REFERENCES users(id) ON DELETE CASCADE,
+    seq BIGINT NOT NULL DEFAULT 0,
+    purged_seq BIGINT NOT NULL DEFAULT 0
+);
+
+-- Latest change per entity, so the log stays as large as the data; deleted rows are tombstones
+CREATE TABLE sync_changes (
+    entity_type VARCHAR(20) NOT NULL,
+    entity_id UUID NOT NULL,
+    user_id UUID NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    seq BIGINT NOT NULL,
+    deleted BOOLEAN NOT NULL DEFAULT FALSE,
+    changed_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT NOW(),
+    PRIMARY KEY (entity_type, entity_id)
+);
+
+CREATE INDEX idx_sync_changes_user_seq ON sync_changes(user_id, seq);
+CREATE INDEX idx_sync_changes_tombstones ON sync_changes(changed_at) WHERE deleted;
+
+-- Existing data, so the first sync without a cursor returns everything
+INSERT INTO sync_changes (entity_type, entity_id, user_id, seq, changed_at)
+SELECT entity_type, entity_id, user_id,
+       ROW_NUMBER() OVER (PARTITION BY user_id ORDER BY changed_at, entity_id), changed_at
+FROM (
+    SELECT 'CATEGORY' AS entity_type, id AS entity_id, user_id, updated_at AS changed_at FROM categories
+    UNION ALL
+    SELECT 'BUDGET', id, user_id, updated_at FROM budgets
+    UNION ALL
+    SELECT 'TRANSACTION', id, user_id, updated_at FROM transactions
+    UNION ALL
+    SELECT 'TRANSACTION', id, user_id, updated_at FROM transactions_archive
+) existing;
+
+INSERT INTO sync_state (user_id, seq)
+SELECT u.id, COALESCE(MAX(c.seq), 0)
+FROM users u
+LEFT JOIN sync_changes c ON c.user_id = u.id
+GROUP BY u.id;
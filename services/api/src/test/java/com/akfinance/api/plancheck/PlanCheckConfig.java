@@ -0,0 +1,24 @@
+package com.akfinance.api.plancheck;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import javax.sql.DataSource;
+
+@TestConfiguration(proxyBeanMethods = false)
+class PlanCheckConfig {
+
+    // Static: post-processors are created before the rest of the configuration
+    @Bean
+    static BeanPostProcessor statementCapturePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return bean instanceof DataSource dataSource && !(bean instanceof StatementCapture)
+                        ? new StatementCapture(dataSource)
+                        : bean;
+            }
+        };
+    }
+}
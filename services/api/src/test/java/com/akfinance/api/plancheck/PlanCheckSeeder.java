@@ -0,0 +1,181 @@
+package com.akfinance.api.plancheck;
+
+import com.akfinance.api.repository.TransactionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Dataset for {@link PlanCheckTest}, generated inside PostgreSQL: users with 12 categories, 3
+ * accounts, 7 merchants, a year of budgets and monthly balance checkpoints each, and transactions
+ * spread over three years, all in the sync log. Rows are inserted in occurred_at order, as real
+ * traffic arrives, so a user's rows are scattered across the heap. Everything older than two years
+ * is then archived. The queue tables (jobs, outbox, ingest acks) hold mostly finished rows with a
+ * few pending, as a running instance keeps them, and each user has budget alerts and API keys.
+ */
+@Slf4j
+class PlanCheckSeeder {
+
+    static final String EMAIL_PATTERN = "plan-check-%@example.test";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionRepository transactionRepository;
+    private final int users;
+    private final int transactionsPerUser;
+
+    PlanCheckSeeder(JdbcTemplate jdbcTemplate, TransactionRepository transactionRepository, int users,
+            int transactionsPerUser) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionRepository = transactionRepository;
+        this.users = users;
+        this.transactionsPerUser = transactionsPerUser;
+    }
+
+    // Refuses anything but an empty database or one it seeded itself
+    List<UUID> seed() {
+        Long foreign = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM users WHERE email NOT LIKE ?", Long.class, EMAIL_PATTERN);
+        if (foreign != null && foreign > 0)
+            throw new IllegalStateException("Plan check needs a dedicated database; this one has real users");
+
+        List<UUID> seeded = userIds();
+        if (!seeded.isEmpty()) {
+            log.info("Plan check dataset already present: {} users", seeded.size());
+            return seeded;
+        }
+
+        long started = System.nanoTime();
+        jdbcTemplate.update("""
+                INSERT INTO users (email, password_hash)
+                SELECT 'plan-check-' || g || '@example.test', 'x' FROM generate_series(1, ?) g
+                """, users);
+        jdbcTemplate.update("""
+                INSERT INTO categories (user_id, name, type)
+                SELECT u.id, 'Category ' || lpad(c::text, 2, '0'), CASE WHEN c <= 3 THEN 'INCOME' ELSE 'EXPENSE' END
+                FROM users u, generate_series(1, 12) c
+                """);
+        jdbcTemplate.update("""
+                INSERT INTO accounts (user_id, name, currency)
+                SELECT u.id, 'Account ' || a, 'RUB' FROM users u, generate_series(1, 3) a
+                """);
+        jdbcTemplate.update("""
+                INSERT INTO merchants (id, key, name, user_id)
+                SELECT md5('merchant:' || u.id || ':shop ' || k)::uuid, 'shop ' || k, 'Shop ' || k, u.id
+                FROM users u, generate_series(0, 6) k
+                """);
+        jdbcTemplate.update("""
+                INSERT INTO budgets (user_id, category_id, month, year, limit_amount, currency)
+                SELECT c.user_id, c.id, EXTRACT(MONTH FROM m)::int, EXTRACT(YEAR FROM m)::int, 20000, 'RUB'
+                FROM categories c,
+                     generate_series(date_trunc('month', NOW()) - INTERVAL '11 months', date_trunc('month', NOW()),
+                         INTERVAL '1 month') m
+                WHERE c.type = 'EXPENSE'
+                """);
+        jdbcTemplate.update("""
+                INSERT INTO transactions (user_id, type, amount, currency, occurred_at, category_id, account_id, note,
+                                          merchant_id)
+                SELECT user_id, type, amount, 'RUB', occurred_at, category_id, account_id, note, merchant_id FROM (
+                    SELECT u.id AS user_id,
+                           CASE WHEN g % 12 < 3 THEN 'INCOME' ELSE 'EXPENSE' END AS type,
+                           round((random() * 5000 + 1)::numeric, 2) AS amount,
+                           NOW() - random() * INTERVAL '3 years' AS occurred_at,
+                           CASE WHEN g % 10 = 0 THEN NULL ELSE c.ids[g % 12 + 1] END AS category_id,
+                           a.ids[g % 3 + 1] AS account_id,
+                           CASE WHEN g % 4 = 0 THEN 'note ' || md5(g::text) END AS note,
+                           CASE WHEN g % 5 = 0 THEN md5('merchant:' || u.id || ':shop ' || g % 7)::uuid END
+                               AS merchant_id
+                    FROM users u
+                    CROSS JOIN LATERAL (SELECT array_agg(id ORDER BY name) AS ids
+                        FROM categories WHERE user_id = u.id) c
+                    CROSS JOIN LATERAL (SELECT array_agg(id ORDER BY name) AS ids
+                        FROM accounts WHERE user_id = u.id) a
+                    CROSS JOIN generate_series(1, ?) g
+                ) rows
+                ORDER BY occurred_at
+                """, transactionsPerUser);
+        jdbcTemplate.update("""
+                INSERT INTO account_balance_checkpoints (account_id, as_of, balance)
+                SELECT a.id, date_trunc('month', NOW()) - m * INTERVAL '1 month', 0
+                FROM accounts a, generate_series(0, 35) m
+                """);
+
+        jdbcTemplate.update("""
+                INSERT INTO budget_alerts (user_id, budget_id, threshold, spent_amount, limit_amount, created_at)
+                SELECT user_id, id, 80, 16000, limit_amount, updated_at FROM budgets WHERE month % 3 = 0
+                """);
+        jdbcTemplate.update("""
+                INSERT INTO api_keys (user_id, name, key_hash, hint, scopes, revoked_at)
+                SELECT u.id, 'Key ' || k, sha256(convert_to(u.id || ':' || k, 'UTF8')), 'ak_' || k, '["read"]',
+                       CASE WHEN k = 1 THEN NOW() END
+                FROM users u, generate_series(1, 3) k
+                """);
+        // One in twenty users has a queued job, a pending ingest ack and an outbox event waiting for a retry
+        jdbcTemplate.update("""
+                INSERT INTO jobs (user_id, type, status, params, attempts, created_at, finished_at)
+                SELECT u.id, 'STATEMENT', CASE WHEN j = 0 THEN 'QUEUED' ELSE 'DONE' END, '{}', 1,
+                       NOW() - j * INTERVAL '1 day', CASE WHEN j > 0 THEN NOW() - j * INTERVAL '1 day' END
+                FROM users u, generate_series(0, 10) j
+                WHERE j > 0 OR abs(hashtext(u.id::text)) % 20 = 0
+                """);
+        jdbcTemplate.update("""
+                INSERT INTO ingest_acks (id, user_id, status, transaction_id, created_at, updated_at)
+                SELECT gen_random_uuid(), u.id, CASE WHEN a = 0 THEN 'PENDING' ELSE 'COMMITTED' END,
+                       CASE WHEN a > 0 THEN gen_random_uuid() END,
+                       NOW() - a * INTERVAL '1 hour', NOW() - a * INTERVAL '1 hour'
+                FROM users u, generate_series(0, 50) a
+                WHERE a > 0 OR abs(hashtext(u.id::text)) % 20 = 0
+                """);
+        jdbcTemplate.update("""
+                INSERT INTO outbox_events (user_id, aggregate_type, aggregate_id, change_type, created_at,
+                                           dispatched_at, attempts, next_attempt_at)
+                SELECT t.user_id, 'TRANSACTION', t.id, 'CREATED', t.occurred_at,
+                       CASE WHEN pending THEN NULL ELSE t.occurred_at + INTERVAL '1 second' END,
+                       CASE WHEN pending THEN 1 ELSE 0 END,
+                       CASE WHEN pending THEN NOW() + INTERVAL '1 minute' END
+                FROM (
+                    SELECT user_id, id, occurred_at,
+                           ROW_NUMBER() OVER (PARTITION BY user_id ORDER BY occurred_at DESC) = 1
+                               AND abs(hashtext(user_id::text)) % 20 = 0 AS pending
+                    FROM transactions
+                    WHERE occurred_at > NOW() - INTERVAL '7 days'
+                ) t
+                ORDER BY t.occurred_at
+                """);
+        jdbcTemplate.update("""
+                INSERT INTO sync_changes (entity_type, entity_id, user_id, seq)
+                SELECT entity_type, entity_id, user_id, ROW_NUMBER() OVER (PARTITION BY user_id ORDER BY changed_at)
+                FROM (
+                    SELECT 'CATEGORY' AS entity_type, id AS entity_id, user_id, updated_at AS changed_at FROM categories
+                    UNION ALL
+                    SELECT 'BUDGET', id, user_id, updated_at FROM budgets
+                    UNION ALL
+                    SELECT 'TRANSACTION', id, user_id, occurred_at FROM transactions
+                ) existing
+                """);
+        jdbcTemplate.update("""
+                INSERT INTO sync_state (user_id, seq)
+                SELECT user_id, MAX(seq) FROM sync_changes GROUP BY user_id
+                """);
+
+        seeded = userIds();
+        Instant horizon = LocalDate.now(ZoneOffset.UTC).atStartOfDay().toInstant(ZoneOffset.UTC)
+                .minus(Duration.ofDays(730));
+        int archived = transactionRepository.archiveBefore(seeded, horizon);
+        transactionRepository.publishArchiveHorizon(horizon);
+        jdbcTemplate.execute("ANALYZE");
+        log.info("Seeded plan check dataset: {} users, {} transactions ({} archived) in {} ms", seeded.size(),
+                (long) seeded.size() * transactionsPerUser, archived, (System.nanoTime() - started) / 1_000_000);
+        return seeded;
+    }
+
+    private List<UUID> userIds() {
+        return jdbcTemplate.queryForList("SELECT id FROM users WHERE email LIKE ? ORDER BY email",
+                UUID.class, EMAIL_PATTERN);
+    }
+}
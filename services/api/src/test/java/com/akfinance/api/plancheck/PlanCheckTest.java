@@ -0,0 +1,482 @@
+package com.akfinance.api.plancheck;
+
+import com.akfinance.api.domain.enums.AggregateType;
+import com.akfinance.api.domain.enums.JobStatus;
+import com.akfinance.api.domain.enums.TransactionType;
+import com.akfinance.api.dto.transaction.TransactionFilter;
+import com.akfinance.api.plancheck.StatementCapture.Captured;
+import com.akfinance.api.repository.AccountRepository;
+import com.akfinance.api.repository.AmountSketchRepository;
+import com.akfinance.api.repository.AmountSketchRepository.SketchKey;
+import com.akfinance.api.repository.ApiKeyRepository;
+import com.akfinance.api.repository.BudgetAlertRepository;
+import com.akfinance.api.repository.BudgetRepository;
+import com.akfinance.api.repository.CategoryRepository;
+import com.akfinance.api.repository.IngestAckRepository;
+import com.akfinance.api.repository.JobRepository;
+import com.akfinance.api.repository.MerchantRepository;
+import com.akfinance.api.repository.OutboxEventRepository;
+import com.akfinance.api.repository.SyncChangeRepository;
+import com.akfinance.api.repository.SyncChangeRepository.EntityKey;
+import com.akfinance.api.repository.TransactionRepository;
+import com.akfinance.api.repository.TransactionSpecifications;
+import com.akfinance.api.service.TransactionService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.TestFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * EXPLAIN-plan regression check against a throwaway PostgreSQL in a container (skipped without
+ * Docker). Seeds {@link PlanCheckSeeder}'s dataset, runs every case in a rolled-back transaction
+ * while {@link StatementCapture} records its statements, and replays each one under
+ * {@code EXPLAIN (FORMAT JSON)} with the same parameters. A case fails when one of its expected
+ * indexes is gone from its plans, a large table is read with a sequential scan, or a statement's
+ * estimated cost is over {@code max-cost}. All plans are written to {@code report}. The dataset
+ * size and limits are system properties: {@code -Dapp.plan-check.users=50}. Tagged, so that only
+ * {@code mvn test -Pplan-check} seeds and runs it.
+ */
+@Tag("plan-check")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@Import(PlanCheckConfig.class)
+@Testcontainers(disabledWithoutDocker = true)
+class PlanCheckTest {
+
+    private static final Set<String> LARGE_TABLES = Set.of("transactions", "transactions_archive",
+            "account_balance_checkpoints", "budgets", "sync_changes", "outbox_events", "ingest_acks", "jobs");
+    private static final String[] FILTER_FIELDS =
+            { "from", "to", "type", "categoryId", "accountId", "merchantId", "minAmount", "maxAmount", "q" };
+    // Any index that leads with the user (or the account) will do for a filtered list of the hot table
+    private static final String HOT_INDEXES = String.join("|", "idx_transactions_user_date",
+            "idx_transactions_user_category", "idx_transactions_user_merchant", "idx_transactions_user_type",
+            "idx_transactions_user", "idx_transactions_account_date");
+
+    @Container
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine")
+            .withTmpFs(Map.of("/var/lib/postgresql/data", "rw"));
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+    }
+
+    @Autowired
+    private TransactionService transactionService;
+    @Autowired
+    private TransactionRepository transactionRepository;
+    @Autowired
+    private AccountRepository accountRepository;
+    @Autowired
+    private BudgetRepository budgetRepository;
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private SyncChangeRepository syncChangeRepository;
+    @Autowired
+    private AmountSketchRepository amountSketchRepository;
+    @Autowired
+    private JobRepository jobRepository;
+    @Autowired
+    private OutboxEventRepository outboxRepository;
+    @Autowired
+    private BudgetAlertRepository alertRepository;
+    @Autowired
+    private ApiKeyRepository apiKeyRepository;
+    @Autowired
+    private IngestAckRepository ingestAckRepository;
+    @Autowired
+    private MerchantRepository merchantRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${app.plan-check.users:300}")
+    private int users;
+
+    @Value("${app.plan-check.transactions-per-user:2000}")
+    private int transactionsPerUser;
+
+    @Value("${app.plan-check.max-cost:10000}")
+    private double maxCost;
+
+    @Value("${app.plan-check.report:target/plan-check.json}")
+    private Path report;
+
+    @TestFactory
+    Stream<DynamicTest> queryPlans() {
+        PlanCheckSeeder seeder = new PlanCheckSeeder(jdbcTemplate, transactionRepository, users, transactionsPerUser);
+        Subject subject = subject(seeder.seed().get(0));
+        List<PlanCase> cases = new ArrayList<>(repositoryCases(subject));
+        cases.addAll(filterCases(subject));
+
+        ArrayNode results = objectMapper.createArrayNode();
+        return cases.stream()
+                .map(planCase -> DynamicTest.dynamicTest(planCase.name(), () -> {
+                    List<String> problems = check(planCase, results.addObject());
+                    assertTrue(problems.isEmpty(), () -> String.join("; ", problems));
+                }))
+                .onClose(() -> writeReport(results));
+    }
+
+    private void writeReport(ArrayNode results) {
+        try {
+            Files.createDirectories(report.toAbsolutePath().getParent());
+            objectMapper.writerWithDefaultPrettyPrinter().writeValue(report.toFile(), results);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private List<PlanCase> repositoryCases(Subject s) {
+        UUID user = s.userId();
+        YearMonth month = YearMonth.now(ZoneOffset.UTC);
+        Instant monthStart = start(month);
+        Instant monthEnd = start(month.plusMonths(1));
+        Instant oldStart = start(month.minusMonths(30));
+        Instant oldEnd = start(month.minusMonths(29));
+        Instant yearAgo = start(month.minusMonths(11));
+        Instant recent = Instant.now().minus(Duration.ofDays(30));
+        Instant midnight = LocalDate.now(ZoneOffset.UTC).atStartOfDay().toInstant(ZoneOffset.UTC);
+        Pageable page = PageRequest.of(0, 20);
+        TransactionFilter recentCategory = TransactionFilter.builder()
+                .from(monthStart).categoryId(s.categoryId()).build();
+        TransactionFilter all = new TransactionFilter();
+
+        String userDate = "idx_transactions_user_date";
+        String archiveUserDate = "idx_transactions_archive_user_date";
+        String accountDate = "idx_transactions_account_date";
+        String userMerchant = "idx_transactions_user_merchant";
+        Pageable top = PageRequest.of(0, 5);
+        return List.of(
+                new PlanCase("Transaction.findByIdAndUserId", List.of("transactions_pkey"),
+                        () -> transactionRepository.findByIdAndUserId(s.transactionId(), user)),
+                new PlanCase("Transaction.existsByAccountIdOrCounterAccountId", List.of(accountDate),
+                        () -> transactionRepository.existsByAccountIdOrCounterAccountId(s.accountId(), s.accountId())),
+                new PlanCase("Transaction.findByUserIdOrderByOccurredAtDesc", List.of(userDate),
+                        () -> transactionRepository.findByUserIdOrderByOccurredAtDesc(user, page)),
+                new PlanCase("Transaction.findByUserIdAndTypeOrderByOccurredAtDesc", List.of(userDate),
+                        () -> transactionRepository.findByUserIdAndTypeOrderByOccurredAtDesc(
+                                user, TransactionType.EXPENSE, page)),
+                new PlanCase("Transaction.sumByTypeAndPeriod", List.of(userDate),
+                        () -> transactionRepository.sumByTypeAndPeriod(
+                                user, TransactionType.EXPENSE, monthStart, monthEnd)),
+                new PlanCase("Transaction.sumByCategoryAndPeriod(type)", List.of(userDate),
+                        () -> transactionRepository.sumByCategoryAndPeriod(
+                                user, TransactionType.EXPENSE, monthStart, monthEnd)),
+                new PlanCase("Transaction.sumByMerchantAndPeriod", List.of(userMerchant + "|" + userDate),
+                        () -> transactionRepository.sumByMerchantAndPeriod(
+                                user, TransactionType.EXPENSE, monthStart, monthEnd, top)),
+                new PlanCase("Transaction.sumSeriesByPeriod", List.of(userDate),
+                        () -> transactionRepository.sumSeriesByPeriod(user, "week", yearAgo, monthEnd)),
+                new PlanCase("Transaction.sumByTypeAndPeriodWithArchive", List.of(userDate, archiveUserDate),
+                        () -> transactionRepository.sumByTypeAndPeriodWithArchive(user, "EXPENSE", oldStart, oldEnd)),
+                new PlanCase("Transaction.sumByCategoryAndPeriodWithArchive(type)", List.of(userDate, archiveUserDate),
+                        () -> transactionRepository.sumByCategoryAndPeriodWithArchive(
+                                user, "EXPENSE", oldStart, oldEnd)),
+                new PlanCase("Transaction.sumByMerchantAndPeriodWithArchive",
+                        List.of(userMerchant + "|" + userDate, archiveUserDate),
+                        () -> transactionRepository.sumByMerchantAndPeriodWithArchive(
+                                user, "EXPENSE", oldStart, oldEnd, top)),
+                new PlanCase("Transaction.sumSeriesByPeriodWithArchive", List.of(userDate, archiveUserDate),
+                        () -> transactionRepository.sumSeriesByPeriodWithArchive(user, "month", oldStart, monthEnd)),
+                new PlanCase("Transaction.existsArchivedByAccount", List.of(archiveUserDate),
+                        () -> transactionRepository.existsArchivedByAccount(user, s.accountId())),
+                new PlanCase("Transaction.clearArchivedCategory", List.of(archiveUserDate),
+                        () -> transactionRepository.clearArchivedCategory(user, s.categoryId())),
+                new PlanCase("Transaction.countByUserId", List.of(),
+                        () -> transactionRepository.countByUserId(user)),
+                new PlanCase("Transaction.findRows", List.of(),
+                        () -> transactionRepository.findRows(
+                                TransactionSpecifications.matching(user, recentCategory), 0, 21)),
+                new PlanCase("Transaction.findWindow", List.of(),
+                        () -> transactionRepository.findWindow(
+                                TransactionSpecifications.matching(user, recentCategory), 0, 21)),
+                new PlanCase("Transaction.findRowsWithArchive", List.of(userDate, archiveUserDate),
+                        () -> transactionRepository.findRowsWithArchive(user, all, 0, 21)),
+                new PlanCase("Transaction.countWithArchive", List.of(),
+                        () -> transactionRepository.countWithArchive(user, all)),
+                new PlanCase("Transaction.findArchivedRow", List.of("transactions_archive_pkey"),
+                        () -> transactionRepository.findArchivedRow(s.archivedId(), user)),
+                new PlanCase("Transaction.findRowsByIds", List.of("transactions_pkey", "transactions_archive_pkey"),
+                        () -> transactionRepository.findRowsByIds(user, List.of(s.transactionId(), s.archivedId()))),
+                new PlanCase("Transaction.archiveBefore", List.of(userDate),
+                        () -> transactionRepository.archiveBefore(List.of(user), oldEnd)),
+                new PlanCase("Transaction.deleteMatching", List.of(),
+                        () -> transactionRepository.deleteMatching(user, recentCategory, null, 10_001)),
+                new PlanCase("Transaction.recategorizeMatching", List.of(),
+                        () -> transactionRepository.recategorizeMatching(user, recentCategory, null, s.categoryId(),
+                                10_001)),
+                new PlanCase("Account.balanceAt", List.of(accountDate, "account_balance_checkpoints_pkey"),
+                        () -> accountRepository.balanceAt(s.accountId(), recent)),
+                new PlanCase("Account.balanceAtWithArchive", List.of(userDate, archiveUserDate),
+                        () -> accountRepository.balanceAtWithArchive(s.accountId(), oldEnd)),
+                new PlanCase("Account.insertCheckpoints", List.of(accountDate),
+                        () -> accountRepository.insertCheckpoints(List.of(s.accountId()), midnight)),
+                new PlanCase("Account.deleteCheckpointsAfter", List.of("account_balance_checkpoints_pkey"),
+                        () -> accountRepository.deleteCheckpointsAfter(List.of(s.accountId()), recent)),
+                new PlanCase("Budget.findByUserIdAndMonthAndYear", List.of(),
+                        () -> budgetRepository.findByUserIdAndMonthAndYear(
+                                user, month.getMonthValue(), month.getYear())),
+                new PlanCase("Budget.addSpent", List.of(),
+                        () -> budgetRepository.addSpent(
+                                user, s.categoryId(), month.getYear(), month.getMonthValue(), 100)),
+                new PlanCase("Budget.rollover", List.of(userDate),
+                        () -> budgetRepository.rollover(List.of(user), month.minusMonths(1).getYear(),
+                                month.minusMonths(1).getMonthValue(), month.getYear(), month.getMonthValue(),
+                                start(month.minusMonths(1)), monthStart, monthEnd, BigDecimal.ONE, true)),
+                new PlanCase("Budget.recountSpent",
+                        List.of("budgets_pkey", userDate + "|idx_transactions_user_category"),
+                        () -> budgetRepository.recountSpent(List.of(s.budgetId()), false)),
+                new PlanCase("Budget.recountSpent(archive)",
+                        List.of("budgets_pkey", userDate + "|idx_transactions_user_category", archiveUserDate),
+                        () -> budgetRepository.recountSpent(List.of(s.budgetId()), true)),
+                new PlanCase("Budget.findYearMatrix", List.of(userDate),
+                        () -> budgetRepository.findYearMatrix(user, month.getYear(), false)),
+                new PlanCase("Budget.findYearMatrix(archive)", List.of(userDate, archiveUserDate),
+                        () -> budgetRepository.findYearMatrix(user, month.minusMonths(30).getYear(), true)),
+                new PlanCase("Budget.findByUserIdAndIdIn", List.of("budgets_pkey"),
+                        () -> budgetRepository.findByUserIdAndIdIn(user, List.of(s.budgetId()))),
+                new PlanCase("Budget.findIdsByCategoryId", List.of(),
+                        () -> budgetRepository.findIdsByCategoryId(s.categoryId())),
+                new PlanCase("Category.findByUserId", List.of("idx_categories_user"),
+                        () -> categoryRepository.findByUserId(user)),
+                new PlanCase("Category.findByUserIdAndIdIn", List.of("categories_pkey"),
+                        () -> categoryRepository.findByUserIdAndIdIn(user, List.of(s.categoryId()))),
+                new PlanCase("Sync.findState", List.of("sync_state_pkey"),
+                        () -> syncChangeRepository.findState(user)),
+                new PlanCase("Sync.findAfter", List.of("idx_sync_changes_user_seq"),
+                        () -> syncChangeRepository.findAfter(user, 100, 501)),
+                new PlanCase("Sync.transactionsChanged", List.of("idx_sync_changes_user_seq"),
+                        () -> syncChangeRepository.transactionsChanged(user, 100, 600)),
+                new PlanCase("Sync.reserve+upsert", List.of("sync_state_pkey", "sync_changes_pkey"),
+                        () -> syncChangeRepository.upsert(user,
+                                Map.of(new EntityKey(AggregateType.TRANSACTION, s.transactionId()), false),
+                                syncChangeRepository.reserve(user, 1))),
+                new PlanCase("Sync.purgeTombstones", List.of("idx_sync_changes_tombstones"),
+                        () -> syncChangeRepository.purgeTombstones(recent, 1000)),
+                new PlanCase("Sketch.findRange", List.of(),
+                        () -> amountSketchRepository.findRange(user, month.minusMonths(11), month, s.categoryId())),
+                new PlanCase("Sketch.findAmounts", List.of(archiveUserDate),
+                        () -> amountSketchRepository.findAmounts(
+                                new SketchKey(user, month.minusMonths(30), s.categoryId(), "RUB"))),
+                new PlanCase("Sketch.lockStale", List.of(),
+                        () -> amountSketchRepository.lockStale(200)),
+                new PlanCase("Job.claimNext", List.of("idx_jobs_claimable"),
+                        () -> jobRepository.claimNext(600, UUID.randomUUID())),
+                new PlanCase("Job.countByUserIdAndStatusIn", List.of("idx_jobs_user"),
+                        () -> jobRepository.countByUserIdAndStatusIn(
+                                user, List.of(JobStatus.QUEUED, JobStatus.RUNNING))),
+                new PlanCase("Job.findByFinishedAtBefore", List.of("idx_jobs_finished"),
+                        () -> jobRepository.findByFinishedAtBefore(recent)),
+                new PlanCase("Outbox.claimBatch", List.of("idx_outbox_pending", "idx_outbox_retrying"),
+                        () -> outboxRepository.claimBatch(200)),
+                new PlanCase("Outbox.findOldestPendingCreatedAt", List.of("idx_outbox_pending"),
+                        () -> outboxRepository.findOldestPendingCreatedAt()),
+                new PlanCase("Outbox.markDispatched", List.of("outbox_events_pkey"),
+                        () -> outboxRepository.markDispatched(List.of(1L, 2L), Instant.now())),
+                new PlanCase("Outbox.scheduleRetry", List.of("outbox_events_pkey"),
+                        () -> outboxRepository.scheduleRetry(List.of(1L), Instant.now(), 1000, 900_000)),
+                new PlanCase("Outbox.deleteDispatchedBefore", List.of("idx_outbox_dispatched"),
+                        () -> outboxRepository.deleteDispatchedBefore(midnight)),
+                new PlanCase("BudgetAlert.findByUserId", List.of("idx_budget_alerts_user"),
+                        () -> alertRepository.findByUserId(user)),
+                new PlanCase("BudgetAlert.findByIdAndUserId", List.of("budget_alerts_pkey"),
+                        () -> alertRepository.findByIdAndUserId(UUID.randomUUID(), user)),
+                new PlanCase("BudgetAlert.deleteAboveThreshold", List.of("budget_alerts_budget_id_threshold_key"),
+                        () -> alertRepository.deleteAboveThreshold(s.budgetId(), 80)),
+                new PlanCase("ApiKey.findByKeyHash", List.of("idx_api_keys_hash"),
+                        () -> apiKeyRepository.findByKeyHash(s.keyHash())),
+                new PlanCase("ApiKey.findByUserIdOrderByCreatedAtDesc", List.of("idx_api_keys_user"),
+                        () -> apiKeyRepository.findByUserIdOrderByCreatedAtDesc(user)),
+                new PlanCase("ApiKey.countByUserIdAndRevokedAtIsNull", List.of("idx_api_keys_user"),
+                        () -> apiKeyRepository.countByUserIdAndRevokedAtIsNull(user)),
+                new PlanCase("IngestAck.claim", List.of("ingest_acks_pkey"),
+                        () -> ingestAckRepository.claim(List.of(UUID.randomUUID(), UUID.randomUUID()))),
+                new PlanCase("IngestAck.find", List.of("ingest_acks_pkey"),
+                        () -> ingestAckRepository.find(user, UUID.randomUUID())),
+                new PlanCase("IngestAck.failLost", List.of("idx_ingest_acks_pending"),
+                        () -> ingestAckRepository.failLost(recent, "lost")),
+                new PlanCase("IngestAck.purgeSettled", List.of("idx_ingest_acks_settled"),
+                        () -> ingestAckRepository.purgeSettled(recent)),
+                new PlanCase("Merchant.findAliases", List.of(),
+                        () -> merchantRepository.findAliases()),
+                new PlanCase("Merchant.insertIfAbsent", List.of(),
+                        () -> merchantRepository.insertIfAbsent(UUID.randomUUID(), "plan check", "Plan check", user)));
+    }
+
+    // Every subset of the filter; an unset 'from' also takes the archive path, which has to use its index too
+    private List<PlanCase> filterCases(Subject s) {
+        Instant from = Instant.now().minus(Duration.ofDays(90));
+        Instant to = Instant.now();
+        List<PlanCase> cases = new ArrayList<>();
+        for (int mask = 0; mask < 1 << FILTER_FIELDS.length; mask++) {
+            int m = mask;
+            String name = IntStream.range(0, FILTER_FIELDS.length)
+                    .filter(i -> has(m, i))
+                    .mapToObj(i -> FILTER_FIELDS[i])
+                    .collect(Collectors.joining(",", "getTransactions[", "]"));
+            List<String> expected = has(m, 0)
+                    ? List.of(HOT_INDEXES)
+                    : List.of(HOT_INDEXES, "idx_transactions_archive_user_date");
+            cases.add(new PlanCase(name, expected, () -> transactionService.getTransactions(s.userId(),
+                    has(m, 0) ? from : null,
+                    has(m, 1) ? to : null,
+                    has(m, 2) ? TransactionType.EXPENSE : null,
+                    has(m, 3) ? s.categoryId() : null,
+                    has(m, 4) ? s.accountId() : null,
+                    has(m, 5) ? s.merchantId() : null,
+                    has(m, 6) ? new BigDecimal("100") : null,
+                    has(m, 7) ? new BigDecimal("1000") : null,
+                    has(m, 8) ? "note" : null,
+                    PageRequest.of(0, 20))));
+        }
+        return cases;
+    }
+
+    private List<String> check(PlanCase planCase, ObjectNode result) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        List<Captured> statements = StatementCapture.record(() -> transactionTemplate.executeWithoutResult(status -> {
+            planCase.action().run();
+            status.setRollbackOnly();
+        }));
+
+        List<String> problems = new ArrayList<>();
+        Set<String> indexes = new TreeSet<>();
+        ArrayNode plans = objectMapper.createArrayNode();
+        for (Captured statement : statements) {
+            // estimateCount's own EXPLAIN; there is nothing under it to check
+            if (statement.sql().stripLeading().regionMatches(true, 0, "EXPLAIN", 0, 7))
+                continue;
+            JsonNode plan = explain(statement);
+            double cost = plan.path("Total Cost").asDouble();
+            if (cost > maxCost)
+                problems.add("cost %.0f over %.0f: %s".formatted(cost, maxCost, oneLine(statement.sql())));
+            walk(plan, indexes, problems);
+            plans.addObject().put("sql", statement.sql()).put("cost", cost).set("plan", plan);
+        }
+        if (plans.isEmpty())
+            problems.add("no statements captured");
+        for (String expected : planCase.expectedIndexes()) {
+            if (Arrays.stream(expected.split("\\|")).noneMatch(indexes::contains))
+                problems.add("expected index " + expected + " not used");
+        }
+
+        result.put("case", planCase.name());
+        result.putPOJO("indexes", indexes);
+        result.putPOJO("problems", problems);
+        result.set("statements", plans);
+        return problems;
+    }
+
+    private JsonNode explain(Captured statement) {
+        String json = jdbcTemplate.execute((ConnectionCallback<String>) con -> {
+            try (PreparedStatement ps = con.prepareStatement("EXPLAIN (FORMAT JSON) " + statement.sql())) {
+                statement.bind(ps);
+                try (ResultSet rs = ps.executeQuery()) {
+                    rs.next();
+                    return rs.getString(1);
+                }
+            }
+        });
+        try {
+            return objectMapper.readTree(json).path(0).path("Plan");
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable query plan", e);
+        }
+    }
+
+    private static void walk(JsonNode node, Set<String> indexes, List<String> problems) {
+        if (node.hasNonNull("Index Name"))
+            indexes.add(node.get("Index Name").asText());
+        String relation = node.path("Relation Name").asText();
+        if ("Seq Scan".equals(node.path("Node Type").asText()) && LARGE_TABLES.contains(relation))
+            problems.add("sequential scan on " + relation);
+        for (JsonNode child : node.path("Plans"))
+            walk(child, indexes, problems);
+    }
+
+    private Subject subject(UUID userId) {
+        return jdbcTemplate.queryForObject("""
+                SELECT (SELECT id FROM categories WHERE user_id = ? AND type = 'EXPENSE' ORDER BY name LIMIT 1),
+                       (SELECT id FROM accounts WHERE user_id = ? ORDER BY name LIMIT 1),
+                       (SELECT id FROM transactions WHERE user_id = ? ORDER BY occurred_at DESC LIMIT 1),
+                       (SELECT id FROM transactions_archive WHERE user_id = ? ORDER BY occurred_at DESC LIMIT 1),
+                       (SELECT id FROM budgets WHERE user_id = ? LIMIT 1),
+                       (SELECT id FROM merchants WHERE user_id = ? ORDER BY key LIMIT 1),
+                       (SELECT key_hash FROM api_keys WHERE user_id = ? ORDER BY name LIMIT 1)
+                """, (rs, i) -> new Subject(userId, rs.getObject(1, UUID.class), rs.getObject(2, UUID.class),
+                rs.getObject(3, UUID.class), rs.getObject(4, UUID.class), rs.getObject(5, UUID.class),
+                rs.getObject(6, UUID.class), rs.getBytes(7)),
+                userId, userId, userId, userId, userId, userId, userId);
+    }
+
+    private static boolean has(int mask, int field) {
+        return (mask & 1 << field) != 0;
+    }
+
+    private static Instant start(YearMonth month) {
+        return month.atDay(1).atStartOfDay().toInstant(ZoneOffset.UTC);
+    }
+
+    private static String oneLine(String sql) {
+        String line = sql.replaceAll("\\s+", " ").trim();
+        return line.length() > 160 ? line.substring(0, 160) + "..." : line;
+    }
+
+    // An entry of expectedIndexes may list alternatives separated by '|'
+    private record PlanCase(String name, List<String> expectedIndexes, Runnable action) {
+    }
+
+    private record Subject(UUID userId, UUID categoryId, UUID accountId, UUID transactionId, UUID archivedId,
+            UUID budgetId, UUID merchantId, byte[] keyHash) {
+    }
+}
@@ -0,0 +1,104 @@
+package com.akfinance.api.plancheck;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records the SQL and parameter bindings of every prepared statement the current thread executes
+ * inside {@link #record}, whether it comes from Hibernate, a native query or a JdbcTemplate, so it
+ * can be replayed under EXPLAIN with the same values.
+ */
+class StatementCapture extends DelegatingDataSource {
+
+    private static final ThreadLocal<List<Captured>> RECORDING = new ThreadLocal<>();
+
+    StatementCapture(DataSource target) {
+        super(target);
+    }
+
+    static List<Captured> record(Runnable action) {
+        List<Captured> captured = new ArrayList<>();
+        RECORDING.set(captured);
+        try {
+            action.run();
+        } finally {
+            RECORDING.remove();
+        }
+        return captured;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(super.getConnection(username, password));
+    }
+
+    private static Connection wrap(Connection connection) {
+        return proxy(Connection.class, (method, args) -> {
+            Object result = method.invoke(connection, args);
+            if (method.getName().equals("prepareStatement") && result instanceof PreparedStatement statement)
+                return wrap(statement, (String) args[0]);
+            return result;
+        });
+    }
+
+    // Setters declared on PreparedStatement are the parameter bindings; Statement's are options
+    private static PreparedStatement wrap(PreparedStatement statement, String sql) {
+        List<Binding> bindings = new ArrayList<>();
+        return proxy(PreparedStatement.class, (method, args) -> {
+            String name = method.getName();
+            if (method.getDeclaringClass() == PreparedStatement.class && name.startsWith("set")) {
+                bindings.add(new Binding(method, args));
+            } else if (name.equals("clearParameters")) {
+                bindings.clear();
+            } else if (name.startsWith("execute") && RECORDING.get() != null) {
+                RECORDING.get().add(new Captured(sql, List.copyOf(bindings)));
+            }
+            return method.invoke(statement, args);
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, Handler handler) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, (proxy, method, args) -> {
+            try {
+                return handler.handle(method, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        });
+    }
+
+    private interface Handler {
+        Object handle(Method method, Object[] args) throws Throwable;
+    }
+
+    record Captured(String sql, List<Binding> bindings) {
+
+        void bind(PreparedStatement statement) throws SQLException {
+            for (Binding binding : bindings) {
+                try {
+                    binding.method().invoke(statement, binding.args());
+                } catch (ReflectiveOperationException e) {
+                    throw new SQLException("Cannot replay " + binding.method().getName(), e);
+                }
+            }
+        }
+    }
+
+    record Binding(Method method, Object[] args) {
+    }
+}